@@ -106,9 +106,11 @@ def import_data_api(instr_lst):
 
     #logger.info(r.status_code)  logger.info(r.text)
 
-    if r.status_code == 200 and r.text == "ok":
+    # first line is the overall status, then one line per instrument with its import time
+    if r.status_code == 200 and r.text.split('\n')[0] == "ok":
         res_jsn['status_code'] = 200
         res_jsn['status_msg'] = 'ok'
+        res_jsn['status_detail'] = r.text.split('\n')[1:]
     elif r.status_code == 200:
         res_jsn['status_code'] = 200
         res_jsn['status_msg'] = r.text
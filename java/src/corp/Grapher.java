@@ -81,9 +81,9 @@ public class Grapher {
 	}
 
     for (int i=0; i<series_fd[0].length; i++) {
-        String dy = InstrDep.getDay(i + session.InstrDep.maxDysBk);   //***
-		String mt = InstrDep.getMonth(i + session.InstrDep.maxDysBk);
-		String yr = InstrDep.getYear(i + session.InstrDep.maxDysBk);
+        String dy = InstrDep.getDay(i + session.getBegDyIdx());   //***
+		String mt = InstrDep.getMonth(i + session.getBegDyIdx());
+		String yr = InstrDep.getYear(i + session.getBegDyIdx());
 		series_dtstr[i] = "'" + mt + "/" + dy + "/" + yr + "'";
 	}	
 	
@@ -4,17 +4,26 @@ import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.text.DateFormat;
 import java.text.Format;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.HashSet;
 
 
 public class ImportDataConvert {
@@ -34,14 +43,18 @@ public class ImportDataConvert {
   private Instr InstrX;
   
   private BufferedReader bufRdrMin;
+  private double[] prcData;           //* row major prc being filled, grown as days come in
+  private ArrayList<Date> dtsLst;     //* prcDate being filled
   
-  private ArrayList<Date> dtsUniqueLst;
-  private String[] timeStampShifted;
+  private int[] colOfMinute;          //* minute of day in file => prc col, -1 if none
+  private HashSet<Integer> excludeKeys;   //* yyyymmdd
   ///private String[][] timeStampShifted_DA;
   //private String[][] daDlsDtStr;
   
   private Calendar cal_i = new GregorianCalendar();
   
+  public final static int APPEND_HEADROOM_DYS = 64;   //* days allocated past the last one on append
+  
   
   public ImportDataConvert() {
   }
@@ -52,7 +65,15 @@ public class ImportDataConvert {
   }
   */
   public void go(int instrKey) throws Exception{
-	InstrX = Instr.getInstance(instrKey);  
+	synchronized (Instr.getImportLock(instrKey)) {
+	  goVersion(instrKey);
+	}
+  }
+  
+  
+  //* Fills a new version of the instr, published only once complete - see Instr.newVersion
+  private void goVersion(int instrKey) throws Exception{
+	InstrX = Instr.newVersion(instrKey);  
 	
 	//Gui.jtextArea.append("Checking hol file for " + InstrX.fileDailyName + "...\n");
 	//Gui.jtextArea.append("Checking exclude file for " + InstrX.fileDailyName + "...\n");  		  
@@ -65,77 +86,230 @@ public class ImportDataConvert {
 	excludeDatesX = new ImportExclude();
 	excludeDatesX.importFile(instrKey);
 	
-	String inFile_Path = AGlobal.DATA_IN_DIR + InstrX.fileMinName;
-	File inFile;
-	inFile = new File(inFile_Path);    
-	bufRdrMin = new BufferedReader(new FileReader(inFile));
+	//* Binary store written by a previous import - skips parsing the ascii file entirely
+	if (InstrStore.load(InstrX)) {
+	  Instr.publish(InstrX);
+	  return;
+	}
 	
-	setTimeStampsAndArrayDepths_24();
+	File inFile = new File(AGlobal.DATA_IN_DIR + InstrX.fileMinName);
+	openMin_24(inFile, 0);
 	
-    //if(instrKey == 1)
-	//  setTimeStampsAndArrayDepths_DA();
-	         
-    //* reset to start of file - actual prices
-	bufRdrMin = new BufferedReader(new FileReader(new File(inFile_Path)));
-	//if (instrKey==1)
-	//  remplieMin_DA();
-	//else
-	remplieMin_24();
+	setTimeStamps_24();
 	
-	//* Scrub prices
-	scrubPrices_24();
+	//* One pass: fill prices, hi/lo and scrub each day as it completes - ~1400 lines of ~45 chars a day
+	int cols = InstrX.lastCol+1;
+	int capDys = (int)Math.max(256, inFile.length() / (45L*1400) + 16);
+	prcData = new double[capDys*cols];
+	dtsLst = new ArrayList<Date>(capDys);
+	remplieMin_24(-1, 0.0);
+	bufRdrMin.close();
+	
+	InstrX.prc = new PrcMatrix(dtsLst.size(), cols, prcData);
+	InstrX.prcDate = dtsLst.toArray(new Date[dtsLst.size()]);
+	InstrX.setCalendar();
 	
 	//* Output files
 	outputNewRawFile_Xmin(1);
 	outputNewRawFile_Xmin(5);
     outputNewRawFile_Xmin(10);
 	
-	bufRdrMin.close();	
+	InstrStore.write(InstrX);
+	
+	Instr.publish(InstrX);
   }
   
   
-  private void setTimeStampsAndArrayDepths_24() throws Exception{
-			 
-    /* 0) First get nbr of rows 
-	 * But in 24 version use min file for unique dates vs daily file in old version
-	 */ 
-	dtsUniqueLst = new ArrayList<Date>();   
-	DateFormat dfmDt = new SimpleDateFormat("MM/dd/yyyy");
-	int totUniqueRowDates=0;
-	String strLine=null;
-	Date dtPrevLine = dfmDt.parse("12/25/1900");
-	Date dtCurLine;
-	
-	if(InstrX.fileMinStartRow == 1)   //* Header (skip)
-	  strLine = bufRdrMin.readLine();	  
+  /* Incremental import: only the days from the last imported date on are read, from the tail of the
+   * min file, and appended to what is already in InstrX (from the store or a previous import).
+   * The last imported day is read again, in case it was imported while still trading.
+   *
+   * The new days go into a copy of prc in a new version of the instr, so /api/calc requests 
+   * running on the current version are not affected. 
+   */
+  public void goAppend(int instrKey) throws Exception{
+	synchronized (Instr.getImportLock(instrKey)) {
+	  InstrX = Instr.newVersion(instrKey);
+	  if (InstrX.prc == null)
+		  InstrStore.load(InstrX, false);
+	  if (InstrX.prc == null || InstrX.prc.length < 2) {
+		  goVersion(instrKey);
+		  return;
+	  }
+	  
+	  excludeDatesX = new ImportExclude();
+	  excludeDatesX.importFile(instrKey);
+	  
+	  int cols = InstrX.lastCol+1;
+	  int iRedo = InstrX.prc.length - 1;     //* last imported day, read again
+	  Date dtRedo = InstrX.prcDate[iRedo];
+	  cal_i.setTime(InstrX.prcDate[iRedo-1]);
+	  int dtAfterKey = cal_i.get(Calendar.YEAR)*10000 + (cal_i.get(Calendar.MONTH)+1)*100 + cal_i.get(Calendar.DAY_OF_MONTH);
+	  
+	  File inFile = new File(AGlobal.DATA_IN_DIR + InstrX.fileMinName);
+	  openMin_24(inFile, seekMin_24(inFile, dtAfterKey));
+	  if (InstrX.prcTime == null)
+		  setTimeStamps_24();
+	  else
+		  setColOfMinute_24();
+	  
+	  prcData = Arrays.copyOf(InstrX.prc.array(), (iRedo + APPEND_HEADROOM_DYS)*cols);
+	  Arrays.fill(prcData, iRedo*cols, prcData.length, 0.0);
+	  dtsLst = new ArrayList<Date>(Arrays.asList(InstrX.prcDate).subList(0, iRedo));
+	  remplieMin_24(dtAfterKey, InstrX.prc.get(iRedo-1, InstrX.lastTimeCol));
+	  bufRdrMin.close();
+	  
+	  InstrX.prc = new PrcMatrix(dtsLst.size(), cols, prcData);
+	  InstrX.prcDate = dtsLst.toArray(new Date[dtsLst.size()]);
+	  InstrX.setCalendar();
+	  
+	  //* Output files - replace the redone day's line and add the new ones, throws before the store and publish
+	  appendRawFile_Xmin(1, iRedo, dtRedo);
+	  appendRawFile_Xmin(5, iRedo, dtRedo);
+	  appendRawFile_Xmin(10, iRedo, dtRedo);
+	  
+	  InstrStore.write(InstrX);
+	  
+	  Instr.publish(InstrX);
+	}
+  }
+  
+  
+  /* Rows from iRedo on in place of the last line of the X min file, which has to be the line of dtRedo - the whole 
+   * file, header and all, if there is no such line (an append from the store with the file missing, empty, or 
+   * not written up to the store)
+   * Written to a .tmp copy and moved over the file, so a write that fails leaves the file as it was and throws
+   */
+  private void appendRawFile_Xmin(int Xmin, int iRedo, Date dtRedo) throws IOException{
+	File file = new File(getRawFilePath_Xmin(Xmin));
+	File tmpFile = new File(file.getPath() + ".tmp");
+	cal_i.setTime(dtRedo);
+	String strRedo = (cal_i.get(Calendar.MONTH)+1) + "," + cal_i.get(Calendar.DAY_OF_MONTH) + "," + cal_i.get(Calendar.YEAR) + ",";
+	long lenKeep = getLastLineBeg(file, strRedo);
 	
-	while ((strLine = bufRdrMin.readLine()) !=null) {		  
-	  String[] strFields = strLine.split(",");  
-	  dtCurLine = dfmDt.parse(strFields[InstrX.fileMinDateCol]);     
-	  if (!dtCurLine.equals(dtPrevLine) && !skipExcludeDates_24(dtCurLine)) {	          
-	      totUniqueRowDates++;
-	      dtsUniqueLst.add(dtCurLine);
-	  }  
-	  dtPrevLine = dtCurLine;
+	boolean blDone = false;
+	try {
+	  if (lenKeep > 0) {
+		FileChannel src = new FileInputStream(file).getChannel();
+		FileChannel dst = new FileOutputStream(tmpFile).getChannel();
+		try {
+		  for (long pos=0; pos<lenKeep; )
+			pos += src.transferTo(pos, lenKeep-pos, dst);
+		} finally {
+		  src.close();
+		  dst.close();
+		}
+	  }
+	  BufferedWriter out = new BufferedWriter(new FileWriter(tmpFile, lenKeep > 0));
+	  try {
+		writeRawFile_Xmin(out, Xmin, (lenKeep > 0) ? iRedo : 0);
+	  } finally {
+		out.close();
+	  }
+	  Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	  blDone = true;
+	} finally {
+	  if (!blDone)
+		tmpFile.delete();
+	}
+  }
+  
+  //* Start of the last line if it begins with strLinePrefix and is not the first line, else -1
+  private long getLastLineBeg(File file, String strLinePrefix) throws IOException{
+	if (!file.isFile() || file.length() == 0)
+	  return -1;
+	RandomAccessFile raf = new RandomAccessFile(file, "r");
+	try {
+	  long pos = raf.length() - 1;       //* file ends with \n
+	  byte[] block = new byte[1 << 16];
+	  while (pos > 0) {
+		int len = (int)Math.min(block.length, pos);
+		raf.seek(pos - len);
+		raf.readFully(block, 0, len);
+		for (int b=len-1; b>=0; b--) {
+		  if (block[b] == '\n') {
+			long lineBeg = pos - len + b + 1;
+			byte[] prefix = new byte[strLinePrefix.length()];
+			if (raf.length() - lineBeg < prefix.length)
+			  return -1;
+			raf.seek(lineBeg);
+			raf.readFully(prefix);
+			return new String(prefix, "ISO-8859-1").equals(strLinePrefix) ? lineBeg : -1;
+		  }
+		}
+		pos -= len;
+	  }
+	  return -1;
+	} finally {
+	  raf.close();
 	}
+  }
+  
+  
+  private void openMin_24(File inFile, long offset) throws Exception{
+	FileInputStream fis = new FileInputStream(inFile);
+	fis.getChannel().position(offset);
+	bufRdrMin = new BufferedReader(new InputStreamReader(fis, "ISO-8859-1"), 1 << 16);
 	
-	//* Now can set the array depths    
-	InstrX.prc = new double [totUniqueRowDates][InstrX.lastCol+1];  //* +1 bec these are indexes!
-	InstrX.prcDate = new Date[totUniqueRowDates];
-	InstrX.prcTime = new String[InstrX.lastCol+1];
+	if(offset == 0 && InstrX.fileMinStartRow == 1)
+	  bufRdrMin.readLine();  //* skip top line (header) 
+  }
+  
+  
+  /* Offset of a line in the min file at or before the first line dated after dtAfterKey, found by 
+   * reading back from the end a block at a time - lines up to dtAfterKey are then skipped by remplieMin_24
+   */
+  private long seekMin_24(File inFile, int dtAfterKey) throws Exception{
+	RandomAccessFile raf = new RandomAccessFile(inFile, "r");
+	try {
+	  long pos = raf.length();
+	  int blockLen = 1 << 16;
+	  byte[] block = new byte[blockLen];
+	  
+	  while (pos > 0) {
+		long start = Math.max(0, pos - blockLen);
+		if (start == 0)
+		  return 0;
+		int len = (int)(pos - start);
+		raf.seek(start);
+		raf.readFully(block, 0, len);
 		
+		//* first complete line in block
+		int lineBeg = 0;
+		while (lineBeg < len && block[lineBeg] != '\n')
+		  lineBeg++;
+		lineBeg++;
+		int lineEnd = lineBeg;
+		while (lineEnd < len && block[lineEnd] != '\n')
+		  lineEnd++;
+		if (lineEnd >= len) {     //* no complete line, look further back
+		  pos = start;
+		  continue;
+		}
+		
+		String strLine = new String(block, lineBeg, lineEnd - lineBeg, "ISO-8859-1");
+		int y_C = 0;
+		for (int f=0; f<InstrX.fileMinDateCol; f++)
+		  y_C = strLine.indexOf(",", y_C) + 1;
+		if (parseDateKey(strLine, y_C) <= dtAfterKey)
+		  return start + lineBeg;
+		
+		pos = start + lineBeg;
+	  }
+	  return 0;
+	} finally {
+	  raf.close();
+	}
+  }
+  
+  
+  private void setTimeStamps_24() throws Exception{
+			 
     /* 
-     * 1) Now fill in just daily dates from MIN file, not daily file! 
-	 */ 	
-	int i=0;
-	for (Date dt:dtsUniqueLst) {
-	    InstrX.prcDate[i] = dt;
-	    i++;
-	}    
-	
-    /* 
-	 * 2) Set up header - need this for searching p@ AND import here!
+	 * 1) Set up header - need this for searching p@ AND import here!
 	 */
+	InstrX.prcTime = new String[InstrX.lastCol+1];
+	
 	int firstDyHrTime = Integer.parseInt(InstrX.firstDyTimeStamp.substring(0,2));
 	int firstDyMinTime = Integer.parseInt(InstrX.firstDyTimeStamp.substring(2));
 	Calendar timeStamp = new GregorianCalendar(2006,0,1, firstDyHrTime, firstDyMinTime,0);
@@ -146,34 +320,27 @@ public class ImportDataConvert {
 		 InstrX.prcTime[InstrX.firstTimeCol+j] = strTime;
 		 timeStamp.add(Calendar.MINUTE, InstrX.minIncr);
 	}
+	InstrX.prcTime[InstrX.hiDyCol] = "HIGH";
+	InstrX.prcTime[InstrX.loDyCol] = "LOW";
+	//InstrX.prcTime[InstrX.hi24hCol] = "HIGH24h";
+	//InstrX.prcTime[InstrX.lo24hCol] = "LOW24h";   
 	
+	setColOfMinute_24();
+  }
+  
+  
+  private void setColOfMinute_24() throws Exception{
     /* 
-	 * 3) time shift array
-	 *
-     * 0230 -> open of 0231
-	 * 0235 -> open of 0236
-	 * ...
-	 * 0600 -> open of 0601
-	 * 0605 -> open of 0606
-	 * ...
-     * 0930 -> open of 0931
-	 * 1615 -> cls  of 1615
+	 * minute of day (hh*60+mm) in file => col the opn of that bar goes to
 	 *
-	 * eg 06:00 -> -5+1 -> 05:56 + 5 = 06:01
+	 * 0931 file opn -> 0930 col, i.e. col of prcTime match - 1 (same as searching prcTime from j=1)
 	 */ 
-	timeStampShifted = new String[InstrX.lastTimeCol+1];
-	timeStamp = new GregorianCalendar(2006,0,1, firstDyHrTime,firstDyMinTime,0);
-	timeStamp.add(Calendar.MINUTE, -InstrX.minIncr+1);
-	for (int j=0; j<InstrX.totTimeSteps; j++) {  
-		timeStamp.add(Calendar.MINUTE, InstrX.minIncr);	
-		strTime = sdfHHmm.format(timeStamp.getTime());
-		timeStampShifted[j] = strTime;  
-		//D System.out.println(timeStampShifted[j]);
+	colOfMinute = new int[24*60];
+	Arrays.fill(colOfMinute, -1);
+	for (int j=InstrX.lastTimeCol; j>=1; j--) {   //* bkwd so first match wins
+	    if (InstrX.prcTime[j] != null)
+	      colOfMinute[parseMinuteOfDay(InstrX.prcTime[j], 0)] = j - 1;
 	}
-	InstrX.prcTime[InstrX.hiDyCol] = "HIGH";
-	InstrX.prcTime[InstrX.loDyCol] = "LOW";
-	//InstrX.prcTime[InstrX.hi24hCol] = "HIGH24h";
-	//InstrX.prcTime[InstrX.lo24hCol] = "LOW24h";   
   }     
   
   /*
@@ -213,8 +380,8 @@ public class ImportDataConvert {
   } 
   */
   
-  private boolean skipExcludeDates_24(Date dt) {
-    int h = 0;
+  //* Exclude dates and sat/sun, by yyyymmdd key of the file date
+  private boolean skipExcludeDates_24(int dtKey, Date dt) {
     /*
 	while (h < econHolDates.dt.length) {
 	    if(econHolDates.dt[h].equals(dt))	  
@@ -222,13 +389,8 @@ public class ImportDataConvert {
 	    h++;	
 	}
 	*/
-    
-	h=0;
-	while (h < excludeDatesX.dt.length) {
-	    if(excludeDatesX.dt[h].equals(dt))
-		  return true;	     
-		h++;		  
-	}
+	if (excludeKeys.contains(dtKey))
+	  return true;
 	         
 	cal_i.setTime(dt);
 	if(cal_i.get(Calendar.DAY_OF_WEEK)-1 == 0 || cal_i.get(Calendar.DAY_OF_WEEK)-1 == 6)  //* sun: 1 => 0
@@ -239,9 +401,10 @@ public class ImportDataConvert {
   }    
   
   
-  private void remplieMin_24() throws Exception{
+  private void remplieMin_24(int dtAfterKey, double lastGoodPrcPrev) throws Exception{
 	/******************************************************** 
-	 * Now the price data 
+	 * Now the price data - single pass, rows are appended to prcData / dtsLst as new dates come in,
+	 * lines dated up to dtAfterKey are skipped (-1 for all) 
 	 * For every same date / totTimeSteps : put into each row 
 	 * 00:00:00, 00:01:00, 00:02:00, ..., 23:59:00
 	 *
@@ -257,116 +420,214 @@ public class ImportDataConvert {
 	 * 1620 <= opn of 1621 file prc
 	 * 2355 <= opn of 2356 file prc
 	 * * 2359 <= opn of 0000 file prc - next day!
+	 *
+	 * Dates, times and prices are parsed in place from the line (no split, no SimpleDateFormat),
+	 * and each day is scrubbed (fill fwd) as soon as the next day starts.
 	 ********************************************************/
 	  
-	DateFormat dfmDt = new SimpleDateFormat("MM/dd/yyyy");
-	Date dtCurLine;
-	Date dtPrevLine;
-	String[] strFields;
-	String strLine=null;	
-	int j=InstrX.firstTimeCol;
-	int i = -1;  //*!
-	//double _hi_dy=-1.0, _lo_dy=9999999999.9;
+	int cols = InstrX.lastCol+1;
+	int clsMinFile = parseMinuteOfDay(InstrX.clsTimeStampFile, 0);
+	int clsSkipMinFile = parseMinuteOfDay(InstrX.clsTimeStampSkipFile, 0);
+	int lastMinDy = 23*60 + 59;
+	int begHiLo = Integer.parseInt(InstrX.begHiLoTimeStamp);
+	int endHiLo = Integer.parseInt(InstrX.endHiLoTimeStamp);
 	
-	dtPrevLine = dfmDt.parse("12/25/1900");
-	if(InstrX.fileMinStartRow == 1)
-	  strLine = bufRdrMin.readLine();  //* skip top line (header) 
+	//* exclude dates by key, ImportExclude leaves nulls for short lines
+	excludeKeys = new HashSet<Integer>();
+	for (Date dtExcl : excludeDatesX.dt) {
+	    if (dtExcl == null)
+	      continue;
+	    cal_i.setTime(dtExcl);
+	    excludeKeys.add(cal_i.get(Calendar.YEAR)*10000 + (cal_i.get(Calendar.MONTH)+1)*100 + cal_i.get(Calendar.DAY_OF_MONTH));
+	}
+	
+	double[] data = prcData;
+	
+	int[] fieldBeg = new int[Math.max(InstrX.fileMinClsCol, Math.max(InstrX.fileMinOpnCol, 
+			                 Math.max(InstrX.fileMinDateCol, InstrX.fileMinTimeCol))) + 2];
+	String strLine=null;	
+	int iFirst = dtsLst.size();
+	int i = iFirst - 1;  //*!
+	int dtPrevKey = -1;
+	boolean blSkipDy = false;
+	double[] lastGoodPrc = new double[] {lastGoodPrcPrev};
 	
 	while ((strLine = bufRdrMin.readLine()) !=null) {
-	  strFields = strLine.split(",");  	
-	  dtCurLine = dfmDt.parse(strFields[InstrX.fileMinDateCol]);
+	  //* field start positions, field f is [fieldBeg[f], fieldBeg[f+1]-1)
+	  int nFields = 1;
+	  fieldBeg[0] = 0;
+	  for (int c=0; c<strLine.length() && nFields<fieldBeg.length; c++) {
+	      if (strLine.charAt(c) == ',')
+	        fieldBeg[nFields++] = c+1;
+	  }
+	  if (nFields < fieldBeg.length)
+	    fieldBeg[nFields] = strLine.length()+1;	  
+	  if (nFields <= InstrX.fileMinClsCol)
+	    throw new ExceptionImport("ERROR - Importing: Min file line too short: " + strLine);
 	  
-	  if(skipExcludeDates_24(dtCurLine)) {
-		  dtPrevLine = dtCurLine;  
-	      continue;	  
-	  }  
+	  int dtCurKey = parseDateKey(strLine, fieldBeg[InstrX.fileMinDateCol]);
+	  if (dtCurKey <= dtAfterKey)
+		  continue;
 	  
-	  if (!dtCurLine.equals(dtPrevLine)) {   //* new day, next day	          
-          i++;
-          //_hi_dy=-1.0; _lo_dy=9999999999.9;
-          InstrX.prc[i][InstrX.hiDyCol] = -1.0;
-          InstrX.prc[i][InstrX.loDyCol] = 9999999.9;
-          if(!InstrX.prcDate[i].equals(dtCurLine))
-            throw new ExceptionImport("Error - Importing: Min file date problems found: " + 
-                		                   InstrX.prcDate[i] + " " + dtCurLine);	  
+	  if (dtCurKey != dtPrevKey) {   //* new date in file
+		  dtPrevKey = dtCurKey;
+		  Date dtCurLine = new GregorianCalendar(dtCurKey/10000, (dtCurKey/100)%100-1, dtCurKey%100).getTime();
+		  blSkipDy = skipExcludeDates_24(dtCurKey, dtCurLine);
+		  if (!blSkipDy) {   //* new day, next day
+		      if (i >= iFirst)
+		        scrubDay_24(data, i*cols, lastGoodPrc);
+		      i++;
+		      if ((i+1)*cols > data.length)
+		        data = Arrays.copyOf(data, data.length + data.length/2);
+		      dtsLst.add(dtCurLine);
+		      data[i*cols + InstrX.hiDyCol] = -1.0;
+		      data[i*cols + InstrX.loDyCol] = 9999999.9;
+		  }
 	  }
+	  if (blSkipDy)
+		  continue;
 	  
-	  dtPrevLine = dtCurLine;
-	  String strCurTimeStamp = strFields[InstrX.fileMinTimeCol].substring(0,5).trim();
-	  int intCurTimeStamp = Integer.parseInt(strCurTimeStamp.substring(0,2) + strCurTimeStamp.substring(3,5));
+	  int row = i*cols;
+	  int minCur = parseMinuteOfDay(strLine, fieldBeg[InstrX.fileMinTimeCol]);
+	  int intCurTimeStamp = (minCur/60)*100 + minCur%60;
+	  boolean blHiLo = intCurTimeStamp >= begHiLo && intCurTimeStamp <= endHiLo;
+	  int j;
 	  
-	  if (strCurTimeStamp.equals(InstrX.clsTimeStampFile)) {    //* 1615
+	  if (minCur == clsMinFile) {    //* 1615
 	      j = InstrX.clsDyCol;
-		  InstrX.prc[i][j] = Double.valueOf(strFields[InstrX.fileMinClsCol]);
-		  InstrX.prc[i][j] *= InstrX.mult;
-		  
-		  //* hi, lo calculations
-		  //Integer x = Integer.valueOf(str);
-		  if (intCurTimeStamp >= Integer.parseInt(InstrX.begHiLoTimeStamp) && intCurTimeStamp <= Integer.parseInt(InstrX.endHiLoTimeStamp)){  
-			  if(InstrX.prc[i][j] > InstrX.prc[i][InstrX.hiDyCol])
-				InstrX.prc[i][InstrX.hiDyCol] = InstrX.prc[i][j];
-			  if(InstrX.prc[i][j] < InstrX.prc[i][InstrX.loDyCol] && InstrX.prc[i][j] > 0.0)
-			    InstrX.prc[i][InstrX.loDyCol] = InstrX.prc[i][j];		  		  
-		  }		  
+		  data[row+j] = parsePrice(strLine, fieldBeg[InstrX.fileMinClsCol], fieldBeg[InstrX.fileMinClsCol+1]-1) * InstrX.mult;
+		  if (blHiLo)
+			  setHiLo(data, row, data[row+j]);
 		  
 		  //* Have to take care of 1614 price, which is OPN of this time 1615
 	      j = InstrX.clsDyCol - 1;
-		  InstrX.prc[i][j] = Double.valueOf(strFields[InstrX.fileMinOpnCol]);
-		  InstrX.prc[i][j] *= InstrX.mult;		 
-
-		  //* hi, lo calculations
-		  if (intCurTimeStamp >= Integer.parseInt(InstrX.begHiLoTimeStamp) && intCurTimeStamp <= Integer.parseInt(InstrX.endHiLoTimeStamp)){  
-			  if(InstrX.prc[i][j] > InstrX.prc[i][InstrX.hiDyCol])
-				InstrX.prc[i][InstrX.hiDyCol] = InstrX.prc[i][j];
-			  if(InstrX.prc[i][j] < InstrX.prc[i][InstrX.loDyCol] && InstrX.prc[i][j] > 0.0)
-			    InstrX.prc[i][InstrX.loDyCol] = InstrX.prc[i][j];		  		  
-		  }		  
+		  data[row+j] = parsePrice(strLine, fieldBeg[InstrX.fileMinOpnCol], fieldBeg[InstrX.fileMinOpnCol+1]-1) * InstrX.mult;
+		  if (blHiLo)
+			  setHiLo(data, row, data[row+j]);
 		  		                  		      
-	  } else if (strCurTimeStamp.equals(InstrX.clsTimeStampSkipFile)) {       //* 16:16
+	  } else if (minCur == clsSkipMinFile) {       //* 16:16
 		
-	  } else if (strCurTimeStamp.equals("00:00")) {       //* taken care of by 00:01
+	  } else if (minCur == 0) {       //* 00:00 taken care of by 00:01
 	    	  
-	  } else if (strCurTimeStamp.equals("23:59")) {       //* for last trade of day use cls, to avoid using  
-	      j = InstrX.lastTimeCol;                         //* 00:00 of next day
-		  InstrX.prc[i][j] = Double.valueOf(strFields[InstrX.fileMinClsCol])*InstrX.mult;
-
-		  //* hi, lo calculations
-		  if (intCurTimeStamp >= Integer.parseInt(InstrX.begHiLoTimeStamp) && intCurTimeStamp <= Integer.parseInt(InstrX.endHiLoTimeStamp)){  
-			  if(InstrX.prc[i][j] > InstrX.prc[i][InstrX.hiDyCol])
-				InstrX.prc[i][InstrX.hiDyCol] = InstrX.prc[i][j];
-			  if(InstrX.prc[i][j] < InstrX.prc[i][InstrX.loDyCol] && InstrX.prc[i][j] > 0.0)
-			    InstrX.prc[i][InstrX.loDyCol] = InstrX.prc[i][j];		  		  
-		  }		  		  
+	  } else if (minCur == lastMinDy) {       //* 23:59 for last trade of day use cls, to avoid using  
+	      j = InstrX.lastTimeCol;             //* 00:00 of next day
+		  data[row+j] = parsePrice(strLine, fieldBeg[InstrX.fileMinClsCol], fieldBeg[InstrX.fileMinClsCol+1]-1) * InstrX.mult;
+		  if (blHiLo)
+			  setHiLo(data, row, data[row+j]);
+		  
 	  } else {  //* other than cls time take opn bar for all times including open time
-           //j = InstrX.firstTimeCol;	
-		   j=1;   //*** !
-	       //while(j<=InstrX.lastTimeCol && !strCurTimeStamp.equals(timeStampShifted[j]))
-           while(j<=InstrX.lastTimeCol && !strCurTimeStamp.equals(InstrX.prcTime[j]))
-		     j++;	        
-	       //if (j<=InstrX.lastTimeCol && strCurTimeStamp.equals(timeStampShifted[j])) {
-	       if (j<=InstrX.lastTimeCol && strCurTimeStamp.equals(InstrX.prcTime[j])) {
-	    	   j = j - 1;
-	           InstrX.prc[i][j] = Double.valueOf(strFields[InstrX.fileMinOpnCol]);
-			   InstrX.prc[i][j] *= InstrX.mult;
-               //D System.out.println(+ i + " " + j + " " + strCurTimeStamp + " " + Double.valueOf(strFields[InstrX.fileMinOpnCol]));
-			   
-			  //* hi, lo calculations
-			  if (intCurTimeStamp >= Integer.parseInt(InstrX.begHiLoTimeStamp) && intCurTimeStamp <= Integer.parseInt(InstrX.endHiLoTimeStamp)){  
-				  if(InstrX.prc[i][j] > InstrX.prc[i][InstrX.hiDyCol])
-					InstrX.prc[i][InstrX.hiDyCol] = InstrX.prc[i][j];
-				  if(InstrX.prc[i][j] < InstrX.prc[i][InstrX.loDyCol] && InstrX.prc[i][j] > 0.0)
-				    InstrX.prc[i][InstrX.loDyCol] = InstrX.prc[i][j];		  		  
-			  }		  
-			   
-	       }
+		  j = colOfMinute[minCur];
+	      if (j >= 0) {
+	          data[row+j] = parsePrice(strLine, fieldBeg[InstrX.fileMinOpnCol], fieldBeg[InstrX.fileMinOpnCol+1]-1) * InstrX.mult;
+			  if (blHiLo)
+				  setHiLo(data, row, data[row+j]);
+	      }
 	  }
 	
 	} // end vertical while, thus end of file
+	
+	if (i >= iFirst)
+	  scrubDay_24(data, i*cols, lastGoodPrc);
+	
+	prcData = data;
 	    	    
 	// Gui.jtextArea.append("Finished importing minute file: " + InstrX.fileMinName + "\n");
   } // end import min
   
   
+  private void setHiLo(double[] data, int row, double prc) {
+	if(prc > data[row + InstrX.hiDyCol])
+	  data[row + InstrX.hiDyCol] = prc;
+	if(prc < data[row + InstrX.loDyCol] && prc > 0.0)
+	  data[row + InstrX.loDyCol] = prc;		  		  
+  }
+  
+  
+  //* MM/dd/yyyy (or M/d/yyyy) at pos => yyyymmdd
+  private static int parseDateKey(String strLine, int pos) throws ExceptionImport {
+	int[] mdy = new int[3];
+	int f = 0;
+	int c = pos;
+	for (; c<strLine.length() && f<3; c++) {
+	  char ch = strLine.charAt(c);
+	  if (ch >= '0' && ch <= '9') {
+		mdy[f] = mdy[f]*10 + (ch - '0');
+	  } else if (ch == '/') {
+		f++;
+	  } else {
+		break;
+	  }
+	}
+	if (f != 2 || mdy[0] < 1 || mdy[0] > 12 || mdy[1] < 1 || mdy[1] > 31)
+	  throw new ExceptionImport("ERROR - Importing: Min file bad date: " + strLine);
+	return mdy[2]*10000 + mdy[0]*100 + mdy[1];
+  }
+  
+  
+  //* HH:mm (or H:mm, HHmm) at pos => hh*60+mm
+  private static int parseMinuteOfDay(String strTime, int pos) throws ExceptionImport {
+	int hh = 0, mm = 0, nDigits = 0;
+	boolean blColon = false;
+	for (int c=pos; c<strTime.length(); c++) {
+	  char ch = strTime.charAt(c);
+	  if (ch >= '0' && ch <= '9') {
+		if (blColon) mm = mm*10 + (ch - '0'); else hh = hh*10 + (ch - '0');
+		nDigits++;
+	  } else if (ch == ':' && !blColon) {
+		blColon = true;
+	  } else {
+		break;
+	  }
+	}
+	if (!blColon && nDigits == 4) {   //* HHmm
+	  mm = hh % 100;
+	  hh = hh / 100;
+	}
+	if (nDigits < 3 || hh > 23 || mm > 59)
+	  throw new ExceptionImport("ERROR - Importing: Min file bad time: " + strTime);
+	return hh*60 + mm;
+  }
+  
+  
+  /* Decimal price in [beg, end) - mantissa / 10^decimals is the correctly rounded double, same
+   * as Double.valueOf, as long as the mantissa fits 2^53; anything else goes to Double.valueOf
+   */
+  private static double parsePrice(String strLine, int beg, int end) {
+	while (beg < end && strLine.charAt(beg) == ' ') beg++;
+	while (end > beg && strLine.charAt(end-1) == ' ') end--;
+	
+	boolean blNeg = false;
+	int c = beg;
+	if (c < end && (strLine.charAt(c) == '-' || strLine.charAt(c) == '+')) {
+	  blNeg = strLine.charAt(c) == '-';
+	  c++;
+	}
+	long mantissa = 0;
+	int decimals = -1;
+	int nDigits = 0;
+	for (; c<end; c++) {
+	  char ch = strLine.charAt(c);
+	  if (ch >= '0' && ch <= '9') {
+		mantissa = mantissa*10 + (ch - '0');
+		nDigits++;
+		if (decimals >= 0) decimals++;
+	  } else if (ch == '.' && decimals < 0) {
+		decimals = 0;
+	  } else {
+		break;
+	  }
+	}
+	if (c < end || nDigits == 0 || nDigits > 15 || decimals > 15)
+	  return Double.valueOf(strLine.substring(beg, end));
+	
+	double prc = (decimals > 0) ? mantissa / POW10[decimals] : mantissa;
+	return blNeg ? -prc : prc;
+  }
+  
+  private static final double[] POW10 = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8,
+	                                     1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15};
+  
+  
   /*
   public void remplieMin_DA() throws Exception{
 	   
@@ -511,44 +772,24 @@ public class ImportDataConvert {
   */
 
   public void scrubPrices_24() throws Exception {
-    //* Fill fwd ONLY 	  
+    //* Fill fwd ONLY - import does this per day already, for prices set any other way 	  
 	  
-	double lastGoodPrc = 0.0;
-	for (int i=0; i<InstrX.prc.length; i++) {
-	  /*	
-	  if (InstrX.prc[i][InstrX.opnDyCol] == 0) {
-          System.out.println(">"+InstrX.getMonth(i)+"/"+InstrX.getDay(i)+"/"+InstrX.getYear(i));		  
-	  }
-	  */	
-      //* late open - eg 1100, 0601, etc 	
-	  /*	
-	  if (InstrX.prc[i][InstrX.firstTimeCol] == 0) {		  
-		  //* find what time is first tick of day
-		  int jLateOpn=0;
-		  for (int j=InstrX.firstTimeCol; j<=InstrX.clsDyCol; j++) {
-		      if (InstrX.prc[i][j] != 0) {	  
-		    	  jLateOpn=j;
-		    	  break;
-		      }
-		  }
-          System.out.println("Fill bkwd - late opn - " + InstrX.getMonth(i)+"/"+InstrX.getDay(i)+"/"+InstrX.getYear(i)+" : "+InstrX.prcTime[jLateOpn]);
-	      for(int j=jLateOpn-1; j>=InstrX.firstTimeCol; j--)
-		    if(InstrX.prc[i][j]==0)  
-			  InstrX.prc[i][j] = InstrX.prc[i][j+1];		
-	  }
-	  */
+	double[] lastGoodPrc = new double[1];
+	for (int i=0; i<InstrX.prc.length; i++)
+	  scrubDay_24(InstrX.prc.array(), InstrX.prc.offset(i), lastGoodPrc);
+	
+	//Gui.jtextArea.append("Finished Scrubbing\n");
+  }
+  
+  
+  //* Fill fwd day starting at row, lastGoodPrc[0] carries over from the previous day
+  private void scrubDay_24(double[] data, int row, double[] lastGoodPrc) {
    	  //* early close
 	  for (int j=0; j<=InstrX.lastTimeCol; j++) {	
-	    if (InstrX.prc[i][j] == 0) {
-	    	InstrX.prc[i][j] = lastGoodPrc;
-		    // D System.out.println("Fill fwd - " + InstrX.getMonth(i)+"/"+InstrX.getDay(i)+"/"+InstrX.getYear(i)+" : "+InstrX.prcTime[j]);
-	    }
-	    lastGoodPrc = InstrX.prc[i][j];
+	    if (data[row+j] == 0)
+	    	data[row+j] = lastGoodPrc[0];
+	    lastGoodPrc[0] = data[row+j];
       }
-	  
-    }
-	
-	//Gui.jtextArea.append("Finished Scrubbing\n");
   }
   
   
@@ -562,34 +803,34 @@ public class ImportDataConvert {
 	  }
 	  */	
       //* late open - eg 1100, 0601, etc 	
-	  if (InstrX.prc[i][InstrX.firstTimeCol] == 0) {		  
+	  if (InstrX.prc.get(i, InstrX.firstTimeCol) == 0) {		  
 		  //* find what time is first tick of day
 		  int jLateOpn=0;
 		  for (int j=InstrX.firstTimeCol; j<=InstrX.clsDyCol; j++) {
-		      if (InstrX.prc[i][j] != 0) {	  
+		      if (InstrX.prc.get(i, j) != 0) {	  
 		    	  jLateOpn=j;
 		    	  break;
 		      }
 		  }
           //D System.out.println(InstrX.getMonth(i)+"/"+InstrX.getDay(i)+"/"+InstrX.getYear(i)+" : "+InstrX.prcTime[jLateOpn]);
 	      for(int j=jLateOpn-1; j>=InstrX.firstTimeCol; j--)
-		    if(InstrX.prc[i][j]==0)  
-			  InstrX.prc[i][j] = InstrX.prc[i][j+1];		
+		    if(InstrX.prc.get(i, j)==0)  
+			  InstrX.prc.set(i, j, InstrX.prc.get(i, j+1));		
 	  }
 	  
    	  //* early close
-	  if (InstrX.prc[i][InstrX.clsDyCol] == 0) {
+	  if (InstrX.prc.get(i, InstrX.clsDyCol) == 0) {
 		  //* find what time is early cls
 		  int jEarlyCls=0;
 		  for (int j=InstrX.clsDyCol-1; j>=InstrX.firstTimeCol; j--) {
-		      if (InstrX.prc[i][j]!=0) {
+		      if (InstrX.prc.get(i, j)!=0) {
 		    	  jEarlyCls=j;
 		    	  break;
 		      }
 		  }
 	      for (int j=jEarlyCls+1; j<=InstrX.clsDyCol; j++) {
-		    if(InstrX.prc[i][j]==0)
-			  InstrX.prc[i][j] = InstrX.prc[i][j-1];		
+		    if(InstrX.prc.get(i, j)==0)
+			  InstrX.prc.set(i, j, InstrX.prc.get(i, j-1));		
 	      }  
       }
 	  
@@ -601,14 +842,7 @@ public class ImportDataConvert {
   
   public void outputNewRawFile_Xmin(int Xmin) {  
         
-	  String outFile_Path = AGlobal.DATA_OUT_DIR;
-	  if (Xmin==10){
-		  outFile_Path += InstrX.fileOut10MinName;  
-	  } else if (Xmin==5){
-		  outFile_Path += InstrX.fileOut5MinName;
-	  } else if (Xmin==1){
-		  outFile_Path += InstrX.fileOut1MinName;
-	  }
+	  String outFile_Path = getRawFilePath_Xmin(Xmin);
 	  
 	  /*
 		FileOutputStream fs;
@@ -634,7 +868,20 @@ public class ImportDataConvert {
 	    */
 				
 		BufferedWriter out = new BufferedWriter(new FileWriter(outFile_Path));
-		  
+		writeRawFile_Xmin(out, Xmin, 0);
+		out.close();
+	    //Gui.jtextArea.append("Finished exporting formatted raw file\n");
+	  } catch (IOException e) {
+		   
+		//Gui.jtextArea.append("ERROR creating formatted raw file \n");
+		//Gui.jtextArea.append(e.toString() + "\n\n");
+      }
+	  
+  }  //* Method: outputNewRawFile 		
+  
+  
+  //* header and rows from iFrom on, only the rows if iFrom > 0
+  private void writeRawFile_Xmin(BufferedWriter out, int Xmin, int iFrom) throws IOException{
 		//* Header - times of prices
 	    String strLine = "";
 		int i=0,j=0;
@@ -647,44 +894,42 @@ public class ImportDataConvert {
 		for(j=InstrX.lastTimeCol+1; j<=InstrX.lastHdrCol; j++)
 		  strLine += "," + String.valueOf(InstrX.prcTime[j]);
 		strLine += "\n";
-		out.write(strLine);  
+		if (iFrom == 0)
+		  out.write(strLine);  
 	      
 		//* Body - prices and hi, lo
 		strLine = "";    
-		Calendar cal_i = new GregorianCalendar();
-		SimpleDateFormat sdfMM = new SimpleDateFormat("MM");
-		SimpleDateFormat sdfdd = new SimpleDateFormat("dd");
-		SimpleDateFormat sdfyyyy = new SimpleDateFormat("yyyy");
-		for (i=0; i<InstrX.prc.length; i++) {
+		for (i=iFrom; i<InstrX.prc.length; i++) {
 			  //* Date fields M, D, Y, W  
-			  strLine = "" + Integer.valueOf(sdfMM.format(InstrX.prcDate[i]));
-			  strLine += "," + Integer.valueOf(sdfdd.format(InstrX.prcDate[i]));
-			  strLine += "," + Integer.valueOf(sdfyyyy.format(InstrX.prcDate[i]));
-		      
-			  cal_i.setTime(InstrX.prcDate[i]);
-			  strLine += "," + (cal_i.get(Calendar.DAY_OF_WEEK)-1);
+			  strLine = "" + InstrX.month[i];
+			  strLine += "," + InstrX.day[i];
+			  strLine += "," + InstrX.year[i];
+			  strLine += "," + InstrX.weekday[i];
 			  
 			  //* Now Prices
 			  for(j=InstrX.firstTimeCol; j<=InstrX.lastTimeCol; j++)
 				  if(j % Xmin == 0)
-			        strLine += "," + String.valueOf(InstrX.prc[i][j]);
+			        strLine += "," + String.valueOf(InstrX.prc.get(i, j));
 			  //* hi, lo
 			  for(j=InstrX.lastTimeCol+1; j<=InstrX.lastHdrCol; j++)
-			    strLine += "," + String.valueOf(InstrX.prc[i][j]);		  
+			    strLine += "," + String.valueOf(InstrX.prc.get(i, j));		  
 			  strLine += "\n";
 			  out.write(strLine);  
 			  strLine = "";
 	    }
-			  
-		out.close();
-	    //Gui.jtextArea.append("Finished exporting formatted raw file\n");
-	  } catch (IOException e) {
-		   
-		//Gui.jtextArea.append("ERROR creating formatted raw file \n");
-		//Gui.jtextArea.append(e.toString() + "\n\n");
-      }
-	  
-  }  //* Method: outputNewRawFile 		
+  }
+  
+  private String getRawFilePath_Xmin(int Xmin) {
+	  String outFile_Path = AGlobal.DATA_OUT_DIR;
+	  if (Xmin==10){
+		  outFile_Path += InstrX.fileOut10MinName;  
+	  } else if (Xmin==5){
+		  outFile_Path += InstrX.fileOut5MinName;
+	  } else if (Xmin==1){
+		  outFile_Path += InstrX.fileOut1MinName;
+	  }
+	  return outFile_Path;
+  }
   
   
 }
@@ -8,7 +8,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 
-public class Instr {	
+public class Instr implements Cloneable {	
 	
   public int key;
   public String idName;
@@ -88,15 +88,20 @@ public class Instr {
   public int tstRowN;  
   
   public String[] prcTime;
-  public double [][] prc;       // = new double[MaxRow][MaxCol];
+  public PrcMatrix prc;         // = new PrcMatrix(MaxRow, MaxCol);
                                 //* mt, dy, yr, dwk, 0000, 0001, ..., 0930,..., 1615,..., 2359, hi, lo, hi0600, lo0600, mod
   public Date[] prcDate;        // = new Calendar[MaxRow];
+  public int[] epochDy;         //* calendar of prcDate by day, set once with it - see setCalendar()
+  public int[] year;
+  public byte[] month;          //* 1..12
+  public byte[] day;
+  public byte[] weekday;        //* 0 sun .. 6 sat
+  public byte[] weekOfMonth;    //* Calendar.WEEK_OF_MONTH
   public int maxDysBk;
 
-  //public MappedByteBuffer mapPrices;
-  
   
   public boolean blImported;
+  public int dataVersion;       //* bumped every time an import publishes new prices for this key
   
   /* Multiton pattern is similar to the Singleton, which allows only one instance of a class to be created, 
    * but expands on the Singleton concept to manage a map of named instances as key/value pairs. Rather than
@@ -138,6 +143,7 @@ public class Instr {
   */
   
   private static final Map<Integer, Instr> instances = new HashMap<Integer, Instr>();
+  private static final Map<Integer, Object> importLocks = new HashMap<Integer, Object>();
   
   
   private Instr() {  //* also acceptable: protected, {default}
@@ -158,33 +164,100 @@ public class Instr {
       }
   }  
   
+  /* Copy-on-write versions of the instances above:
+   * - prc, prcDate, prcTime of a published instance are never written in place
+   * - an import fills a newVersion() and publish()es it with one put, so getInstance() returns
+   *   either the old or the new complete version
+   * - a Session works on its own snapshot() of every instr, taken at creation, so its maxDysBk
+   *   is its own and an import during the request does not change the prices under it
+   */
+  public static Instr newVersion(Integer iKey) {
+	return getInstance(iKey).snapshot();
+  }
+  
+  public static void publish(Instr version) {
+    synchronized (instances) {
+    	version.dataVersion = getInstance(version.key).dataVersion + 1;
+    	version.blImported = true;
+    	instances.put(version.key, version);
+    }
+  }
+  
+  //* imports of the same key must not run at the same time, else the last to publish wins
+  public static Object getImportLock(Integer iKey) {
+    synchronized (importLocks) {
+    	Object lock = importLocks.get(iKey);
+    	if (lock == null) {
+    		lock = new Object();
+    		importLocks.put(iKey, lock);
+    	}
+    	return lock;
+    }
+  }
+  
+  public Instr snapshot() {
+	Instr copy;
+	try {
+	  copy = (Instr) super.clone();   //* shallow - prices are shared, see above
+	} catch (CloneNotSupportedException e) {
+	  throw new RuntimeException(e);
+	}
+	if (hiloPtsArray != null)
+	  copy.hiloPtsArray = hiloPtsArray.clone();
+	//* SimpleDateFormat is not thread safe
+	copy.sdfDtime = new SimpleDateFormat("MM/dd/yyyy HH:mm");
+	return copy;
+  }
+  
   private SimpleDateFormat sdfDtime = new SimpleDateFormat("MM/dd/yyyy HH:mm");
-  private SimpleDateFormat sdfMM = new SimpleDateFormat("MM");
-  private SimpleDateFormat sdfdd = new SimpleDateFormat("dd");
-  private SimpleDateFormat sdfyyyy = new SimpleDateFormat("yyyy");   
   
-  int getWeekday(int iDayIndex) {
+  /* Calendar columns of prcDate - once per version, wherever prcDate is set (import, InstrStore),
+   * so the date filters and views read arrays instead of a Calendar / SimpleDateFormat per day
+   */
+  void setCalendar() {
+	int rows = prcDate.length;
+	epochDy = new int[rows];
+	year = new int[rows];
+	month = new byte[rows];
+	day = new byte[rows];
+	weekday = new byte[rows];
+	weekOfMonth = new byte[rows];
 	Calendar cal_i = new GregorianCalendar();
-	cal_i.setTime(this.prcDate[iDayIndex]);
-	return cal_i.get(Calendar.DAY_OF_WEEK)-1;  //* sun: 1 => 0
+	for (int i=0; i<rows; i++) {
+	  cal_i.setTime(prcDate[i]);
+	  year[i] = cal_i.get(Calendar.YEAR);
+	  month[i] = (byte)(cal_i.get(Calendar.MONTH)+1);
+	  day[i] = (byte)cal_i.get(Calendar.DAY_OF_MONTH);
+	  weekday[i] = (byte)(cal_i.get(Calendar.DAY_OF_WEEK)-1);  //* sun: 1 => 0
+	  weekOfMonth[i] = (byte)cal_i.get(Calendar.WEEK_OF_MONTH);
+	  epochDy[i] = Utils.epochDy(year[i], month[i], day[i]);
+	}
+  }
+  
+  private static final String[] DD = new String[32];   //* "01" .. "31"
+  static {
+	for (int d=0; d<DD.length; d++)
+	  DD[d] = String.format("%02d", d);
+  }
+  
+  int getWeekday(int iDayIndex) {
+	return weekday[iDayIndex];
   }
   
   int getWeek(int iDayIndex) {
-	Calendar cal_i = new GregorianCalendar();
-	cal_i.setTime(this.prcDate[iDayIndex]);
-	return cal_i.get(Calendar.WEEK_OF_MONTH);  
+	return weekOfMonth[iDayIndex];
   }
   
   String getYear(int iDayIndex) {
-    return sdfyyyy.format(this.prcDate[iDayIndex].getTime());
+    return String.valueOf(year[iDayIndex]);
   }  
   
   String getMonth(int iDayIndex) {
-	return sdfMM.format(this.prcDate[iDayIndex].getTime());
+	return DD[month[iDayIndex]];
   }
   
   String getDay(int iDayIndex) {
-	return sdfdd.format(this.prcDate[iDayIndex].getTime());
+	return DD[day[iDayIndex]];
   }    
   
   int getTimeCol(String strTime) {
@@ -0,0 +1,212 @@
+package program;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+
+
+public class InstrStore {
+
+  /* Binary store of an imported instrument, one file per instr, written after scrubbing
+   * so a restart can read it back instead of re-parsing the 1 min ascii file
+   *
+   * Layout (big endian, java default):
+   *   header    HDR_BYTES : magic, version, key, rows, cols, firstTimeCol, lastTimeCol,
+   *                         src min file length, src min file modified, exclude file modified
+   *   prcTime   cols * TIME_BYTES  : ascii, 0 padded - "HH:mm", "HIGH", "LOW"
+   *   prcDate   rows * 8           : epoch millis
+   *   prc       rows * cols * 8    : row major, i.e. day i starts at (i * cols)
+   *
+   * Bump VERSION whenever the layout or the import algorithm changes - old files are then ignored
+   * and re-imported from the ascii file.
+   *
+   * load() reads prc into a heap PrcMatrix, it is not served from a mapping: an append copies it
+   * into a bigger array anyway (ImportDataConvert.APPEND_HEADROOM_DYS), the scrub and write() work
+   * on array(), and a mapping would keep the file open for as long as any snapshot holds the version.
+   */
+  public final static int MAGIC = 0x44534350;   //* "DSCP"
+  public final static int VERSION = 1;
+  public final static int HDR_BYTES = 64;
+  public final static int TIME_BYTES = 8;
+  public final static String FILE_EXT = ".prc";
+  final static int READ_BYTES = 1 << 20;   //* prc is read in blocks of this
+
+
+  public static String getStorePath(Instr InstrX) {
+	//* esdata1min24hr.asc => esdata1min24hr.prc
+	String strName = InstrX.fileMinName;
+	int y_Dot = strName.lastIndexOf(".");
+	if (y_Dot > 0)
+	  strName = strName.substring(0, y_Dot);
+	return AGlobal.DATA_OUT_DIR + strName + FILE_EXT;
+  }
+
+
+  public static void write(Instr InstrX) throws IOException {
+
+	int rows = InstrX.prc.length;
+	int cols = InstrX.lastCol+1;
+	File srcFile = new File(AGlobal.DATA_IN_DIR + InstrX.fileMinName);
+	File exclFile = new File(AGlobal.DATA_IN_DIR + InstrX.fileExcludeName);
+
+	//* write to tmp then move over the store in one step, so load() never reads a half written file
+	//* and there is always a store file to read
+	File outFile = new File(getStorePath(InstrX));
+	File tmpFile = new File(outFile.getPath() + ".tmp");
+	DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile), 1 << 16));
+	try {
+	  //* header
+	  out.writeInt(MAGIC);
+	  out.writeInt(VERSION);
+	  out.writeInt(InstrX.key);
+	  out.writeInt(rows);
+	  out.writeInt(cols);
+	  out.writeInt(InstrX.firstTimeCol);
+	  out.writeInt(InstrX.lastTimeCol);
+	  out.writeLong(srcFile.length());
+	  out.writeLong(srcFile.lastModified());
+	  out.writeLong(exclFile.lastModified());
+	  for (int b=out.size(); b<HDR_BYTES; b++)
+		out.writeByte(0);
+
+	  //* prcTime
+	  for (int j=0; j<cols; j++) {
+		String strTime = (InstrX.prcTime[j] == null) ? "" : InstrX.prcTime[j];
+		for (int b=0; b<TIME_BYTES; b++)
+		  out.writeByte(b < strTime.length() ? strTime.charAt(b) : 0);
+	  }
+
+	  //* prcDate
+	  for (int i=0; i<rows; i++)
+		out.writeLong(InstrX.prcDate[i].getTime());
+
+	  //* prc
+	  double[] data = InstrX.prc.array();
+	  for (int k=0; k<rows*cols; k++)
+		out.writeDouble(data[k]);
+	} finally {
+	  out.close();
+	}
+
+	Files.move(tmpFile.toPath(), outFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+
+  /* Returns false (and leaves InstrX untouched) if there is no store, it is an older version,
+   * or the ascii / exclude files changed since it was written - caller then imports the ascii file
+   */
+  public static boolean load(Instr InstrX) throws IOException {
+	return load(InstrX, true);
+  }
+  
+  //* blChkSrc false: take the store even if the ascii file grew since, for an incremental import
+  public static boolean load(Instr InstrX, boolean blChkSrc) throws IOException {
+
+	File storeFile = new File(getStorePath(InstrX));
+	if (!storeFile.exists())
+	  return false;
+
+	File srcFile = new File(AGlobal.DATA_IN_DIR + InstrX.fileMinName);
+	File exclFile = new File(AGlobal.DATA_IN_DIR + InstrX.fileExcludeName);
+	int cols = InstrX.lastCol+1;
+
+	RandomAccessFile raf = new RandomAccessFile(storeFile, "r");
+	try {
+	  FileChannel channel = raf.getChannel();
+	  long size = channel.size();
+	  if (size < HDR_BYTES)
+		return false;
+	  ByteBuffer hdr = read(channel, 0, HDR_BYTES);
+
+	  if (hdr.getInt(0) != MAGIC
+		  || hdr.getInt(4) != VERSION
+		  || hdr.getInt(8) != InstrX.key
+		  || hdr.getInt(16) != cols
+		  || hdr.getInt(20) != InstrX.firstTimeCol
+		  || hdr.getInt(24) != InstrX.lastTimeCol)
+		return false;
+	  if (blChkSrc
+		  && (hdr.getLong(28) != srcFile.length()
+		      || hdr.getLong(36) != srcFile.lastModified()
+		      || hdr.getLong(44) != exclFile.lastModified()))
+		return false;
+
+	  int rows = hdr.getInt(12);
+	  long timeOff = HDR_BYTES;
+	  long dateOff = timeOff + (long)cols*TIME_BYTES;
+	  long prcOff = dateOff + (long)rows*8;
+	  if (rows < 0 || size != prcOff + (long)rows*cols*8)
+		return false;
+
+	  //* prcTime
+	  String[] prcTime = new String[cols];
+	  ByteBuffer bbTime = read(channel, timeOff, cols*TIME_BYTES);
+	  byte[] bTime = new byte[TIME_BYTES];
+	  for (int j=0; j<cols; j++) {
+		bbTime.get(bTime);
+		int len = 0;
+		while (len < TIME_BYTES && bTime[len] != 0)
+		  len++;
+		prcTime[j] = (len == 0) ? null : new String(bTime, 0, len, "US-ASCII");
+	  }
+
+	  //* prcDate
+	  Date[] prcDate = new Date[rows];
+	  LongBuffer lbDates = read(channel, dateOff, rows*8).asLongBuffer();
+	  for (int i=0; i<rows; i++)
+		prcDate[i] = new Date(lbDates.get(i));
+
+	  //* prc - same row major layout as PrcMatrix, in blocks straight into its array
+	  PrcMatrix prc = new PrcMatrix(rows, cols);
+	  double[] data = prc.array();
+	  ByteBuffer block = ByteBuffer.allocate(READ_BYTES);
+	  long pos = prcOff;
+	  for (int k=0; k<rows*cols; ) {
+		int n = Math.min(READ_BYTES/8, rows*cols - k);
+		block.clear();
+		block.limit(n*8);
+		readFully(channel, block, pos);
+		block.flip();
+		block.asDoubleBuffer().get(data, k, n);
+		k += n;
+		pos += (long)n*8;
+	  }
+
+	  InstrX.prcTime = prcTime;
+	  InstrX.prcDate = prcDate;
+	  InstrX.setCalendar();
+	  InstrX.prc = prc;
+	} finally {
+	  raf.close();
+	}
+
+	return true;
+  }
+
+  //* len bytes at pos
+  private static ByteBuffer read(FileChannel channel, long pos, int len) throws IOException {
+	ByteBuffer buf = ByteBuffer.allocate(len);
+	readFully(channel, buf, pos);
+	buf.flip();
+	return buf;
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buf, long pos) throws IOException {
+	while (buf.hasRemaining()) {
+	  int n = channel.read(buf, pos);
+	  if (n < 0)
+		throw new IOException("ERROR - Store file ends early at " + pos);
+	  pos += n;
+	}
+  }
+
+}
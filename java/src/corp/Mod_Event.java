@@ -99,17 +99,17 @@ public class Mod_Event {
 	    	 break;
 	       //System.out.println(InstrDep.getYear(i)+"/"+InstrDep.getMonth(i)+"/"+InstrDep.getDay(i));      
 	       if (strLvlEvent.equals("h1")) {
-	    	   prcThresh_i = InstrDep.prc[i-1][InstrDep.hi24Col];
+	    	   prcThresh_i = InstrDep.prc.get(i-1, InstrDep.hi24Col);
 	           //System.out.println(" " + prcThresh_i + " " + Strategy.timeRefCol);  
 	           //System.out.println(" " + InstrDep.prc[i + evtBegDyFwd][evtBegTimeCol]);  
 	       } else if (strLvlEvent.equals("l1")) {    	   
-	    	   prcThresh_i = InstrDep.prc[i-1][InstrDep.lo24Col];
+	    	   prcThresh_i = InstrDep.prc.get(i-1, InstrDep.lo24Col);
 	       } else if (strLvlEvent.indexOf("h(") >= 0) {
 	    	   prcThresh_i = strat_HighLow.calcHigh(i);   
 	       } else if (strLvlEvent.indexOf("l(") >= 0) {
 	    	   prcThresh_i = strat_HighLow.calcLow(i);
 	       } else { 	
-	    	   prcThresh_i = InstrDep.prc[i][Strategy.timeRefCol] + ptsEnter; 	
+	    	   prcThresh_i = InstrDep.prc.get(i, Strategy.timeRefCol) + ptsEnter; 	
 	       }
 	       //System.out.println(" " + evtBegDyFwd + ","+ evtBegTimeCol + " to " + evtEndDyFwd+ "," + evtEndTimeCol);       
 	       boolean blFoundEvent = false;
@@ -125,7 +125,7 @@ public class Mod_Event {
 	      	    endCol = evtEndTimeCol;
 	      		      
 	          for (int j=startCol; j<=endCol; j++) {  //* go across time
-	             prc_ij = InstrDep.prc[i + iDysFwd][j];
+	             prc_ij = InstrDep.prc.get(i + iDysFwd, j);
 	      	     if ((ptsEnter <  0 && prc_ij <= prcThresh_i) || 
 	      		     (ptsEnter >= 0 && prc_ij >= prcThresh_i)) { 
 	      	    	 
@@ -172,7 +172,7 @@ public class Mod_Event {
 	    
 	    for (int idx=0; idx<Strategy.trdCondDyIndex.size(); idx++) {
 	       i = Strategy.trdCondDyIndex.get(idx); 	
-		   prcRef_i = InstrDep.prc[i][Strategy.timeRefCol];
+		   prcRef_i = InstrDep.prc.get(i, Strategy.timeRefCol);
 		
 	  	   String ret = searchEvtZ(evtBegFrameTimeCol, evtEndFrameTimeCol, 
 	                               evtBegTimeCol, evtEndTimeCol,
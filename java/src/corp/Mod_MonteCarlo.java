@@ -0,0 +1,151 @@
+package program;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import program.stats.PsRandom;
+
+
+public class Mod_MonteCarlo {
+
+  /* Monte Carlo over the trade P&L of Mod_SysTrade (plTrades, in trade order)
+   *
+   * Each path is the trades drawn again - with replacement (bootstrap) or reshuffled (cmdBlPermute) -
+   * and run through as one equity: total points, largest drawdown trade to trade (peak to valley,
+   * negative as Mod_SysTrade's) and longest losing streak. The percentiles over the paths say how
+   * much of the one realized sequence was luck of the order.
+   *
+   * Paths go in chunks of CHUNK, chunk c drawing from substream c of PsRandom.splittable(cmdSeed), on
+   * Strat_ExprTask.POOL, up to parallelism at once - the same seed gives the same report whatever the count.
+   */
+  public static final int DEFAULT_PATHS = 10000;
+  static final int CHUNK = 500;
+  static final double[] PCTS = {5, 25, 50, 75, 95};
+
+  public int cmdPaths = DEFAULT_PATHS;
+  public boolean cmdBlPermute = false;
+  public long cmdSeed = 19870119L;
+
+  public double[] totPl;        //* by path, sorted after run()
+  public double[] maxDrawDn;
+  public int[] maxConsecLose;
+  public double pctLosePaths;
+  public String strView = "";
+
+  private final double[] plTrades;
+  private final int parallelism;
+
+
+  public Mod_MonteCarlo(double[] plTrades, int parallelism) {
+	this.plTrades = plTrades;
+	this.parallelism = Math.max(1, parallelism);
+  }
+
+
+  public void run() throws Exception{
+	if (plTrades.length < 2)
+	  throw new ExceptionCmd("ERROR - Monte Carlo: needs at least 2 trades");
+	if (cmdPaths < 1)
+	  throw new ExceptionCmd("ERROR - Monte Carlo: needs at least 1 path");
+	totPl = new double[cmdPaths];
+	maxDrawDn = new double[cmdPaths];
+	maxConsecLose = new int[cmdPaths];
+
+	final PsRandom rndRoot = PsRandom.splittable(cmdSeed);
+	int nChunks = (cmdPaths + CHUNK - 1) / CHUNK;
+	List<Callable<Void>> chunks = new ArrayList<Callable<Void>>();
+	for (int c=0; c<nChunks; c++) {
+	  final int chunk = c;
+	  chunks.add(new Callable<Void>() {
+		@Override
+		public Void call() {
+		  runChunk(chunk, rndRoot.substream(chunk));
+		  return null;
+		}
+	  });
+	}
+	Strat_ExprTask.runAll(chunks, parallelism);
+
+	int cntLose = 0;
+	for (double pl : totPl)
+	  if (pl < 0)
+		cntLose++;
+	pctLosePaths = 100.0 * cntLose / cmdPaths;
+	Arrays.sort(totPl);
+	Arrays.sort(maxDrawDn);
+	Arrays.sort(maxConsecLose);
+	strView = getReport();
+  }
+
+  //* paths chunk*CHUNK .. on their own stream, only writes their slots
+  private void runChunk(int chunk, PsRandom rnd) {
+	int n = plTrades.length;
+	double[] perm = cmdBlPermute ? Arrays.copyOf(plTrades, n) : null;
+	double[] u = new double[n];
+	for (int p=chunk*CHUNK; p<Math.min(cmdPaths, (chunk+1)*CHUNK); p++) {
+	  rnd.fill(u);
+	  if (cmdBlPermute) {
+		for (int k=n-1; k>0; k--) {   //* Fisher-Yates
+		  int r = (int)(u[k] * (k+1));
+		  double tmp = perm[k];
+		  perm[k] = perm[r];
+		  perm[r] = tmp;
+		}
+	  }
+	  double equity = 0;
+	  double peak = 0;
+	  double drawDn = 0;
+	  int consecLose = 0;
+	  int maxLose = 0;
+	  for (int k=0; k<n; k++) {
+		double pl = cmdBlPermute ? perm[k] : plTrades[(int)(u[k] * n)];
+		equity += pl;
+		if (equity > peak)
+		  peak = equity;
+		else if (equity - peak < drawDn)
+		  drawDn = equity - peak;
+		if (pl <= 0) {   //* as calcStats counts a losing streak
+		  if (++consecLose > maxLose)
+			maxLose = consecLose;
+		} else {
+		  consecLose = 0;
+		}
+	  }
+	  totPl[p] = equity;
+	  maxDrawDn[p] = drawDn;
+	  maxConsecLose[p] = maxLose;
+	}
+  }
+
+  //* nearest rank of pct in a sorted array
+  static int rank(int n, double pct) {
+	return (int)Math.round(pct / 100.0 * (n-1));
+  }
+
+
+  private String getReport() {
+	StringBuilder strb = new StringBuilder();
+	strb.append("\nMonte Carlo - " + cmdPaths + " paths, " + (cmdBlPermute ? "reshuffled " : "bootstrap of ")
+		+ plTrades.length + " trades\n");
+	strb.append("------------------");
+	strb.append("\n                           ");
+	for (double pct : PCTS)
+	  strb.append(String.format("%8s", "P" + (int)pct));
+	strb.append("\nTotal points              :");
+	for (double pct : PCTS)
+	  strb.append(String.format("%8.2f", totPl[rank(cmdPaths, pct)]));
+	strb.append("\nLargest DrawDn            :");
+	for (double pct : PCTS)
+	  strb.append(String.format("%8.2f", maxDrawDn[rank(cmdPaths, pct)]));
+	strb.append("\nMax Consec Lose Streak    :");
+	for (double pct : PCTS)
+	  strb.append(String.format("%8d", maxConsecLose[rank(cmdPaths, pct)]));
+	strb.append("\nPct paths with a loss     : ");
+	strb.append(String.format("%8.2f", pctLosePaths));
+	strb.append("\n\n");
+	return strb.toString();
+  }
+
+}
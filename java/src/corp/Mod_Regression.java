@@ -102,34 +102,33 @@ class Mod_Regression {
 	    num_features++;
 	}  
 	
-	//* Parse and calc Y and X feature(s)
+	//* Parse and calc Y and X feature(s) - look-backs into session.warmUp, InstrDep.maxDysBk stays the base
     //* Y
 	Strat_Expression stratExpr = new Strat_Expression(InstrDep, cmdY, session);
-	stratExpr.parseAndSetConditions();
-	stratExpr.calc();
+	session.warmUp.report(session.warmUp.parseAndCalc(stratExpr));
 	
 	//* X features
 	Strat_Expression[] stratExprX = new Strat_Expression[num_features];
 	for (int f=0; f<num_features; f++) {
 	  stratExprX[f] = new Strat_Expression(InstrDep, strX[f], session);
-	  stratExprX[f].parseAndSetConditions();  
-	  stratExprX[f].calc();
+	  session.warmUp.report(session.warmUp.parseAndCalc(stratExprX[f]));
 	}
+	int begDyIdx = session.getBegDyIdx();
 	
 	//* Only concerned with calcd y-x mappings
 	//len_series = session.endTstDateIndex - session.begTstDateIndex + 1;
-    len_series = session.endTstDateIndex - InstrDep.maxDysBk + 1;
+    len_series = session.endTstDateIndex - begDyIdx + 1;
 	yData = new double[len_series];
 	for (int i=0; i<len_series; i++) {
 		//yData[i] = stratExpr.calcdExprFn[maxExprDysBk + Strategy.begTstDateIndex + i];
-		yData[i] = stratExpr.calcdExprFn[InstrDep.maxDysBk + i];
+		yData[i] = stratExpr.calcdExprFn[begDyIdx + i];
 	}
 	
 	xData = new double[num_features][len_series];
 	for (int f=0; f<num_features; f++) {
 	    for (int i=0; i<len_series; i++) {
 	    	//xData[f][i] = stratExprX[f].calcdExprFn[maxExprDysBk + Strategy.begTstDateIndex + i];    	
-	    	xData[f][i] = stratExprX[f].calcdExprFn[InstrDep.maxDysBk + i];
+	    	xData[f][i] = stratExprX[f].calcdExprFn[begDyIdx + i];
 	    }
 	}
 	
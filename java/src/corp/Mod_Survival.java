@@ -120,8 +120,8 @@ public class Mod_Survival {
       iExitIndex = tradeInfo[2];
       jExitTimeCol = tradeInfo[3];
       
-      prcEnterAt = InstrDep.prc[iEnterIndex][jEnterTimeCol];
-      prcExitAt = InstrDep.prc[iExitIndex][jExitTimeCol];
+      prcEnterAt = InstrDep.prc.get(iEnterIndex, jEnterTimeCol);
+      prcExitAt = InstrDep.prc.get(iExitIndex, jExitTimeCol);
       
       //* PL (realized) PER TRADE!
       totPl += (prcExitAt - prcEnterAt);
@@ -151,8 +151,8 @@ public class Mod_Survival {
         jExitTimeCol = tradeInfo[3];
         
         if (iExitIndex == i) {
-            prcEnterAt = InstrDep.prc[iEnterIndex][jEnterTimeCol];
-            prcExitAt = InstrDep.prc[iExitIndex][jExitTimeCol];
+            prcEnterAt = InstrDep.prc.get(iEnterIndex, jEnterTimeCol);
+            prcExitAt = InstrDep.prc.get(iExitIndex, jExitTimeCol);
             plUnreal[iExitIndex] += (prcExitAt - prcEnterAt);    
         }
       }
@@ -291,12 +291,12 @@ public class Mod_Survival {
     Integer[] tradeInfo;
     for (int i=session.begTstDateIndex; i<=session.endTstDateIndex; i++) {
        	  	
-      if (trds.conditionDy[i] != 1) {
+      if (!trds.conditionDy.get(i)) {
           boolean blOccured = false;
           int cntM = 0;
           int n = 1;
           while (i-n >= session.begTstDateIndex && !blOccured) {
-    	    if (trds.conditionDy[i-n] != 1) {			  
+    	    if (!trds.conditionDy.get(i-n)) {			  
     		    cntM++;
     		    n++;
     	    } else {
@@ -321,7 +321,7 @@ public class Mod_Survival {
     	        }  
     	      } else if (parExitType == 1) { //* exit when WAIT=0
     	          for (int k=i+1; k<=session.endTstDateIndex; k++) {
-      		        if (trds.conditionDy[k] == 1) {
+      		        if (trds.conditionDy.get(k)) {
       	                cntTrades++;
       		            tradeInfo = new Integer[4];
       		            tradeInfo[0] = i;
@@ -2,6 +2,8 @@ package program;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
@@ -9,6 +11,10 @@ import java.util.Date;
 public class Mod_SysTrade {
   
   public int cmd_maxopencontract;	
+  public int parallelism = 1;   //* exits of calc_trades_exit at once on Strat_ExprTask.POOL, session.parallelism from the handlers
+  static final int MIN_EXITS_PER_THREAD = 32;
+  public boolean blEventIndex = true;   //* false: stop/target searches take the minute loop, not Strat_EventIndex - same exits
+  public int cmd_montecarlo_paths = Mod_MonteCarlo.DEFAULT_PATHS;   //* Monte Carlo after the Long / Short stats of run_constructView, 0 off
   public boolean cmd_bl_exit_feature_fixed=false;
   public boolean cmd_bl_exit_feature_event=false;  //* ENTRY/EXIT: event(b > p@1015) vs enter(0,1015)
   public String cmd_exit_feature_fixed_timestr;
@@ -131,8 +137,8 @@ public class Mod_SysTrade {
 	evtProfitBegTimeCol = session.entryfixed_timecol+1;  
 	evtProfitEndTimeCol = InstrDep.lastTimeCol;  	
 	evtProfitStdPeriod = 40;
-	if(InstrDep.maxDysBk < evtProfitStdPeriod+1) 
-	  InstrDep.maxDysBk = evtProfitStdPeriod+1;
+	//* z stats need stdPeriod+1 days of history - a first day, reported as what it adds onto the base
+	session.warmUp.report(Math.max(0, evtProfitStdPeriod+1 - InstrDep.maxDysBk));
 
 	evtStopBegFrameTimeCol = InstrDep.firstTimeCol;
 	evtStopEndFrameTimeCol = InstrDep.lastTimeCol;
@@ -141,8 +147,7 @@ public class Mod_SysTrade {
 	evtStopBegTimeCol = session.entryfixed_timecol + 1; 
 	evtStopEndTimeCol = session.InstrDep.lastTimeCol;  
 	evtStopStdPeriod = 40;
-	if(InstrDep.maxDysBk < evtStopStdPeriod+1) 
-	  InstrDep.maxDysBk = evtStopStdPeriod+1;
+	session.warmUp.report(Math.max(0, evtStopStdPeriod+1 - InstrDep.maxDysBk));
 	
   }
   
@@ -157,6 +162,7 @@ public class Mod_SysTrade {
 	strView += getObservations();
 	calcStats();    //* Buy stats
 	strView += getStatsReport();
+	strView += getMonteCarloReport();
 	
 	//plUnrealCum_long = Arrays.copyOfRange(plUnrealCum, 0, plUnrealCum.length);
 	plUnrealCum_long = Arrays.copyOf(plUnrealCum, plUnrealCum.length);
@@ -186,6 +192,7 @@ public class Mod_SysTrade {
 	strView += getObservations();
 	calcStats();   //* Sell stats
 	strView += getStatsReport();
+	strView += getMonteCarloReport();
 	     
 	plUnrealCum_short = Arrays.copyOf(plUnrealCum, plUnrealCum.length);
 	grapher.series_fd[1] = Arrays.copyOfRange(plUnrealCum_short, session.begTstDateIndex, session.endTstDateIndex+1);
@@ -439,7 +446,7 @@ public class Mod_SysTrade {
   }  //* method: display observations 
   
   
-  private void calcStats() {
+  void calcStats() {
     totPl=0;
 	avgPl=0;           //* totPts/trade
 	stdev=0;
@@ -656,8 +663,8 @@ public class Mod_SysTrade {
     int cntDrawDn=0;
     boolean blWentDn=false;
     double curHiPl = 0;
-    int kBeg=session.InstrDep.maxDysBk; //begTstDateIndex;
-    int kEnd=session.InstrDep.maxDysBk+1;
+    int kBeg=session.getBegDyIdx(); //begTstDateIndex;
+    int kEnd=session.getBegDyIdx()+1;
     while (kBeg < session.endTstDateIndex) {	
       for (kEnd=kBeg+1; kEnd<=session.endTstDateIndex; kEnd++) {
         plTmp = plUnrealCum[kEnd] - curHiPl;  
@@ -701,7 +708,7 @@ public class Mod_SysTrade {
     int cntDrawUp=0;
     boolean blWentUp=false;
     plTmp=0;
-    kBeg=session.InstrDep.maxDysBk;  //begTstDateIndex;
+    kBeg=session.getBegDyIdx();  //begTstDateIndex;
     while (kBeg < session.endTstDateIndex) {
       curHiPl = plUnrealCum[kBeg];
       localMaxDraw=0;
@@ -758,6 +765,16 @@ public class Mod_SysTrade {
   }
 
   
+  //* percentile bands of plTrades resampled, see Mod_MonteCarlo - after calcStats()
+  String getMonteCarloReport() throws Exception{
+	if (cmd_montecarlo_paths <= 0 || plTrades == null || plTrades.length < 2)
+	  return "";
+	Mod_MonteCarlo mc = new Mod_MonteCarlo(plTrades, parallelism);
+	mc.cmdPaths = cmd_montecarlo_paths;
+	mc.run();
+	return mc.strView;
+  }
+  
   String getStatsReport(){
 	StringBuilder strb = new StringBuilder();
 	  
@@ -889,7 +906,7 @@ public class Mod_SysTrade {
     double pl_t;
     double prcEnterInter;
     
-	for (int i=InstrDep.maxDysBk; i<=session.endTstDateIndex; i++) {
+	for (int i=session.getBegDyIdx(); i<=session.endTstDateIndex; i++) {
 		
 	  for (int t=0; t<totTrades; t++) {
 	    tradeDetails = trades.get(t);
@@ -907,10 +924,10 @@ public class Mod_SysTrade {
 	    	prcEnterInter = entry_prc_t;
 	        for (int iDy=entry_dyidx_t; iDy<=exit_dyidx_t - 1; iDy++) { 
 	          if(blBuy)
-	            plUnreal[iDy] += (InstrDep.prc[iDy][InstrDep.clsDyCol] - prcEnterInter);
+	            plUnreal[iDy] += (InstrDep.prc.get(iDy, InstrDep.clsDyCol) - prcEnterInter);
 	          else 
-	            plUnreal[iDy] += (-InstrDep.prc[iDy][InstrDep.clsDyCol] + prcEnterInter);
-	          prcEnterInter = InstrDep.prc[iDy][InstrDep.clsDyCol];
+	            plUnreal[iDy] += (-InstrDep.prc.get(iDy, InstrDep.clsDyCol) + prcEnterInter);
+	          prcEnterInter = InstrDep.prc.get(iDy, InstrDep.clsDyCol);
 	        }
 	        //* Day of exit - note this could be also day of entry!
 	        if(blBuy)
@@ -995,9 +1012,9 @@ public class Mod_SysTrade {
 		
 		for (int jTimeCol=begDaysTimeCol; jTimeCol<=InstrDep.lastTimeCol; jTimeCol++) {
           if(blBuy)
-            intradayPl = (InstrDep.prc[iDay][jTimeCol] - entry_prc_t);
+            intradayPl = (InstrDep.prc.get(iDay, jTimeCol) - entry_prc_t);
           else
-            intradayPl = (-InstrDep.prc[iDay][jTimeCol] + entry_prc_t);
+            intradayPl = (-InstrDep.prc.get(iDay, jTimeCol) + entry_prc_t);
           if (intradayPl > maxIntradayTradesPl) maxIntradayTradesPl = intradayPl;
           if (intradayPl > maxIntradaysPl) maxIntradaysPl = intradayPl;
           if (intradayPl < minIntradayTradesPl) minIntradayTradesPl = intradayPl;
@@ -1024,9 +1041,9 @@ public class Mod_SysTrade {
 	  
       for (int jTimeCol=begDaysTimeCol; jTimeCol<=exit_timecol_t; jTimeCol++) {
         if(blBuy)
-          intradayPl = (InstrDep.prc[exit_dyidx_t][jTimeCol] - entry_prc_t);
+          intradayPl = (InstrDep.prc.get(exit_dyidx_t, jTimeCol) - entry_prc_t);
         else    
-          intradayPl = (-InstrDep.prc[exit_dyidx_t][jTimeCol] + entry_prc_t);
+          intradayPl = (-InstrDep.prc.get(exit_dyidx_t, jTimeCol) + entry_prc_t);
         
         if (intradayPl > maxIntradayTradesPl) maxIntradayTradesPl = intradayPl;
         if (intradayPl > maxIntradaysPl) maxIntradaysPl = intradayPl;
@@ -1079,20 +1096,16 @@ public class Mod_SysTrade {
 	 * Requires: Trades trds_entry
 	 * Sets trades  
 	 */
-    double exit_prc;
-    int exitReason;
-    int exitFirstDayIndex;
-    int exitFirstTimeCol;
-    boolean blExitFound;
-    Double[] tradeDetails;
-    double entry_prc_t;
-	int entry_dyidx_t;
-	int entry_dyfwd_t;
-	int entry_timecol_t;
-	
+	calc_trds_exit_feature();
+	calc_trades_exit(0, session.endTstDateIndex);
+  }
+  
+  
+  /* Sets trds_exit of the exit feature
+   * runs Processor on the session (and flips its bl_exit_*), so not from several threads
+   */
+  public void calc_trds_exit_feature() throws Exception{
 	Trades trds_exit_fixed=null, trds_exit_event=null;
-	ArrayList<Integer> tradesOpenContractKey = new ArrayList<Integer>();	
-	int cntTrades=0;
 	
     //* Exit Feature option - one or both can be set, in which case first entry
     if (cmd_bl_exit_feature_fixed) {
@@ -1114,14 +1127,148 @@ public class Mod_SysTrade {
     } if (!cmd_bl_exit_feature_fixed && cmd_bl_exit_feature_event) {
     	trds_exit = trds_exit_event;
     }
+  }
+  
+  
+  /* Sets trades for the entries of trds_entry on days begDyIdx..endDyIdx (an exit may come later)
+   * Requires: trds_entry, trds_exit, trades
+   * only reads the session - trials of Mod_WalkForward run it side by side on shared trds_entry/trds_exit
+   */
+  public void calc_trades_exit(int begDyIdx, int endDyIdx) throws Exception{
+    Double[] tradeDetails;
+    double entry_prc_t;
+	int entry_dyidx_t;
+	int entry_timecol_t;
+	
+	ArrayList<Integer> tradesOpenContractKey = new ArrayList<Integer>();	
+	int cntTrades=0;
+	
+	/* entries on begDyIdx..endDyIdx, and the col the p stop search of each starts at - the z stop
+	 * of the entry before moves evtStopBegTimeCol, as the profit searches move evtProfitBegTimeCol
+	 */
+	int[] entries = new int[trds_entry.entry_dyidx.size()];
+	int[] stopBegTimeCols = new int[entries.length];
+	int cnt = 0;
+	for (int t=0; t < trds_entry.entry_dyidx.size(); t++) {
+		entry_dyidx_t = trds_entry.entry_dyidx.get(t);
+		if (entry_dyidx_t < begDyIdx || entry_dyidx_t > endDyIdx)
+			continue;
+		entries[cnt] = t;
+		stopBegTimeCols[cnt] = evtStopBegTimeCol;
+		cnt++;
+		if (cmd_bl_exit_stoploss_z)
+			evtStopBegTimeCol = trds_entry.entry_timecol.get(t)+1;
+		if (cmd_bl_exit_profittarget_p || cmd_bl_exit_profittarget_z)
+			evtProfitBegTimeCol = trds_entry.entry_timecol.get(t)+1;
+	}
 	
     //* Given each trade entry, now go through possible exits 
-    //* and pick the one that happens first
-    for (int t=0; t < trds_entry.entry_dyidx.size(); t++) {
+    //* and pick the one that happens first - independent per entry, see calcExits()
+	//* the event index and its z stats once here, not per search - Strat_EventIndex.of() and zStats() take
+	//* locks shared by all requests, the exits then run without any
+	Strat_EventIndex index = null;
+	double[][] zStatsStop = null, zStatsProfit = null;
+	if (blEventIndex && (cmd_bl_exit_stoploss_p || cmd_bl_exit_stoploss_z || cmd_bl_exit_profittarget_p || cmd_bl_exit_profittarget_z)) {
+		index = Strat_EventIndex.of(InstrDep);
+		if (cmd_bl_exit_stoploss_z)
+			zStatsStop = index.zStats(InstrDep.prc, evtStopStdPeriod);
+		if (cmd_bl_exit_profittarget_z)
+			zStatsProfit = index.zStats(InstrDep.prc, evtProfitStdPeriod);
+	}
+	double[][] exits = calcExits(entries, stopBegTimeCols, cnt, index, zStatsStop, zStatsProfit);
+	
+	//* then the open contracts in entry order
+    for (int x=0; x < cnt; x++) {
+    	int t = entries[x];
+    	double[] exit = exits[x];
+    	entry_dyidx_t = trds_entry.entry_dyidx.get(t);
+        entry_timecol_t = trds_entry.entry_timecol.get(t);
+        entry_prc_t = InstrDep.prc.get(entry_dyidx_t, entry_timecol_t);
+        
+         //* 0) Go thru all OPN trades and see if exited out before today's entry  
+         for (int toc=0; toc<tradesOpenContractKey.size(); toc++) {
+            Double[] tradeInfo = trades.get(tradesOpenContractKey.get(toc));   //* these are only the open contracts!         
+      	    	
+      	    if ((tradeInfo[5].intValue() < entry_dyidx_t) ||
+      	        (tradeInfo[5].intValue() == entry_dyidx_t && tradeInfo[6].intValue() <= entry_timecol_t)) {
+      	        tradesOpenContractKey.remove(toc);
+      	    }
+         }
+        
+         //* 1) Now add contract ONLY if below contract limit  
+         if (tradesOpenContractKey.size() < cmd_maxopencontract && exit != null) {
+         	 tradesOpenContractKey.add(cntTrades);
+         	 
+	         tradeDetails = new Double[TRADEDETAILS_MAX];
+	         tradeDetails[0] = entry_prc_t;
+	         tradeDetails[1] = (double)entry_dyidx_t;
+	         tradeDetails[2] = (double)entry_timecol_t;
+	         tradeDetails[3] = -1.0;
+	         tradeDetails[4] = exit[0];
+	         tradeDetails[5] = exit[1];
+	         tradeDetails[6] = exit[2];
+	         tradeDetails[7] = exit[3];
+	         tradeDetails[8] = exit[0] - entry_prc_t;
+	         tradeDetails[9] = -1.0;
+	         trades.add(tradeDetails);
+		     cntTrades++;
+       }   
+      
+    }  //* x loop for the entries 
+    totTrades = cntTrades;
+    
+  }  //* calc method
+  
+  
+  /* exits[x] = calcExit(entries[x], ..) for x < cnt - in up to parallelism runs of x on Strat_ExprTask.POOL
+   * when there are enough entries; the result does not depend on how they are split
+   */
+  private double[][] calcExits(final int[] entries, final int[] stopBegTimeCols, int cnt,
+                               final Strat_EventIndex index, final double[][] zStatsStop,
+                               final double[][] zStatsProfit) throws Exception{
+	final double[][] exits = new double[cnt][];
+	int nRuns = Math.max(1, Math.min(parallelism, cnt / MIN_EXITS_PER_THREAD));
+	List<Callable<Void>> runs = new ArrayList<Callable<Void>>();
+	for (int n=0; n<nRuns; n++) {
+	  final int beg = (int)((long)cnt * n / nRuns);
+	  final int end = (int)((long)cnt * (n+1) / nRuns);
+	  runs.add(new Callable<Void>() {
+		@Override
+		public Void call() throws Exception {
+		  for (int x=beg; x<end; x++)
+			exits[x] = calcExit(entries[x], stopBegTimeCols[x], index, zStatsStop, zStatsProfit);
+		  return null;
+		}
+	  });
+	}
+	Strat_ExprTask.runAll(runs, nRuns);
+	return exits;
+  }
+  
+  
+  /* Exit of entry t of trds_entry that happens first: {exit_prc, exit dy idx, exit time col, exit reason}, null if none
+   * evtStopBegTimeCol/evtProfitBegTimeCol are locals here (the value the sequential loop had) - it only
+   * reads the fields and the session, so entries can be resolved on several threads
+   * index: Strat_EventIndex of InstrDep for the whole-day searches, null for the minute loop
+   * zStatsStop/zStatsProfit: index.zStats() of the z stop/target stdPeriod, null if not a z one
+   */
+  private double[] calcExit(int t, int evtStopBegTimeCol, Strat_EventIndex index,
+                            double[][] zStatsStop, double[][] zStatsProfit) throws Exception{
+    int evtProfitBegTimeCol = this.evtProfitBegTimeCol;
+    double exit_prc;
+    int exitReason;
+    int exitFirstDayIndex;
+    int exitFirstTimeCol;
+    boolean blExitFound;
+    double entry_prc_t;
+	int entry_dyidx_t;
+	int entry_dyfwd_t;
+	int entry_timecol_t;
+	
     	entry_dyidx_t = trds_entry.entry_dyidx.get(t); 	 	
     	entry_dyfwd_t = trds_entry.entry_dyfwd.get(t);  //* NOT BEING USED! ESP Z SEARCH
         entry_timecol_t = trds_entry.entry_timecol.get(t);         
-        entry_prc_t = InstrDep.prc[entry_dyidx_t][entry_timecol_t];   
+        entry_prc_t = InstrDep.prc.get(entry_dyidx_t, entry_timecol_t);   
         //System.out.println(">"+InstrDep.getYear(enterDyCondIdx_t)+"/"+InstrDep.getMonth(enterDyCondIdx_t)+"/"+InstrDep.getDay(enterDyCondIdx_t));
         
         exitFirstDayIndex=session.endTstDateIndex+1;
@@ -1156,7 +1303,7 @@ public class Mod_SysTrade {
     	            exitFirstDayIndex = exit_dyidx_k;
     	            exitFirstTimeCol = exit_mincol_k;
     	            exitReason = 0;
-    	            exit_prc = InstrDep.prc[exitFirstDayIndex][exitFirstTimeCol];
+    	            exit_prc = InstrDep.prc.get(exitFirstDayIndex, exitFirstTimeCol);
     	            blExitFound = true;
     	            break;
     	        }
@@ -1173,7 +1320,7 @@ public class Mod_SysTrade {
         	String ret = searchEvtP(evtStopBegFrameTimeCol, evtStopEndFrameTimeCol,
 		                            evtStopBegTimeCol, evtStopEndTimeCol,
                                     evtStopBegDyFwd, evtStopEndDyFwd, 
-                                    entry_dyidx_t, entry_prc_t, cmd_fd_exit_stoploss_p, !blBuy);
+                                    entry_dyidx_t, entry_prc_t, cmd_fd_exit_stoploss_p, !blBuy, index);
             if (ret.length() > 0) {
                 String params[] = ret.split(",");
                 int k = Integer.parseInt(params[0]);	   
@@ -1198,7 +1345,7 @@ public class Mod_SysTrade {
         	String ret = searchEvtZ(evtStopBegFrameTimeCol, evtStopEndFrameTimeCol,
 	                                evtStopBegTimeCol, evtStopEndTimeCol,
                                     evtStopBegDyFwd, evtStopEndDyFwd,
-                                    entry_dyidx_t, entry_prc_t, zThresh, evtStopStdPeriod);
+                                    entry_dyidx_t, entry_prc_t, zThresh, evtStopStdPeriod, index, zStatsStop);
         	if (ret.length() > 0) {
         	    String params[] = ret.split(",");
                 int k = Integer.parseInt(params[0]);	   
@@ -1269,7 +1416,7 @@ public class Mod_SysTrade {
         	String ret = searchEvtP(evtProfitBegFrameTimeCol, evtProfitEndFrameTimeCol,
         			                evtProfitBegTimeCol, evtProfitEndTimeCol,
                                     evtProfitBegDyFwd, evtProfitEndDyFwd, 
-                                    entry_dyidx_t, entry_prc_t, cmd_fd_exit_profittarget_p, blBuy);
+                                    entry_dyidx_t, entry_prc_t, cmd_fd_exit_profittarget_p, blBuy, index);
         	if (ret.length()>0) {
         	    String params[] = ret.split(",");
                 int k = Integer.parseInt(params[0]);	   
@@ -1296,7 +1443,7 @@ public class Mod_SysTrade {
         	String ret = searchEvtZ(evtProfitBegFrameTimeCol, evtProfitEndFrameTimeCol,
         			                evtProfitBegTimeCol, evtProfitEndTimeCol,
                                     evtProfitBegDyFwd, evtProfitEndDyFwd, 
-                                    entry_dyidx_t, entry_prc_t, zThresh, evtProfitStdPeriod);
+                                    entry_dyidx_t, entry_prc_t, zThresh, evtProfitStdPeriod, index, zStatsProfit);
         	if (ret.length()>0) {
         	    String params[] = ret.split(",");
                 int k = Integer.parseInt(params[0]);	   
@@ -1321,7 +1468,7 @@ public class Mod_SysTrade {
   	                 exitFirstDayIndex = entry_dyidx_t + cmd_exit_timetarget_dyfwd;
   	                 exitFirstTimeCol = cmd_exit_timetarget_timecol;
   	                 exitReason = 3;
-  	                 exit_prc = InstrDep.prc[exitFirstDayIndex][exitFirstTimeCol];
+  	                 exit_prc = InstrDep.prc.get(exitFirstDayIndex, exitFirstTimeCol);
   	                 blExitFound = true;
   	             }
     	     }
@@ -1339,47 +1486,64 @@ public class Mod_SysTrade {
   	                 exitFirstDayIndex = trds_entry.evtSrchBegDyIdx.get(t) + cmd_exit_timetarget_dyfwd;
   	                 exitFirstTimeCol = cmd_exit_timetarget_timecol;
   	                 exitReason = 4;
-  	                 exit_prc = InstrDep.prc[exitFirstDayIndex][exitFirstTimeCol];
+  	                 exit_prc = InstrDep.prc.get(exitFirstDayIndex, exitFirstTimeCol);
   	                 blExitFound = true;
   	             }
     	     }
          }    
           
-         //* 0) Go thru all OPN trades and see if exited out before today's entry  
-         for (int toc=0; toc<tradesOpenContractKey.size(); toc++) {
-            Double[] tradeInfo = trades.get(tradesOpenContractKey.get(toc));   //* these are only the open contracts!         
-      	    	
-      	    if ((tradeInfo[5].intValue() < entry_dyidx_t) ||
-      	        (tradeInfo[5].intValue() == entry_dyidx_t && tradeInfo[6].intValue() <= entry_timecol_t)) {
-      	        tradesOpenContractKey.remove(toc);
-      	    }
-         }
-        
-         //* 1) Now add contract ONLY if below contract limit  
-         if (tradesOpenContractKey.size() < cmd_maxopencontract && blExitFound) {
-         	 tradesOpenContractKey.add(cntTrades);
-         	 
-	         tradeDetails = new Double[TRADEDETAILS_MAX];
-	         tradeDetails[0] = entry_prc_t;
-	         tradeDetails[1] = (double)entry_dyidx_t;
-	         tradeDetails[2] = (double)entry_timecol_t;
-	         tradeDetails[3] = -1.0;
-	         tradeDetails[4] = exit_prc;
-	         tradeDetails[5] = (double)exitFirstDayIndex;
-	         tradeDetails[6] = (double)exitFirstTimeCol;
-	         tradeDetails[7] = (double)exitReason;
-	         tradeDetails[8] = exit_prc - entry_prc_t;
-	         tradeDetails[9] = -1.0;
-	         trades.add(tradeDetails);
-		     cntTrades++;
-       }   
-      
-    }  //* t for loop for all entries 
-    totTrades = cntTrades;
-    
-  }  //* calc method
+    if (!blExitFound)
+      return null;
+    return new double[]{exit_prc, exitFirstDayIndex, exitFirstTimeCol, exitReason};
+  }
 	
   
+  /* New Mod_SysTrade on the same session with the same cmd_*, side and trds_entry/trds_exit
+   * for Mod_WalkForward - the caller then changes the cmd_* it searches
+   */
+  public Mod_SysTrade copyCmds() throws Exception{
+	Mod_SysTrade copy = new Mod_SysTrade(session);
+	copy.init();
+	copy.blBuy = blBuy;
+	copy.blEventIndex = blEventIndex;
+	copy.cmd_maxopencontract = cmd_maxopencontract;
+	copy.cmd_bl_exit_feature_fixed = cmd_bl_exit_feature_fixed;
+	copy.cmd_bl_exit_feature_event = cmd_bl_exit_feature_event;
+	copy.cmd_exit_feature_fixed_timestr = cmd_exit_feature_fixed_timestr;
+	copy.cmd_exit_feature_fixed_dyfwd = cmd_exit_feature_fixed_dyfwd;
+	copy.cmd_exit_feature_fixed_timecol = cmd_exit_feature_fixed_timecol;
+	copy.cmd_bl_exit_profittarget_p = cmd_bl_exit_profittarget_p;
+	copy.cmd_bl_exit_profittarget_z = cmd_bl_exit_profittarget_z;
+	copy.cmd_fd_exit_profittarget_p = cmd_fd_exit_profittarget_p;
+	copy.cmd_fd_exit_profittarget_z = cmd_fd_exit_profittarget_z;
+	copy.cmd_bl_exit_stoploss_p = cmd_bl_exit_stoploss_p;
+	copy.cmd_bl_exit_stoploss_z = cmd_bl_exit_stoploss_z;
+	copy.cmd_fd_exit_stoploss_p = cmd_fd_exit_stoploss_p;
+	copy.cmd_fd_exit_stoploss_z = cmd_fd_exit_stoploss_z;
+	copy.cmd_bl_exit_timetarget_fix = cmd_bl_exit_timetarget_fix;
+	copy.cmd_bl_exit_timetarget_rel = cmd_bl_exit_timetarget_rel;
+	copy.cmd_str_exit_timetarget = cmd_str_exit_timetarget;
+	copy.cmd_exit_timetarget_dyfwd = cmd_exit_timetarget_dyfwd;
+	copy.cmd_exit_timetarget_timecol = cmd_exit_timetarget_timecol;
+	copy.trds_entry = trds_entry;
+	copy.trds_exit = trds_exit;
+	copy.trades = new ArrayList<Double[]>();
+	return copy;
+  }
+  
+  public void setBuy(boolean blBuy) {
+	this.blBuy = blBuy;
+  }
+  
+  //* pl of each trade in trades, long or short as blBuy
+  public double[] getTradePl() {
+	double[] pl = new double[totTrades];
+	for (int t=0; t<totTrades; t++)
+	  pl[t] = blBuy ? trades.get(t)[8] : -trades.get(t)[8];
+	return pl;
+  }
+  
+  
   /* 
    * For HiLo
    * All these must have been set BEFORE:
@@ -1420,24 +1584,24 @@ public class Mod_SysTrade {
     }
     
     //for (int t=0; t < trds_entry.dyIdx.size(); t++) {
-    for (int i=session.InstrDep.maxDysBk; i<=session.endTstDateIndex-cmd_exit_timetarget_dyfwd; i++) {
+    for (int i=session.getBegDyIdx(); i<=session.endTstDateIndex-cmd_exit_timetarget_dyfwd; i++) {
         //for (int i=0; i<trds.conditionDy.length; i++) {
-        if(trds_entry.conditionDy[i]!=1)
+        if(!trds_entry.conditionDy.get(i))
           continue;    
        
         //System.out.println(InstrDep.getYear(i)+"/"+InstrDep.getMonth(i)+"/"+InstrDep.getDay(i));      
         if (strLvlEvent.equals("h1")) {
-    	    prcThresh_i = InstrDep.prc[i-1][InstrDep.hiDyCol];
+    	    prcThresh_i = InstrDep.prc.get(i-1, InstrDep.hiDyCol);
             //System.out.println(" " + prcThresh_i + " " + Strategy.timeRefCol);  
             //System.out.println(" " + InstrDep.prc[i + evtSrchBeg_DyFwd][evtSrchBeg_TimeCol]);  
         } else if (strLvlEvent.equals("l1")) {    	   
-    	   prcThresh_i = InstrDep.prc[i-1][InstrDep.loDyCol];
+    	   prcThresh_i = InstrDep.prc.get(i-1, InstrDep.loDyCol);
         } else if (strLvlEvent.indexOf("h(") >= 0) {
     	   prcThresh_i = strat_HighLow.calcHigh(i);   
         } else if (strLvlEvent.indexOf("l(") >= 0) {
     	   prcThresh_i = strat_HighLow.calcLow(i);
         } else { 	
-    	   prcThresh_i = InstrDep.prc[i][session.entryfixed_timecol] + ptsEnter; 	
+    	   prcThresh_i = InstrDep.prc.get(i, session.entryfixed_timecol) + ptsEnter; 	
         }
         //System.out.println(" " + evtSrchBeg_DyFwd + ","+ evtSrchBeg_TimeCol + " to " + evtSrchEnd_DyFwd+ "," + evtSrchEnd_TimeCol);       
         boolean blFoundEvent = false;
@@ -1470,7 +1634,7 @@ public class Mod_SysTrade {
     	} 
       	                    		      
         for (int j=begCol_d; j<=endCol_d; j++) {  //* go across time
-            prc_ij = InstrDep.prc[i + idyfwd][j];
+            prc_ij = InstrDep.prc.get(i + idyfwd, j);
       	    if ((ptsEnter <  0 && prc_ij <= prcThresh_i) || 
       		    (ptsEnter >= 0 && prc_ij >= prcThresh_i)) { 
       	    	            
@@ -1513,23 +1677,24 @@ public class Mod_SysTrade {
     double prcRef_i;
     
     trds_entry = new Processor(session).run_entry_dy();
+    Strat_EventIndex index = blEventIndex ? Strat_EventIndex.of(InstrDep) : null;
+    double[][] zStats = (index == null) ? null : index.zStats(InstrDep.prc, cmdStdPeriod);
     
-    if(InstrDep.maxDysBk < cmdStdPeriod+1) 
-      InstrDep.maxDysBk = cmdStdPeriod+1;
+    session.warmUp.report(Math.max(0, cmdStdPeriod+1 - InstrDep.maxDysBk));
     
     //* now need to calc: trds.dyIdx, trdsMinTimeCol
     //* cuz not every trdCondDyIndex will turn into actual trade   
-    for (int i=session.InstrDep.maxDysBk; i<=session.endTstDateIndex-cmd_exit_timetarget_dyfwd; i++) {
+    for (int i=session.getBegDyIdx(); i<=session.endTstDateIndex-cmd_exit_timetarget_dyfwd; i++) {
     //for (int i=0; i<trds.conditionDy.length; i++) {
-       if(trds_entry.conditionDy[i]!=1)
+       if(!trds_entry.conditionDy.get(i))
          continue;
         
-	   prcRef_i = InstrDep.prc[i][session.entryfixed_timecol];
+	   prcRef_i = InstrDep.prc.get(i, session.entryfixed_timecol);
 	
   	   String ret = searchEvtZ(evtFrameBeg_TimeCol, evtFrameEnd_TimeCol, 
                                evtSrchBeg_TimeCol, evtSrchEnd_TimeCol,
                                evtSrchBeg_DyFwd, evtSrchEnd_DyFwd, 
-                               i, prcRef_i, zThresh, cmdStdPeriod);
+                               i, prcRef_i, zThresh, cmdStdPeriod, index, zStats);
 	   if (ret.length()>0) {
 	       String params[] = ret.split(",");
            int evtDy = Integer.parseInt(params[0]);	   
@@ -1553,12 +1718,15 @@ public class Mod_SysTrade {
   /* Used for Entry's AND Exit's
    * Searches for evt from specified i, evtSrchBeg_DyFwd, evtSrchBeg_TimeCol to evtSrchEnd_DyFwd, evtSrchEnd_TimeCol
    * and within that search time only within time brackets evtFrameBeg_TimeCol, evtFrameEnd_TimeCol   
+   * index: Strat_EventIndex.of(InstrDep) the caller resolved once, null for the minute loop
+   * zStats: index.zStats(InstrDep.prc, stdPeriod), also resolved once by the caller
    * return: "dy, timeCol, prc"
    */
   private String searchEvtZ(int evtFrameBeg_TimeCol, int evtFrameEnd_TimeCol, 
                             int evtSrchBeg_TimeCol, int evtSrchEnd_TimeCol,
                             int evtSrchBeg_DyFwd, int evtSrchEnd_DyFwd, 
-                            int i, double prcRef_t, double zThresh, int stdPeriod) {
+                            int i, double prcRef_t, double zThresh, int stdPeriod,
+                            Strat_EventIndex index, double[][] zStats) {
 	  
 	//int stdPeriod = 40;  
 	double prc_ij;	 
@@ -1571,18 +1739,32 @@ public class Mod_SysTrade {
     
     if(i-stdPeriod-2 < session.begTstDateIndex)
       return "";
+    
+    //* whole days as frame - mu/sd of all days and the event from Strat_EventIndex, same result
+    if (index != null && zStats != null && evtFrameBeg_TimeCol == InstrDep.firstTimeCol && evtFrameEnd_TimeCol == InstrDep.lastTimeCol) {
+      final double ref = prcRef_t;
+      final double mu = zStats[0][i];
+      final double sd = zStats[1][i];
+      final double z = zThresh;
+      Strat_EventIndex.Hit hit;
+      if (zThresh < 0)
+        hit = new Strat_EventIndex.Hit() { public boolean at(double prc) { return (prc - ref - mu)/sd <= z; } };
+      else
+        hit = new Strat_EventIndex.Hit() { public boolean at(double prc) { return (prc - ref - mu)/sd >= z; } };
+      return searchEvtIndexed(index, evtSrchBeg_TimeCol, evtSrchEnd_TimeCol, evtSrchBeg_DyFwd, evtSrchEnd_DyFwd, i, zThresh >= 0, hit);
+    }
 	
     X=0.0;
 	mu_i=0.0;
     fdStd_i=0.0;
     fdZscore_i=0.0;
 	for (int k=0; k<stdPeriod; k++) {
-      X = InstrDep.prc[i-k-1][InstrDep.clsDyCol] - InstrDep.prc[i-k-2][InstrDep.clsDyCol];
+      X = InstrDep.prc.get(i-k-1, InstrDep.clsDyCol) - InstrDep.prc.get(i-k-2, InstrDep.clsDyCol);
 	  mu_i += X;
 	}  
 	mu_i /= stdPeriod;
 	for (int k=0; k<stdPeriod; k++) {
-	  X = InstrDep.prc[i-k-1][InstrDep.clsDyCol] - InstrDep.prc[i-k-2][InstrDep.clsDyCol];
+	  X = InstrDep.prc.get(i-k-1, InstrDep.clsDyCol) - InstrDep.prc.get(i-k-2, InstrDep.clsDyCol);
 	  fdStd_i += Math.pow(X - mu_i,2);
 	}  
 	fdStd_i /= (stdPeriod-1);  //* unbiased
@@ -1620,7 +1802,7 @@ public class Mod_SysTrade {
       } 
  		      
       for (int j=begCol_d; j<=endCol_d; j++) {  //* go across time
-        prc_ij = InstrDep.prc[i + idyfwd][j];
+        prc_ij = InstrDep.prc.get(i + idyfwd, j);
         fdZscore_i = (prc_ij - prcRef_t - mu_i)/fdStd_i; 
         
  	    if ((zThresh <  0 && fdZscore_i <= zThresh) ||
@@ -1642,12 +1824,13 @@ public class Mod_SysTrade {
   /* Used for Entry's AND Exit's
    * Searches for evt from day i, evtSrchBeg_DyFwd, evtSrchBeg_TimeCol -> evtSrchEnd_DyFwd, evtSrchEnd_TimeCol
    * and within that search time only within time brackets evtFrameBeg_TimeCol, evtFrameEnd_TimeCol   
+   * index: as searchEvtZ
    * return: "dy, timeCol, prc"
    */
   private String searchEvtP(int evtFrameBeg_TimeCol, int evtFrameEnd_TimeCol, 
                             int evtSrchBeg_TimeCol, int evtSrchEnd_TimeCol,
                             int evtSrchBeg_DyFwd, int evtSrchEnd_DyFwd, 
-                            int i, double prcRef_t, double ptsTarget, boolean blLong) {
+                            int i, double prcRef_t, double ptsTarget, boolean blLong, Strat_EventIndex index) {
     //D System.out.println(i + " " + evtFrameBeg_TimeCol + " " + evtFrameEnd_TimeCol + " " + evtSrchBeg_TimeCol + " " + evtSrchEnd_TimeCol + " " + evtSrchBeg_DyFwd + " " + evtSrchEnd_DyFwd + 
 	//	" " + prcRef_t + " " + ptsTarget + " " + blLong);
     double prc_ij;	 
@@ -1655,6 +1838,17 @@ public class Mod_SysTrade {
     int begCol_d;
     int endCol_d;
     
+    //* whole days as frame (the stops/targets here) - Strat_EventIndex instead of the minute loop
+    if (index != null && evtFrameBeg_TimeCol == InstrDep.firstTimeCol && evtFrameEnd_TimeCol == InstrDep.lastTimeCol) {
+      final double thresh = blLong ? prcRef_t + ptsTarget : prcRef_t - ptsTarget;
+      Strat_EventIndex.Hit hit;
+      if (blLong)
+        hit = new Strat_EventIndex.Hit() { public boolean at(double prc) { return prc >= thresh; } };
+      else
+        hit = new Strat_EventIndex.Hit() { public boolean at(double prc) { return prc <= thresh; } };
+      return searchEvtIndexed(index, evtSrchBeg_TimeCol, evtSrchEnd_TimeCol, evtSrchBeg_DyFwd, evtSrchEnd_DyFwd, i, blLong, hit);
+    }
+    
     for (int idyfwd=evtSrchBeg_DyFwd; idyfwd<=evtSrchEnd_DyFwd; idyfwd++) {	
       if(i + idyfwd > session.endTstDateIndex)
         return "";
@@ -1684,7 +1878,7 @@ public class Mod_SysTrade {
       }          
       
       for (int j=begCol_d; j<=endCol_d; j++) {  //* go across time
-        prc_ij = InstrDep.prc[i + idyfwd][j];
+        prc_ij = InstrDep.prc.get(i + idyfwd, j);
         
         /*  blLong: long profit, short stop
          * !blLong: short profit, long stop
@@ -1701,6 +1895,32 @@ public class Mod_SysTrade {
     return "";
   }
   
+  /* searchEvtP/Z when the frame is the whole day: from day i+evtSrchBeg_DyFwd at evtSrchBeg_TimeCol to
+   * day i+evtSrchEnd_DyFwd at evtSrchEnd_TimeCol (or the end of the test), first minute that hits
+   * return: "dy, timeCol, prc" as the minute loop
+   */
+  private String searchEvtIndexed(Strat_EventIndex index, int evtSrchBeg_TimeCol, int evtSrchEnd_TimeCol,
+                                  int evtSrchBeg_DyFwd, int evtSrchEnd_DyFwd,
+                                  int i, boolean blUp, Strat_EventIndex.Hit hit) {
+    long begDy = (long)i + evtSrchBeg_DyFwd;
+    long endDy = (long)i + evtSrchEnd_DyFwd;
+    if (begDy > session.endTstDateIndex || begDy > endDy)
+      return "";
+    
+    int from = index.pos((int)begDy, Math.max(InstrDep.firstTimeCol, evtSrchBeg_TimeCol));
+    int to;
+    if (endDy > session.endTstDateIndex)
+      to = index.pos(session.endTstDateIndex, InstrDep.lastTimeCol);
+    else if (evtSrchEnd_TimeCol < InstrDep.firstTimeCol)
+      to = index.pos((int)endDy, InstrDep.firstTimeCol) - 1;
+    else
+      to = index.pos((int)endDy, Math.min(InstrDep.lastTimeCol, evtSrchEnd_TimeCol));
+    
+    int p = index.first(InstrDep.prc, from, to, blUp, hit);
+    if (p < 0)
+      return "";
+    return index.dayOf(p) + "," + index.colOf(p) + "," + index.prcAt(InstrDep.prc, p);
+  }
   
 }	
 
@@ -0,0 +1,254 @@
+package program;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+
+public class Mod_WalkForward {
+
+  /* Walk-forward optimization over Mod_SysTrade
+   *
+   * History begTstDateIndex..endTstDateIndex is cut into rolling windows of cmdInSampleDys in-sample
+   * days followed by cmdOutSampleDys out-of-sample days, the next window starting cmdOutSampleDys
+   * later. On each in-sample window every point of the grid
+   *     gridProfitTarget x gridStopLoss x gridTimeTarget     (pts, pts, "dyfwd:hhmm" - 0 / "" = off)
+   * is simulated and the best by T (avg pl / stdev * sqrt(n)) is then traded on the out-of-sample
+   * days that follow. The out-of-sample trades of all windows stitched together are the result.
+   *
+   * Entry signals (and the exit feature) are calculated once for the whole history - base has
+   * trds_entry/trds_exit set - every trial is a Mod_SysTrade.copyCmds() that only runs
+   * calc_trades_exit(beg, end) on them, the in-sample trials of all windows, then the out-of-sample
+   * runs, on Strat_ExprTask.POOL - session.parallelism at once, each trial's own exits sequential.
+   * An out-of-sample trade is kept to its own exit, which may be after the window. An in-sample trade
+   * still open on oosBeg-1 does not count to the T of its grid point - its exit is not known yet then.
+   * cmd_maxopencontract holds within each window's run only: a trade of one window still open when the
+   * next window's trades start is not counted against them, so the stitched trades may overlap beyond it.
+   * What a trial inherits from base is decided by Mod_SysTrade.copyCmds() alone.
+   */
+  static final int MIN_TRADES = 5;   //* fewer in-sample trades and a grid point is not picked
+  static final int MAX_TRIALS = 5000;   //* windows x grid points
+
+  public int cmdInSampleDys = 252;
+  public int cmdOutSampleDys = 63;
+  public double[] gridProfitTarget = {0};
+  public double[] gridStopLoss = {0};
+  public String[] gridTimeTarget = {""};
+
+  public String strView="";
+  public double[] oosPlCum;           //* stitched out-of-sample equity, by exit day
+  public int oosTotTrades;
+  public double oosTotPl;
+  public double oosSharpT;
+
+  private Session session;
+  private Instr InstrDep;
+  private Mod_SysTrade base;
+
+
+  public Mod_WalkForward(Session session, Mod_SysTrade base) {
+	this.session = session;
+	this.InstrDep = session.InstrDep;
+	this.base = base;
+  }
+
+
+  public void run() throws Exception{
+	if (cmdInSampleDys < 2 || cmdOutSampleDys < 1)
+	  throw new ExceptionCmd("ERROR - Walk forward: in-sample must be >= 2 days, out-of-sample >= 1");
+
+	//* Entry signals and exit feature - once, on this thread (Processor flips session flags)
+	base.trds_entry = new Processor(session).run_entry_dy_intrady();
+	base.calc_trds_exit_feature();
+
+	//* windows [isBeg, oosBeg-1] [oosBeg, oosEnd]
+	List<int[]> windows = new ArrayList<int[]>();
+	int begDyIdx = Math.max(session.begTstDateIndex, session.getBegDyIdx());
+	for (int isBeg=begDyIdx; isBeg+cmdInSampleDys<=session.endTstDateIndex; isBeg+=cmdOutSampleDys) {
+	  int oosBeg = isBeg + cmdInSampleDys;
+	  windows.add(new int[]{isBeg, oosBeg, Math.min(oosBeg + cmdOutSampleDys - 1, session.endTstDateIndex)});
+	}
+	if (windows.size() == 0)
+	  throw new ExceptionCmd("ERROR - Walk forward: history shorter than one in-sample window");
+
+	int nGrid = gridProfitTarget.length * gridStopLoss.length * gridTimeTarget.length;
+	if ((long)windows.size() * nGrid > MAX_TRIALS)
+	  throw new ExceptionCmd("ERROR - Walk forward: " + windows.size() + " windows x " + nGrid
+		  + " grid points is more than " + MAX_TRIALS + " trials");
+
+	//* trials are configured here, the cmd_* are not touched once submitted
+	List<Mod_SysTrade[]> grids = new ArrayList<Mod_SysTrade[]>();
+	for (int w=0; w<windows.size(); w++)
+	  grids.add(newGrid());
+
+	List<TrialTask> trials = new ArrayList<TrialTask>();
+	for (int w=0; w<windows.size(); w++)
+	  for (Mod_SysTrade trial : grids.get(w))
+		trials.add(new TrialTask(trial, windows.get(w)[0], windows.get(w)[1]-1, windows.get(w)[1]-1));
+	List<Double> lstT = Strat_ExprTask.runAll(trials, session.parallelism);
+
+	//* best in-sample point of each window, then its out-of-sample run
+	Mod_SysTrade[] best = new Mod_SysTrade[windows.size()];
+	double[] bestT = new double[windows.size()];
+	List<TrialTask> oosRuns = new ArrayList<TrialTask>();
+	int x = 0;
+	for (int w=0; w<windows.size(); w++) {
+	  bestT[w] = Double.NEGATIVE_INFINITY;
+	  for (int g=0; g<grids.get(w).length; g++) {
+		double t = lstT.get(x++);
+		if (t > bestT[w]) {
+		  bestT[w] = t;
+		  best[w] = grids.get(w)[g];
+		}
+	  }
+	  if (best[w] != null) {
+		best[w] = best[w].copyCmds();   //* same cmd_*, its own trades for the out-of-sample run
+		oosRuns.add(new TrialTask(best[w], windows.get(w)[1], windows.get(w)[2], session.endTstDateIndex));
+	  }
+	}
+	Strat_ExprTask.runAll(oosRuns, session.parallelism);
+
+	stitch(windows, best);
+	strView = getReport(windows, best, bestT);
+  }
+
+
+  //* one trial per grid point
+  private Mod_SysTrade[] newGrid() throws Exception{
+	List<Mod_SysTrade> grid = new ArrayList<Mod_SysTrade>();
+	for (double profitTarget : gridProfitTarget)
+	  for (double stopLoss : gridStopLoss)
+		for (String timeTarget : gridTimeTarget) {
+		  Mod_SysTrade trial = base.copyCmds();
+		  trial.cmd_bl_exit_profittarget_p = profitTarget > 0;
+		  trial.cmd_fd_exit_profittarget_p = profitTarget;
+		  trial.cmd_bl_exit_stoploss_p = stopLoss > 0;
+		  trial.cmd_fd_exit_stoploss_p = stopLoss;
+		  setTimeTarget(trial, timeTarget.trim());
+		  grid.add(trial);
+		}
+	return grid.toArray(new Mod_SysTrade[grid.size()]);
+  }
+
+  //* "1:1430" - exit 1 day after the entry day at 14:30, "" off
+  private void setTimeTarget(Mod_SysTrade trial, String timeTarget) throws Exception{
+	trial.cmd_bl_exit_timetarget_rel = timeTarget.length() > 0;
+	if (!trial.cmd_bl_exit_timetarget_rel)
+	  return;
+	String[] p = timeTarget.split(":");
+	if (p.length != 2)
+	  throw new ExceptionCmd("ERROR - Walk forward: time target expects dyfwd:hhmm, got " + timeTarget);
+	try {
+	  trial.cmd_exit_timetarget_dyfwd = Integer.parseInt(p[0].trim());
+	} catch (NumberFormatException e) {
+	  throw new ExceptionCmd("ERROR - Walk forward: time target expects dyfwd:hhmm, got " + timeTarget);
+	}
+	trial.cmd_exit_timetarget_timecol = InstrDep.getTimeCol(p[1].trim());
+	trial.cmd_str_exit_timetarget = InstrDep.prcTime[trial.cmd_exit_timetarget_timecol];
+  }
+
+  //* trades of trial for entries on days beg..end, T of the pl of those exited by exitEnd (-inf below MIN_TRADES)
+  static class TrialTask implements Callable<Double> {
+	private Mod_SysTrade trial;
+	private int beg;
+	private int end;
+	private int exitEnd;
+
+	TrialTask(Mod_SysTrade trial, int beg, int end, int exitEnd) {
+	  this.trial = trial;
+	  this.beg = beg;
+	  this.end = end;
+	  this.exitEnd = exitEnd;
+	}
+
+	@Override
+	public Double call() throws Exception {
+	  trial.calc_trades_exit(beg, end);
+	  double[] pl = trial.getTradePl();
+	  int n = 0;
+	  for (int t=0; t<pl.length; t++)
+		if (trial.trades.get(t)[5].intValue() <= exitEnd)
+		  pl[n++] = pl[t];
+	  return sharpT(Arrays.copyOf(pl, n));
+	}
+  }
+
+  static double sharpT(double[] pl) {
+	int n = pl.length;
+	if (n < MIN_TRADES)
+	  return Double.NEGATIVE_INFINITY;
+	double mu = 0;
+	for (double x : pl)
+	  mu += x;
+	mu /= n;
+	double var = 0;
+	for (double x : pl)
+	  var += (x-mu)*(x-mu);
+	var /= (n-1);
+	if (var == 0)
+	  return Double.NEGATIVE_INFINITY;
+	return mu / Math.sqrt(var) * Math.sqrt(n);
+  }
+
+
+  //* realized out-of-sample pl by exit day, cumulated over the windows in order
+  private void stitch(List<int[]> windows, Mod_SysTrade[] best) {
+	double[] plReal = new double[InstrDep.prc.length];
+	List<Double> lstPl = new ArrayList<Double>();
+	for (int w=0; w<windows.size(); w++) {
+	  if (best[w] == null)
+		continue;
+	  double[] pl = best[w].getTradePl();
+	  for (int t=0; t<pl.length; t++) {
+		plReal[best[w].trades.get(t)[5].intValue()] += pl[t];
+		lstPl.add(pl[t]);
+	  }
+	}
+	oosPlCum = new double[InstrDep.prc.length];
+	int oosBeg = windows.get(0)[1];
+	for (int i=oosBeg; i<plReal.length; i++)
+	  oosPlCum[i] = plReal[i] + (i > oosBeg ? oosPlCum[i-1] : 0);
+
+	double[] pl = new double[lstPl.size()];
+	oosTotPl = 0;
+	for (int t=0; t<pl.length; t++) {
+	  pl[t] = lstPl.get(t);
+	  oosTotPl += pl[t];
+	}
+	oosTotTrades = pl.length;
+	oosSharpT = (pl.length >= 2) ? sharpT(pl) : 0;
+	if (Double.isInfinite(oosSharpT))
+	  oosSharpT = 0;
+  }
+
+  private String getReport(List<int[]> windows, Mod_SysTrade[] best, double[] bestT) {
+	StringBuilder strb = new StringBuilder();
+	strb.append(String.format("%-10s %-10s %-10s %8s %8s %10s %8s %6s %10s%n",
+		"IS BEG", "OOS BEG", "OOS END", "PROFIT", "STOP", "TIME", "IS T", "N", "OOS PL"));
+	for (int w=0; w<windows.size(); w++) {
+	  int[] win = windows.get(w);
+	  strb.append(String.format("%-10s %-10s %-10s ", dt(win[0]), dt(win[1]), dt(win[2])));
+	  if (best[w] == null) {
+		strb.append("no grid point with " + MIN_TRADES + " in-sample trades\n");
+		continue;
+	  }
+	  Mod_SysTrade b = best[w];
+	  double plWin = 0;
+	  for (double pl : b.getTradePl())
+		plWin += pl;
+	  strb.append(String.format("%8s %8s %10s %8.2f %6d %10.2f%n",
+		  b.cmd_bl_exit_profittarget_p ? String.valueOf(b.cmd_fd_exit_profittarget_p) : "-",
+		  b.cmd_bl_exit_stoploss_p ? String.valueOf(b.cmd_fd_exit_stoploss_p) : "-",
+		  b.cmd_bl_exit_timetarget_rel ? b.cmd_exit_timetarget_dyfwd + ":" + b.cmd_str_exit_timetarget : "-",
+		  bestT[w], b.totTrades, plWin));
+	}
+	strb.append(String.format("%nOUT-OF-SAMPLE  N %d  PL %.2f  T %.2f%n", oosTotTrades, oosTotPl, oosSharpT));
+	return strb.toString();
+  }
+
+  private String dt(int i) {
+	return InstrDep.getYear(i) + "/" + InstrDep.getMonth(i) + "/" + InstrDep.getDay(i);
+  }
+
+}
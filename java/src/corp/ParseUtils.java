@@ -49,7 +49,7 @@ public class ParseUtils {
     if (cmdInstrNum == session.InstrDep.key) {
     	prefixInstr_Instr = InstrDep;
     } else {
-    	prefixInstr_Instr = Instr.getInstance(cmdInstrNum);
+    	prefixInstr_Instr = session.getInstr(cmdInstrNum);
     }
     
   }
@@ -41,11 +41,11 @@ public class PostFilter_RecProf { //extends Strategy_Abstract{
   }
   
   public void filter() throws Exception{
-    for (int i=InstrDep.maxDysBk; i<=session.endTstDateIndex; i++) {	
+    for (int i=session.getBegDyIdx(); i<=session.endTstDateIndex; i++) {	
 	    if(prcSucc[i] == 1)	
-	      trds.conditionDy[i] = 1;	
+	      trds.conditionDy.set(i);	
         else 
-    	  trds.conditionDy[i] = 0;  
+    	  trds.conditionDy.clear(i);  
     }	  
   }
   
@@ -133,8 +133,8 @@ public class PostFilter_RecProf { //extends Strategy_Abstract{
 	
 	//* cmdEql  cmdAvgPts  cmdNbrTrades  cmdDysHold  cmdHoldTimeCol
 	
-    for (int i=InstrDep.prc.length-1; i>=InstrDep.maxDysBk; i--) {		
-      if (trds.conditionDy[i]==1) {    //* now decide to include this or not
+    for (int i=InstrDep.prc.length-1; i>=session.getBegDyIdx(); i--) {		
+      if (trds.conditionDy.get(i)) {    //* now decide to include this or not
           avgPl = 0.0;		
           cntTrades = 0;
     	  k = 1;
@@ -142,11 +142,11 @@ public class PostFilter_RecProf { //extends Strategy_Abstract{
       	  //* Now go back cmdNbrTrades to see if < or > cmdAvgPts
           while (cntTrades < cmdNbrTrades && blInsideBounds) {
             if (i-k >= 0) {  //* not enuf back trades, dont test prcSuccess[I]  
-            	if (trds.conditionDy[i-k] == 1) { 
+            	if (trds.conditionDy.get(i-k)) { 
              	    if (i-k+cmdDysHold < InstrDep.prc.length) {	
             	        cntTrades++; 	
-      		            prcRefSignal = InstrDep.prc[i-k][timeRefCol];  //* "PLAST" - the reference price
-                        avgPl += InstrDep.prc[i-k+cmdDysHold][cmdHoldTimeCol] - prcRefSignal;              
+      		            prcRefSignal = InstrDep.prc.get(i-k, timeRefCol);  //* "PLAST" - the reference price
+                        avgPl += InstrDep.prc.get(i-k+cmdDysHold, cmdHoldTimeCol) - prcRefSignal;              
             	    } else {
             		    blInsideBounds = false;
             	    }         //* if upperbound
@@ -276,14 +276,14 @@ public class PostScenario_Hilo {
         prcExit = 0.0;
         double[] pl = new double[trds.entry_dyidx.size()];
         
-        for (int i=InstrDep.maxDysBk; i<=session.endTstDateIndex-cmdExitTime_DysFwd; i++) {		
-      	  if (trds.conditionDy[i]==1) {
+        for (int i=session.getBegDyIdx(); i<=session.endTstDateIndex-cmdExitTime_DysFwd; i++) {		
+      	  if (trds.conditionDy.get(i)) {
       		  //* Set prcRef
       		  if (g == ptsEnter.length-2) {          //* yest DAY'S low / high
       			  if(gBlwAbv==0)
-        		    prcRef = InstrDep.prc[i-1][InstrDep.loDyCol];
+        		    prcRef = InstrDep.prc.get(i-1, InstrDep.loDyCol);
         		  else
-        		    prcRef = InstrDep.prc[i-1][InstrDep.hiDyCol];
+        		    prcRef = InstrDep.prc.get(i-1, InstrDep.hiDyCol);
       		  } else if (g == ptsEnter.length-1) {   //* last 1 - yest 0230 low / high
           		  if(gBlwAbv==0) {
             	    prcRef = strat_Low.calcLow(i);
@@ -291,7 +291,7 @@ public class PostScenario_Hilo {
             		prcRef = strat_High.calcHigh(i);
           		  }		
       		  } else {	  
-      			  prcRef = InstrDep.prc[i][cmdRefTimeCol];
+      			  prcRef = InstrDep.prc.get(i, cmdRefTimeCol);
       		  }		
               
       		  /* From here on the following should be set and thus makes general:
@@ -315,12 +315,12 @@ public class PostScenario_Hilo {
 
       		    
       		    for (int jTimeCol=startCol; jTimeCol<=endCol; jTimeCol++) {  //* go across time
-      		      prcCur = InstrDep.prc[i+iDysFwd][jTimeCol];
+      		      prcCur = InstrDep.prc.get(i+iDysFwd, jTimeCol);
    
       		      if ((gBlwAbv == 0 && prcCur + ptsEnter[g] <= prcRef) ||
       		          (gBlwAbv == 1 && prcCur >= prcRef + ptsEnter[g])) { 
       		        	
-      		    	   prcExit = InstrDep.prc[i+cmdExitTime_DysFwd][cmdExitTime_MinCol];
+      		    	   prcExit = InstrDep.prc.get(i+cmdExitTime_DysFwd, cmdExitTime_MinCol);
       		    	   if(gBlwAbv == 0) 
       		    	     pl[cntN] = prcExit - prcCur;  //(prcRef - ptsEnter[g]);  //* 1200 - (1150-10)
       		    	   else
@@ -412,8 +412,7 @@ public class PostScenario_Hilo {
 	Parser parser = new Parser();
     parser.runConditionEntryOnly();  //* gets back Strategy.trdCondDyIndex 
 	*/  
-	if(InstrDep.maxDysBk < cmdStdPeriod+1) 
-	  InstrDep.maxDysBk = cmdStdPeriod+1; 
+	session.warmUp.report(Math.max(0, cmdStdPeriod+1 - InstrDep.maxDysBk));
 	  
     int cntN;
     double statsMu;
@@ -465,22 +464,22 @@ public class PostScenario_Hilo {
         double[] pl = new double[trds.entry_dyidx.size()];
       
         //* +cmdStdPeriod+1 bec going back cmdStdPeriod for C1-C2
-        for (int i=InstrDep.maxDysBk; i<=session.endTstDateIndex-cmdExitTime_DysFwd; i++) {
+        for (int i=session.getBegDyIdx(); i<=session.endTstDateIndex-cmdExitTime_DysFwd; i++) {
    
-      	  if (trds.conditionDy[i]==1) {    		
+      	  if (trds.conditionDy.get(i)) {    		
       		X=0.0;
       	    mu_i=0.0;
     	    fdStd_i=0.0;
     	    fdZscore_i=0.0;
       		for (int k=0; k<cmdStdPeriod; k++) {
-      		  X = InstrDep.prc[i-k-1][InstrDep.clsDyCol] - InstrDep.prc[i-k-2][InstrDep.clsDyCol];
+      		  X = InstrDep.prc.get(i-k-1, InstrDep.clsDyCol) - InstrDep.prc.get(i-k-2, InstrDep.clsDyCol);
               //listHist.add(X);
               //System.out.println(X);
       		  mu_i += X;
       		}  
       		mu_i /= cmdStdPeriod;
       		for (int k=0; k<cmdStdPeriod; k++) {
-      		  X = InstrDep.prc[i-k-1][InstrDep.clsDyCol] - InstrDep.prc[i-k-2][InstrDep.clsDyCol];
+      		  X = InstrDep.prc.get(i-k-1, InstrDep.clsDyCol) - InstrDep.prc.get(i-k-2, InstrDep.clsDyCol);
       		  //X = Math.abs(X);
       		  fdStd_i += Math.pow(X - mu_i,2);
       		}  
@@ -494,7 +493,7 @@ public class PostScenario_Hilo {
       		 * ex/ Ref: 1020, hilo(0, 1500) 
       		 * ex/ Ref: C, hilo(1, 1500)
       		 */      	
-      	    prcRef = InstrDep.prc[i][cmdRefTimeCol];
+      	    prcRef = InstrDep.prc.get(i, cmdRefTimeCol);
       		
       		boolean blFound = false;
       	    int startCol;
@@ -511,13 +510,13 @@ public class PostScenario_Hilo {
         		  endCol = evtFrameEndTimeCol;
       		  
       		    for (int jTimeCol=startCol; jTimeCol<=endCol; jTimeCol++) {  //* go across time
-      		        prcCur = InstrDep.prc[i+iDysFwd][jTimeCol];
+      		        prcCur = InstrDep.prc.get(i+iDysFwd, jTimeCol);
       	            //fdZscore_i = (prcCur - prcRef)/fdStd_i;  
       	            fdZscore_i = (prcCur - prcRef - mu_i)/fdStd_i;  
       	            //System.out.println(fdZscore_i);         
       		        if ((gBlwAbv == 0 && fdZscore_i <= -zThresh[g]) ||
       		    	    (gBlwAbv == 1 && fdZscore_i >= zThresh[g])) {	
-            	        prcExit = InstrDep.prc[i+cmdExitTime_DysFwd][cmdExitTime_MinCol];
+            	        prcExit = InstrDep.prc.get(i+cmdExitTime_DysFwd, cmdExitTime_MinCol);
 		                //pl[cntN] = prcExit - prcCur;
   		    	        if(gBlwAbv == 0) 
   		    	          pl[cntN] = prcExit - prcCur;  //(prcRef + mu_i - (zThresh[g]*fdStd_i));
@@ -0,0 +1,62 @@
+package program;
+
+import java.util.Objects;
+
+
+public class PrcMatrix {
+
+  /* Instr.prc as one contiguous row major block instead of double[days][cols]
+   *
+   * day i, col j  =>  data[i*cols + j]
+   *
+   * length is kept the same as double[][].length (nbr of days) so the existing
+   * for (i=InstrX.maxDysBk; i<InstrX.prc.length; i++) loops stay as they are.
+   * Loops scanning many days at the same col can step by cols from offset(i) + j
+   * on array() directly.
+   *
+   * That is where the flat layout pays - UnitTest_prcmatrix has a col of every day about x2 (x3 on
+   * array()), but whole rows, writing every cell and random cells about even with double[][].
+   *
+   * data may be longer than length*cols (room for the days of an append), so get/set check day and col
+   * themselves - a day past length or a col past cols throws as double[][] did instead of reading the room
+   * or the next day. In the loops the JIT takes the checks out (col, row, write the same with them), random
+   * cells pay them (x1.3 unchecked, x0.9 checked). Only scans on array() from offset() are unchecked.
+   */
+  public final int length;   //* days
+  public final int cols;     //* lastCol+1
+  private final double[] data;
+
+
+  public PrcMatrix(int rows, int cols) {
+	this(rows, cols, new double[rows*cols]);
+  }
+
+  public PrcMatrix(int rows, int cols, double[] data) {
+	if (data.length < rows*cols)
+	  throw new IllegalArgumentException("ERROR - Price matrix: " + data.length + " < " + rows + " x " + cols);
+	this.length = rows;
+	this.cols = cols;
+	this.data = data;
+  }
+
+  public double get(int i, int j) {
+	Objects.checkIndex(i, length);
+	Objects.checkIndex(j, cols);
+	return data[i*cols + j];
+  }
+
+  public void set(int i, int j, double prc) {
+	Objects.checkIndex(i, length);
+	Objects.checkIndex(j, cols);
+	data[i*cols + j] = prc;
+  }
+
+  public int offset(int i) {
+	return i*cols;
+  }
+
+  public double[] array() {
+	return data;
+  }
+
+}
@@ -22,7 +22,7 @@ public abstract class Process_Abstract {
   Process_Abstract(Session session){  
     this.session = session;
 	InstrDep = session.InstrDep;
-	trds = new Trades(InstrDep.key);
+	trds = new Trades(InstrDep);
 	
 	//parseUtils = new ParseUtils2(session);
 	//utils = new Utils();  
@@ -1,6 +1,9 @@
 package program;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
 
 
 class Process_Dy extends Process_Abstract {
@@ -12,6 +15,7 @@ class Process_Dy extends Process_Abstract {
   @Override
   Trades go_enter() throws Exception{
 	session.arrCmd_feature_dy = new ArrayList<String[]>(session.arrCmdEntryDy);
+	session.expr_feature_dy = session.getExprWindow().entryDy;
     parseAndCalcStrategies();
 	runPostFilters();
 	return trds;
@@ -20,6 +24,7 @@ class Process_Dy extends Process_Abstract {
   @Override
   Trades go_exit() throws Exception{
 	session.arrCmd_feature_dy = new ArrayList<String[]>(session.arrCmdExitDy);  
+	session.expr_feature_dy = session.getExprWindow().exitDy;
     parseAndCalcStrategies();
 	return trds;
   }	  
@@ -101,14 +106,59 @@ class Process_Dy extends Process_Abstract {
     //Strategy.trdCondDyIndex = new ArrayList<Integer>();
 	  
     //for (int k=0; k<cmdLine.length; k++) {
+	//* look-back of the lines - the nodes report into session.warmUp, which spans every window of the
+	//* session: InstrDep.maxDysBk stays the base, downstream start at session.getBegDyIdx()
+	//* series shared by the compiled lines of this run, see Strat_ExprMemo
+	session.exprMemo = new Strat_ExprMemo(InstrDep.maxDysBk, InstrDep.prc.length);
+	
+	//* compiled lines do not depend on each other - they run on the shared Strat_ExprTask.POOL, at most
+	//* session.parallelism of them at once, calcLines() takes their masks in line order and runs the string path meanwhile
+	List<Strat_ExprCond> exprs = session.expr_feature_dy;
+	Strat_ExprTask.Signals[] exprTasks = new Strat_ExprTask.Signals[session.arrCmd_feature_dy.size()];
+	if (session.parallelism > 1 && exprs != null && exprs.size() - Collections.frequency(exprs, null) > 1) {
+	  for (int x=0; x<exprTasks.length; x++)
+		if (exprs.get(x) != null)
+		  exprTasks[x] = new Strat_ExprTask.Signals(exprs.get(x), session, InstrDep.maxDysBk, InstrDep.prc.length);
+	}
+	try {
+	  calcLines(exprTasks);
+	} finally {
+	  for (Strat_ExprTask.Signals exprTask : exprTasks)
+		if (exprTask != null)
+		  exprTask.cancel(false);   //* the ones not started yet, on an error
+	}
+    session.exprMemo = null;
+
+  }
+  
+  //* the feature lines in order, AND'ed into trds.conditionDy - exprTasks[k] is line k to run on the pool, or null
+  private void calcLines(final Strat_ExprTask.Signals[] exprTasks) throws Exception{
 	int k=-1;
+	int nextTask = 0;   //* exprTasks[.. nextTask) are started
+	int running = 0;    //* started and not taken yet
 	for (String[] cmdLineMeta: session.arrCmd_feature_dy) {
 	  k+=1;
+	  for (; nextTask < exprTasks.length && running < session.parallelism; nextTask++)
+		if (exprTasks[nextTask] != null) {
+		  Strat_ExprTask.POOL.execute(exprTasks[nextTask]);
+		  running++;
+		}
       //* MUST reset for EACH new CMD line, NOT just run!
 	  //prcSucc = new int[InstrDep.prc.length];  
 	  Strategy_Abstract strategyX=null;
+	  BitSet mask=null;
+	  int outerDysBk = session.warmUp.beginScope();
+	  
+	  //* compiled once per window, see Strat_ExprWindow - else the string path below
+	  Strat_ExprCond exprCond = (session.expr_feature_dy == null) ? null : session.expr_feature_dy.get(k);
 	
-	  if (cmdLineMeta[0].indexOf("tradeday(") == 0) {
+	  if (exprCond != null) {
+		  mask = (exprTasks[k] != null) ? exprTasks[k].result()
+				  : exprCond.signals(session, InstrDep.maxDysBk, InstrDep.prc.length);
+		  if (exprTasks[k] != null)
+			  running--;
+		  session.warmUp.report(exprCond.dysBk);
+	  } else if (cmdLineMeta[0].indexOf("tradeday(") == 0) {
 		  strategyX = parseAndRun_Strategy(new Strategy_Tradeday(InstrDep, cmdLineMeta[0], session));
 	  } else if (cmdLineMeta[0].indexOf("day(") == 0) {
 		  strategyX = parseAndRun_Strategy(new Strategy_Date(InstrDep, cmdLineMeta[0], session));	  
@@ -150,28 +200,37 @@ class Process_Dy extends Process_Abstract {
 	      strategyX = parseAndRun_Strategy(new Strategy_Compare(InstrDep, cmdLineMeta[0], session));
 	  }              
 	  
-	  if (k==0) {  
-	      for (int i=InstrDep.maxDysBk; i<=session.endTstDateIndex; i++) {
-	    	 trds.conditionDy[i] = 0; 
-		     if ((strategyX.prcSucc[i] == 1 && cmdLineMeta[1] == "") ||
-			     (strategyX.prcSucc[i] == 0 && cmdLineMeta[1] == "not")) {
-	            trds.conditionDy[i] = 1;	
-	         }   	    		     
-	       }
-	  } else {   //* Default AND
-	      for (int i=InstrDep.maxDysBk; i<=session.endTstDateIndex; i++) {	  	  
-	           if ( ((strategyX.prcSucc[i] == 1 && cmdLineMeta[1] == "") || 
-	        	     (strategyX.prcSucc[i] == 0 && cmdLineMeta[1] == "not"))  
-	               && trds.conditionDy[i] == 1) {
-	        	   trds.conditionDy[i] = 1;	
-	           } else {
-	        	   trds.conditionDy[i] = 0;  
-	           }
-	      }
-      }  //* if AND or OR
+	  if (exprCond == null)
+		  mask = toMask(strategyX.prcSucc);
+	  
+	  //* before this line's own look-back there is no value - the line fails there
+	  int begIndex = InstrDep.maxDysBk + session.warmUp.endScope(outerDysBk);
+	  
+	  //* days [begIndex, endTstDateIndex] where this line (or its not) holds
+	  BitSet lineDy = new BitSet(InstrDep.prc.length);
+	  if (begIndex <= session.endTstDateIndex) {
+	      lineDy.set(begIndex, session.endTstDateIndex+1);
+	      if (cmdLineMeta[1].equals("not"))
+	    	  lineDy.andNot(mask);
+	      else
+	    	  lineDy.and(mask);
+	  }
+	  
+	  if (k==0)
+	      trds.conditionDy = lineDy;
+	  else   //* Default AND
+	      trds.conditionDy.and(lineDy);
 
     }  //* for k loop of cmd's
-
+  }
+  
+  //* prcSucc of a string path Strategy_ as a mask
+  static BitSet toMask(final int[] prcSucc) {
+	BitSet mask = new BitSet(prcSucc.length);
+	for (int i=0; i<prcSucc.length; i++)
+	  if (prcSucc[i] == 1)
+		mask.set(i);
+	return mask;
   }  
   
   
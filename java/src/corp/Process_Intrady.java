@@ -1,6 +1,7 @@
 package program;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 
 /* Used for entries AND exits !
  * 
@@ -35,9 +36,10 @@ public class Process_Intrady extends Process_Abstract {
   @Override
   Trades go_enter() throws Exception{
 	if (session.bl_entry_fixed){  
-        for (int i=session.InstrDep.maxDysBk; i<=session.endTstDateIndex; i++) {		
-            if(trds.conditionDy[i]!=1)
-      	      continue;
+        //* only the days that passed, straight off the mask
+        BitSet conditionDy = trds.conditionDy;
+        trds.entry_cond_dyidx.ensureCapacity(conditionDy.cardinality());
+        for (int i=conditionDy.nextSetBit(session.getBegDyIdx()); i>=0 && i<=session.endTstDateIndex; i=conditionDy.nextSetBit(i+1)) {		
             //trds.entryDyIdx.add(i + session.entryfixed_dyfwd);
             trds.entry_cond_dyidx.add(i);
             trds.entry_dyidx.add(i+session.entryfixed_dyfwd);
@@ -61,9 +63,9 @@ public class Process_Intrady extends Process_Abstract {
   @Override
   Trades go_exit() throws Exception{
 	if (session.bl_exit_fixed){  
-        for (int i=session.InstrDep.maxDysBk; i<=session.endTstDateIndex; i++) {		
-            if(trds.conditionDy[i] != 1)
-      	      continue;
+        BitSet conditionDy = trds.conditionDy;
+        trds.exit_cond_dyidx.ensureCapacity(conditionDy.cardinality());
+        for (int i=conditionDy.nextSetBit(session.getBegDyIdx()); i>=0 && i<=session.endTstDateIndex; i=conditionDy.nextSetBit(i+1)) {		
             trds.exit_cond_dyidx.add(i);
             trds.exit_dyidx.add(i + session.exitfixed_dyfwd);
             trds.exit_dyfwd.add(session.exitfixed_dyfwd);
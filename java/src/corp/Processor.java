@@ -90,6 +90,20 @@ class Processor {
 	return new Process_Intrady(session, trds).go_exit();    
   }  
   
+  //* entry dy + intrady and the statistics, no view or scenarios - see Processor_Sweep
+  public Statistics_Data run_stats() throws Exception{
+	return run_stats(true);
+  }
+  
+  //* blBootstrap false: no resamples whatever SetBootstrap() says - set after the view options are parsed
+  public Statistics_Data run_stats(boolean blBootstrap) throws Exception{
+	Trades trds = run_entry_dy_intrady();
+	new SetUserOptions(session).parseAndSetViewForStatistics();
+	if (!blBootstrap)
+	  session.bootstrapResamples = 0;
+	return new Statistics(session, trds).calc_ExitMatrix();
+  }
+  
   public void run_all() throws Exception{  
 	  
 	Process_Dy process_dy = new Process_Dy(session);    
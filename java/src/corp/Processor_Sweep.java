@@ -0,0 +1,254 @@
+package program;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+class Processor_Sweep {
+
+  /* /api/calc_sweep - one template condition, every combination of its parameters
+   *
+   *   condition   c > mvg(c,$n)\nenter(0,$t)      $name is replaced by the value of the combination
+   *   sweep       n:5:200:5---t:0930:1100:15m     name:beg:end:step, a step in m walks HHMM times
+   *   at          1:1615                          exit (fwd dy:time) the summary is taken at,
+   *                                               default the last of SetViewTimes(..)
+   *
+   * Each combination is a Processor(session).run_stats() on Strat_ExprTask.POOL, as many at once as the
+   * requester's SetParallelism(n), each one sequential (session.parallelism = 1). The instrs are the loaded
+   * ones (Session snapshots share the prices) and sub-series the combinations have in common -
+   * mvg(c,50) while only the entry time moves - come from Strat_ExprCache after the first.
+   * Returns one row per combination: the values, then N MU MUD PPOS SDEV T TDRF.
+   */
+  static final int MAX_COMBOS = 1000;
+  private static final Pattern PARAM = Pattern.compile("\\$([a-z][a-z0-9_]*)");
+
+  private final String strInstrDep;
+  private final String strDtBeg, strDtEnd, strDtBegIndx, strDtEndIndx;
+  private final String strTimeEnter;
+  private final String strCondition;
+  private final String strViewOption;
+  private final String strAt;
+  private final String username;
+
+  private final List<String> names = new ArrayList<String>();
+  private final List<String[]> values = new ArrayList<String[]>();
+
+
+  Processor_Sweep(
+      String strInstrDep,
+	  String strDtBeg, String strDtEnd, String strDtBegIndx, String strDtEndIndx,
+	  String strTimeEnter,
+	  String strCondition,
+	  String strViewOption,
+	  String strSweep,
+	  String strAt,
+	  String username
+	) throws Exception{
+	this.strInstrDep = strInstrDep;
+	this.strDtBeg = strDtBeg;
+	this.strDtEnd = strDtEnd;
+	this.strDtBegIndx = strDtBegIndx;
+	this.strDtEndIndx = strDtEndIndx;
+	this.strTimeEnter = strTimeEnter;
+	this.strCondition = strCondition;
+	this.strViewOption = strViewOption;
+	this.strAt = (strAt == null) ? "" : strAt.trim();
+	this.username = username;
+	parseSweep(strSweep.trim().toLowerCase());
+  }
+
+
+  //* n:5:200:5---t:0930:1100:15m
+  private void parseSweep(String strSweep) throws Exception{
+	long combos = 1;
+	for (String strParam : strSweep.split("---")) {
+	  String[] p = strParam.trim().split(":");
+	  if (p.length != 4 || !p[0].matches("[a-z][a-z0-9_]*"))
+		throw new ExceptionCmd("ERROR - Sweep: expected name:beg:end:step, got " + strParam);
+	  if (names.contains(p[0]))
+		throw new ExceptionCmd("ERROR - Sweep: parameter " + p[0] + " given twice");
+	  String[] vals = p[3].endsWith("m") ? timeRange(p) : numRange(p);
+	  names.add(p[0]);
+	  values.add(vals);
+	  combos *= vals.length;
+	  if (combos > MAX_COMBOS)
+		throw new ExceptionCmd("ERROR - Sweep: more than " + MAX_COMBOS + " combinations");
+	}
+  }
+
+  private static String[] numRange(String[] p) throws Exception{
+	double beg, end, step;
+	try {
+	  beg = Double.parseDouble(p[1]);
+	  end = Double.parseDouble(p[2]);
+	  step = Double.parseDouble(p[3]);
+	} catch (NumberFormatException e) {
+	  throw new ExceptionCmd("ERROR - Sweep: bad range for " + p[0]);
+	}
+	if (step <= 0 || end < beg || (end-beg)/step >= MAX_COMBOS)
+	  throw new ExceptionCmd("ERROR - Sweep: bad range for " + p[0]);
+	boolean blInt = isInt(beg) && isInt(step);
+	List<String> vals = new ArrayList<String>();
+	for (int n=0; beg + n*step <= end + 1e-9*step; n++) {
+	  double v = beg + n*step;
+	  vals.add(blInt ? String.valueOf((long)v) : String.valueOf(v));
+	}
+	return vals.toArray(new String[vals.size()]);
+  }
+
+  private static boolean isInt(double v) {
+	return v == Math.rint(v) && Math.abs(v) < 1e15;
+  }
+
+  //* HHMM from beg to end every step minutes
+  private static String[] timeRange(String[] p) throws Exception{
+	int beg = minuteOf(p[1]);
+	int end = minuteOf(p[2]);
+	int step;
+	try {
+	  step = Integer.parseInt(p[3].substring(0, p[3].length()-1));
+	} catch (NumberFormatException e) {
+	  step = -1;
+	}
+	if (beg < 0 || end < beg || step <= 0)
+	  throw new ExceptionCmd("ERROR - Sweep: bad time range for " + p[0]);
+	List<String> vals = new ArrayList<String>();
+	for (int m=beg; m<=end; m+=step)
+	  vals.add(String.format("%02d%02d", m/60, m%60));
+	return vals.toArray(new String[vals.size()]);
+  }
+
+  //* 0930 930 -> minute of the day, -1 if not a time
+  private static int minuteOf(String strTime) {
+	if (!strTime.matches("\\d{3,4}"))
+	  return -1;
+	int hhmm = Integer.parseInt(strTime);
+	if (hhmm/100 > 23 || hhmm%100 > 59)
+	  return -1;
+	return (hhmm/100)*60 + hhmm%100;
+  }
+
+
+  //* $name -> value, every $name must be a sweep parameter
+  private String substitute(String strTemplate, Map<String, String> combo) throws Exception{
+	Matcher m = PARAM.matcher(strTemplate);
+	StringBuffer sb = new StringBuffer();
+	while (m.find()) {
+	  String v = combo.get(m.group(1));
+	  if (v == null)
+		throw new ExceptionCmd("ERROR - Sweep: $" + m.group(1) + " is not in sweep");
+	  m.appendReplacement(sb, Matcher.quoteReplacement(v));
+	}
+	m.appendTail(sb);
+	return sb.toString();
+  }
+
+  //* combination c, the last parameter moving fastest
+  private Map<String, String> combo(int c) {
+	Map<String, String> combo = new HashMap<String, String>();
+	for (int x=names.size()-1; x>=0; x--) {
+	  String[] vals = values.get(x);
+	  combo.put(names.get(x), vals[c % vals.length]);
+	  c /= vals.length;
+	}
+	return combo;
+  }
+
+  private int cntCombos() {
+	int combos = 1;
+	for (String[] vals : values)
+	  combos *= vals.length;
+	return combos;
+  }
+
+
+  String run() throws Exception{
+	int combos = cntCombos();
+	//* placeholders are checked before anything runs - and the first session has the requester's SetParallelism(n)
+	Session session0 = newSession(combo(0));
+
+	List<SweepTask> tasks = new ArrayList<SweepTask>();
+	for (int c=0; c<combos; c++)
+	  tasks.add(new SweepTask(combo(c), (c == 0) ? session0 : null));
+	List<String> lstResults = Strat_ExprTask.runAll(tasks, session0.parallelism);
+
+	StringBuilder strb = new StringBuilder();
+	for (String name : names)
+	  strb.append(String.format("%8s", name));
+	strb.append(String.format("%6s%10s%10s%10s%10s%10s%10s\n", "N", "MU", "MUD", "PPOS", "SDEV", "T", "TDRF"));
+	for (int c=0; c<combos; c++) {
+	  Map<String, String> combo = combo(c);
+	  for (String name : names)
+		strb.append(String.format("%8s", combo.get(name)));
+	  strb.append(lstResults.get(c)).append("\n");
+	}
+	return strb.toString();
+  }
+
+  private Session newSession(Map<String, String> combo) throws Exception{
+	return new Session(strInstrDep,
+		               strDtBeg, strDtEnd, strDtBegIndx, strDtEndIndx,
+		               substitute(strTimeEnter.toLowerCase(), combo),
+		               substitute(strCondition.toLowerCase(), combo),
+		               strViewOption,
+		               username);
+  }
+
+
+  //* the row of one combination - an error is its row, the others still run
+  class SweepTask implements Callable<String> {
+	private final Map<String, String> combo;
+	private Session session;
+
+	SweepTask(Map<String, String> combo, Session session) {
+	  this.combo = combo;
+	  this.session = session;
+	}
+
+	@Override
+	public String call() {
+	  try {
+		if (session == null)
+		  session = newSession(combo);
+		session.parallelism = 1;   //* the combinations are the parallel part
+		Statistics_Data stats = new Processor(session).run_stats(false);   //* the rows only take MU .. TDRF
+
+		int f = atIndex(session);
+		return String.format("%6d%10.2f%10.2f%10.2f%10.2f%10.2f%10.2f", stats.cntN,
+			stats.statsMu[f], stats.statsMuAdj[f], stats.statsPpos[f], stats.statsSdev[f], stats.statsT[f], stats.statsTdrf[f]);
+	  } catch (Exception e) {
+		String msg = String.valueOf(e.getMessage());
+		return "  " + (msg.startsWith("ERROR") ? msg : "ERROR - " + msg);
+	  } finally {
+		session = null;   //* done with its snapshots
+	  }
+	}
+  }
+
+  //* column of strAt ("1:1615") in session.fwdDyTimeCol, else the last
+  private int atIndex(Session session) throws Exception{
+	int last = session.fwdDyTimeCol.length-1;
+	if (strAt.length() == 0)
+	  return last;
+	String[] p = strAt.split(":");
+	if (p.length != 2)
+	  throw new ExceptionCmd("ERROR - Sweep: at expects dy:time, got " + strAt);
+	int fwdDy;
+	try {
+	  fwdDy = Integer.parseInt(p[0].trim());
+	} catch (NumberFormatException e) {
+	  throw new ExceptionCmd("ERROR - Sweep: at expects dy:time, got " + strAt);
+	}
+	int timeCol = session.InstrDep.getTimeCol(p[1].trim());
+	for (int f=0; f<=last; f++)
+	  if (session.fwdDyTimeCol[f][0] == fwdDy && session.fwdDyTimeCol[f][1] == timeCol)
+		return f;
+	throw new ExceptionCmd("ERROR - Sweep: " + strAt + " is not one of the view times");
+  }
+
+}
@@ -314,9 +314,9 @@ public class Scenario_HiLo {
       		  //* Set prcRef
       		  if (g == ptsEnter.length-2) {          //* yest DAY'S low / high
       			  if(gBlwAbv==0)
-        		    prcRef = InstrDep.prc[i-1][InstrDep.loDyCol];
+        		    prcRef = InstrDep.prc.get(i-1, InstrDep.loDyCol);
         		  else
-        		    prcRef = InstrDep.prc[i-1][InstrDep.hiDyCol];
+        		    prcRef = InstrDep.prc.get(i-1, InstrDep.hiDyCol);
       		  } else if (g == ptsEnter.length-1) {   //* last 1 - yest 0230 low / high
           		  if(gBlwAbv==0) {
             	    prcRef = strat_Low.calcLow(i);
@@ -324,7 +324,7 @@ public class Scenario_HiLo {
             		prcRef = strat_High.calcHigh(i);
           		  }		
       		  } else {	  
-      			  prcRef = InstrDep.prc[i][cmdRefTimeCol];
+      			  prcRef = InstrDep.prc.get(i, cmdRefTimeCol);
       		  }		
               
       		  /* From here on the following should be set and thus makes general:
@@ -347,11 +347,11 @@ public class Scenario_HiLo {
       		      endCol = evtEndFrameTimeCol;
       		      
       		    for (int jTimeCol=startCol; jTimeCol<=endCol; jTimeCol++) {  //* go across time
-      		      prcCur = InstrDep.prc[i+iDysFwd][jTimeCol];
+      		      prcCur = InstrDep.prc.get(i+iDysFwd, jTimeCol);
       		      if ((gBlwAbv == 0 && prcCur + ptsEnter[g] <= prcRef) ||
       		          (gBlwAbv == 1 && prcCur >= prcRef + ptsEnter[g])) { 
       		        	
-      		    	   prcExit = InstrDep.prc[i+cmdExitTime_DysFwd][cmdExitTime_MinCol];
+      		    	   prcExit = InstrDep.prc.get(i+cmdExitTime_DysFwd, cmdExitTime_MinCol);
       		    	   if(gBlwAbv == 0) 
       		    	     pl[cntN] = prcExit - prcCur;  //(prcRef - ptsEnter[g]);  //* 1200 - (1150-10)
       		    	   else
@@ -500,14 +500,14 @@ public class Scenario_HiLo {
     	    fdStd_i=0.0;
     	    fdZscore_i=0.0;
       		for (int k=0; k<cmdStdPeriod; k++) {
-      		  X = InstrDep.prc[i-k-1][InstrDep.clsDyCol] - InstrDep.prc[i-k-2][InstrDep.clsDyCol];
+      		  X = InstrDep.prc.get(i-k-1, InstrDep.clsDyCol) - InstrDep.prc.get(i-k-2, InstrDep.clsDyCol);
               //listHist.add(X);
               //System.out.println(X);
       		  mu_i += X;
       		}  
       		mu_i /= cmdStdPeriod;
       		for (int k=0; k<cmdStdPeriod; k++) {
-      		  X = InstrDep.prc[i-k-1][InstrDep.clsDyCol] - InstrDep.prc[i-k-2][InstrDep.clsDyCol];
+      		  X = InstrDep.prc.get(i-k-1, InstrDep.clsDyCol) - InstrDep.prc.get(i-k-2, InstrDep.clsDyCol);
       		  //X = Math.abs(X);
       		  fdStd_i += Math.pow(X - mu_i,2);
       		}  
@@ -521,7 +521,7 @@ public class Scenario_HiLo {
       		 * ex/ Ref: 1020, hilo(0, 1500) 
       		 * ex/ Ref: C, hilo(1, 1500)
       		 */      	
-      	    prcRef = InstrDep.prc[i][cmdRefTimeCol];
+      	    prcRef = InstrDep.prc.get(i, cmdRefTimeCol);
       		
       		boolean blFound = false;
       	    int startCol;
@@ -538,13 +538,13 @@ public class Scenario_HiLo {
         		  endCol = evtEndFrameTimeCol;
       		  
       		    for (int jTimeCol=startCol; jTimeCol<=endCol; jTimeCol++) {  //* go across time
-      		        prcCur = InstrDep.prc[i+iDysFwd][jTimeCol];
+      		        prcCur = InstrDep.prc.get(i+iDysFwd, jTimeCol);
       	            //fdZscore_i = (prcCur - prcRef)/fdStd_i;  
       	            fdZscore_i = (prcCur - prcRef - mu_i)/fdStd_i;  
       	            //System.out.println(fdZscore_i);         
       		        if ((gBlwAbv == 0 && fdZscore_i <= -zThresh[g]) ||
       		    	    (gBlwAbv == 1 && fdZscore_i >= zThresh[g])) {	
-            	        prcExit = InstrDep.prc[i+cmdExitTime_DysFwd][cmdExitTime_MinCol];
+            	        prcExit = InstrDep.prc.get(i+cmdExitTime_DysFwd, cmdExitTime_MinCol);
 		                //pl[cntN] = prcExit - prcCur;
   		    	        if(gBlwAbv == 0) 
   		    	          pl[cntN] = prcExit - prcCur;  //(prcRef + mu_i - (zThresh[g]*fdStd_i));
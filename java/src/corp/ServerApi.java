@@ -1,5 +1,6 @@
 package program;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
@@ -16,7 +17,9 @@ import java.net.InetSocketAddress;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 //java.util.concurrent.Executor
 import java.util.concurrent.ExecutorService;
 
@@ -32,6 +35,7 @@ import com.sun.net.httpserver.HttpServer;
  * http://localhost:8007/api/import
  * http://localhost:8007/api/import?instr=es
  * http://localhost:8007/api/import?instr=es---da---cl
+ * http://localhost:8007/api/import?instr=es&mode=append
  * 
  * Using built in http server com.sun.net.httpserver
  * That FAQ concerns the sun.* package (such as sun.misc.BASE64Encoder) for internal usage by the Oracle JRE (which would thus kill your application when you run it on a different JRE), not the com.sun.* package. Sun/Oracle also just develop software on top of the Java SE API themselves like as every other company such as Apache and so on. Using com.sun.* classes is only discouraged (but not forbidden) when it concerns an implementation of a certain Java API, such as GlassFish (Java EE impl), Mojarra (JSF impl), Jersey (JAX-RS impl), etc.
@@ -54,10 +58,12 @@ public class ServerApi {
     
     public final static String API_IMPORT = "/api/import";
     public final static String API_CALC = "/api/calc";
+    public final static String API_CALC_SWEEP = "/api/calc_sweep";
     //public final static String API_MODULE_HILO = "/api/module/hilo";
     //public final static String API_MODULE_RECPROF = "/api/module/recprof";
     public final static String API_MODULE_SURVIVAL = "/api/module/survival";
     public final static String API_MODULE_SYSTRADE = "/api/module/systrade";
+    public final static String API_MODULE_WALKFORWARD = "/api/module/walkforward";
     public final static String API_MODULE_EQUITYCURVE = "/api/module/equitycurve";
     public final static String API_MODULE_REGRESSION = "/api/module/regression";
 
@@ -113,10 +119,12 @@ public class ServerApi {
     	
         server.createContext(API_IMPORT, new Handler_import());
         server.createContext(API_CALC, new Handler_calc());
+        server.createContext(API_CALC_SWEEP, new Handler_calc_sweep());
         //server.createContext(API_MODULE_HILO, new Handler_hilo());
         //server.createContext(API_MODULE_RECPROF, new Handler_recprof());
         server.createContext(API_MODULE_SURVIVAL, new Handler_survival());
         server.createContext(API_MODULE_SYSTRADE, new Handler_systrade());
+        server.createContext(API_MODULE_WALKFORWARD, new Handler_walkforward());
         server.createContext(API_MODULE_EQUITYCURVE, new Handler_equitycurve());
         server.createContext(API_MODULE_REGRESSION, new Handler_regression());
         
@@ -127,6 +135,21 @@ public class ServerApi {
     public static void init_app(){
 	    InstrSpecs.initialize();
 	    EconSetup.initialize();
+	    loadStores();
+    }
+    
+    
+    //* Map instruments already imported by a previous run, econ still needs /api/import
+    public static void loadStores(){
+    	for (int r=0; r<InstrSpecs.TOT_INSTRS; r++) {
+    		Instr InstrX = Instr.newVersion(r);
+    		try {
+    			if (InstrStore.load(InstrX))
+    				Instr.publish(InstrX);
+    		} catch (IOException e) {
+    			//* not imported, stays blImported false
+    		}
+    	}
     }
     
     
@@ -232,19 +255,19 @@ public class ServerApi {
               for (int d=0; d<3; d++){
                   //for(int j=0; j<1440; j++)
                   for (int j=0; j<10; j++){	
-            	      response +=  InstrX.prcDate[d] + "   " + InstrX.prcTime[j] + " : " + InstrX.prc[d][j] + "\n" ;
+            	      response +=  InstrX.prcDate[d] + "   " + InstrX.prcTime[j] + " : " + InstrX.prc.get(d, j) + "\n" ;
                   } 	
                   for (int j=1440-10; j<1440; j++){	
-            	      response +=  InstrX.prcDate[d] + "   " + InstrX.prcTime[j] + " : " + InstrX.prc[d][j] + "\n" ;
+            	      response +=  InstrX.prcDate[d] + "   " + InstrX.prcTime[j] + " : " + InstrX.prc.get(d, j) + "\n" ;
                   } 	
               }
               
               for (int d=InstrX.prc.length-3; d<InstrX.prc.length; d++){
                   for (int j=0; j<10; j++){	
-                  	response +=  InstrX.prcDate[d] + "   " + InstrX.prcTime[j] + " : " + InstrX.prc[d][j] + "\n" ;
+                  	response +=  InstrX.prcDate[d] + "   " + InstrX.prcTime[j] + " : " + InstrX.prc.get(d, j) + "\n" ;
                     } 	
                   for (int j=1440-10; j<1440; j++){	
-                	  response +=  InstrX.prcDate[d] + "   " + InstrX.prcTime[j] + " : " + InstrX.prc[d][j] + "\n" ;
+                	  response +=  InstrX.prcDate[d] + "   " + InstrX.prcTime[j] + " : " + InstrX.prc.get(d, j) + "\n" ;
                   } 	
               }
 	        } catch(Exception e) {	  
@@ -266,6 +289,7 @@ public class ServerApi {
                         
             try{
               response_str = "Build: " + AGlobal.strVER;
+              response_str += "\nSeries cache: " + Strat_ExprCache.stats();
               //response_str += "\nUSER: " + new Session().USERTYPE; 		  
 	        } catch(Exception e) {	  
 			  response_str = "ERROR - user_info: " + e.getMessage();
@@ -286,6 +310,7 @@ public class ServerApi {
             String response;
             String ret_status;
             String[] arrInstrs = null;   //* represents ALL, len==0 represents nothing checked
+            boolean blAppend = false;    //* mode=append: only new days from the tail of the min files
             String getparams = h.getRequestURI().getQuery();
             if (getparams != null){
               Map <String,String>mpParams = queryToMap(getparams);
@@ -298,7 +323,9 @@ public class ServerApi {
               response = sbResponse.toString();
               */
               String strInstrs = mpParams.get("instr");
-        	  arrInstrs = strInstrs.split(AGlobal.INSTRS_SEP);
+        	  if (strInstrs != null)
+        	    arrInstrs = strInstrs.split(AGlobal.INSTRS_SEP);
+        	  blAppend = "append".equals(mpParams.get("mode"));
         	  
         	  /* test
         	  strInstrs = "";
@@ -320,7 +347,7 @@ public class ServerApi {
             //* Must import econ bef dep bec prices need to be scrubbed of hol's
             ret_status = importEcon();      
             if (ret_status == "ok"){
-                ret_status = importDependent(arrInstrs);
+                ret_status = importDependent(arrInstrs, blAppend);
             }
             
             response = ret_status;
@@ -349,48 +376,82 @@ public class ServerApi {
 	    return "ok";
     }
     
+    /* Each instrument is imported on its own thread with its own ImportDataConvert, so a full
+     * reload takes about as long as the slowest instrument. Response is "ok" (or the ERROR line)
+     * followed by one line per instrument: "ES ok 812 ms", "CL ERROR - ... 35 ms"
+     */
     public static String importDependent(String[] arrInstrs) {
-    	      	  
-      	ImportDataConvert importDataConvert = new ImportDataConvert();
-      	
-      	if (arrInstrs==null) {
-      	    for (int r=0; r<InstrSpecs.TOT_INSTRS; r++) {
-      	    	Instr InstrX = Instr.getInstance(r);  
-      	        try {
-      	    	  //* jtextArea.append("Importing instrument: " + InstrSpecs.idNames[r] + "\n");
-      	          
-      	    	  importDataConvert.go(r);
-      	    	  /*
-      	    	  importDataConvert.importFile(r); 	
-      	    	  importDataConvert.scrubPrices(r); 	    	
-      	    	  importDataConvert.outputNewRawFile(r);
-      	    	  */
-                  InstrX.blImported = true;
-      	        } catch (Exception e) {
-      	          InstrX.blImported = false;
-      	          return "ERROR - Importing instrument: " + InstrSpecs.idNames[r];
-      		    }
-      	    }  
-            //* refreshDrpTstDates();
-            //* refreshDrpTimeStamps();
-            return "ok";     	
-            
-      	} else {
-      		for (String instr:arrInstrs) {  
-      		    int instr_index = java.util.Arrays.asList(InstrSpecs.idNames).indexOf(instr.toUpperCase());
-      		    Instr InstrX = Instr.getInstance(instr_index);
-	      	    try {	 	  
-	      	      importDataConvert.go(instr_index);              
-	              InstrX.blImported = true;
-	              //* refreshDrpTstDates();
-	              //* refreshDrpTimeStamps();	            
-	    	    } catch (Exception e) {
-	    	      InstrX.blImported = false;  
-	    	      return "ERROR - Importing instrument: " + instr;
-	    	    }   
-      		}
-      		return "ok";
-        }  
+    	return importDependent(arrInstrs, false);
+    }
+    
+    public static String importDependent(String[] arrInstrs, boolean blAppend) {
+    	
+    	if (arrInstrs==null)   //* represents ALL
+    		arrInstrs = InstrSpecs.idNames;
+    	
+    	int nThreads = Math.max(1, Math.min(arrInstrs.length, Runtime.getRuntime().availableProcessors()));
+    	ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+    	List<Future<String>> lstResults = new ArrayList<Future<String>>();
+    	try {
+    		for (String instr:arrInstrs)
+    			lstResults.add(executor.submit(new ImportTask(instr, blAppend)));
+    		
+    		String strFailed = "";
+    		String strDetail = "";
+    		for (int r=0; r<arrInstrs.length; r++) {
+    			String strRes;
+    			try {
+    				strRes = lstResults.get(r).get();
+    			} catch (Exception e) {
+    				strRes = arrInstrs[r].toUpperCase() + " ERROR - " + e.getMessage();
+    			}
+    			if (!strRes.startsWith(arrInstrs[r].toUpperCase() + " ok"))
+    				strFailed += (strFailed.length() == 0 ? "" : ", ") + arrInstrs[r];
+    			strDetail += "\n" + strRes;
+    		}
+    		
+    		//* refreshDrpTstDates();
+    		//* refreshDrpTimeStamps();
+    		if (strFailed.length() == 0)
+    			return "ok" + strDetail;
+    		else
+    			return "ERROR - Importing instrument: " + strFailed + strDetail;
+    	} finally {
+    		executor.shutdown();
+    	}
+    }
+    
+    
+    static class ImportTask implements Callable<String> {
+    	private String instr;
+    	private boolean blAppend;
+    	
+    	ImportTask(String instr, boolean blAppend) {
+    		this.instr = instr;
+    		this.blAppend = blAppend;
+    	}
+    	
+    	@Override
+    	public String call() {
+    		long tmStart = System.currentTimeMillis();
+    		String strId = instr.toUpperCase();
+    		int instr_index = java.util.Arrays.asList(InstrSpecs.idNames).indexOf(strId);
+    		if (instr_index < 0)
+    			return strId + " ERROR - Unknown instrument";
+    		
+    		try {
+    			//* jtextArea.append("Importing instrument: " + InstrSpecs.idNames[r] + "\n");
+    			//* publishes a new version of the instr, blImported set there
+    			if (blAppend)
+    				new ImportDataConvert().goAppend(instr_index);
+    			else
+    				new ImportDataConvert().go(instr_index);
+    			return strId + " ok " + (System.currentTimeMillis() - tmStart) + " ms";
+    		} catch (Exception e) {
+    			//* nothing was published - the last good version stays, sessions pinning it keep running
+    			return strId + " ERROR - " + e.getMessage() + " " + (System.currentTimeMillis() - tmStart) + " ms";
+    		}
+    	}
     }
     
     
@@ -507,6 +568,64 @@ public class ServerApi {
         }
     }
     
+    //* /api/calc params + sweep=n:5:200:5---t:0930:1100:15m [&at=1:1615], $n $t in condition/timeEnter
+    static class Handler_calc_sweep implements HttpHandler {
+        @Override
+        public void handle(HttpExchange h) throws IOException {
+            String response;
+            int response_code;
+            
+            String getparams = h.getRequestURI().getQuery();
+            if (getparams == null){
+            	send_response(h, 400, "ERROR - Handler calc_sweep: Invalid params");
+            	return;
+            }	
+            
+            Map <String,String>mpParams = queryToMap(getparams);
+            String strCondition = mpParams.get("condition");
+            String strViewOption = mpParams.get("viewoption");
+            String strSweep = mpParams.get("sweep");
+            String strTimeEnter = mpParams.get("timeEnter");
+            
+            //* Validation
+            if (strCondition == null || strCondition.length() == 0){   
+                send_response(h, 400, "ERROR - Missing conditions");
+        	    return;
+            }
+            if (strViewOption == null || strViewOption.length() == 0){   
+                send_response(h, 400, "ERROR - Missing view options");
+          	    return;
+            }
+            if (strSweep == null || strSweep.length() == 0){   
+                send_response(h, 400, "ERROR - Missing sweep");
+          	    return;
+            }
+            
+            strCondition = strCondition.replace("___"," ").replace("__eq","=");
+            strViewOption = strViewOption.replace("___"," ").replace("__eq","=");
+            
+    		try {   
+    	      Processor_Sweep sweep = new Processor_Sweep(
+    	        mpParams.get("InstrDep"), 
+    	        mpParams.get("dt_beg"), mpParams.get("dt_end"), mpParams.get("dt_beg_indx"), mpParams.get("dt_end_indx"), 
+    	        strTimeEnter == null ? "" : strTimeEnter, 
+    	        strCondition,
+    	        strViewOption,
+    	        strSweep,
+    	        mpParams.get("at"),
+    	        mpParams.get("username")
+    	      ); 	      
+              response = sweep.run();
+              response_code = 200;
+	        } catch(Exception e) {	  
+			  response = "ERROR - Processor_Sweep: " + e.getMessage();
+			  response_code = 400;
+	        }  
+            
+    		send_response(h, response_code, response);    		
+        }
+    }
+    
     /*
     static class Handler_hilo implements HttpHandler {
         @Override
@@ -640,6 +759,7 @@ public class ServerApi {
             //String str_viewoption = mpParams.get("viewoption");
             String str_mod_maxopencontract = mpParams.get("mod_maxopencontract");
             String str_mod_bl_exit_feature = mpParams.get("mod_bl_exit_feature");
+            String str_mod_montecarlo_paths = mpParams.get("mod_montecarlo_paths");
             //String str_mod_exit_feature_fixed_dyfwd_time = mpParams.get("mod_exit_feature_fixed_dyfwd_time");
             String str_mod_bl_profittarget = mpParams.get("mod_bl_profittarget");
             String str_mod_profittarget = mpParams.get("mod_profittarget");
@@ -689,6 +809,9 @@ public class ServerApi {
       	      
       	      Mod_SysTrade mod_systrade = new Mod_SysTrade(session);
       	      mod_systrade.init();
+      	      mod_systrade.parallelism = session.parallelism;
+      	      if (str_mod_montecarlo_paths != null)
+      	        mod_systrade.cmd_montecarlo_paths = Integer.parseInt(str_mod_montecarlo_paths);
       	      
       	      mod_systrade.cmd_maxopencontract = Integer.parseInt(str_mod_maxopencontract); 
       	      mod_systrade.cmd_bl_exit_feature_fixed=false;
@@ -759,6 +882,92 @@ public class ServerApi {
     }
     
     
+    /* systrade params (no profit/stop/time target) + wf_insample=252 wf_outsample=63 wf_short=true
+     * grids: wf_profittarget=5---10---20  wf_stoploss=0---5---10  wf_timetarget=0:1600---1:1600   0 = off
+     */
+    static class Handler_walkforward implements HttpHandler {
+        @Override
+        public void handle(HttpExchange h) throws IOException {
+            String response;
+            int response_code;
+            
+            String getparams = h.getRequestURI().getQuery();
+            if (getparams == null){
+            	send_response(h, 400, "ERROR - Invalid params");
+            	return;
+            }
+            
+            Map <String,String>mpParams = queryToMap(getparams);
+            String str_feature = mpParams.get("feature");
+            String str_mod_maxopencontract = mpParams.get("mod_maxopencontract");
+            String str_mod_bl_exit_feature = mpParams.get("mod_bl_exit_feature");
+            
+            //* Validation
+            if (str_feature == null || str_feature.length() == 0){   
+                send_response(h, 400, "ERROR - Missing conditions");
+        	    return;
+            }
+            str_feature = str_feature.replace("___"," ").replace("__eq","=");
+            
+    	    try {
+      	      Session session = new Session(
+      	        mpParams.get("instr_dep"),
+      	        mpParams.get("dt_beg"), mpParams.get("dt_end"), mpParams.get("dt_beg_indx"), mpParams.get("dt_end_indx"),
+      	        mpParams.get("entry_time"), 
+      	      	str_feature,
+      	      	mpParams.get("username")
+      	      );
+      	      session.bl_postfilter_recprof = false;
+      	      
+      	      Mod_SysTrade mod_systrade = new Mod_SysTrade(session);
+      	      mod_systrade.init();
+      	      mod_systrade.setBuy(!"true".equals(mpParams.get("wf_short")));
+      	      mod_systrade.cmd_maxopencontract = (str_mod_maxopencontract == null) ? 1 : Integer.parseInt(str_mod_maxopencontract);
+        	  if ("true".equals(str_mod_bl_exit_feature) && session.bl_exit_fixed){
+        		  mod_systrade.cmd_bl_exit_feature_fixed = true;
+        		  mod_systrade.cmd_exit_feature_fixed_dyfwd = session.exitfixed_dyfwd;
+        		  mod_systrade.cmd_exit_feature_fixed_timecol = session.exitfixed_timecol;
+        		  mod_systrade.cmd_exit_feature_fixed_timestr = session.InstrDep.prcTime[mod_systrade.cmd_exit_feature_fixed_timecol]; 
+        	  }
+        	  
+        	  Mod_WalkForward mod_walkforward = new Mod_WalkForward(session, mod_systrade);
+        	  if (mpParams.get("wf_insample") != null)
+        		  mod_walkforward.cmdInSampleDys = Integer.parseInt(mpParams.get("wf_insample"));
+        	  if (mpParams.get("wf_outsample") != null)
+        		  mod_walkforward.cmdOutSampleDys = Integer.parseInt(mpParams.get("wf_outsample"));
+        	  if (mpParams.get("wf_profittarget") != null)
+        		  mod_walkforward.gridProfitTarget = parseGrid(mpParams.get("wf_profittarget"));
+        	  if (mpParams.get("wf_stoploss") != null)
+        		  mod_walkforward.gridStopLoss = parseGrid(mpParams.get("wf_stoploss"));
+        	  if (mpParams.get("wf_timetarget") != null) {
+        		  mod_walkforward.gridTimeTarget = mpParams.get("wf_timetarget").split("---");
+        		  for (int g=0; g<mod_walkforward.gridTimeTarget.length; g++)
+        			  if (mod_walkforward.gridTimeTarget[g].trim().equals("0"))
+        				  mod_walkforward.gridTimeTarget[g] = "";
+        	  }
+        	  
+        	  mod_walkforward.run();
+              response = mod_walkforward.strView;
+              response_code = 200;
+  	        } catch(Exception e) {	  
+  			  response = "ERROR - Mod_WalkForward: " + e.getMessage();
+  			  response_code = 400;
+  	        }  
+              
+      		send_response(h, response_code, response);   
+        }
+        
+        //* 5---10---20
+        static double[] parseGrid(String strGrid) {
+        	String[] vals = strGrid.split("---");
+        	double[] grid = new double[vals.length];
+        	for (int g=0; g<vals.length; g++)
+        		grid[g] = Double.parseDouble(vals[g].trim());
+        	return grid;
+        }
+    }
+    
+    
     static class Handler_equitycurve implements HttpHandler {
         @Override
         public void handle(HttpExchange h) throws IOException {
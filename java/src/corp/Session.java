@@ -10,6 +10,12 @@ public class Session {
    * Fields for state 
    */
   public Instr InstrDep;
+  public Instr[] instrs;     //* snapshot of every instr pinned for this session, see Instr.snapshot()
+  WarmUp warmUp = new WarmUp();   //* look-back of the current evaluation, see WarmUp
+  Strat_ExprMemo exprMemo;        //* series of the current dy evaluation, null outside of it
+  int parallelism = defaultParallelism();   //* cap on the threads of one evaluation, SetParallelism(n)
+  int bootstrapResamples = Statistics_Bootstrap.DEFAULT_RESAMPLES;   //* SetBootstrap(n, blockdys) - 0 off
+  int bootstrapBlockDys = 0;                                         //* 0: from the forward days and the entry days
   public int begTstDateIndex;
   public int endTstDateIndex;
   public int begDateIndex;
@@ -45,6 +51,9 @@ public class Session {
   public List<String[]> arrCmdExitDy;
   public List<String[]> arrCmdExitIntrady;
   public List<String[]> arrCmd_feature_dy;
+  List<Strat_ExprCond> expr_feature_dy;  //* compiled arrCmd_feature_dy, null per line left to the string path
+  private Strat_ExprWindow exprWindow;
+  private int[][] rowsOnDep;             //* see getRowsOnDep()
   
   public String strViewOptionsWindow;
   public int viewNumObs;
@@ -86,9 +95,15 @@ public class Session {
       String username
     ) throws Exception{
 	  
-	Instr InstrDep = Instr.getInstance(Arrays.asList(InstrSpecs.idNames).indexOf(strInstrDep.toUpperCase()));  
+	instrs = new Instr[InstrSpecs.TOT_INSTRS];
+	for (int i=0; i<InstrSpecs.TOT_INSTRS; i++)
+	  instrs[i] = Instr.getInstance(i).snapshot();
 	
-	this.InstrDep = InstrDep;
+	int instrDepKey = Arrays.asList(InstrSpecs.idNames).indexOf(strInstrDep.toUpperCase());
+	if (instrDepKey < 0)
+	  throw new ExceptionCmd("ERROR - Unknown instrument: " + strInstrDep);
+	
+	this.InstrDep = instrs[instrDepKey];
 	this.username = username;
 	
 	begTstDateIndex = Integer.parseInt(strDtBegIndx);
@@ -105,6 +120,7 @@ public class Session {
 	utils = new Utils();
 	
 	init();
+	new SetUserOptions(this).parseAndSetParallelism();
 	
 	if(username.equals("admin"))
 	  USERTYPE = 4;
@@ -150,12 +166,24 @@ public class Session {
 	     username);
   }     
   
+  /* First day valid for everything evaluated on this session so far - InstrDep.maxDysBk stays the base
+   * every window is evaluated from, the look-backs (lines, Mod_SysTrade's z stats) are in warmUp
+   */
+  int getBegDyIdx() {
+	return InstrDep.maxDysBk + warmUp.getMaxDysBk();
+  }
+  
+  //* cores, at most 8 - the server runs several requests at once
+  static int defaultParallelism() {
+	return Math.min(Runtime.getRuntime().availableProcessors(), 8);
+  }
+  
   void init() throws Exception{
 	/***
 	 * Set variables and settings
 	 */
 	for (int i=0; i<InstrSpecs.idNames.length; i++) {  
-	  Instr InstrX = Instr.getInstance(i);
+	  Instr InstrX = instrs[i];
 	  InstrX.maxDysBk = 30;
 	  if(i==InstrDep.key)
 	    if(InstrX.maxDysBk < begTstDateIndex)
@@ -181,6 +209,7 @@ public class Session {
 	arrCmdEntryIntrady  = new ArrayList<String[]>();
 	arrCmdExitDy  = new ArrayList<String[]>();
 	arrCmdExitIntrady  = new ArrayList<String[]>();
+	exprWindow = null;
 	
 	int pos = strCmdWindow.indexOf("exit:");
 	if(pos <= 0)
@@ -257,6 +286,16 @@ public class Session {
 
   }    	
   
+  /* arrCmdEntryDy / arrCmdExitDy compiled, once per window text - see Strat_ExprWindow
+   * NOT in setArrayCmd(): USERTYPE (allowed fns) is only set after init()
+   */
+  Strat_ExprWindow getExprWindow() {
+	if (exprWindow == null)
+	  exprWindow = Strat_ExprWindow.getInstance(this);
+	return exprWindow;
+  }
+  
+  
   int[] getIntradyFixed(final String str_cmdline) throws Exception{
 	/*** 
 	 * Returns int [dyfwd, timecol]  
@@ -287,13 +326,42 @@ public class Session {
   }
 
   
+  public Instr getInstr(int key) {
+	return instrs[key];
+  }
+  
+  /* Row of instrs[key] on or before each InstrDep day by date, -1 before its first day - null for
+   * InstrDep itself. Other instrs trade on other days (holidays), so row i of one is not day i of
+   * the other: the compiled nodes read them through this, as the string path walks prcDate back.
+   * Both sides are this session's snapshots, so once per session and key.
+   */
+  synchronized int[] getRowsOnDep(int key) {
+	if (key == InstrDep.key)
+	  return null;
+	if (rowsOnDep == null)
+	  rowsOnDep = new int[instrs.length][];
+	if (rowsOnDep[key] == null) {
+	  Instr InstrX = instrs[key];
+	  int[] rows = new int[InstrDep.prc.length];
+	  int r = -1;
+	  for (int i=0; i<rows.length; i++) {
+		while (r+1 < InstrX.prc.length && InstrX.epochDy[r+1] <= InstrDep.epochDy[i])
+		  r++;
+		rows[i] = r;
+	  }
+	  rowsOnDep[key] = rows;
+	}
+	return rowsOnDep[key];
+  }
+  
+  
   boolean chkIfImported() {
 	boolean blChk = false;
   	if (strCmdWindow.length() == 0) {
   	    //throw ("ERROR: No commands inputed\n");	
     } else if (!InstrDep.blImported) {  //* Chk dependent imported first, then independent
         // throw ("ERROR: Dependent instrument not imported \n");
-    } else if (!utils.checkIfAllImported(strCmdWindow)) {   	  
+    } else if (!utils.checkIfAllImported(strCmdWindow, instrs)) {   	  
         //throw ("ERROR: Independent instruments not imported \n");
     } else {
     	blChk = true;
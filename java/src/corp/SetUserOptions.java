@@ -18,6 +18,7 @@ public class SetUserOptions {
 	  /* SetNumObs(10)
 	   * SetViewTimes(3, 6, 2, 10)  SetViewTimes(120, 6, 2, 10)
 	   * SetViewStartTime(0230)
+	   * SetBootstrap(1000)  SetBootstrap(1000, 5)  SetBootstrap(0)
        */			
 	  String strUserCmds = session.strViewOptionsWindow;
       if (strUserCmds.length() == 0) {
@@ -31,6 +32,8 @@ public class SetUserOptions {
 	        setViewTimes(strCmdLine); 
 	    } else if (strCmdLine.indexOf("setviewstarttime") == 0) {        	 	        	 
 	        setViewStartTime(strCmdLine); 
+	    } else if (strCmdLine.indexOf("setbootstrap") == 0) {
+	        setBootstrap(strCmdLine);
 	    }
          
 	  }
@@ -40,6 +43,56 @@ public class SetUserOptions {
     }	
   }
   
+  /* SetParallelism(n) - threads for the dy lines of this request, 1 = sequential
+   * run from the Session constructor, the lines are evaluated before parseAndSetViewForStatistics()
+   */
+  public void parseAndSetParallelism() throws Exception{
+	for (String strCmdLine : session.strViewOptionsWindow.split("\n")) {
+	  strCmdLine = strCmdLine.trim().toLowerCase();
+	  if (strCmdLine.indexOf("setparallelism") == 0)
+		setParallelism(strCmdLine);
+	}
+  }
+
+  public void setParallelism(String strUserLine) throws Exception{
+	int t_P0 = strUserLine.indexOf("(");
+	int t_P1 = strUserLine.lastIndexOf(")");
+	if (t_P0 < 0 || t_P1 < t_P0)
+	  throw new ExceptionSetUserOption("ERROR: Setting View Options - SetParallelism(n)");
+	String strCmdLine = strUserLine.substring(t_P0+1,t_P1).trim();
+	int n;
+	try {
+	  n = Integer.parseInt(strCmdLine);
+	} catch (NumberFormatException e) {
+	  throw new ExceptionSetUserOption("ERROR: Setting View Options - SetParallelism(n)");
+	}
+	//* never more than the cores, whatever is asked
+	session.parallelism = Math.max(1, Math.min(n, Runtime.getRuntime().availableProcessors()));
+  }
+
+  /* SetBootstrap(n) SetBootstrap(n, blockdys) - resamples of the entry days for P, PDRF and the
+   * 95% interval of MU, see Statistics_Bootstrap - 0 resamples off, no blockdys from the view times
+   */
+  public void setBootstrap(String strUserLine) throws Exception{
+	int t_P0 = strUserLine.indexOf("(");
+	int t_P1 = strUserLine.lastIndexOf(")");
+	if (t_P0 < 0 || t_P1 < t_P0)
+	  throw new ExceptionSetUserOption("ERROR: Setting View Options - SetBootstrap(n, blockdys)");
+	String[] strArgs = strUserLine.substring(t_P0+1,t_P1).split(",");
+	int n, blockDys = 0;
+	try {
+	  n = Integer.parseInt(strArgs[0].trim());
+	  if (strArgs.length > 1)
+		blockDys = Integer.parseInt(strArgs[1].trim());
+	} catch (NumberFormatException e) {
+	  throw new ExceptionSetUserOption("ERROR: Setting View Options - SetBootstrap(n, blockdys)");
+	}
+	if (n < 0 || n > 100000 || blockDys < 0 || strArgs.length > 2)
+	  throw new ExceptionSetUserOption("ERROR: Setting View Options - SetBootstrap(n, blockdys)");
+	session.bootstrapResamples = n;
+	session.bootstrapBlockDys = blockDys;
+  }
+
   public void setNumObs(String strUserLine){    
     int t_P0 = strUserLine.indexOf("(");  	  
     int t_P1 = strUserLine.lastIndexOf(")");
@@ -1,9 +1,7 @@
 package program;
 
 import java.text.SimpleDateFormat;
-import java.util.List;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Date;
 
 
@@ -34,35 +32,37 @@ public class Statistics {
 	* Section I: Pre-header - entry, exit conditions, time stamp
 	* "Ran at ..."
 	**********************************/
+	StringBuilder head = new StringBuilder();
 	strText = sdfDtime.format(new Date());
-	stats.head = "Ran at " + strText + "\n";
+	head.append("Ran at ").append(strText).append("\n");
 	strText = "Calculation results for " + InstrDep.idName +
 	      " from " + sdfDtime.format(InstrDep.prcDate[session.begTstDateIndex].getTime()) +
 		  " to " + sdfDtime.format(InstrDep.prcDate[session.endTstDateIndex].getTime());
-	stats.head += strText + "\n";
+	head.append(strText).append("\n");
 	if(session.bl_entry_fixed && session.USERTYPE != 4)
-	  stats.head += "Reference time at " + InstrDep.prcTime[entryfixed_timecol] + "\n\n";
+	  head.append("Reference time at ").append(InstrDep.prcTime[entryfixed_timecol]).append("\n\n");
 	else if(session.bl_entry_fixed && session.USERTYPE == 4)
 	  //stats.head += "Reference time at: " + session.entryfixed_str; 	
-	  stats.head += "Reference time at: " + session.entryfixed_dyfwd + ", " + InstrDep.prcTime[entryfixed_timecol];
+	  head.append("Reference time at: ").append(session.entryfixed_dyfwd).append(", ").append(InstrDep.prcTime[entryfixed_timecol]);
 	else if(session.bl_entry_event && session.USERTYPE == 4)
-	  stats.head += "Reference time at: " + session.entryevent_str;   
+	  head.append("Reference time at: ").append(session.entryevent_str);   
     if(session.username.equals("admin"))
-	  stats.head += "\nNumber of trades: " + trds.entry_dyidx.size() + "\n\n";
+	  head.append("\nNumber of trades: ").append(trds.entry_dyidx.size()).append("\n\n");
 	
-	stats.head += "Entry Conditions:\n";
+	head.append("Entry Conditions:\n");
     for(String[] strCmds: session.arrCmdEntryDy)
       if (strCmds[1] == "not")
-        stats.head += "not " + strCmds[0] + "\n";
+        head.append("not ").append(strCmds[0]).append("\n");
       else
-    	stats.head += strCmds[0] + "\n"; 
-    stats.head += "\n";
+    	head.append(strCmds[0]).append("\n"); 
+    head.append("\n");
     
 	if(session.bl_postfilter_recprof){ 
-      stats.head += session.str_postfilter_recprof;
-      stats.head += "\n";
+      head.append(session.str_postfilter_recprof);
+      head.append("\n");
 	}
-    stats.head += "\n";
+    head.append("\n");
+    stats.head = head.toString();
     
 	    
 	/************************************ 	   
@@ -83,54 +83,37 @@ public class Statistics {
 	
     /****************************************************************** 
 	 * Section II: Observations - Matrix of price changes from reference time/day/price
-	 * obsDts: "2010 11 16  TUE"
-	 * obs:                      "1283.25   -0.50    1.50    1.25  ..."
+	 * obsEpochDy, obsWeekday: "2010 11 16  TUE" - formatted by View
+	 * obsPrcEntry, obsDelta:  "1283.25   -0.50    1.50    1.25  ..."
 	 ******************************************************************/
 	double prc_entry;
-	String str=""; 
+	int nObs = trds.entry_dyidx.size();
+	int nFwd = session.fwdDyTimeCol.length;
 	    
-	stats.obsDt = new String[trds.entry_dyidx.size()][4];
-	stats.obsDelta = new double[trds.entry_dyidx.size()][session.fwdDyTimeCol.length+1];  //* +1 for prcRef 
+	stats.nObs = nObs;
+	stats.nFwd = nFwd;
+	stats.obsEpochDy = new int[nObs];
+	stats.obsWeekday = new byte[nObs];
+	stats.obsPrcEntry = new double[nObs];
+	stats.obsDelta = new double[nObs*nFwd];
 	//for (int i=session.begTstDateIndex+trds.maxDysBk; i<=session.endTstDateIndex; i++) {
-	for (int t=0; t<trds.entry_dyidx.size(); t++) {
+	for (int t=0; t<nObs; t++) {
 	    int trd_entry_dyidx = trds.entry_dyidx.get(t);		
 	    int trd_entry_timecol = trds.entry_timecol.get(t);
-	    stats.obsDt[t][0] = InstrDep.getYear(trd_entry_dyidx);
-	    stats.obsDt[t][1] = InstrDep.getMonth(trd_entry_dyidx);
-	    stats.obsDt[t][2] = InstrDep.getDay(trd_entry_dyidx);
-		switch (InstrDep.getWeekday(trd_entry_dyidx)) {
-		  case 0:
-		    str = "SUN";
-			break;
-		  case 1:
-			str = "MON";
-			break;
-		  case 2:
-			str = "TUE"; 	
-		    break;
-		  case 3:
-			str = "WED";
-			break;
-		  case 4:
-			str = "THU";
-			break;
-		  case 5:
-			str = "FRI"; 	
-			break;
-		}
-		stats.obsDt[t][3] = str;
+	    stats.obsEpochDy[t] = InstrDep.epochDy[trd_entry_dyidx];
+	    stats.obsWeekday[t] = InstrDep.weekday[trd_entry_dyidx];
 		
 	    //* Show PLAST entry prc, then price changes from PLAST thruout day
 		//prc_entry = InstrDep.prc[trd_entry_dyidx][entryfixed_timecol];    //* "PLAST" - the reference price
-		prc_entry = InstrDep.prc[trd_entry_dyidx][trd_entry_timecol];
-	    stats.obsDelta[t][0] = prc_entry;
+		prc_entry = InstrDep.prc.get(trd_entry_dyidx, trd_entry_timecol);
+	    stats.obsPrcEntry[t] = prc_entry;
 	    
 	    //* Now all the deltas from PLAST
-	    for (int f=0; f<session.fwdDyTimeCol.length; f++) {
+	    for (int f=0; f<nFwd; f++) {
 	        dyFwd_f = session.fwdDyTimeCol[f][0];
 	    	timeFwdCol_f = session.fwdDyTimeCol[f][1];
 	        if((trd_entry_dyidx+dyFwd_f) < InstrDep.prc.length)  //* in case last signal is last data row
-	          stats.obsDelta[t][1+f] = InstrDep.prc[trd_entry_dyidx+dyFwd_f][timeFwdCol_f]-prc_entry;
+	          stats.obsDelta[t*nFwd+f] = InstrDep.prc.get(trd_entry_dyidx+dyFwd_f, timeFwdCol_f)-prc_entry;
 	    }    
 	}   //* for trd loop
 		
@@ -173,10 +156,8 @@ public class Statistics {
 	 * D   HOUR     N     MIN     MAX      MU     MUD    PPOS    SDEV         T      TDRF
      * 1  02:30  1819   35.25  -42.75   -0.19   -0.20   44.58    4.30   -183.59   -197.27
 	 */	   
-	stats.statsDyTime = new String[trds.entry_dyidx.size()][2];            //* "0  09:35"
-    stats.chgPrc = new double[trds.entry_dyidx.size()][session.fwdDyTimeCol.length];
     stats.statsMed = new double[session.fwdDyTimeCol.length];
-    List<Double> statsMedLst_f;
+    double[] statsMed_f = new double[nObs];
     int cntPos, cntNeg, cntNon0;    
 	stats.statsMu = new double[session.fwdDyTimeCol.length];
 	stats.statsMuAdj = new double[session.fwdDyTimeCol.length];
@@ -197,7 +178,6 @@ public class Statistics {
 	  int fwdDy_f = session.fwdDyTimeCol[f][0];  	
 	  int fwdTimeCol_f = session.fwdDyTimeCol[f][1];
 	  
-	  statsMedLst_f = new ArrayList<Double>();
 	  cntPos=0;
 	  cntNeg=0;
 	  cntNon0=0;
@@ -220,33 +200,31 @@ public class Statistics {
 	  
       for (int t=0; t<trds.entry_dyidx.size(); t++) {
 	    int trd_entry_dyidx = trds.entry_dyidx.get(t);
-	    int trd_entry_timecol = trds.entry_timecol.get(t);
 	    if(trd_entry_dyidx+fwdDy_f >= InstrDep.prc.length)
 	      break;
 	    
 	    stats.cntN++; 	
 		
-	    prc_entry = InstrDep.prc[trd_entry_dyidx][trd_entry_timecol];        //* PLAST 
-		stats.chgPrc[t][f] = InstrDep.prc[trd_entry_dyidx+fwdDy_f][fwdTimeCol_f] - prc_entry;
-		stats.statsMu[f] += stats.chgPrc[t][f];
+	    double chgPrc = stats.obsDelta[t*nFwd+f];   //* from PLAST, as in the obs
+		stats.statsMu[f] += chgPrc;
 
-		statsMedLst_f.add(stats.chgPrc[t][f]);
+		statsMed_f[stats.cntN-1] = chgPrc;
 		
-		if(stats.chgPrc[t][f] < stats.statsMin[f]) 
-		  stats.statsMin[f] = stats.chgPrc[t][f];  
-	    if(stats.chgPrc[t][f] > stats.statsMax[f]) 
-	      stats.statsMax[f] = stats.chgPrc[t][f];  
+		if(chgPrc < stats.statsMin[f]) 
+		  stats.statsMin[f] = chgPrc;  
+	    if(chgPrc > stats.statsMax[f]) 
+	      stats.statsMax[f] = chgPrc;  
 			          
-	    if(stats.chgPrc[t][f] > 0) {
+	    if(chgPrc > 0) {
 	      stats.statsPpos[f]++;
 	      stats.statsPctPos[f]++;
 	      //statsMuPos_f += diffPrc_f[cntN];
-	      stats.statsMaxAvg[f] += stats.chgPrc[t][f];
+	      stats.statsMaxAvg[f] += chgPrc;
 	      cntPos++;
 	      cntNon0++;
-	    } else if(stats.chgPrc[t][f] < 0){
+	    } else if(chgPrc < 0){
 		  stats.statsPctNeg[f]++;
-	      stats.statsMinAvg[f] += stats.chgPrc[t][f];
+	      stats.statsMinAvg[f] += chgPrc;
 	      cntNeg++;
 	      cntNon0++;
         }
@@ -283,33 +261,33 @@ public class Statistics {
 	  //* var_s = 1/(N-1)*Sum(x_i - mu)^2
 	  //*       = ( Sum(x^2) - 1/N(Sum_x)^2 ) / (N-1)
 	  for(int n=0; n<stats.cntN; n++)
-	    stats.statsVar[f] += ((stats.chgPrc[n][f] - stats.statsMu[f])*(stats.chgPrc[n][f] - stats.statsMu[f]));
+	    stats.statsVar[f] += ((stats.obsDelta[n*nFwd+f] - stats.statsMu[f])*(stats.obsDelta[n*nFwd+f] - stats.statsMu[f]));
 	  stats.statsVar[f] /= (stats.cntN-1);  //* unbiased
 	  stats.statsSdev[f] = Math.sqrt(stats.statsVar[f]);
 
 	  //* MED calculations
-	  Collections.sort(statsMedLst_f);
-	  int len_lst = statsMedLst_f.size();
+	  int len_lst = stats.cntN;
+	  Arrays.sort(statsMed_f, 0, len_lst);
 	  int k;
 	  if (len_lst == 1) {  
-		  stats.statsMed[f] = statsMedLst_f.get(0);
+		  stats.statsMed[f] = statsMed_f[0];
 	  } else if ((len_lst & 1) == 1) {  //* odd
 		  k = len_lst/2;
-		  stats.statsMed[f] = statsMedLst_f.get(k);
+		  stats.statsMed[f] = statsMed_f[k];
 	  } else {
 		  k = len_lst/2;  //* ie 1 2 3 4 5 6
-		  stats.statsMed[f] = (statsMedLst_f.get(k-1) + statsMedLst_f.get(k))/2.0;
+		  stats.statsMed[f] = (statsMed_f[k-1] + statsMed_f[k])/2.0;
 	  }	  
 	  
       //* Stats for population
 	  int cntN=0;
 	  if (session.USERTYPE != 4){
 	      //for (int i=InstrDep.maxDysBk; i<=session.endTstDateIndex-fwdDy;i++) {  // mean of changes to +1 930, etc for EVERY day, not just signal
-		  for (int i=InstrDep.maxDysBk; i<=session.endTstDateIndex;i++) {  // mean of changes to +1 930, etc for EVERY day, not just signal
+		  for (int i=session.getBegDyIdx(); i<=session.endTstDateIndex;i++) {  // mean of changes to +1 930, etc for EVERY day, not just signal
 			if(i+fwdDy_f >= InstrDep.prc.length) 
 			  break;
 			cntN++; 	
-			stats.statsDrift[f] += InstrDep.prc[i+fwdDy_f][fwdTimeCol_f] - InstrDep.prc[i][entryfixed_timecol];
+			stats.statsDrift[f] += InstrDep.prc.get(i+fwdDy_f, fwdTimeCol_f) - InstrDep.prc.get(i, entryfixed_timecol);
 	      }
 		  stats.statsDrift[f] /= cntN;     //* mean of pop
 		  stats.statsMuAdj[f] = stats.statsMu[f] - stats.statsDrift[f];
@@ -317,11 +295,11 @@ public class Statistics {
 		  /***
 		   * TODO
 		   */
-		  for (int i=InstrDep.maxDysBk; i<=session.endTstDateIndex;i++) {  // mean of changes to +1 930, etc for EVERY day, not just signal
+		  for (int i=session.getBegDyIdx(); i<=session.endTstDateIndex;i++) {  // mean of changes to +1 930, etc for EVERY day, not just signal
 			if(i+fwdDy_f >= InstrDep.prc.length) 
 			  break;
 			cntN++; 	
-			stats.statsDrift[f] += InstrDep.prc[i+fwdDy_f][fwdTimeCol_f] - InstrDep.prc[i][0];
+			stats.statsDrift[f] += InstrDep.prc.get(i+fwdDy_f, fwdTimeCol_f) - InstrDep.prc.get(i, 0);
 	      }
 		  stats.statsDrift[f] /= cntN;     //* mean of pop
 		  stats.statsMuAdj[f] = stats.statsMu[f] - stats.statsDrift[f];		  
@@ -334,6 +312,11 @@ public class Statistics {
 	  stats.statsTdrf[f] = (stats.statsMuAdj[f]/stats.statsSdev[f])*Math.sqrt(stats.cntN)*100;
   	}	
 	
+	/**********************************************  
+	 * Section IV: Block bootstrap of the entry days - P, PDRF, 95% of MU
+	 **********************************************/
+	new Statistics_Bootstrap(session, trds, stats).calc();
+	
   	return stats;
   }  //* end calcStatsAndDisplay_FixedMin
 	  
@@ -0,0 +1,233 @@
+package program;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import program.stats.PsRandom;
+
+
+public class Statistics_Bootstrap {
+
+  /* Block bootstrap of the exit matrix - p-values and confidence intervals of MU per forward column
+   *
+   * T and TDRF take the observations as independent, but entries on neighbouring days share
+   * the forward days they are measured over (and the market's moods). Here the entry days, in
+   * order, are resampled in circular blocks of bootBlockDys consecutive entry days - all entries of
+   * a day go together, and so do all forward columns of a resample - and MU is taken again.
+   *     LO HI   2.5% / 97.5% of the resampled MU
+   *     P       two-sided, MU against 0          (as T)
+   *     PDRF    two-sided, MU against the drift  (as TDRF)
+   * with the resampled MU centred on MU for the null.
+   *
+   * Per entry day and column the sums and counts are cumulated once, so a block is two lookups per
+   * column whatever the entries in it. Resamples go in chunks of CHUNK, chunk c drawing from
+   * substream c of PsRandom.splittable(SEED), then the columns are sorted and read - both on
+   * Strat_ExprTask.POOL, session.parallelism at once. Same request, same result, whatever the thread count.
+   */
+  public static final int DEFAULT_RESAMPLES = 1000;
+  static final int CHUNK = 100;
+  static final long SEED = 20140317L;
+
+  private Session session;
+  private Trades trds;
+  private Instr InstrDep;
+  private Statistics_Data stats;
+
+  private int nCols;
+  private int nDys;
+  private double[] dySum;    //* [d*nCols + f], cumulated over entry days 0..d-1
+  private int[] dyCnt;
+  private double[] boot;     //* [f*resamples + b] resampled MU
+
+
+  public Statistics_Bootstrap(Session session, Trades trds, Statistics_Data stats) {
+	this.session = session;
+	this.InstrDep = session.InstrDep;
+	this.trds = trds;
+	this.stats = stats;
+  }
+
+
+  public void calc() throws Exception{
+	int resamples = session.bootstrapResamples;
+	nCols = stats.nFwd;
+	stats.bootResamples = 0;
+	cumulateByDy();
+	if (resamples <= 0 || nDys < 2)
+	  return;
+
+	int blockDys = session.bootstrapBlockDys;
+	if (blockDys <= 0) {
+	  //* long enough to hold the overlap of the forward days, n^1/3 for the rest
+	  int maxFwdDy = 0;
+	  for (int f=0; f<nCols; f++)
+		maxFwdDy = Math.max(maxFwdDy, session.fwdDyTimeCol[f][0]);
+	  blockDys = Math.max(maxFwdDy + 1, (int)Math.round(Math.cbrt(nDys)));
+	}
+	blockDys = Math.min(blockDys, nDys);
+
+	stats.bootResamples = resamples;
+	stats.bootBlockDys = blockDys;
+	stats.bootDys = nDys;
+	stats.bootN = new int[nCols];
+	stats.bootLo = new double[nCols];
+	stats.bootHi = new double[nCols];
+	stats.bootP = new double[nCols];
+	stats.bootPdrf = new double[nCols];
+	for (int f=0; f<nCols; f++)
+	  stats.bootN[f] = dyCnt[nDys*nCols + f];
+	boot = new double[nCols*resamples];
+
+	final PsRandom rndRoot = PsRandom.splittable(SEED);
+	int nChunks = (resamples + CHUNK - 1) / CHUNK;
+	List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+	for (int c=0; c<nChunks; c++)
+	  tasks.add(new ResampleTask(c, rndRoot.substream(c), blockDys));
+	Strat_ExprTask.runAll(tasks, session.parallelism);
+
+	tasks.clear();
+	for (int f=0; f<nCols; f++)
+	  tasks.add(new ColumnTask(f));
+	Strat_ExprTask.runAll(tasks, session.parallelism);
+  }
+
+
+  //* entries grouped by entry day, in day order - only those whose forward day is in the data count for a column
+  private void cumulateByDy() {
+	int nTrds = trds.entry_dyidx.size();
+	Integer[] order = new Integer[nTrds];
+	for (int t=0; t<nTrds; t++)
+	  order[t] = t;
+	Arrays.sort(order, new Comparator<Integer>() {
+	  @Override
+	  public int compare(Integer a, Integer b) {
+		return trds.entry_dyidx.get(a).compareTo(trds.entry_dyidx.get(b));
+	  }
+	});
+
+	nDys = 0;
+	for (int k=0; k<nTrds; k++)
+	  if (k == 0 || !trds.entry_dyidx.get(order[k]).equals(trds.entry_dyidx.get(order[k-1])))
+		nDys++;
+	dySum = new double[(nDys+1)*nCols];
+	dyCnt = new int[(nDys+1)*nCols];
+
+	int d = 0;
+	for (int k=0; k<nTrds; k++) {
+	  int t = order[k];
+	  int dyidx = trds.entry_dyidx.get(t);
+	  if (k > 0 && dyidx != trds.entry_dyidx.get(order[k-1]))
+		d++;
+	  for (int f=0; f<nCols; f++) {
+		if (dyidx + session.fwdDyTimeCol[f][0] >= InstrDep.prc.length)
+		  continue;
+		dySum[(d+1)*nCols + f] += stats.obsDelta[t*nCols + f];
+		dyCnt[(d+1)*nCols + f]++;
+	  }
+	}
+	for (int x=nCols; x<dySum.length; x++) {
+	  dySum[x] += dySum[x - nCols];
+	  dyCnt[x] += dyCnt[x - nCols];
+	}
+  }
+
+
+  //* resamples chunk*CHUNK .. - nDys entry days in circular blocks of blockDys, MU of every column
+  class ResampleTask implements Callable<Void> {
+	private final int chunk;
+	private final PsRandom rnd;
+	private final int blockDys;
+
+	ResampleTask(int chunk, PsRandom rnd, int blockDys) {
+	  this.chunk = chunk;
+	  this.rnd = rnd;
+	  this.blockDys = blockDys;
+	}
+
+	@Override
+	public Void call() {
+	  int resamples = stats.bootResamples;
+	  int nBlocks = (nDys + blockDys - 1) / blockDys;
+	  double[] u = new double[nBlocks];
+	  double[] sum = new double[nCols];
+	  int[] cnt = new int[nCols];
+	  for (int b=chunk*CHUNK; b<Math.min(resamples, (chunk+1)*CHUNK); b++) {
+		rnd.fill(u);
+		Arrays.fill(sum, 0);
+		Arrays.fill(cnt, 0);
+		int left = nDys;
+		for (int k=0; k<nBlocks; k++) {
+		  int beg = (int)(u[k] * nDys);
+		  int len = Math.min(blockDys, left);
+		  left -= len;
+		  if (beg + len <= nDys) {
+			add(sum, cnt, beg, beg + len);
+		  } else {
+			add(sum, cnt, beg, nDys);
+			add(sum, cnt, 0, beg + len - nDys);
+		  }
+		}
+		for (int f=0; f<nCols; f++)
+		  boot[f*resamples + b] = (cnt[f] > 0) ? sum[f] / cnt[f] : Double.NaN;
+	  }
+	  return null;
+	}
+
+	//* entry days beg..end-1
+	private void add(double[] sum, int[] cnt, int beg, int end) {
+	  int o1 = end*nCols;
+	  int o0 = beg*nCols;
+	  for (int f=0; f<nCols; f++) {
+		sum[f] += dySum[o1 + f] - dySum[o0 + f];
+		cnt[f] += dyCnt[o1 + f] - dyCnt[o0 + f];
+	  }
+	}
+  }
+
+  //* interval and p-values of column f
+  class ColumnTask implements Callable<Void> {
+	private final int f;
+
+	ColumnTask(int f) {
+	  this.f = f;
+	}
+
+	@Override
+	public Void call() {
+	  int resamples = stats.bootResamples;
+	  if (stats.bootN[f] < 2) {
+		stats.bootLo[f] = stats.bootHi[f] = stats.bootP[f] = stats.bootPdrf[f] = Double.NaN;
+		return null;
+	  }
+	  double[] mu = Arrays.copyOfRange(boot, f*resamples, (f+1)*resamples);
+	  Arrays.sort(mu);   //* NaN (no entry of the column drawn) last
+	  int n = resamples;
+	  while (n > 0 && Double.isNaN(mu[n-1]))
+		n--;
+	  if (n == 0) {
+		stats.bootLo[f] = stats.bootHi[f] = stats.bootP[f] = stats.bootPdrf[f] = Double.NaN;
+		return null;
+	  }
+	  double muHat = dySum[nDys*nCols + f] / stats.bootN[f];
+	  stats.bootLo[f] = mu[(int)Math.floor(0.025 * (n-1))];
+	  stats.bootHi[f] = mu[(int)Math.ceil(0.975 * (n-1))];
+	  stats.bootP[f] = pValue(mu, n, muHat, 0);
+	  stats.bootPdrf[f] = pValue(mu, n, muHat, stats.statsDrift[f]);
+	  return null;
+	}
+  }
+
+  //* share of the resampled MU, centred on muHat, at least as far from it as muHat is from mu0
+  static double pValue(double[] mu, int n, double muHat, double mu0) {
+	double dist = Math.abs(muHat - mu0);
+	int cnt = 0;
+	for (int b=0; b<n; b++)
+	  if (Math.abs(mu[b] - muHat) >= dist)
+		cnt++;
+	return (cnt + 1.0) / (n + 1.0);
+  }
+
+}
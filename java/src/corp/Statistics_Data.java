@@ -5,14 +5,16 @@ public class Statistics_Data {
   public String head="";           //* Ran at ... condition cmds, ..., etc...
   
   public String[] obs_Hdr;         //* Y    M  D       W   PLAST  08:20  08:30  08:40  ..."
-  public String[][] obsDt;        //* 2010 11 16  TUE
-  public double[][] obsDelta;     //*                      plast  deltas_time, ....
+  public int nObs;                 //* trades
+  public int nFwd;                 //* fwd dy/time cols
+  public int[] obsEpochDy;         //* 2010 11 16      entry day, days since 1970/01/01 - see Utils.epochDy
+  public byte[] obsWeekday;        //*             TUE 0 SUN .. 6 SAT
+  public double[] obsPrcEntry;     //*                      plast
+  public double[] obsDelta;        //*                      deltas_time, ....  [t*nFwd + f], 0 past the data
     
   public String[] stats_Hdr;       //* D   HOUR     N     MAX     MIN      MU     MUD    PPOS    SDEV         T      TDRF
-  public String[][] statsDyTime;   //* 0  09:35
-                                   //*              5    1.75   -2.75   -0.35   -0.33   40.00    1.63    -48.13    -45.53
+                                   //* 0  09:35     5    1.75   -2.75   -0.35   -0.33   40.00    1.63    -48.13    -45.53
   public int cntN;
-  public double[][] chgPrc;
 
   public double[] statsMin;
   public double[] statsMax;
@@ -32,4 +34,13 @@ public class Statistics_Data {
   public double[] statsDrift;
   public double[] statsVar;
   
+  public int bootResamples;        //* block bootstrap of the entry days, see Statistics_Bootstrap - 0 not run
+  public int bootBlockDys;
+  public int bootDys;
+  public int[] bootN;
+  public double[] bootLo;          //* 95% interval of MU
+  public double[] bootHi;
+  public double[] bootP;           //* MU against 0
+  public double[] bootPdrf;        //* MU against the drift
+  
 }
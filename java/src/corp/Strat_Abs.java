@@ -23,8 +23,9 @@ class Strat_Abs extends Strat_Abstract{
   public void calc() throws Exception{
 	
     nestExpressionParseAndCalc(InstrX, arg_Expression, session);
+    setDysBk(argDysBk);
     
-    for (int i=0+InstrX.maxDysBk; i<InstrX.prc.length; i++) {
+    for (int i=begIndex(); i<InstrX.prc.length; i++) {
         calcdExprFn[i] = Math.abs(calcdExprArg[i]);
     }
     
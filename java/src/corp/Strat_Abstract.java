@@ -19,17 +19,20 @@ abstract class Strat_Abstract {
   
   protected double[] calcdExprFn_min;
   protected double[] calcdExprArg_min;  
+  
+  protected int argDysBk;   //* look-back of the nested arg, set by nestExpressionParseAndCalc
+  protected int dysBk;      //* look-back of this node incl. argDysBk, calcdExprFn valid from begIndex() on
 			  
   
   /* Normal returns:   
-   * - InstrX.maxDysBk
-   * - calcdExprFn[i] for(int i=InstrX.maxDysBk; i<InstrX.prc.length; i++)  
+   * - dysBk (setDysBk)
+   * - calcdExprFn[i] for(int i=begIndex(); i<InstrX.prc.length; i++)  
    * 
    * _p intra BUT fixed entry, needs:
    * - frameBeg_timeCol, frameEnd_timeCol
    *   returns:
-   * - InstrX.maxDysBk
-   * - calcdExprFn[i] for(int i=InstrX.maxDysBk; i<InstrX.prc.length; i++)  
+   * - dysBk (setDysBk)
+   * - calcdExprFn[i] for(int i=begIndex(); i<InstrX.prc.length; i++)  
    * 
    * _b intra, FUTURE entry needs:
    * - evtBegTimeCol, evtEndTimeCol;
@@ -164,10 +167,20 @@ abstract class Strat_Abstract {
    */
   void nestExpressionParseAndCalc(final Instr InstrX, final String arg_Expression, Session session) throws Exception {     
     Strat_Abstract stratExpression = new Strat_Expression(InstrX, arg_Expression, session);
-	stratExpression.parseAndCalc();
-	//if(stratExpression.maxDysBk > maxDysBk) maxDysBk = stratExpression.maxDysBk;
+	argDysBk = session.warmUp.parseAndCalc(stratExpression);
 	calcdExprArg = stratExpression.calcdExprFn;
   }
+  
+  /* Look-back of this node, once per calc() - NOT added onto InstrX.maxDysBk, see WarmUp
+   */
+  protected void setDysBk(int dysBk) {
+	this.dysBk = dysBk;
+	session.warmUp.report(dysBk);
+  }
+  
+  protected int begIndex() {
+	return InstrX.maxDysBk + dysBk;
+  }
  
   /*
  void nestOnceExpressionParseAndCalc2(final String arg_Expression) throws Exception {    	 
@@ -189,7 +202,7 @@ abstract class Strat_Abstract {
      *   calcdExpr = new double[InstrX.maxPrcIndex+1];
      *   calcdExprFn = new double[InstrX.maxPrcIndex+1];
      * MUST call parseAndCalcNestExpression
-     * MUST set maxDysBk
+     * MUST setDysBk(argDysBk + own window)
      * MUST of course do the actual calc
      */  
  
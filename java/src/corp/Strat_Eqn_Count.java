@@ -1,5 +1,7 @@
 package program;
 
+import java.util.BitSet;
+
 
 public class Strat_Eqn_Count extends Strat_Abstract{
   /*
@@ -42,20 +44,41 @@ public class Strat_Eqn_Count extends Strat_Abstract{
 	strategy_eqn.parseAndSetConditions();
 	strategy_eqn.calc();  
 	
-	if(InstrX.maxDysBk < arg_dys + InstrX.maxDysBk)
-	   InstrX.maxDysBk = arg_dys + InstrX.maxDysBk;		
-	
+	setDysBk(strategy_eqn.dysBk + arg_dys);
+	count(strategy_eqn.prcSucc, arg_dys, begIndex(), InstrX.prc.length, calcdExprFn);
+
+  }  //* calc() method		
+  
+  //* fn[i] for i in [beg, end) - also the kernel of compiled count() nodes, see Strat_ExprFn
+  static void count(final int[] prcSucc, int arg_dys, int beg, int end, double[] fn) {
 	int cntN;
-	for (int i=InstrX.maxDysBk; i<InstrX.prc.length; i++) {				
+	for (int i=beg; i<end; i++) {				
 	  cntN = 0;	
 	  for(int n=0; n<arg_dys; n++)
-	    if(strategy_eqn.prcSucc[i-n] == 1)			  
+	    if(prcSucc[i-n] == 1)			  
 	      cntN++; 
 			  
-	  calcdExprFn[i] = cntN; 
+	  fn[i] = cntN; 
 	     
 	}  //* for i loop  
+  }
 
-  }  //* calc() method		
+  //* same for a signal mask (Strat_ExprCond) - sliding, one bit in and one out per day
+  static void count(final BitSet mask, int arg_dys, int beg, int end, double[] fn) {
+	if (beg >= end)
+	  return;
+	int cntN = 0;
+	for (int n=0; n<arg_dys; n++)
+	  if (mask.get(beg-n))
+		cntN++;
+	fn[beg] = cntN;
+	for (int i=beg+1; i<end; i++) {
+	  if (mask.get(i))
+		cntN++;
+	  if (mask.get(i-arg_dys))
+		cntN--;
+	  fn[i] = cntN;
+	}
+  }
 
 }
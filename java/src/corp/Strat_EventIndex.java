@@ -0,0 +1,211 @@
+package program;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+
+class Strat_EventIndex {
+
+  /* First price event after (day, col) - for Mod_SysTrade.searchEvtP / searchEvtZ
+   *
+   * The minute cols firstTimeCol..lastTimeCol of all days are one series, position row*tcols + col.
+   * Per block of BLOCK positions the max and min are kept (NaN left out), and a sparse table over
+   * the blocks: st[k][b] = max/min of blocks b .. b+2^k-1. first() scans to the next block
+   * boundary, jumps over the blocks without a hit in O(log) and scans the block that has it -
+   * instead of minute by minute over every day until the stop or target is hit.
+   *
+   * A Hit is monotone in the price (prc >= x, or (prc - ref - mu)/sd >= z, which IEEE rounding
+   * keeps monotone), so "some price in the block hits" is exactly "its max (min) hits" and the
+   * result is the position the minute loop finds.
+   *
+   * One index per PrcMatrix - published prices are never written in place, the snapshots of a
+   * version share it - built on first use, dropped with the matrix: the index does not hold the
+   * matrix (a WeakHashMap value that did would keep its key), the callers hand it in.
+   * zStats() are the close change mean/stdev of searchEvtZ, once per stdPeriod for all days - like of(),
+   * resolved once per run by the caller and handed down, so the searches themselves take no lock.
+   * Both are built outside the locks, which only guard the maps - two requests building the same
+   * one at once is wasted work, not a wrong result: the first one put is kept.
+   */
+  static final int BLOCK = 128;
+
+  interface Hit {
+	//* monotone: if prc hits, so does every price beyond it (above for up, below for down)
+	boolean at(double prc);
+  }
+
+  private static final Map<PrcMatrix, Strat_EventIndex> indexes = new WeakHashMap<PrcMatrix, Strat_EventIndex>();
+
+  private final int firstTimeCol;
+  private final int lastTimeCol;
+  private final int clsDyCol;
+  private final int tcols;
+  private final int size;
+  private final double[][] stMax;
+  private final double[][] stMin;
+  private final Map<Integer, double[][]> zStats = new HashMap<Integer, double[][]>();
+
+
+  static Strat_EventIndex of(Instr InstrX) {
+	Strat_EventIndex index;
+	synchronized (indexes) {
+	  index = indexes.get(InstrX.prc);
+	}
+	if (index != null && index.fits(InstrX))
+	  return index;
+
+	Strat_EventIndex built = new Strat_EventIndex(InstrX);
+	synchronized (indexes) {
+	  index = indexes.get(InstrX.prc);
+	  if (index == null || !index.fits(InstrX)) {
+		index = built;
+		indexes.put(InstrX.prc, index);
+	  }
+	  return index;
+	}
+  }
+
+  private boolean fits(Instr InstrX) {
+	return firstTimeCol == InstrX.firstTimeCol && lastTimeCol == InstrX.lastTimeCol && clsDyCol == InstrX.clsDyCol;
+  }
+
+  private Strat_EventIndex(Instr InstrX) {
+	PrcMatrix prc = InstrX.prc;
+	firstTimeCol = InstrX.firstTimeCol;
+	lastTimeCol = InstrX.lastTimeCol;
+	clsDyCol = InstrX.clsDyCol;
+	tcols = lastTimeCol - firstTimeCol + 1;
+	size = prc.length * tcols;
+
+	int nBlocks = (size + BLOCK - 1) / BLOCK;
+	int levels = 1;
+	while ((1 << levels) <= nBlocks)
+	  levels++;
+	stMax = new double[levels][];
+	stMin = new double[levels][];
+	stMax[0] = new double[nBlocks];
+	stMin[0] = new double[nBlocks];
+	for (int b=0; b<nBlocks; b++) {
+	  double max = Double.NEGATIVE_INFINITY;
+	  double min = Double.POSITIVE_INFINITY;
+	  for (int p=b*BLOCK; p<Math.min(size, (b+1)*BLOCK); p++) {
+		double v = get(prc, p);
+		if (v > max) max = v;
+		if (v < min) min = v;
+	  }
+	  stMax[0][b] = max;
+	  stMin[0][b] = min;
+	}
+	for (int k=1; k<levels; k++) {
+	  int half = 1 << (k-1);
+	  int n = nBlocks - (1 << k) + 1;
+	  stMax[k] = new double[n];
+	  stMin[k] = new double[n];
+	  for (int b=0; b<n; b++) {
+		stMax[k][b] = Math.max(stMax[k-1][b], stMax[k-1][b+half]);
+		stMin[k][b] = Math.min(stMin[k-1][b], stMin[k-1][b+half]);
+	  }
+	}
+  }
+
+  private double get(PrcMatrix prc, int p) {
+	return prc.get(p / tcols, firstTimeCol + p % tcols);
+  }
+
+  //* position of day i, col j - cols outside the minute cols are clamped to the day's edges
+  int pos(int i, int j) {
+	if (j < firstTimeCol)
+	  return i*tcols;
+	if (j > lastTimeCol)
+	  return (i+1)*tcols;
+	return i*tcols + (j - firstTimeCol);
+  }
+
+  int dayOf(int p) {
+	return p / tcols;
+  }
+
+  int colOf(int p) {
+	return firstTimeCol + p % tcols;
+  }
+
+  double prcAt(PrcMatrix prc, int p) {
+	return get(prc, p);
+  }
+
+
+  //* first position in [from, to] of prc (the matrix of the index) whose price hits, -1 if none - blUp: hit grows with the price
+  int first(PrcMatrix prc, int from, int to, boolean blUp, Hit hit) {
+	to = Math.min(to, size-1);
+	int p = Math.max(from, 0);
+	if (p > to)
+	  return -1;
+
+	int blockEnd = Math.min(to, (p / BLOCK + 1) * BLOCK - 1);
+	for (; p<=blockEnd; p++)
+	  if (hit.at(get(prc, p)))
+		return p;
+	if (p > to)
+	  return -1;
+
+	//* p is at a block start now - skip whole blocks without a hit
+	int lastFull = (to + 1) / BLOCK - 1;
+	int b = p / BLOCK;
+	if (b <= lastFull) {
+	  double[][] st = blUp ? stMax : stMin;
+	  for (int k=st.length-1; k>=0; k--)
+		if (b + (1 << k) - 1 <= lastFull && !hit.at(st[k][b]))
+		  b += 1 << k;
+	  p = b * BLOCK;
+	}
+	for (; p<=to; p++)
+	  if (hit.at(get(prc, p)))
+		return p;
+	return -1;
+  }
+
+
+  /* {mu, sd} of the stdPeriod close changes before each day, as searchEvtZ has them:
+   * X = c[i-k-1] - c[i-k-2], k < stdPeriod, sd unbiased - NaN where there is not enough history
+   */
+  double[][] zStats(PrcMatrix prc, int stdPeriod) {
+	double[][] stats;
+	synchronized (zStats) {
+	  stats = zStats.get(stdPeriod);
+	}
+	if (stats != null)
+	  return stats;
+
+	stats = new double[2][prc.length];
+	for (int i=0; i<prc.length; i++) {
+	  if (i-stdPeriod-1 < 0) {
+		stats[0][i] = Double.NaN;
+		stats[1][i] = Double.NaN;
+		continue;
+	  }
+	  double X;
+	  double mu_i = 0.0;
+	  double fdStd_i = 0.0;
+	  for (int k=0; k<stdPeriod; k++) {
+		X = prc.get(i-k-1, clsDyCol) - prc.get(i-k-2, clsDyCol);
+		mu_i += X;
+	  }
+	  mu_i /= stdPeriod;
+	  for (int k=0; k<stdPeriod; k++) {
+		X = prc.get(i-k-1, clsDyCol) - prc.get(i-k-2, clsDyCol);
+		fdStd_i += Math.pow(X - mu_i,2);
+	  }
+	  fdStd_i /= (stdPeriod-1);
+	  stats[0][i] = mu_i;
+	  stats[1][i] = Math.sqrt(fdStd_i);
+	}
+	synchronized (zStats) {
+	  double[][] put = zStats.get(stdPeriod);
+	  if (put != null)
+		return put;
+	  zStats.put(stdPeriod, stats);
+	  return stats;
+	}
+  }
+
+}
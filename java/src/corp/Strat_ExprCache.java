@@ -0,0 +1,108 @@
+package program;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+class Strat_ExprCache {
+
+  /* Series of compiled nodes kept across requests - /api/calc, systrade, regression run the same
+   * c-c1, mvg(c,20), stdev(c-c1,10), .. on the same instr over and over.
+   *
+   * Key: InstrDep key:dataVersion, base, len, key:dataVersion of every instr the node reads, text
+   *   es:3|30|4021|es:3|mvg(c,20)
+   * so a new import (Instr.publish bumps dataVersion) never hits an old series, those just age out.
+   * LRU within a byte budget; arrays handed out are shared, callers only read them.
+   * Tok and Lvl are not kept, copying them out of prc is as cheap as the lookup.
+   */
+  static final long MAX_BYTES = 256L * 1024 * 1024;
+
+  private static final LinkedHashMap<String, double[]> series = new LinkedHashMap<String, double[]>(256, 0.75f, true);
+  private static long bytes = 0;
+  private static long hits = 0;
+  private static long misses = 0;
+  private static long evictions = 0;
+
+
+  private Strat_ExprCache() {}
+
+
+  static double[] series(final Strat_ExprNode node, Session session, int base, int len) throws Exception {
+	if (node instanceof Strat_ExprTok || node instanceof Strat_ExprLvl)
+	  return node.calc(session, base, len);
+
+	String key = getKey(node, session, base, len);
+	synchronized (series) {
+	  double[] calcd = series.get(key);
+	  if (calcd != null) {
+		hits++;
+		return calcd;
+	  }
+	  misses++;
+	}
+
+	//* calc outside the lock, two requests missing the same key just both put it
+	double[] calcd = node.calc(session, base, len);
+	put(key, calcd);
+	return calcd;
+  }
+
+  private static void put(final String key, final double[] calcd) {
+	long size = sizeOf(key, calcd);
+	if (size > MAX_BYTES)
+	  return;
+	synchronized (series) {
+	  double[] calcdOld = series.put(key, calcd);
+	  if (calcdOld != null)
+		bytes -= sizeOf(key, calcdOld);
+	  bytes += size;
+
+	  Iterator<Map.Entry<String, double[]>> it = series.entrySet().iterator();
+	  while (bytes > MAX_BYTES && it.hasNext()) {
+		Map.Entry<String, double[]> eldest = it.next();
+		bytes -= sizeOf(eldest.getKey(), eldest.getValue());
+		it.remove();
+		evictions++;
+	  }
+	}
+  }
+
+  private static long sizeOf(final String key, final double[] calcd) {
+	return 8L * calcd.length + 2L * key.length() + 64;
+  }
+
+
+  static String getKey(final Strat_ExprNode node, Session session, int base, int len) {
+	Instr InstrDep = session.InstrDep;
+	StringBuilder sb = new StringBuilder();
+	sb.append(InstrDep.key).append(':').append(InstrDep.dataVersion);
+	sb.append('|').append(base).append('|').append(len).append('|');
+	for (Integer instrKey : node.getInstrKeys()) {
+	  Instr InstrX = session.getInstr(instrKey);
+	  sb.append(instrKey).append(':').append(InstrX.dataVersion).append(',');
+	}
+	sb.append('|').append(node.text);
+	return sb.toString();
+  }
+
+
+  static void clear() {
+	synchronized (series) {
+	  series.clear();
+	  bytes = 0;
+	}
+  }
+
+  //* for /api/kaktebyazovut
+  static String stats() {
+	synchronized (series) {
+	  long lookups = hits + misses;
+	  return "series " + series.size() + ", " + (bytes / 1024) + " of " + (MAX_BYTES / 1024) + " KB"
+		+ ", hits " + hits + ", misses " + misses
+		+ ", hit rate " + (lookups == 0 ? 0 : (100 * hits / lookups)) + "%"
+		+ ", evictions " + evictions;
+	}
+  }
+
+}
@@ -0,0 +1,142 @@
+package program;
+
+import java.util.BitSet;
+import java.util.Set;
+
+
+class Strat_ExprCond {
+
+  /* Compiled predicate - one dy feature line, or the eqn of count(..)
+   *   sides[0] cmdEql sides[1]      c > mvg(c,10)     cmdEql: > >= < <= =
+   *   or(cond; cond ..)             any one is true
+   * calc() returns the signal mask - bit i set where Strategy_Abstract would have prcSucc[i]==1,
+   * valid from base+dysBk on.
+   *
+   * Columnar: both sides come in as whole series and the compare is one primitive loop per
+   * operator (resolved to EQL_* once, at compile time) writing the mask a word at a time.
+   */
+  static final int EQL_GT = 0;
+  static final int EQL_GE = 1;
+  static final int EQL_LT = 2;
+  static final int EQL_LE = 3;
+  static final int EQL_EQ = 4;
+
+  final String text;
+  final int dysBk;
+  final String cmdEql;
+  final int eql;                  //* EQL_* of cmdEql
+  final Strat_ExprNode[] sides;   //* null for or
+  final Strat_ExprCond[] ors;     //* null for a compare
+
+
+  Strat_ExprCond(final String cmdEql, final Strat_ExprNode left, final Strat_ExprNode right) {
+	this.text = left.text + cmdEql + right.text;
+	this.dysBk = Math.max(left.dysBk, right.dysBk);
+	this.cmdEql = cmdEql;
+	this.eql = eqlOf(cmdEql);
+	this.sides = new Strat_ExprNode[]{left, right};
+	this.ors = null;
+  }
+
+  Strat_ExprCond(final Strat_ExprCond[] ors) {
+	StringBuilder sb = new StringBuilder("or(");
+	int maxDysBk = 0;
+	for (int x=0; x<ors.length; x++) {
+	  if (x > 0)
+		sb.append(";");
+	  sb.append(ors[x].text);
+	  if (ors[x].dysBk > maxDysBk)
+		maxDysBk = ors[x].dysBk;
+	}
+	this.text = sb.append(")").toString();
+	this.dysBk = maxDysBk;
+	this.cmdEql = null;
+	this.eql = -1;
+	this.sides = null;
+	this.ors = ors;
+  }
+
+
+  void addInstrKeys(Set<Integer> keys) {
+	if (ors != null) {
+	  for (Strat_ExprCond cond : ors)
+		cond.addInstrKeys(keys);
+	} else {
+	  keys.addAll(sides[0].getInstrKeys());
+	  keys.addAll(sides[1].getInstrKeys());
+	}
+  }
+
+  static int eqlOf(final String cmdEql) {
+	if (cmdEql.equals(">"))  return EQL_GT;
+	if (cmdEql.equals(">=")) return EQL_GE;
+	if (cmdEql.equals("<"))  return EQL_LT;
+	if (cmdEql.equals("<=")) return EQL_LE;
+	if (cmdEql.equals("="))  return EQL_EQ;
+	return -1;   //* never true, as the old if chain
+  }
+
+
+  //* calc() through the session's Strat_ExprMemo - read only
+  BitSet signals(Session session, int base, int len) throws Exception {
+	if (session.exprMemo == null)
+	  return calc(session, base, len);
+	return session.exprMemo.signals(this, session, base, len);
+  }
+
+  BitSet calc(Session session, int base, int len) throws Exception {
+	boolean blFork = Strat_ExprTask.isForking();
+	if (ors != null) {
+	  //* on the pool the branches go side by side, the last one on this thread
+	  Strat_ExprTask.Signals[] forked = new Strat_ExprTask.Signals[ors.length];
+	  if (blFork)
+		for (int x=0; x<ors.length-1; x++)
+		  forked[x] = (Strat_ExprTask.Signals) new Strat_ExprTask.Signals(ors[x], session, base, len).fork();
+	  BitSet mask = new BitSet(len);
+	  for (int x=ors.length-1; x>=0; x--)
+		mask.or(forked[x] != null ? forked[x].result() : ors[x].signals(session, base, len));
+	  return mask;
+	}
+
+	//* same for the two sides of a compare - a price or a level is not worth a task
+	Strat_ExprTask.Series left = null;
+	if (blFork && !(sides[0] instanceof Strat_ExprTok) && !(sides[0] instanceof Strat_ExprLvl))
+	  left = (Strat_ExprTask.Series) new Strat_ExprTask.Series(sides[0], session, base, len).fork();
+	double[] r = sides[1].series(session, base, len);
+	double[] l = (left != null) ? left.result() : sides[0].series(session, base, len);
+	return compare(eql, l, r, base + dysBk, len);
+  }
+
+
+  //* l[i] eql r[i] for i in [beg, end) as a mask
+  static BitSet compare(int eql, final double[] l, final double[] r, int beg, int end) {
+	long[] words = new long[(Math.max(beg, end) + 63) >>> 6];
+	switch (eql) {
+	  case EQL_GT: for (int i=beg; i<end; i++) words[i >>> 6] |= (l[i]  > r[i] ? 1L : 0L) << i; break;
+	  case EQL_GE: for (int i=beg; i<end; i++) words[i >>> 6] |= (l[i] >= r[i] ? 1L : 0L) << i; break;
+	  case EQL_LT: for (int i=beg; i<end; i++) words[i >>> 6] |= (l[i]  < r[i] ? 1L : 0L) << i; break;
+	  case EQL_LE: for (int i=beg; i<end; i++) words[i >>> 6] |= (l[i] <= r[i] ? 1L : 0L) << i; break;
+	  case EQL_EQ: for (int i=beg; i<end; i++) words[i >>> 6] |= (l[i] == r[i] ? 1L : 0L) << i; break;
+	}
+	return BitSet.valueOf(words);
+  }
+
+  //* same as prcSucc, 1 where l[i] eql r[i], 0 elsewhere in [beg, end)
+  static void compare(int eql, final double[] l, final double[] r, int beg, int end, int[] prcSucc) {
+	switch (eql) {
+	  case EQL_GT: for (int i=beg; i<end; i++) prcSucc[i] = (l[i]  > r[i]) ? 1 : 0; break;
+	  case EQL_GE: for (int i=beg; i<end; i++) prcSucc[i] = (l[i] >= r[i]) ? 1 : 0; break;
+	  case EQL_LT: for (int i=beg; i<end; i++) prcSucc[i] = (l[i]  < r[i]) ? 1 : 0; break;
+	  case EQL_LE: for (int i=beg; i<end; i++) prcSucc[i] = (l[i] <= r[i]) ? 1 : 0; break;
+	  case EQL_EQ: for (int i=beg; i<end; i++) prcSucc[i] = (l[i] == r[i]) ? 1 : 0; break;
+	  default:     for (int i=beg; i<end; i++) prcSucc[i] = 0;
+	}
+  }
+
+
+  @Override
+  public String toString() {
+	return text;
+  }
+
+}
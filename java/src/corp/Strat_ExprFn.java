@@ -0,0 +1,141 @@
+package program;
+
+import java.util.Set;
+
+
+class Strat_ExprFn extends Strat_ExprNode {
+
+  /* fn(arg, params) - runs the same kernel as the Strat_ class of the fn:
+   *   mvg, sum, stdev, zscore, rank, volhist, min, max, abs, pivot,
+   *   median, percentile                                            on the series of arg
+   *   count                                                         on the signals of eqn
+   *   h(..), l(..)                                                  on the prices of instrKey
+   * h / l of another instr are taken on its own rows, then read through Session.getRowsOnDep()
+   */
+  final String fn;
+  final int instrKey;
+  final Strat_ExprNode arg;   //* null for count, h, l
+  final Strat_ExprCond eqn;   //* count only
+
+  final int arg_dys;
+  final double arg_fdMove;    //* pivot
+  final String arg_MoveType;  //* pivot: p/z
+  final int arg_StdPeriod;    //* pivot z
+  final double arg_fdPct;     //* percentile, 50 for median
+  final int[] arg_HiLo;       //* h, l: begDyBk, begTimeCol, endDyBk, endTimeCol
+
+
+  private Strat_ExprFn(final String text, int dysBk, final String fn, int instrKey,
+		  final Strat_ExprNode arg, final Strat_ExprCond eqn,
+		  int arg_dys, double arg_fdMove, final String arg_MoveType, int arg_StdPeriod, double arg_fdPct, final int[] arg_HiLo) {
+	super(text, dysBk);
+	this.fn = fn;
+	this.instrKey = instrKey;
+	this.arg = arg;
+	this.eqn = eqn;
+	this.arg_dys = arg_dys;
+	this.arg_fdMove = arg_fdMove;
+	this.arg_MoveType = arg_MoveType;
+	this.arg_StdPeriod = arg_StdPeriod;
+	this.arg_fdPct = arg_fdPct;
+	this.arg_HiLo = arg_HiLo;
+  }
+
+
+  //* mvg, sum, stdev, zscore, rank, volhist, min, max, abs - same look-back as their Strat_ class
+  static Strat_ExprFn window(final String text, final String fn, int instrKey, final Strat_ExprNode arg, int arg_dys) {
+	return new Strat_ExprFn(text, arg.dysBk + arg_dys, fn, instrKey, arg, null, arg_dys, 0, null, 0, 0, null);
+  }
+
+  static Strat_ExprFn percentile(final String text, int instrKey, final Strat_ExprNode arg, int arg_dys, double arg_fdPct) {
+	return new Strat_ExprFn(text, arg.dysBk + arg_dys, "percentile", instrKey, arg, null, arg_dys, 0, null, 0, arg_fdPct, null);
+  }
+
+  static Strat_ExprFn pivot(final String text, int instrKey, final Strat_ExprNode arg, double arg_fdMove, final String arg_MoveType, int arg_StdPeriod) {
+	int dysBk = arg.dysBk + 1 + (arg_MoveType.equals("z") ? arg_StdPeriod : 0);
+	return new Strat_ExprFn(text, dysBk, "pivot", instrKey, arg, null, 0, arg_fdMove, arg_MoveType, arg_StdPeriod, 0, null);
+  }
+
+  static Strat_ExprFn count(final String text, int instrKey, final Strat_ExprCond eqn, int arg_dys) {
+	return new Strat_ExprFn(text, eqn.dysBk + arg_dys, "count", instrKey, null, eqn, arg_dys, 0, null, 0, 0, null);
+  }
+
+  static Strat_ExprFn hiLo(final String text, final String fn, int instrKey, int begDyBk, int begTimeCol, int endDyBk, int endTimeCol) {
+	return new Strat_ExprFn(text, begDyBk, fn, instrKey, null, null, 0, 0, null, 0, 0,
+		new int[]{begDyBk, begTimeCol, endDyBk, endTimeCol});
+  }
+
+
+  @Override
+  void addInstrKeys(Set<Integer> keys) {
+	keys.add(instrKey);
+	if (arg != null)
+	  keys.addAll(arg.getInstrKeys());
+	if (eqn != null)
+	  eqn.addInstrKeys(keys);
+  }
+
+  @Override
+  double[] calc(Session session, int base, int len) throws Exception {
+	double[] calcd = new double[len];
+	int beg = base + dysBk;
+
+	if (fn.equals("count")) {
+	  Strat_Eqn_Count.count(eqn.signals(session, base, len), arg_dys, beg, len, calcd);
+	  return calcd;
+	}
+	if (fn.equals("h") || fn.equals("l")) {
+	  Instr InstrX = session.getInstr(instrKey);
+	  int[] rows = session.getRowsOnDep(instrKey);
+	  if (rows == null) {
+		hiLo(InstrX, beg, Math.min(len, InstrX.prc.length), calcd);
+		return calcd;
+	  }
+	  double[] calcdX = new double[InstrX.prc.length];
+	  hiLo(InstrX, dysBk, InstrX.prc.length, calcdX);
+	  for (int i=beg; i<len; i++)
+		calcd[i] = (rows[i] < dysBk) ? Double.NaN : calcdX[rows[i]];
+	  return calcd;
+	}
+
+	double[] calcdArg = arg.series(session, base, len);
+	if (fn.equals("mvg")) {
+	  Strat_Mvg.mvg(calcdArg, arg_dys, beg, len, calcd);
+	} else if (fn.equals("sum")) {
+	  Strat_Sum.sum(calcdArg, arg_dys, beg, len, calcd);
+	} else if (fn.equals("stdev")) {
+	  Strat_Stdev.stdev(calcdArg, arg_dys, beg, len, calcd);
+	} else if (fn.equals("zscore")) {
+	  Strat_Zscore.zscore(calcdArg, arg_dys, beg, len, calcd);
+	} else if (fn.equals("rank")) {
+	  Strat_Rank.rank(calcdArg, arg_dys, beg, len, calcd);
+	} else if (fn.equals("volhist")) {
+	  Strat_VolHist.volhist(calcdArg, arg_dys, beg, len, calcd);
+	} else if (fn.equals("min")) {
+	  Strat_MaxMin.min(calcdArg, arg_dys, beg, len, calcd);
+	} else if (fn.equals("max")) {
+	  Strat_MaxMin.max(calcdArg, arg_dys, beg, len, calcd);
+	} else if (fn.equals("percentile")) {
+	  Strat_Median.percentile(calcdArg, arg_dys, arg_fdPct, beg, len, calcd);
+	} else if (fn.equals("abs")) {
+	  for (int i=beg; i<len; i++)
+		calcd[i] = Math.abs(calcdArg[i]);
+	} else if (fn.equals("pivot")) {
+	  if (arg_MoveType.equals("z"))
+		Strat_Pivot.pivotZ(calcdArg, arg_fdMove, arg_StdPeriod, beg, len, calcd);
+	  else
+		Strat_Pivot.pivotPts(calcdArg, arg_fdMove, beg, len, calcd);
+	} else {
+	  throw new ExceptionCmd("ERROR - Unknown function: " + fn);
+	}
+	return calcd;
+  }
+
+  private void hiLo(Instr InstrX, int beg, int end, double[] calcd) {
+	if (fn.equals("h"))
+	  Strat_HighLow.calcHighs(InstrX, arg_HiLo[0], arg_HiLo[1], arg_HiLo[2], arg_HiLo[3], beg, end, calcd);
+	else
+	  Strat_HighLow.calcLows(InstrX, arg_HiLo[0], arg_HiLo[1], arg_HiLo[2], arg_HiLo[3], beg, end, calcd);
+  }
+
+}
@@ -223,21 +223,21 @@ class Strat_ExprIntraday extends Strat_Abstract{
 	      if (tokType[tk] == 0) {          //* O,C,H,L,HI,LO,P@   
 		      iDayBk = tokDayBk[tk];
 		      iTimeCol = tokTimeCol[tk];
-		      fdSumTok = tokInstr[tk].prc[iw-iDayBk][iTimeCol];
+		      fdSumTok = tokInstr[tk].prc.get(iw-iDayBk, iTimeCol);
 	      } else if (tokType[tk] == 1) {   //* b, b1d5m30s
 		      iDayBk = tokDayBk[tk];
 		      iTimeColBk = tokTimeColBk[tk];
-	    	  fdSumTok = tokInstr[tk].prc[iw-iDayBk][j-iTimeCol];
+	    	  fdSumTok = tokInstr[tk].prc.get(iw-iDayBk, j-iTimeCol);
 	    } else if (tokType[tk] == 2) {   //* R: HI - LO
 			iDayBk = tokDayBk[tk];
 			iTimeCol0 = tokInstr[tk].hiDyCol;
 			iTimeCol1 = tokInstr[tk].loDyCol;	      
-			fdSumTok = tokInstr[tk].prc[iw-iDayBk][iTimeCol0] - tokInstr[tk].prc[iw-iDayBk][iTimeCol1];
+			fdSumTok = tokInstr[tk].prc.get(iw-iDayBk, iTimeCol0) - tokInstr[tk].prc.get(iw-iDayBk, iTimeCol1);
 	    } else if (tokType[tk] == 3) {   //* S: CLS - OPN
 	        iDayBk = tokDayBk[tk];
 		    iTimeCol0 = tokInstr[tk].clsDyCol;
 		    iTimeCol1 = tokInstr[tk].opnDyCol;
-		    fdSumTok = tokInstr[tk].prc[iw-iDayBk][iTimeCol0] - tokInstr[tk].prc[iw-iDayBk][iTimeCol1];
+		    fdSumTok = tokInstr[tk].prc.get(iw-iDayBk, iTimeCol0) - tokInstr[tk].prc.get(iw-iDayBk, iTimeCol1);
 	    } else if (tokType[tk] == 9) {   //* pure number
 		    fdSumTok = tokfdLvl[tk];
 	    } else if (tokType[tk] == 10) {  //* hi/lo, min/max ONLY for now!
@@ -0,0 +1,35 @@
+package program;
+
+import java.util.Set;
+
+
+class Strat_ExprLvl extends Strat_ExprNode {
+
+  //* 7.5, -3 - a constant level
+  final double fdLvl;
+
+
+  Strat_ExprLvl(double fdLvl) {
+	super(Strat_ExprLvl.toText(fdLvl), 0);
+	this.fdLvl = fdLvl;
+  }
+
+  static String toText(double fdLvl) {
+	if (fdLvl == Math.rint(fdLvl) && Math.abs(fdLvl) < 1e15)
+	  return String.valueOf((long)fdLvl);
+	return String.valueOf(fdLvl);
+  }
+
+  @Override
+  void addInstrKeys(Set<Integer> keys) {
+  }
+
+  @Override
+  double[] calc(Session session, int base, int len) {
+	double[] calcd = new double[len];
+	for (int i=base; i<len; i++)
+	  calcd[i] = fdLvl;
+	return calcd;
+  }
+
+}
@@ -0,0 +1,62 @@
+package program;
+
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+class Strat_ExprMemo {
+
+  /* Series computed in one evaluation of a window (Process_Dy.parseAndCalcStrategies), by node.
+   *
+   * Strat_ExprParser hash-conses the nodes, so mvg(c,50) in "mvg(c,50) > mvg(c,200)" and in
+   * "mvg(c,50)-100 > mvg(c,200)" is one node and is computed once here, also when nested in or(..),
+   * count(..), min/max, zscore.
+   * Misses go on to the process wide Strat_ExprCache.
+   * Callers only read the arrays and masks handed out - they are shared.
+   * Lines run in parallel on Strat_ExprTask.POOL: the maps are concurrent and a miss
+   * never waits on another thread - two threads may both compute a series, first one in is kept.
+   * Nodes do not override equals/hashCode, so they are keyed by identity.
+   */
+  private final int base;
+  private final int len;
+  private final ConcurrentHashMap<Strat_ExprNode, double[]> series = new ConcurrentHashMap<Strat_ExprNode, double[]>();
+  private final ConcurrentHashMap<Strat_ExprCond, BitSet> signals = new ConcurrentHashMap<Strat_ExprCond, BitSet>();
+
+
+  Strat_ExprMemo(int base, int len) {
+	this.base = base;
+	this.len = len;
+  }
+
+
+  double[] series(final Strat_ExprNode node, Session session, int base, int len) throws Exception {
+	if (base != this.base || len != this.len)
+	  return Strat_ExprCache.series(node, session, base, len);   //* other index space, not kept here
+	double[] calcd = series.get(node);
+	if (calcd == null) {
+	  calcd = Strat_ExprCache.series(node, session, base, len);
+	  double[] first = series.putIfAbsent(node, calcd);
+	  if (first != null)
+		calcd = first;
+	}
+	return calcd;
+  }
+
+  BitSet signals(final Strat_ExprCond cond, Session session, int base, int len) throws Exception {
+	if (base != this.base || len != this.len)
+	  return cond.calc(session, base, len);
+	BitSet mask = signals.get(cond);
+	if (mask == null) {
+	  mask = cond.calc(session, base, len);
+	  BitSet first = signals.putIfAbsent(cond, mask);
+	  if (first != null)
+		mask = first;
+	}
+	return mask;
+  }
+
+  int size() {
+	return series.size() + signals.size();
+  }
+
+}
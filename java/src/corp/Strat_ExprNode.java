@@ -0,0 +1,62 @@
+package program;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+
+abstract class Strat_ExprNode {
+
+  /* Compiled expression node, see Strat_ExprParser
+   *
+   * Built once per condition text and cached (Strat_ExprWindow), so it holds nothing of a session:
+   * instr keys, time cols, fn params and the look-back are all resolved at compile time and
+   * calc() just walks the tree on the session's instrs.
+   *
+   *   mvg(c-c1,14) > 5   =>  Fn(mvg,14)[ Op(-)[ Tok(c,0), Tok(c,1) ] ]  >  Lvl(5)
+   *
+   * text is the canonical form (lower case, no blanks, fully parenthesized ops) - equal text
+   * means an equal series for the same InstrDep.
+   */
+  final String text;
+  final int dysBk;   //* look-back incl. children, calc() is valid from base+dysBk on
+  private volatile Set<Integer> instrKeys;   //* see getInstrKeys()
+
+
+  Strat_ExprNode(final String text, int dysBk) {
+	this.text = text;
+	this.dysBk = dysBk;
+  }
+
+  /* Returns the series, index space of InstrDep (len = InstrDep.prc.length), valid for
+   * i in [base+dysBk, len) - base being InstrDep.maxDysBk of the evaluation
+   */
+  abstract double[] calc(Session session, int base, int len) throws Exception;
+
+  //* calc() through the session's Strat_ExprMemo and the Strat_ExprCache, so a shared node is computed once - read only
+  final double[] series(Session session, int base, int len) throws Exception {
+	if (session.exprMemo == null)
+	  return Strat_ExprCache.series(this, session, base, len);
+	return session.exprMemo.series(this, session, base, len);
+  }
+
+  //* the instrs whose prices calc() reads, for the Strat_ExprCache key
+  final Set<Integer> getInstrKeys() {
+	Set<Integer> keys = instrKeys;
+	if (keys == null) {
+	  keys = new TreeSet<Integer>();
+	  addInstrKeys(keys);
+	  instrKeys = keys = Collections.unmodifiableSet(keys);
+	}
+	return keys;
+  }
+
+  abstract void addInstrKeys(Set<Integer> keys);
+
+
+  @Override
+  public String toString() {
+	return text;
+  }
+
+}
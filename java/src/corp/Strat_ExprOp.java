@@ -0,0 +1,45 @@
+package program;
+
+import java.util.Set;
+
+
+class Strat_ExprOp extends Strat_ExprNode {
+
+  //* left op right, op one of + - * /   (unary minus is 0 - right)
+  final char op;
+  final Strat_ExprNode left;
+  final Strat_ExprNode right;
+
+
+  Strat_ExprOp(char op, final Strat_ExprNode left, final Strat_ExprNode right) {
+	super("(" + left.text + op + right.text + ")", Math.max(left.dysBk, right.dysBk));
+	this.op = op;
+	this.left = left;
+	this.right = right;
+  }
+
+  @Override
+  void addInstrKeys(Set<Integer> keys) {
+	keys.addAll(left.getInstrKeys());
+	keys.addAll(right.getInstrKeys());
+  }
+
+  @Override
+  double[] calc(Session session, int base, int len) throws Exception {
+	double[] l = left.series(session, base, len);
+	double[] r = right.series(session, base, len);
+
+	double[] calcd = new double[len];
+	int beg = base + dysBk;
+	switch (op) {
+	  case '+': for (int i=beg; i<len; i++) calcd[i] = l[i] + r[i]; break;
+	  case '-': for (int i=beg; i<len; i++) calcd[i] = l[i] - r[i]; break;
+	  case '*': for (int i=beg; i<len; i++) calcd[i] = l[i] * r[i]; break;
+	  case '/': for (int i=beg; i<len; i++) calcd[i] = l[i] / r[i]; break;
+	  default:
+		throw new ExceptionCmd("ERROR - Unknown operator: " + op);
+	}
+	return calcd;
+  }
+
+}
@@ -0,0 +1,436 @@
+package program;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+
+class Strat_ExprParser {
+
+  /* Compiles one dy feature line into a Strat_ExprCond, once - see Strat_ExprWindow for the cache
+   *
+   *   line       := "or(" cond (";" cond)* ")"  |  expr cmpEql expr
+   *   expr       := ["-"] primary (("+" | "-" | "*" | "/") primary)*
+   *   primary    := number  |  [instr "."] (fn "(" args ")"  |  tok)
+   *   tok        := (o|h|l|c|r|s)[dysBk]  |  p[dysBk]@hhmm
+   *
+   * Only what the Strategy_Compare path already runs is compiled: the fns Strat_Factory would hand
+   * out for this USERTYPE, plus sum/rank/stdev/pivot/count lines for USERTYPE 0 (Strategy_Sum ..).
+   * Every fn is also run through its Strat_ class parseAndSetConditions() once, so the nested
+   * syntax rules per USERTYPE stay in one place.
+   * Anything else throws ExceptionCmd - the caller then leaves that line to the string path
+   * (Process_Dy dispatch), which reports the error as before.
+   * Another instr's toks and h / l are read on its rows by date (Session.getRowsOnDep); its window
+   * fns - us.mvg(c,20) - run on its own rows in the Strat_ classes, so those lines stay on the string path.
+   *
+   * expr folds left to right with no precedence, as Strat_ExprIntraday does: c - c1 * 2 is (c - c1) * 2,
+   * a leading "-" is 0 minus the first primary. The string path has no grouping parentheses, so
+   * (c - c1) * 2 is not compiled either.
+   *
+   * Nodes are hash-consed on their text over all lines of the parser (one ENTRY:/EXIT: window):
+   * mvg(c,50) in three lines is one node, so Strat_ExprMemo computes it once per evaluation.
+   */
+  static final String[] LEGACY_LINES = {
+	"tradeday(", "day(", "month(", "dayweek(", "week(", "hol(", "econ", "volhilo(", "vix(",
+	"countpure(", "regnonlinear1(", "candle"};
+  static final String[] USERTYPE0_LINES = {"count(", "rank(", "sum(", "stdev(", "pivot("};
+
+  private final Session session;
+  private final int depKey;
+  private final HashMap<String, Strat_ExprNode> nodes = new HashMap<String, Strat_ExprNode>();
+  private final HashMap<String, Strat_ExprCond> conds = new HashMap<String, Strat_ExprCond>();
+
+  private String src;   //* current expression text
+  private int pos;
+  private String lineFnExpr;   //* left side of a USERTYPE 0 sum/rank/.. line, the only place those fns are taken
+
+
+  Strat_ExprParser(Session session) {
+	this.session = session;
+	this.depKey = session.InstrDep.key;
+  }
+
+
+  Strat_ExprCond parseLine(final String strCmdLine) throws Exception {
+	String cmdLine = strCmdLine.trim().toLowerCase();
+	for (String strLegacy : LEGACY_LINES)
+	  if (cmdLine.indexOf(strLegacy) == 0)
+		throw new ExceptionCmd("ERROR - Not compiled: " + cmdLine);
+
+	String lineFn = null;
+	if (session.USERTYPE == 0)
+	  for (String strFn : USERTYPE0_LINES)
+		if (cmdLine.indexOf(strFn) == 0)
+		  lineFn = strFn.substring(0, strFn.length()-1);
+
+	if (lineFn != null)
+	  return parseLineFn(cmdLine, lineFn);
+	return parseCond(cmdLine, depKey);
+  }
+
+
+  /* sum(c-c1,6) = 4 as Strategy_Sum / _Rank / _Stdev / _Pivot / _Count run it: left the fn,
+   * right limited to a number
+   */
+  private Strat_ExprCond parseLineFn(final String cmdLine, final String lineFn) throws Exception {
+	String[] strSides = splitSides(cmdLine);
+	String cmdEql = strSides[2];
+
+	double fdRight;
+	if (lineFn.equals("sum") || lineFn.equals("stdev"))
+	  fdRight = Double.parseDouble(strSides[1]);
+	else
+	  fdRight = Integer.parseInt(strSides[1]);
+
+	lineFnExpr = strSides[0];
+	Strat_ExprNode left;
+	try {
+	  left = parseExpr(strSides[0], depKey);
+	} finally {
+	  lineFnExpr = null;
+	}
+	if (!(left instanceof Strat_ExprFn) || !((Strat_ExprFn)left).fn.equals(lineFn))
+	  throw new ExceptionCmd("ERROR - Not compiled: " + cmdLine);
+	return intern(new Strat_ExprCond(cmdEql, left, intern(new Strat_ExprLvl(fdRight))));
+  }
+
+
+  Strat_ExprCond parseCond(final String strCond, int defaultKey) throws Exception {
+	String cmdCond = strCond.trim();
+
+	if (cmdCond.indexOf("or(") == 0) {
+	  if (!cmdCond.endsWith(")") || matchParen(cmdCond, 2) != cmdCond.length()-1)
+		throw new ExceptionCmd("ERROR - Malformed or(): " + cmdCond);
+	  String strInner = cmdCond.substring(3, cmdCond.length()-1);
+	  ArrayList<String> lstConds = splitTop(strInner, strInner.indexOf(";") >= 0 ? ';' : ',');
+	  if (session.USERTYPE == 0 && lstConds.size() > 2)
+		throw new ExceptionCmd("ERROR - Not compiled: " + cmdCond);
+	  Strat_ExprCond[] ors = new Strat_ExprCond[lstConds.size()];
+	  for (int x=0; x<ors.length; x++)
+		ors[x] = parseCond(lstConds.get(x), defaultKey);
+	  return intern(new Strat_ExprCond(ors));
+	}
+
+	String[] strSides = splitSides(cmdCond);
+	return intern(new Strat_ExprCond(strSides[2], parseExpr(strSides[0], defaultKey), parseExpr(strSides[1], defaultKey)));
+  }
+
+
+  //* the node of that text if already built, so equal sub-expressions are one object
+  private Strat_ExprNode intern(final Strat_ExprNode node) {
+	Strat_ExprNode nodeSeen = nodes.get(node.text);
+	if (nodeSeen != null)
+	  return nodeSeen;
+	nodes.put(node.text, node);
+	return node;
+  }
+
+  private Strat_ExprCond intern(final Strat_ExprCond cond) {
+	Strat_ExprCond condSeen = conds.get(cond.text);
+	if (condSeen != null)
+	  return condSeen;
+	conds.put(cond.text, cond);
+	return cond;
+  }
+
+
+  //* [left, right, cmdEql] - exactly one comparison, outside of any (..)
+  private String[] splitSides(final String cmdCond) throws Exception {
+	int y_Eql = -1;
+	String cmdEql = null;
+	int depth = 0;
+	for (int y=0; y<cmdCond.length(); y++) {
+	  char ch = cmdCond.charAt(y);
+	  if (ch == '(') {
+		depth++;
+	  } else if (ch == ')') {
+		depth--;
+	  } else if (depth == 0 && (ch == '>' || ch == '<' || ch == '=')) {
+		if (cmdEql != null)
+		  throw new ExceptionCmd("ERROR - More than one comparison: " + cmdCond);
+		y_Eql = y;
+		cmdEql = (ch != '=' && y+1 < cmdCond.length() && cmdCond.charAt(y+1) == '=') ? ch + "=" : String.valueOf(ch);
+		y += cmdEql.length()-1;
+	  }
+	}
+	if (cmdEql == null)
+	  throw new ExceptionCmd("ERROR - No comparison: " + cmdCond);
+	return new String[]{
+	  cmdCond.substring(0, y_Eql).trim(),
+	  cmdCond.substring(y_Eql + cmdEql.length()).trim(),
+	  cmdEql};
+  }
+
+
+  Strat_ExprNode parseExpr(final String strExpr, int defaultKey) throws Exception {
+	String srcOuter = src;
+	int posOuter = pos;
+	src = strExpr.trim();
+	pos = 0;
+	try {
+	  if (src.length() == 0)
+		throw new ExceptionCmd("ERROR - Empty expression");
+	  Strat_ExprNode node = expr(defaultKey);
+	  skipBlanks();
+	  if (pos < src.length())
+		throw new ExceptionCmd("ERROR - Unexpected '" + src.charAt(pos) + "' in: " + src);
+	  return node;
+	} finally {
+	  src = srcOuter;
+	  pos = posOuter;
+	}
+  }
+
+  //* fdSum op= tok, left to right - see Strat_ExprIntraday.calc()
+  private Strat_ExprNode expr(int defaultKey) throws Exception {
+	Strat_ExprNode node;
+	if (peek() == '-') {
+	  pos++;
+	  node = primary(defaultKey);
+	  if (node instanceof Strat_ExprLvl)
+		node = intern(new Strat_ExprLvl(-((Strat_ExprLvl)node).fdLvl));
+	  else
+		node = intern(new Strat_ExprOp('-', intern(new Strat_ExprLvl(0)), node));
+	} else {
+	  node = primary(defaultKey);
+	}
+	while (peek() == '+' || peek() == '-' || peek() == '*' || peek() == '/') {
+	  char op = src.charAt(pos++);
+	  node = intern(new Strat_ExprOp(op, node, primary(defaultKey)));
+	}
+	return node;
+  }
+
+  private Strat_ExprNode primary(int defaultKey) throws Exception {
+	char ch = peek();
+	if (ch == '(')
+	  throw new ExceptionCmd("ERROR - Not compiled: " + src);
+	if ((ch >= '0' && ch <= '9') || ch == '.') {
+	  int y_Beg = pos;
+	  while (pos < src.length() && ((src.charAt(pos) >= '0' && src.charAt(pos) <= '9') || src.charAt(pos) == '.'))
+		pos++;
+	  return intern(new Strat_ExprLvl(Double.parseDouble(src.substring(y_Beg, pos))));
+	}
+	if (ch < 'a' || ch > 'z')
+	  throw new ExceptionCmd("ERROR - Unexpected '" + ch + "' in: " + src);
+
+	//* [instr.] name
+	int instrKey = defaultKey;
+	String strName = name();
+	if (pos < src.length() && src.charAt(pos) == '.') {
+	  instrKey = instrKeyOf(strName);
+	  pos++;
+	  strName = name();
+	}
+
+	if (pos < src.length() && src.charAt(pos) == '(') {
+	  int y_Pright = matchParen(src, pos);
+	  String strFnExpr = src.substring(pos - strName.length(), y_Pright+1);
+	  String strArgs = src.substring(pos+1, y_Pright);
+	  pos = y_Pright+1;
+	  return intern(fn(strName, strFnExpr, strArgs, instrKey));
+	}
+	return intern(tok(strName, instrKey));
+  }
+
+
+  //* o h l c r s p - with dysBk and p@hhmm
+  private Strat_ExprNode tok(final String strName, int instrKey) throws Exception {
+	if (strName.length() != 1 || "ohlcrsp".indexOf(strName.charAt(0)) < 0)
+	  throw new ExceptionCmd("ERROR - Not compiled: " + strName);
+	char type = strName.charAt(0);
+	Instr InstrX = session.getInstr(instrKey);
+
+	int dysBk = digits();
+	int timeCol = -1;
+	String strTime = "";
+	if (type == 'p') {
+	  if (pos >= src.length() || src.charAt(pos) != '@')
+		throw new ExceptionCmd("ERROR - Missing @time in: " + src);
+	  pos++;
+	  int y_Beg = pos;
+	  digits();
+	  strTime = "@" + src.substring(y_Beg, pos);
+	  timeCol = Utils.strTimeToCol(src.substring(y_Beg, pos), InstrX);
+	  if (pos == y_Beg || timeCol > InstrX.lastTimeCol)
+		throw new ExceptionCmd("ERROR - Unknown time in: " + src);
+	} else if (type == 'o') {
+	  timeCol = InstrX.opnDyCol;
+	} else if (type == 'h') {
+	  timeCol = InstrX.hiDyCol;
+	} else if (type == 'l') {
+	  timeCol = InstrX.loDyCol;
+	} else if (type == 'c') {
+	  timeCol = InstrX.clsDyCol;
+	}
+
+	String text = prefix(instrKey) + type + (dysBk > 0 ? String.valueOf(dysBk) : "") + strTime;
+	return new Strat_ExprTok(text, instrKey, type, dysBk, timeCol);
+  }
+
+
+  private Strat_ExprNode fn(final String fn, final String strFnExpr, final String strArgs, int instrKey) throws Exception {
+	if (instrKey != depKey && !fn.equals("h") && !fn.equals("l"))
+	  throw new ExceptionCmd("ERROR - Not compiled: " + strFnExpr);
+
+	//* same fn set and syntax checks as the string path, per USERTYPE
+	Instr InstrX = session.getInstr(instrKey);
+	Strat_Abstract stratChk;
+	boolean blLineFn = strFnExpr.equals(lineFnExpr);
+	if (fn.equals("count") && blLineFn)
+	  stratChk = new Strat_Eqn_Count(InstrX, strFnExpr, session);
+	else if (fn.equals("sum") && blLineFn)
+	  stratChk = new Strat_Sum(InstrX, strFnExpr, session);
+	else if (fn.equals("rank") && blLineFn)
+	  stratChk = new Strat_Rank(InstrX, strFnExpr, session);
+	else if (fn.equals("stdev") && blLineFn)
+	  stratChk = new Strat_Stdev(InstrX, strFnExpr, session);
+	else if (fn.equals("pivot") && blLineFn)
+	  stratChk = new Strat_Pivot(InstrX, strFnExpr, session);
+	else if (fn.equals("count") || fn.equals("sum") || fn.equals("rank"))
+	  stratChk = null;
+	else if (fn.equals("streak") || fn.equals("wait"))
+	  stratChk = null;
+	else
+	  stratChk = Strat_Factory.getInstance(InstrX, strFnExpr, session);
+	if (stratChk == null)
+	  throw new ExceptionCmd("ERROR - Not compiled: " + strFnExpr);
+	stratChk.parseAndSetConditions();
+
+	ArrayList<String> args = splitTop(strArgs, ',');
+	String pfx = prefix(instrKey);
+
+	if (fn.equals("h") || fn.equals("l")) {
+	  if (args.size() != 2)
+		throw new ExceptionCmd("ERROR - Not compiled: " + strFnExpr);
+	  int[] dyBkTimeCol_beg = hiLoTok(args.get(0), InstrX);
+	  int[] dyBkTimeCol_end = hiLoTok(args.get(1), InstrX);
+	  String text = pfx + fn + "(" + args.get(0).trim() + "," + args.get(1).trim() + ")";
+	  return Strat_ExprFn.hiLo(text, fn, instrKey, dyBkTimeCol_beg[0], dyBkTimeCol_beg[1], dyBkTimeCol_end[0], dyBkTimeCol_end[1]);
+	}
+
+	if (fn.equals("count")) {
+	  if (args.size() != 2)
+		throw new ExceptionCmd("ERROR - Not compiled: " + strFnExpr);
+	  Strat_ExprCond eqn = parseCond(args.get(0), instrKey);
+	  int arg_dys = Integer.parseInt(args.get(1).trim());
+	  return Strat_ExprFn.count(pfx + "count(" + eqn.text + "," + arg_dys + ")", instrKey, eqn, arg_dys);
+	}
+
+	Strat_ExprNode arg = parseExpr(args.get(0), instrKey);
+
+	if (fn.equals("abs")) {
+	  if (args.size() != 1)
+		throw new ExceptionCmd("ERROR - Not compiled: " + strFnExpr);
+	  return Strat_ExprFn.window(pfx + "abs(" + arg.text + ")", fn, instrKey, arg, 0);
+	}
+
+	if (fn.equals("pivot")) {
+	  double arg_fdMove = Double.valueOf(args.get(1).trim());
+	  String arg_MoveType = args.get(2).trim();
+	  int arg_StdPeriod = (args.size() > 3) ? Integer.parseInt(args.get(3).trim()) : 60;
+	  if (!arg_MoveType.equals("p") && !arg_MoveType.equals("z"))
+		throw new ExceptionCmd("ERROR - Not compiled: " + strFnExpr);
+	  String text = pfx + "pivot(" + arg.text + "," + Strat_ExprLvl.toText(arg_fdMove) + "," + arg_MoveType + "," + arg_StdPeriod + ")";
+	  return Strat_ExprFn.pivot(text, instrKey, arg, arg_fdMove, arg_MoveType, arg_StdPeriod);
+	}
+
+	if (fn.equals("median") || fn.equals("percentile")) {
+	  if (args.size() != (fn.equals("median") ? 2 : 3))
+		throw new ExceptionCmd("ERROR - Not compiled: " + strFnExpr);
+	  int arg_dys = Integer.parseInt(args.get(1).trim());
+	  double arg_fdPct = fn.equals("median") ? 50 : Double.valueOf(args.get(2).trim());
+	  String text = pfx + "percentile(" + arg.text + "," + arg_dys + "," + Strat_ExprLvl.toText(arg_fdPct) + ")";
+	  return Strat_ExprFn.percentile(text, instrKey, arg, arg_dys, arg_fdPct);
+	}
+
+	if (fn.equals("mvg") || fn.equals("sum") || fn.equals("stdev") || fn.equals("zscore") || fn.equals("rank")
+		|| fn.equals("volhist") || fn.equals("min") || fn.equals("max")) {
+	  if (args.size() != 2)
+		throw new ExceptionCmd("ERROR - Not compiled: " + strFnExpr);
+	  int arg_dys = Integer.parseInt(args.get(1).trim());
+	  return Strat_ExprFn.window(pfx + fn + "(" + arg.text + "," + arg_dys + ")", fn, instrKey, arg, arg_dys);
+	}
+
+	throw new ExceptionCmd("ERROR - Not compiled: " + strFnExpr);
+  }
+
+
+  //* h(p1@815, p@1435) bounds - [dysBk, timeCol], o / c being the open / close col
+  private int[] hiLoTok(final String strTok, Instr InstrX) throws Exception {
+	Strat_ExprNode node = parseExpr(strTok, InstrX.key);
+	if (!(node instanceof Strat_ExprTok))
+	  throw new ExceptionCmd("ERROR - Not compiled: " + strTok);
+	Strat_ExprTok tok = (Strat_ExprTok)node;
+	if (tok.instrKey != InstrX.key || (tok.type != 'p' && tok.type != 'o' && tok.type != 'c'))
+	  throw new ExceptionCmd("ERROR - Not compiled: " + strTok);
+	return new int[]{tok.dysBk, tok.timeCol};
+  }
+
+
+  private String prefix(int instrKey) {
+	return (instrKey == depKey) ? "" : InstrSpecs.idNames[instrKey].toLowerCase() + ".";
+  }
+
+  private int instrKeyOf(final String strName) throws Exception {
+	for (int k=0; k<InstrSpecs.idNames.length; k++)
+	  if (InstrSpecs.idNames[k].toLowerCase().equals(strName))
+		return k;
+	throw new ExceptionCmd("ERROR - Unknown instrument: " + strName);
+  }
+
+  private String name() {
+	int y_Beg = pos;
+	while (pos < src.length() && src.charAt(pos) >= 'a' && src.charAt(pos) <= 'z')
+	  pos++;
+	return src.substring(y_Beg, pos);
+  }
+
+  private int digits() {
+	int y_Beg = pos;
+	while (pos < src.length() && src.charAt(pos) >= '0' && src.charAt(pos) <= '9')
+	  pos++;
+	return (pos == y_Beg) ? 0 : Integer.parseInt(src.substring(y_Beg, pos));
+  }
+
+  private char peek() {
+	skipBlanks();
+	return (pos < src.length()) ? src.charAt(pos) : 0;
+  }
+
+  private void skipBlanks() {
+	while (pos < src.length() && Character.isWhitespace(src.charAt(pos)))
+	  pos++;
+  }
+
+  private static int matchParen(final String str, int y_Pleft) throws Exception {
+	int depth = 0;
+	for (int y=y_Pleft; y<str.length(); y++) {
+	  if (str.charAt(y) == '(')
+		depth++;
+	  else if (str.charAt(y) == ')' && --depth == 0)
+		return y;
+	}
+	throw new ExceptionCmd("ERROR - Missing ')' in: " + str);
+  }
+
+  //* split on sep outside of any (..)
+  private static ArrayList<String> splitTop(final String str, char sep) {
+	ArrayList<String> lst = new ArrayList<String>();
+	int depth = 0;
+	int y_Beg = 0;
+	for (int y=0; y<str.length(); y++) {
+	  char ch = str.charAt(y);
+	  if (ch == '(') {
+		depth++;
+	  } else if (ch == ')') {
+		depth--;
+	  } else if (ch == sep && depth == 0) {
+		lst.add(str.substring(y_Beg, y).trim());
+		y_Beg = y+1;
+	  }
+	}
+	lst.add(str.substring(y_Beg).trim());
+	return lst;
+  }
+
+}
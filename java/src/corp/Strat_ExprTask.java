@@ -0,0 +1,150 @@
+package program;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+
+abstract class Strat_ExprTask<T> extends RecursiveTask<T> {
+
+  /* Fork/join piece of a compiled evaluation - a line, a side of a compare, a branch of or(..)
+   *
+   * Compiled nodes only read prices and write their own arrays (Strat_ExprMemo and Strat_ExprCache
+   * are safe to share), so they run on POOL, see Process_Dy. The string path changes
+   * session.warmUp and InstrX.maxDysBk as it goes and stays on the request thread.
+   * calc() may throw ExceptionCmd etc., result() hands it back as thrown.
+   * The other fan-outs of a request (exits, bootstrap, Monte Carlo, sweep, walk forward) go on POOL
+   * too, through runAll().
+   */
+  private static final long serialVersionUID = 1L;
+
+  //* one pool for all requests - a request bounds its share by how many lines it has on it at once
+  static final ForkJoinPool POOL = new ForkJoinPool(Session.defaultParallelism());
+
+  abstract T calc() throws Exception;
+
+  @Override
+  protected final T compute() {
+	try {
+	  return calc();
+	} catch (RuntimeException e) {
+	  throw e;
+	} catch (Exception e) {
+	  throw new TaskException(e);
+	}
+  }
+
+  //* join(), with the exception calc() threw
+  T result() throws Exception {
+	try {
+	  return join();
+	} catch (RuntimeException e) {
+	  //* join() may rethrow a copy whose cause is the original
+	  for (Throwable t = e; t != null; t = t.getCause())
+		if (t instanceof TaskException)
+		  throw (Exception) t.getCause();
+	  throw e;
+	}
+  }
+
+  /* call() of each of calls on POOL, at most maxRunning started and not taken at once, the results in
+   * call order - the way Process_Dy.calcLines() runs the lines. maxRunning <= 1 runs them here.
+   * The first exception in call order is thrown as the call threw it, the calls not started are cancelled.
+   */
+  static <T> List<T> runAll(List<? extends Callable<T>> calls, int maxRunning) throws Exception{
+	List<T> results = new ArrayList<T>(calls.size());
+	if (maxRunning <= 1 || calls.size() <= 1) {
+	  for (Callable<T> call : calls)
+		results.add(call.call());
+	  return results;
+	}
+	List<Call<T>> tasks = new ArrayList<Call<T>>(calls.size());
+	for (Callable<T> call : calls)
+	  tasks.add(new Call<T>(call));
+	int nextTask = 0;   //* tasks[.. nextTask) are started
+	try {
+	  for (Call<T> task : tasks) {
+		for (; nextTask < tasks.size() && nextTask < results.size() + maxRunning; nextTask++)
+		  POOL.execute(tasks.get(nextTask));
+		results.add(task.result());
+	  }
+	} finally {
+	  for (int x=results.size(); x<tasks.size(); x++)
+		tasks.get(x).cancel(false);
+	}
+	return results;
+  }
+
+  //* true when already on a pool, so forking a piece is worth it
+  static boolean isForking() {
+	return ForkJoinTask.inForkJoinPool();
+  }
+
+
+  static final class TaskException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+	TaskException(Exception e) {
+	  super(e);
+	}
+  }
+
+
+  static final class Call<T> extends Strat_ExprTask<T> {
+	private static final long serialVersionUID = 1L;
+	private final Callable<T> call;
+
+	Call(Callable<T> call) {
+	  this.call = call;
+	}
+
+	@Override
+	T calc() throws Exception {
+	  return call.call();
+	}
+  }
+
+  static final class Signals extends Strat_ExprTask<BitSet> {
+	private static final long serialVersionUID = 1L;
+	private final Strat_ExprCond cond;
+	private final Session session;
+	private final int base;
+	private final int len;
+
+	Signals(final Strat_ExprCond cond, Session session, int base, int len) {
+	  this.cond = cond;
+	  this.session = session;
+	  this.base = base;
+	  this.len = len;
+	}
+
+	@Override
+	BitSet calc() throws Exception {
+	  return cond.signals(session, base, len);
+	}
+  }
+
+  static final class Series extends Strat_ExprTask<double[]> {
+	private static final long serialVersionUID = 1L;
+	private final Strat_ExprNode node;
+	private final Session session;
+	private final int base;
+	private final int len;
+
+	Series(final Strat_ExprNode node, Session session, int base, int len) {
+	  this.node = node;
+	  this.session = session;
+	  this.base = base;
+	  this.len = len;
+	}
+
+	@Override
+	double[] calc() throws Exception {
+	  return node.series(session, base, len);
+	}
+  }
+
+}
@@ -0,0 +1,67 @@
+package program;
+
+import java.util.Set;
+
+
+class Strat_ExprTok extends Strat_ExprNode {
+
+  /* One price token, cf ParseUtils.OHLC
+   *   o, h, l, c    open/high/low/close of the day
+   *   r, s          range high-low, close-open
+   *   p@1100        price at a time col
+   * each with days back (c1, p2@1100) and an optional instr prefix (us.c1)
+   * A prefixed tok is read on the row of its instr dated on or before the InstrDep day, days back
+   * counted in its own rows - Session.getRowsOnDep(). NaN where it has no such row.
+   */
+  final int instrKey;
+  final char type;
+  final int timeCol;   //* o, h, l, c, p
+
+
+  Strat_ExprTok(final String text, int instrKey, char type, int dysBk, int timeCol) {
+	super(text, dysBk);
+	this.instrKey = instrKey;
+	this.type = type;
+	this.timeCol = timeCol;
+  }
+
+  @Override
+  void addInstrKeys(Set<Integer> keys) {
+	keys.add(instrKey);
+  }
+
+  @Override
+  double[] calc(Session session, int base, int len) {
+	Instr InstrX = session.getInstr(instrKey);
+	PrcMatrix prc = InstrX.prc;
+	int[] rows = session.getRowsOnDep(instrKey);
+	int end = Math.min(len, prc.length);
+
+	double[] calcd = new double[len];
+	if (rows != null) {
+	  for (int i=base+dysBk; i<len; i++) {
+		int row = rows[i] - dysBk;
+		calcd[i] = (row < 0) ? Double.NaN : at(InstrX, row);
+	  }
+	} else if (type == 'r') {
+	  for (int i=base+dysBk; i<end; i++)
+		calcd[i] = prc.get(i-dysBk, InstrX.hiDyCol) - prc.get(i-dysBk, InstrX.loDyCol);
+	} else if (type == 's') {
+	  for (int i=base+dysBk; i<end; i++)
+		calcd[i] = prc.get(i-dysBk, InstrX.clsDyCol) - prc.get(i-dysBk, InstrX.opnDyCol);
+	} else {
+	  for (int i=base+dysBk; i<end; i++)
+		calcd[i] = prc.get(i-dysBk, timeCol);
+	}
+	return calcd;
+  }
+
+  private double at(Instr InstrX, int row) {
+	if (type == 'r')
+	  return InstrX.prc.get(row, InstrX.hiDyCol) - InstrX.prc.get(row, InstrX.loDyCol);
+	if (type == 's')
+	  return InstrX.prc.get(row, InstrX.clsDyCol) - InstrX.prc.get(row, InstrX.opnDyCol);
+	return InstrX.prc.get(row, timeCol);
+  }
+
+}
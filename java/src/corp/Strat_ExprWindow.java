@@ -0,0 +1,84 @@
+package program;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+class Strat_ExprWindow {
+
+  /* The dy feature lines of one ENTRY:/EXIT: window compiled by Strat_ExprParser, one
+   * Strat_ExprCond per line of Session.arrCmdEntryDy / arrCmdExitDy - null where the line stays
+   * on the string path (tradeday(, econ, vix(, .. or anything the parser does not take).
+   *
+   * Cached by normalized window text, so the same window sent again from the front-end is not
+   * parsed again. Compiled nodes hold no prices, only instr keys and cols, so an entry stays good
+   * across imports - the key has InstrDep (unprefixed tokens) and USERTYPE (allowed fns) in it.
+   */
+  static final int MAX_WINDOWS = 256;
+
+  private static final Map<String, Strat_ExprWindow> windows =
+	new LinkedHashMap<String, Strat_ExprWindow>(16, 0.75f, true) {
+	  private static final long serialVersionUID = 1L;
+	  @Override
+	  protected boolean removeEldestEntry(Map.Entry<String, Strat_ExprWindow> eldest) {
+		return size() > MAX_WINDOWS;
+	  }
+	};
+
+  final List<Strat_ExprCond> entryDy;
+  final List<Strat_ExprCond> exitDy;
+
+
+  private Strat_ExprWindow(Session session) {
+	Strat_ExprParser parser = new Strat_ExprParser(session);
+	entryDy = compile(parser, session.arrCmdEntryDy);
+	exitDy = compile(parser, session.arrCmdExitDy);
+  }
+
+  private static List<Strat_ExprCond> compile(Strat_ExprParser parser, List<String[]> arrCmd) {
+	List<Strat_ExprCond> lstCond = new ArrayList<Strat_ExprCond>();
+	for (String[] cmdLineMeta : arrCmd) {
+	  Strat_ExprCond cond;
+	  try {
+		cond = parser.parseLine(cmdLineMeta[0]);
+	  } catch (Exception e) {
+		cond = null;   //* string path, which reports the error if there is one
+	  }
+	  lstCond.add(cond);
+	}
+	return lstCond;
+  }
+
+
+  //* after Session.setArrayCmd()
+  static Strat_ExprWindow getInstance(Session session) {
+	String key = getKey(session);
+	synchronized (windows) {
+	  Strat_ExprWindow window = windows.get(key);
+	  if (window != null)
+		return window;
+	}
+	//* compile outside the lock, two sessions compiling the same window just both put it
+	Strat_ExprWindow window = new Strat_ExprWindow(session);
+	synchronized (windows) {
+	  windows.put(key, window);
+	}
+	return window;
+  }
+
+  //* "es|0|entry|c>c1|not c1>c2|exit|.." - the lines as setArrayCmd split them, blanks collapsed
+  static String getKey(Session session) {
+	StringBuilder sb = new StringBuilder();
+	sb.append(session.InstrDep.key).append('|').append(session.USERTYPE);
+	sb.append("|entry");
+	for (String[] cmdLineMeta : session.arrCmdEntryDy)
+	  sb.append('|').append(cmdLineMeta[1]).append(' ').append(cmdLineMeta[0].replaceAll("\\s+", ""));
+	sb.append("|exit");
+	for (String[] cmdLineMeta : session.arrCmdExitDy)
+	  sb.append('|').append(cmdLineMeta[1]).append(' ').append(cmdLineMeta[0].replaceAll("\\s+", ""));
+	return sb.toString();
+  }
+
+}
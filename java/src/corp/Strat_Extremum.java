@@ -0,0 +1,133 @@
+package program;
+
+
+class Strat_Extremum {
+
+  /* Rolling max/min over a sliding window - monotonic deque
+   *
+   * Values are pushed in position order, expire() drops the positions that left the window and
+   * the front is the extremum. Each value is pushed and popped at most once, so a whole series is
+   * linear in its length whatever the window.
+   * Same results as the old "fdMax = bound; if (v > fdMax) fdMax = v" loops: NaN never enters,
+   * and the bound is returned when nothing in the window beats it.
+   *
+   * Used over daily series (Strat_MaxMin, Strategy_Vix) and over the minute cols of consecutive
+   * days (Strat_HighLow, h(p1@0000,p1@1615)), where a position is row*cols + col.
+   */
+  private final boolean blMax;
+  private int[] pos;
+  private double[] val;
+  private int head;
+  private int size;
+
+
+  Strat_Extremum(boolean blMax, int capacity) {
+	this.blMax = blMax;
+	this.pos = new int[Math.max(1, capacity)];
+	this.val = new double[pos.length];
+  }
+
+  void push(int p, double v) {
+	if (Double.isNaN(v))
+	  return;
+	while (size > 0) {
+	  double back = val[(head+size-1) % val.length];
+	  if (blMax ? back <= v : back >= v)
+		size--;
+	  else
+		break;
+	}
+	if (size == val.length)
+	  grow();
+	int tail = (head+size) % val.length;
+	pos[tail] = p;
+	val[tail] = v;
+	size++;
+  }
+
+  //* drop everything before position pMin
+  void expire(int pMin) {
+	while (size > 0 && pos[head] < pMin) {
+	  head = (head+1) % val.length;
+	  size--;
+	}
+  }
+
+  double get(double bound) {
+	if (size == 0)
+	  return bound;
+	double v = val[head];
+	if (blMax)
+	  return v > bound ? v : bound;
+	return v < bound ? v : bound;
+  }
+
+  private void grow() {
+	int[] pos2 = new int[pos.length*2];
+	double[] val2 = new double[pos.length*2];
+	for (int x=0; x<size; x++) {
+	  pos2[x] = pos[(head+x) % pos.length];
+	  val2[x] = val[(head+x) % pos.length];
+	}
+	pos = pos2;
+	val = val2;
+	head = 0;
+  }
+
+
+  //* max of arg[i-w+1 .. i], at least floor
+  static void max(final double[] arg, int w, int beg, int end, double floor, double[] fn) {
+	slide(true, arg, w, beg, end, floor, fn);
+  }
+
+  //* min of arg[i-w+1 .. i], at most ceil
+  static void min(final double[] arg, int w, int beg, int end, double ceil, double[] fn) {
+	slide(false, arg, w, beg, end, ceil, fn);
+  }
+
+  private static void slide(boolean blMax, final double[] arg, int w, int beg, int end, double bound, double[] fn) {
+	if (beg >= end)
+	  return;
+	Strat_Extremum ext = new Strat_Extremum(blMax, w);
+	for (int j=beg-w+1; j<beg; j++)
+	  ext.push(j, arg[j]);
+	for (int i=beg; i<end; i++) {
+	  ext.push(i, arg[i]);
+	  ext.expire(i-w+1);
+	  fn[i] = ext.get(bound);
+	}
+  }
+
+
+  /* max (blMax) or min over the minute cols from p[begDyBk]@begTimeCol to p[endDyBk]@endTimeCol,
+   * for every day i in [beg, end) - false if that range is not a run of minute cols (the caller
+   * then goes day by day)
+   */
+  static boolean slideIntraday(boolean blMax, Instr InstrX, int begDyBk, int begTimeCol, int endDyBk, int endTimeCol,
+		  int beg, int end, double bound, double[] fn) {
+	int cols = InstrX.lastTimeCol - InstrX.firstTimeCol + 1;
+	if (begDyBk < endDyBk
+		|| begTimeCol < InstrX.firstTimeCol || begTimeCol > InstrX.lastTimeCol
+		|| endTimeCol < InstrX.firstTimeCol || endTimeCol > InstrX.lastTimeCol)
+	  return false;
+	//* window of day i is [i*cols + offBeg, i*cols + offEnd] in row*cols + col
+	int offBeg = -begDyBk*cols + (begTimeCol - InstrX.firstTimeCol);
+	int offEnd = -endDyBk*cols + (endTimeCol - InstrX.firstTimeCol);
+	if (offEnd - offBeg + 1 <= cols)
+	  return false;   //* days do not overlap, a scan per day reads each minute once anyway
+	if (beg >= end)
+	  return true;
+
+	PrcMatrix prc = InstrX.prc;
+	Strat_Extremum ext = new Strat_Extremum(blMax, offEnd - offBeg + 1);
+	int p = beg*cols + offBeg;
+	for (int i=beg; i<end; i++) {
+	  for (int pEnd=i*cols + offEnd; p<=pEnd; p++)
+		ext.push(p, prc.get(p / cols, InstrX.firstTimeCol + p % cols));
+	  ext.expire(i*cols + offBeg);
+	  fn[i] = ext.get(bound);
+	}
+	return true;
+  }
+
+}
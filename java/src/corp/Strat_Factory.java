@@ -48,6 +48,8 @@ public class Strat_Factory {
 	//	return getStrat(new Strat_Pivot4A(InstrX, cmdExpression, session));
 	//} else if (cmdExpression.indexOf("pivot7(") == 0 && session.USERTYPE == 4) {
 	//	return getStrat(new Strat_Pivot7(InstrX, cmdExpression, session));  				
+	} else if (cmdExpression.indexOf("median(") == 0 || cmdExpression.indexOf("percentile(") == 0) {
+		return getStrat(new Strat_Median(InstrX, cmdExpression, session));
 	} else if (cmdExpression.indexOf("volhist(") == 0) {
 		return getStrat(new Strat_VolHist(InstrX, cmdExpression, session));		
 	//} else if (cmdExpression.indexOf("sum(") == 0) {
@@ -80,17 +80,13 @@ public class Strat_HighLow extends Strat_Abstract{
 	 * p@1100 > h(o,p@1000) means p@1100 is greater than the max from o1 to p@1000
 	 * c > l(p1@1400,p@1000)
 	 */	  	  
-	 if(InstrX.maxDysBk < arg_begDyBk + InstrX.maxDysBk) 
-		InstrX.maxDysBk = arg_begDyBk + InstrX.maxDysBk;
+	 setDysBk(arg_begDyBk);
 	    	  	 
      if (CMD.equals("low")) {
-	     for(int i=InstrX.maxDysBk; i<InstrX.prc.length; i++)
-	       calcdExprFn[i] = calcLow(i);
+	     calcLows(InstrX, arg_begDyBk, arg_begTimeCol, arg_endDyBk, arg_endTimeCol, begIndex(), InstrX.prc.length, calcdExprFn);
 	      
 	 } else if (CMD.equals("high")) {
-	     for(int i=InstrX.maxDysBk; i<InstrX.prc.length; i++) {
-	       calcdExprFn[i] = calcHigh(i);   
-	     }
+	     calcHighs(InstrX, arg_begDyBk, arg_begTimeCol, arg_endDyBk, arg_endTimeCol, begIndex(), InstrX.prc.length, calcdExprFn);
 	}  
     
   }  //* calc method
@@ -105,12 +101,45 @@ public class Strat_HighLow extends Strat_Abstract{
   
   //double calcHigh(int i) throws Exception{	  
   double calcHigh(int i) {
+	return calcHigh(InstrX, arg_begDyBk, arg_begTimeCol, arg_endDyBk, arg_endTimeCol, i);
+  }
+  
+  double calcLow(int i) throws Exception{
+	return calcLow(InstrX, arg_begDyBk, arg_begTimeCol, arg_endDyBk, arg_endTimeCol, i);
+  }
+  
+  
+  //* also the kernels of compiled h(..)/l(..) nodes, see Strat_ExprFn
+  /* calcHigh() for every day i in [beg, end) - when the range spans more than a day (h(p2@0000,p@1615)),
+   * consecutive days share most of it, so it slides as one window over the minutes, see Strat_Extremum
+   */
+  static void calcHighs(Instr InstrX, int arg_begDyBk, int arg_begTimeCol, int arg_endDyBk, int arg_endTimeCol,
+		  int beg, int end, double[] fn) {
+	if (!(arg_begTimeCol==InstrX.opnDyCol && arg_endTimeCol==InstrX.clsDyCol && arg_begDyBk == arg_endDyBk)
+		&& Strat_Extremum.slideIntraday(true, InstrX, arg_begDyBk, arg_begTimeCol, arg_endDyBk, arg_endTimeCol,
+				beg, end, -Double.MAX_VALUE, fn))
+	  return;
+	for (int i=beg; i<end; i++)
+	  fn[i] = calcHigh(InstrX, arg_begDyBk, arg_begTimeCol, arg_endDyBk, arg_endTimeCol, i);
+  }
+
+  static void calcLows(Instr InstrX, int arg_begDyBk, int arg_begTimeCol, int arg_endDyBk, int arg_endTimeCol,
+		  int beg, int end, double[] fn) {
+	if (!(arg_begTimeCol==InstrX.opnDyCol && arg_endTimeCol==InstrX.clsDyCol && arg_begDyBk == arg_endDyBk)
+		&& Strat_Extremum.slideIntraday(false, InstrX, arg_begDyBk, arg_begTimeCol, arg_endDyBk, arg_endTimeCol,
+				beg, end, Double.MAX_VALUE, fn))
+	  return;
+	for (int i=beg; i<end; i++)
+	  fn[i] = calcLow(InstrX, arg_begDyBk, arg_begTimeCol, arg_endDyBk, arg_endTimeCol, i);
+  }
+  
+  static double calcHigh(Instr InstrX, int arg_begDyBk, int arg_begTimeCol, int arg_endDyBk, int arg_endTimeCol, int i) {
 	
 	double fdMax=0;
 	try {  
     if (arg_begTimeCol==InstrX.opnDyCol && arg_endTimeCol==InstrX.clsDyCol 
     	&& arg_begDyBk == arg_endDyBk) {
-          fdMax = InstrX.prc[i-arg_begDyBk][InstrX.hiDyCol];
+          fdMax = InstrX.prc.get(i-arg_begDyBk, InstrX.hiDyCol);
     } else {
         int startTimeCol, endTimeCol;
 	    fdMax=-Double.MAX_VALUE;
@@ -123,8 +152,8 @@ public class Strat_HighLow extends Strat_Abstract{
 	      if(iDyBk == arg_endDyBk) endTimeCol = arg_endTimeCol;	    
 	        
 	      for (int jTimeCol=startTimeCol; jTimeCol<=endTimeCol; jTimeCol++) {
-	        if(InstrX.prc[i-iDyBk][jTimeCol] > fdMax) 
-	          fdMax = InstrX.prc[i-iDyBk][jTimeCol];  	  
+	        if(InstrX.prc.get(i-iDyBk, jTimeCol) > fdMax) 
+	          fdMax = InstrX.prc.get(i-iDyBk, jTimeCol);  	  
 	      }
 	    }  
     }
@@ -136,11 +165,11 @@ public class Strat_HighLow extends Strat_Abstract{
   }
   
   
-  double calcLow(int i) throws Exception{
+  static double calcLow(Instr InstrX, int arg_begDyBk, int arg_begTimeCol, int arg_endDyBk, int arg_endTimeCol, int i) {
     double fdMin;
     if (arg_begTimeCol==InstrX.opnDyCol && arg_endTimeCol==InstrX.clsDyCol
 	  && arg_begDyBk == arg_endDyBk){
-        fdMin = InstrX.prc[i-arg_begDyBk][InstrX.loDyCol];
+        fdMin = InstrX.prc.get(i-arg_begDyBk, InstrX.loDyCol);
     } else {
 	    int startTimeCol, endTimeCol;
         fdMin=Double.MAX_VALUE;
@@ -153,8 +182,8 @@ public class Strat_HighLow extends Strat_Abstract{
             if(iDyBk == arg_endDyBk) endTimeCol = arg_endTimeCol;	        	
         
             for (int jTimeCol=startTimeCol; jTimeCol<=endTimeCol; jTimeCol++) {
-                if(InstrX.prc[i-iDyBk][jTimeCol] < fdMin) 
-                fdMin = InstrX.prc[i-iDyBk][jTimeCol];  	  
+                if(InstrX.prc.get(i-iDyBk, jTimeCol) < fdMin) 
+                fdMin = InstrX.prc.get(i-iDyBk, jTimeCol);  	  
             }
         }  
     }
@@ -90,31 +90,25 @@ public class Strat_MaxMin extends Strat_Abstract{
 	*/  
 
 	nestExpressionParseAndCalc(InstrX, arg_Expression, session); 
-	if(InstrX.maxDysBk < arg_dys + InstrX.maxDysBk) 
-	  InstrX.maxDysBk = arg_dys + InstrX.maxDysBk;
+	setDysBk(argDysBk + arg_dys);
 		 		 
-    if (CMD.equals("min")) {  
-		double fdMin;
-		for (int i=InstrX.maxDysBk; i<InstrX.prc.length; i++) {
-		  fdMin = Double.MAX_VALUE;	
-	      for(int m=0; m<=arg_dys; m++)
-		    if(calcdExprArg[i-m] < fdMin) fdMin = calcdExprArg[i-m]; 	  
-		  
-		  calcdExprFn[i] = fdMin;
-		}
-		
-    } else if (CMD.equals("max")) {  
-        double fdMax;  
-	    for (int i=InstrX.maxDysBk; i<InstrX.prc.length; i++) {
-	      fdMax = -Double.MAX_VALUE;
-		  for(int m=0; m<=arg_dys; m++)
-		    if(calcdExprArg[i-m] > fdMax) fdMax = calcdExprArg[i-m]; 	  
-		  
-		  calcdExprFn[i] = fdMax;
-          //System.out.println(i + " " +  calcdExprFn[i]);	  
-	    }
-    }
+    if (CMD.equals("min")) 
+    	min(calcdExprArg, arg_dys, begIndex(), InstrX.prc.length, calcdExprFn);
+    else if (CMD.equals("max"))  
+    	max(calcdExprArg, arg_dys, begIndex(), InstrX.prc.length, calcdExprFn);
 			  
   }  //* calc method
+  
+  /* fn[i] for i in [beg, end) - also the kernels of compiled min() / max() nodes, see Strat_ExprFn
+   * NOTE: window is arg_dys+1 days, i-arg_dys .. i
+   */
+  static void min(final double[] arg, int arg_dys, int beg, int end, double[] fn) {
+	//* arg[i-arg_dys .. i], monotonic deque - see Strat_Extremum
+	Strat_Extremum.min(arg, arg_dys+1, beg, end, Double.MAX_VALUE, fn);
+  }
+  
+  static void max(final double[] arg, int arg_dys, int beg, int end, double[] fn) {
+	Strat_Extremum.max(arg, arg_dys+1, beg, end, -Double.MAX_VALUE, fn);
+  }
 
 }
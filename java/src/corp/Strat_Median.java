@@ -0,0 +1,63 @@
+package program;
+
+
+class Strat_Median extends Strat_Abstract{
+
+  String CMD;
+  int arg_dys;
+  double arg_fdPct;
+  /*
+   * MEDIAN(C-C1, 20) > 0          : median of the last 20 C-C1
+   * C > PERCENTILE(C, 60, 90)     : close above the 90th percentile of the last 60 closes
+   * us.PERCENTILE(us.r, 20, 25) > us.r
+   *
+   * cf: RANK(C-C1,20) = 1
+   */
+
+
+  Strat_Median(final Instr InstrX, final String cmdExpression, Session session) {
+    super(InstrX, cmdExpression, session);
+  }
+
+
+  @Override
+  void parseAndSetConditions() throws Exception{
+	if (cmdExpression.indexOf("median") == 0) CMD = "median";
+	else if (cmdExpression.indexOf("percentile") == 0) CMD = "percentile";
+	getParams();
+	arg_Expression = params.get(0);
+	arg_dys = Integer.parseInt(params.get(1));
+	if (CMD.equals("median")) {
+	  if (params.size() != 2)
+		throw new ExceptionCmd("ERROR - MEDIAN(expression, days)");
+	  arg_fdPct = 50;
+	} else {
+	  if (params.size() != 3)
+		throw new ExceptionCmd("ERROR - PERCENTILE(expression, days, 0-100)");
+	  arg_fdPct = Double.parseDouble(params.get(2));
+	  if (arg_fdPct < 0 || arg_fdPct > 100)
+		throw new ExceptionCmd("ERROR - PERCENTILE(expression, days, 0-100)");
+	}
+	if (arg_dys < 1)
+	  throw new ExceptionCmd("ERROR - " + CMD.toUpperCase() + " days must be 1 or more");
+
+	if(session.USERTYPE == 0)
+	  if(params.get(0).indexOf("(") >= 0)
+	    throw new ExceptionCmd("Error in nested syntax");
+  }
+
+
+  @Override
+  void calc() throws Exception{
+	nestExpressionParseAndCalc(InstrX, arg_Expression, session);
+	setDysBk(argDysBk + arg_dys);
+	percentile(calcdExprArg, arg_dys, arg_fdPct, begIndex(), InstrX.prc.length, calcdExprFn);
+  }  // calc() method
+
+  //* fn[i] for i in [beg, end) - also the kernel of compiled median() / percentile() nodes, see Strat_ExprFn
+  static void percentile(final double[] arg, int arg_dys, double arg_fdPct, int beg, int end, double[] fn) {
+	//* sliding order statistics over arg[i-arg_dys+1 .. i], see Strat_RankWindow
+	Strat_RankWindow.percentile(arg, arg_dys, arg_fdPct / 100, beg, end, fn);
+  }
+
+}
@@ -85,15 +85,17 @@ public class Strat_Mvg extends Strat_Abstract{
   @Override
   void calc() throws Exception{	  
 	nestExpressionParseAndCalc(InstrX, arg_Expression, session);
-    if(InstrX.maxDysBk < arg_dys + InstrX.maxDysBk) 
-       InstrX.maxDysBk = arg_dys + InstrX.maxDysBk;
+    setDysBk(argDysBk + arg_dys);
     
     //for (int i=strategy.begTstDateIndex+maxDysBk; i<=strategy.endTstDateIndex; i++)        
-    for(int i=0+InstrX.maxDysBk; i<InstrX.prc.length; i++) {
-	  calcdExprFn[i] = calc(i);
-    }
+    mvg(calcdExprArg, arg_dys, begIndex(), InstrX.prc.length, calcdExprFn);
 		  
   }  //* calc method
+  
+  //* fn[i] for i in [beg, end) - also the kernel of compiled mvg() nodes, see Strat_ExprFn
+  static void mvg(final double[] arg, int arg_dys, int beg, int end, double[] fn) {
+	Strat_Rolling.mean(arg, arg_dys, beg, end, fn);   //* running sum, see Strat_Rolling
+  }
 
   double calc(int i) throws Exception{      
 	double fdMvg_i=0;
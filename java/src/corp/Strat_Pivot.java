@@ -48,39 +48,48 @@ class Strat_Pivot extends Strat_Abstract{
 	
   
   public void calcPts() throws Exception{		 
-	if(InstrX.maxDysBk < InstrX.maxDysBk + 1) 
-	   InstrX.maxDysBk = InstrX.maxDysBk + 1;	
-		
+	setDysBk(argDysBk + 1);
+	pivotPts(calcdExprArg, arg_fdMove, begIndex(), InstrX.prc.length, calcdExprFn);
+  }
+  
+  //* fn[i] for i in [beg, end), pivot starts at arg[beg-1] - also the kernel of compiled pivot() nodes
+  static void pivotPts(final double[] arg, double arg_fdMove, int beg, int end, double[] fn) {
+    if (beg >= end)
+      return;   //* fewer days than the look-back
     int cntNP=0;
-    double fdPivot = calcdExprArg[0+InstrX.maxDysBk-1];
+    double fdPivot = arg[beg-1];
     
-    for (int i=InstrX.maxDysBk; i<InstrX.prc.length; i++) {		
-      if (calcdExprArg[i]-fdPivot >= arg_fdMove) {
+    for (int i=beg; i<end; i++) {		
+      if (arg[i]-fdPivot >= arg_fdMove) {
     	  if (cntNP < 0) cntNP = 0;   //* reset 
-    	  cntNP += (int)((calcdExprArg[i]-fdPivot)/arg_fdMove);
-          fdPivot = calcdExprArg[i];  
-      } else if (calcdExprArg[i]-fdPivot <= -arg_fdMove) {
+    	  cntNP += (int)((arg[i]-fdPivot)/arg_fdMove);
+          fdPivot = arg[i];  
+      } else if (arg[i]-fdPivot <= -arg_fdMove) {
     	  if (cntNP > 0) cntNP = 0;   //* reset
-    	  cntNP += (int)((calcdExprArg[i]-fdPivot)/arg_fdMove);
-          fdPivot = calcdExprArg[i];            
+    	  cntNP += (int)((arg[i]-fdPivot)/arg_fdMove);
+          fdPivot = arg[i];            
       }    
-	  calcdExprFn[i] = cntNP;
+	  fn[i] = cntNP;
 	}  //* i loop
   }
     
 
   public void calcZ() throws Exception{  	
-	if(InstrX.maxDysBk < 1 + arg_StdPeriod + InstrX.maxDysBk) 
-	  InstrX.maxDysBk = 1 + arg_StdPeriod + InstrX.maxDysBk;	
-		
+	setDysBk(argDysBk + 1 + arg_StdPeriod);
+	pivotZ(calcdExprArg, arg_fdMove, arg_StdPeriod, begIndex(), InstrX.prc.length, calcdExprFn);
+  }
+  
+  static void pivotZ(final double[] arg, double arg_fdMove, int arg_StdPeriod, int beg, int end, double[] fn) {
 	//* calculates z-score move using current price but OLD pivot mu and std!	
 	double mu_i;
 	double fdStd_i;
 	double fdZscore_i;
+	if (beg >= end)
+	  return;   //* fewer days than the look-back
 	int cntNP=0;
-	double fdPivot = calcdExprArg[0+InstrX.maxDysBk-1];
+	double fdPivot = arg[beg-1];
 	
-	for (int i=InstrX.maxDysBk; i<InstrX.prc.length; i++) {			
+	for (int i=beg; i<end; i++) {			
 	  	  	  
 	  //* Calc the stdev of "C-C1" 
       //* var_s = 1/(N-1)*Sum(x_i - mu)^2
@@ -98,27 +107,27 @@ class Strat_Pivot extends Strat_Abstract{
       fdStd_i = Math.sqrt(fdStd_i);
       */
 	  for(int k=0; k<arg_StdPeriod; k++)
-	    mu_i += calcdExprArg[i-k] - calcdExprArg[i-k-1];
+	    mu_i += arg[i-k] - arg[i-k-1];
 	  mu_i /= arg_StdPeriod;
 	  for(int k=0; k<arg_StdPeriod; k++)
-	    fdStd_i += Math.pow((calcdExprArg[i-k]-calcdExprArg[i-k-1]) - mu_i,2);
+	    fdStd_i += Math.pow((arg[i-k]-arg[i-k-1]) - mu_i,2);
 	  fdStd_i /= (arg_StdPeriod-1);  //* unbiased
 	  fdStd_i = Math.sqrt(fdStd_i);
 	  
-      fdZscore_i = (calcdExprArg[i] - fdPivot)/fdStd_i;  
+      fdZscore_i = (arg[i] - fdPivot)/fdStd_i;  
       //double diff = (calcdExpr[i] - fdPivot);
       if (fdZscore_i >= arg_fdMove) {
     	  if (cntNP < 0) cntNP = 0;
     	  cntNP += (int)((fdZscore_i)/arg_fdMove);
-          fdPivot = calcdExprArg[i];
+          fdPivot = arg[i];
           
       } else if (fdZscore_i <= -arg_fdMove) {    
     	  if (cntNP > 0) cntNP = 0;
     	  cntNP += (int)((fdZscore_i)/arg_fdMove);
-          fdPivot = calcdExprArg[i];
+          fdPivot = arg[i];
       }    
 
-      calcdExprFn[i] = cntNP;
+      fn[i] = cntNP;
       //D System.out.println(cntNP + "  " + calcdExpr[i] + "  " + diff + "  " + fdStd_i + "  " + fdZscore_i);      
     }   //* i loop
   }
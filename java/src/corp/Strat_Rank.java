@@ -1,6 +1,5 @@
 package program;
 
-import java.util.Arrays;
 
 class Strat_Rank extends Strat_Abstract{
 
@@ -38,35 +37,15 @@ class Strat_Rank extends Strat_Abstract{
     * RANK(H,20) >= 7
     */	
 	nestExpressionParseAndCalc(InstrX, arg_Expression, session);
-	if(InstrX.maxDysBk < arg_dys + InstrX.maxDysBk) 
-	   InstrX.maxDysBk = arg_dys + InstrX.maxDysBk;	
-    
-	for (int i=InstrX.maxDysBk; i<InstrX.prc.length; i++) {		
-
-	  double[] fdCalcdExpr_n = new double[arg_dys];  //* reset for each new i, this is array to be sorted	
-	  //* Loop i=0 to N to calc and define array fdSum[N]
-	  for(int n=0; n<arg_dys; n++)
-		fdCalcdExpr_n[n] = calcdExprArg[i-n];  
-	  
-	  //* Sort to see if "C-C1" is ranked 20 of 20
-	  double fdCalcdExpr_0 = fdCalcdExpr_n[0];  // make sure to get before sorting bec array gets perm sorted!
-	  Arrays.sort(fdCalcdExpr_n);
-	  //* Java's search does not do equal very well, so do custom search
-	  //* int iRank = Arrays.binarySearch(fdSum, fdSum0) + 1;
-    boolean blFound = false;
-    int r = 0;
-    int iRank = 0;
-    while (!blFound && r < fdCalcdExpr_n.length) {	
-      if (fdCalcdExpr_0 == fdCalcdExpr_n[r] ) {
-    	  blFound = true;
-    	  iRank = r+1;  // return index from 1 (not 0)
-      }
-      r++;
-    }
-    
-    calcdExprFn[i] = iRank;
-	}	  
+	setDysBk(argDysBk + arg_dys);
+	rank(calcdExprArg, arg_dys, begIndex(), InstrX.prc.length, calcdExprFn);
   }  // calc() method		
+  
+  //* fn[i] for i in [beg, end) - also the kernel of compiled rank() nodes, see Strat_ExprFn
+  static void rank(final double[] arg, int arg_dys, int beg, int end, double[] fn) {
+	//* Is "C-C1" ranked 20 of 20 - sliding order statistics instead of a sort per day, see Strat_RankWindow
+	Strat_RankWindow.rank(arg, arg_dys, beg, end, fn);
+  }
 	
 }
 
@@ -0,0 +1,182 @@
+package program;
+
+import java.util.Arrays;
+
+
+class Strat_RankWindow {
+
+  /* Order statistics of a sliding window - for rank(), rolling percentiles and medians
+   *
+   * The values of the whole series are ranked once (sorted, distinct), then the window is a
+   * Fenwick tree of counts over those ranks: a day slides in with add(), out with remove(), and
+   * countLess() / kth() are O(log n) - no per day array, copy or sort.
+   * -0.0 counts as 0.0 and NaN is never in the window, same as == and < in the old loops.
+   */
+  static final int SMALL_W = 32;
+
+  private final double[] vals;   //* distinct values, ascending
+  private final int[] tree;      //* Fenwick, 1 based
+  private int size;
+
+
+  Strat_RankWindow(final double[] arg, int from, int to) {
+	double[] sorted = new double[to-from];
+	int n = 0;
+	for (int j=from; j<to; j++)
+	  if (!Double.isNaN(arg[j]))
+		sorted[n++] = arg[j] + 0.0;   //* -0.0 => 0.0
+	Arrays.sort(sorted, 0, n);
+	int u = 0;
+	for (int j=0; j<n; j++)
+	  if (u == 0 || sorted[j] != sorted[u-1])
+		sorted[u++] = sorted[j];
+	vals = Arrays.copyOf(sorted, u);
+	tree = new int[u+1];
+  }
+
+  //* 1 based rank of x among vals, 0 if NaN
+  private int indexOf(double x) {
+	if (Double.isNaN(x))
+	  return 0;
+	return Arrays.binarySearch(vals, x + 0.0) + 1;
+  }
+
+  void add(double x) {
+	int r = indexOf(x);
+	if (r == 0)
+	  return;
+	size++;
+	for (; r<tree.length; r+=r&-r)
+	  tree[r]++;
+  }
+
+  void remove(double x) {
+	int r = indexOf(x);
+	if (r == 0)
+	  return;
+	size--;
+	for (; r<tree.length; r+=r&-r)
+	  tree[r]--;
+  }
+
+  //* number of values in the window < x
+  int countLess(double x) {
+	int cnt = 0;
+	for (int r=indexOf(x)-1; r>0; r-=r&-r)
+	  cnt += tree[r];
+	return cnt;
+  }
+
+  //* k-th smallest in the window, k from 1
+  double kth(int k) {
+	int pos = 0;
+	int step = Integer.highestOneBit(Math.max(1, tree.length-1));
+	for (; step>0; step>>=1) {
+	  if (pos+step < tree.length && tree[pos+step] < k) {
+		pos += step;
+		k -= tree[pos];
+	  }
+	}
+	return vals[pos];
+  }
+
+  int size() {
+	return size;
+  }
+
+
+  //* same result as Strat_Rank: 1 + count of the last w values < arg[i], 0 for NaN
+  static void rank(final double[] arg, int w, int beg, int end, double[] fn) {
+	if (beg >= end)
+	  return;
+	if (w <= SMALL_W) {
+	  //* short window: counting it is cheaper than ranking the series
+	  for (int i=beg; i<end; i++) {
+		int cnt = 0;
+		for (int n=1; n<w; n++)
+		  if (arg[i-n] < arg[i])
+			cnt++;
+		fn[i] = Double.isNaN(arg[i]) ? 0 : cnt + 1;
+	  }
+	  return;
+	}
+	Strat_RankWindow win = new Strat_RankWindow(arg, beg-w+1, end);
+	for (int j=beg-w+1; j<beg; j++)
+	  win.add(arg[j]);
+	for (int i=beg; i<end; i++) {
+	  win.add(arg[i]);
+	  fn[i] = Double.isNaN(arg[i]) ? 0 : win.countLess(arg[i]) + 1;
+	  win.remove(arg[i-w+1]);
+	}
+  }
+
+  /* p-th percentile of the last w values, p in [0,1], linear between closest ranks
+   * (p=0.5 is the median), NaN days are left out of the window - median() / percentile(), see Strat_Median
+   */
+  static void percentile(final double[] arg, int w, double p, int beg, int end, double[] fn) {
+	if (beg >= end)
+	  return;
+	if (w <= SMALL_W) {
+	  //* short window: one sorted buffer, a day in / out by insertion
+	  double[] sorted = new double[w];
+	  int n = 0;
+	  for (int j=beg-w+1; j<beg; j++)
+		n = insert(sorted, n, arg[j]);
+	  for (int i=beg; i<end; i++) {
+		n = insert(sorted, n, arg[i]);
+		if (n == 0) {
+		  fn[i] = Double.NaN;
+		} else {
+		  double h = p * (n-1);
+		  int lo = (int)Math.floor(h);
+		  fn[i] = (lo+1 < n) ? sorted[lo] + (h-lo) * (sorted[lo+1] - sorted[lo]) : sorted[lo];
+		}
+		n = delete(sorted, n, arg[i-w+1]);
+	  }
+	  return;
+	}
+	Strat_RankWindow win = new Strat_RankWindow(arg, beg-w+1, end);
+	for (int j=beg-w+1; j<beg; j++)
+	  win.add(arg[j]);
+	for (int i=beg; i<end; i++) {
+	  win.add(arg[i]);
+	  int n = win.size();
+	  if (n == 0) {
+		fn[i] = Double.NaN;
+	  } else {
+		double h = p * (n-1);
+		int lo = (int)Math.floor(h);
+		double fdLo = win.kth(lo+1);
+		fn[i] = (lo+1 < n) ? fdLo + (h-lo) * (win.kth(lo+2) - fdLo) : fdLo;
+	  }
+	  win.remove(arg[i-w+1]);
+	}
+  }
+
+  //* sorted[0 .. n) with x in, NaN stays out - new n
+  private static int insert(double[] sorted, int n, double x) {
+	if (Double.isNaN(x))
+	  return n;
+	x += 0.0;   //* -0.0 => 0.0
+	int k = n;
+	while (k > 0 && sorted[k-1] > x) {
+	  sorted[k] = sorted[k-1];
+	  k--;
+	}
+	sorted[k] = x;
+	return n+1;
+  }
+
+  //* sorted[0 .. n) with one x out - new n
+  private static int delete(double[] sorted, int n, double x) {
+	if (Double.isNaN(x))
+	  return n;
+	x += 0.0;
+	int k = 0;
+	while (sorted[k] != x)
+	  k++;
+	System.arraycopy(sorted, k+1, sorted, k, n-k-1);
+	return n-1;
+  }
+
+}
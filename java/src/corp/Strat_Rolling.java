@@ -0,0 +1,136 @@
+package program;
+
+
+class Strat_Rolling {
+
+  /* Sliding window kernels shared by Strat_Mvg, Strat_Sum, Strat_Stdev, Strat_Zscore, Strat_VolHist
+   *
+   * Same contract as their static kernels: fn[i] for i in [beg, end) over arg[i-w+1 .. i], the
+   * caller guarantees beg-w+1 >= 0 (look-back). O(n) instead of O(n*w):
+   *   sum       running sum
+   *   mean/std  sliding Welford - mean += (in-out)/w,  M2 += (in-out)*(in-mean_new + out-mean_old)
+   * The running state drifts by rounding, so it is re-anchored (exact two pass over the window,
+   * same arithmetic as the old loops) every REANCHOR steps, at least every w, and whenever a
+   * non-finite value enters or leaves the window - a NaN/Inf then shows up for exactly the days
+   * the old per day loop had it. A window that turns constant (c-c1 over a halted stretch) is re-anchored
+   * too and kept while it stays constant, so std is 0 there and zscore NaN as in the old loops - the
+   * sliding state would leave a rounding rest instead.
+   */
+  static final int REANCHOR = 256;
+
+
+  private static int anchorSteps(int w) {
+	return Math.max(w, REANCHOR);
+  }
+
+  private static boolean isFinite(double x) {
+	return !Double.isNaN(x) && !Double.isInfinite(x);
+  }
+
+  //* how many of arg[i], arg[i-1] .. are the same, up to w - from the run of i-1 after beg
+  private static int run(final double[] arg, int w, int beg, int i, int runPrev) {
+	if (i > beg)
+	  return (arg[i] == arg[i-1]) ? Math.min(runPrev+1, w) : 1;
+	int run = 1;
+	while (run < w && arg[i-run] == arg[i])
+	  run++;
+	return run;
+  }
+
+
+  //* sum of arg[i-w+1 .. i]
+  static void sum(final double[] arg, int w, int beg, int end, double[] fn) {
+	double sum = 0;
+	int steps = 0;
+	int run = 0;
+	for (int i=beg; i<end; i++) {
+	  int runPrev = run;
+	  run = run(arg, w, beg, i, runPrev);
+	  if (run == w && runPrev == w) {
+		//* same window as i-1
+	  } else if (i == beg || steps >= anchorSteps(w) || !isFinite(sum) || run == w
+		  || !isFinite(arg[i]) || !isFinite(arg[i-w])) {
+		sum = 0;
+		for (int n=0; n<w; n++)
+		  sum += arg[i-n];
+		steps = 0;
+	  } else {
+		sum += arg[i] - arg[i-w];
+		steps++;
+	  }
+	  fn[i] = sum;
+	}
+  }
+
+  static void mean(final double[] arg, int w, int beg, int end, double[] fn) {
+	sum(arg, w, beg, end, fn);
+	for (int i=beg; i<end; i++)
+	  fn[i] /= w;
+  }
+
+
+  /* mean (mu, may be null) and unbiased std (sd) of arg[i-w+1 .. i]
+   * var_s = 1/(N-1)*Sum(x_i - mu)^2
+   */
+  static void meanStd(final double[] arg, int w, int beg, int end, double[] mu, double[] sd) {
+	double mean = 0;
+	double m2 = 0;
+	int steps = 0;
+	int run = 0;
+	for (int i=beg; i<end; i++) {
+	  int runPrev = run;
+	  run = run(arg, w, beg, i, runPrev);
+	  if (run == w && runPrev == w) {
+		//* same window as i-1
+	  } else if (i == beg || steps >= anchorSteps(w) || !isFinite(m2) || run == w
+		  || !isFinite(arg[i]) || !isFinite(arg[i-w])) {
+		mean = 0;
+		for (int k=0; k<w; k++)
+		  mean += arg[i-k];
+		mean /= w;
+		m2 = 0;
+		for (int k=0; k<w; k++)
+		  m2 += (arg[i-k] - mean) * (arg[i-k] - mean);
+		steps = 0;
+	  } else {
+		double in = arg[i];
+		double out = arg[i-w];
+		double meanOld = mean;
+		mean += (in - out) / w;
+		m2 += (in - out) * (in - mean + out - meanOld);
+		if (m2 < 0)
+		  m2 = 0;   //* rounding on a flat window
+		steps++;
+	  }
+	  if (mu != null)
+		mu[i] = mean;
+	  sd[i] = Math.sqrt(m2 / (w-1));
+	}
+  }
+
+  static void std(final double[] arg, int w, int beg, int end, double[] fn) {
+	meanStd(arg, w, beg, end, null, fn);
+  }
+
+  //* (arg[i] - mu_i) / std_i
+  static void zscore(final double[] arg, int w, int beg, int end, double[] fn) {
+	double[] mu = new double[end];
+	meanStd(arg, w, beg, end, mu, fn);
+	for (int i=beg; i<end; i++)
+	  fn[i] = (arg[i] - mu[i]) / fn[i];
+  }
+
+  //* annualized std of the log changes ln(arg[i]/arg[i-1]) in %, each log taken once
+  static void volhist(final double[] arg, int w, int beg, int end, double[] fn) {
+	if (beg >= end)
+	  return;
+	double[] lnChg = new double[end];
+	for (int j=beg-w+1; j<end; j++)
+	  lnChg[j] = Math.log(arg[j] / arg[j-1]);
+	meanStd(lnChg, w, beg, end, null, fn);
+	double fdAnnual = Math.sqrt(252) * 100.0;
+	for (int i=beg; i<end; i++)
+	  fn[i] *= fdAnnual;
+  }
+
+}
@@ -30,30 +30,18 @@ class Strat_Stdev extends Strat_Abstract{
     * STDEV(O-C1, 20) < 94.5 
     */	
     nestExpressionParseAndCalc(InstrX, arg_Expression, session);
-    if (InstrX.maxDysBk < arg_dys + InstrX.maxDysBk) 
-    	InstrX.maxDysBk = arg_dys + InstrX.maxDysBk;	
-	      
-	for (int i=InstrX.maxDysBk; i<InstrX.prc.length; i++) {		
-	  /* std == sigma == sqrt(var)
-	   * var == sigma^2 
-	   * s = 1/(N-1)*Sum(x_i - mu)^2
-	   *   = ( N*Sum(x^2) - (Sum_x)^2 ) / N(N-1)
-	   */   
-	  double mu_i=0.0;
-	  double fdStd_i=0.0;
-	  
-	  for(int k=0; k<arg_dys; k++)
-		mu_i += calcdExprArg[i-k];  
-	  mu_i /= arg_dys;
-	  
-	  for(int k=0; k<arg_dys; k++)
-	    fdStd_i += Math.pow(calcdExprArg[i-k] - mu_i, 2);
-	  fdStd_i /= (arg_dys-1);   //* unbiased
-	  fdStd_i = Math.sqrt(fdStd_i); 
-	        
-      calcdExprFn[i] = fdStd_i;
-	}	  
+    setDysBk(argDysBk + arg_dys);
+    stdev(calcdExprArg, arg_dys, begIndex(), InstrX.prc.length, calcdExprFn);
   }  // calc() method		
+  
+  //* fn[i] for i in [beg, end) - also the kernel of compiled stdev() nodes, see Strat_ExprFn
+  static void stdev(final double[] arg, int arg_dys, int beg, int end, double[] fn) {
+	/* std == sigma == sqrt(var)
+	 * var == sigma^2 
+	 * s = 1/(N-1)*Sum(x_i - mu)^2   - sliding Welford, see Strat_Rolling
+	 */   
+	Strat_Rolling.std(arg, arg_dys, beg, end, fn);
+  }
 	
 }
 
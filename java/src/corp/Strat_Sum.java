@@ -34,18 +34,14 @@ class Strat_Sum extends Strat_Abstract{
     * SUM(H,20) >= 7
     */	
 	nestExpressionParseAndCalc(InstrX, arg_Expression, session);
-	if (InstrX.maxDysBk < arg_dys + InstrX.maxDysBk) 
-		InstrX.maxDysBk = arg_dys + InstrX.maxDysBk;	
-	
-	for (int i=InstrX.maxDysBk; i<InstrX.prc.length; i++) {		
-	  double fdSum_i=0;  //* reset for each new i, this is array to be sorted	
-	  //* Loop i=0 to N to calc and define array fdSum[N]
-	  for(int n=0; n<arg_dys; n++)
-	    fdSum_i += calcdExprArg[i-n];  
-		        
-	  calcdExprFn[i] = fdSum_i;
-	}	  
+	setDysBk(argDysBk + arg_dys);
+	sum(calcdExprArg, arg_dys, begIndex(), InstrX.prc.length, calcdExprFn);
   }  // calc() method		
+  
+  //* fn[i] for i in [beg, end) - also the kernel of compiled sum() nodes, see Strat_ExprFn
+  static void sum(final double[] arg, int arg_dys, int beg, int end, double[] fn) {
+	Strat_Rolling.sum(arg, arg_dys, beg, end, fn);   //* running sum, see Strat_Rolling
+  }
 	
 }
 
@@ -37,32 +37,15 @@ public class Strat_VolHist extends Strat_Abstract{
       VolHist = sqrt[(1/cmdDays)Sigma_1_cmdDays(x_t-mu)^2]
     */	  
 	nestExpressionParseAndCalc(InstrX, arg_Expression, session);
-	if(InstrX.maxDysBk < arg_dys + InstrX.maxDysBk) 
-	  InstrX.maxDysBk = arg_dys + InstrX.maxDysBk;	
- 	
-	double mu_i=0;
-	double fdVar_i=0;
-	double lnChg=0;
-	for (int i=InstrX.maxDysBk; i<InstrX.prc.length; i++) {
-	  //* first get mean for latest cmdDays (slow way to calc var...)	
-	  mu_i=0;
-      for (int n=0; n<arg_dys; n++) {
-    	//lnChg = Math.log(cmdInstr.prices[i-cmdDaysBk-n][cmdTimeCol]/cmdInstr.prices[i-cmdDaysBk-n-1][cmdTimeCol]);
-    	lnChg = Math.log(calcdExprArg[i-n]/calcdExprArg[i-n-1]);
-    	mu_i += lnChg;
-      }
-      mu_i /= arg_dys;
-	       
-      //* volHist = sqrt[(1/cmdDays)Sigma_1_cmdNDays(x_t-mu)^2]
-      fdVar_i=0;
-	  for (int n=0; n<arg_dys; n++) {
-		lnChg = Math.log(calcdExprArg[i-n]/calcdExprArg[i-n-1]);
-	    fdVar_i += Math.pow(lnChg-mu_i, 2);
-	  }  
-	  calcdExprFn[i] = Math.sqrt((1.0/((double)arg_dys-1.0))*fdVar_i);
-	  calcdExprFn[i] *= Math.sqrt(252)*100.0;
-	}
+	setDysBk(argDysBk + arg_dys);
+	volhist(calcdExprArg, arg_dys, begIndex(), InstrX.prc.length, calcdExprFn);
 	
   }  //* calc method
   
+  //* fn[i] for i in [beg, end) - also the kernel of compiled volhist() nodes, see Strat_ExprFn
+  static void volhist(final double[] arg, int arg_dys, int beg, int end, double[] fn) {
+    //* volHist = sqrt[(1/(cmdDays-1))Sigma_1_cmdNDays(x_t-mu)^2] * sqrt(252) * 100,  x_t = ln(p_t/p_t-1)
+	Strat_Rolling.volhist(arg, arg_dys, beg, end, fn);
+  }
+  
 }
@@ -62,36 +62,20 @@ public class Strat_Zscore extends Strat_Abstract{
 	 * zscore(b-b3,40m) > 2.5 	
 	 */  
     nestExpressionParseAndCalc(InstrX, arg_Expression, session);
-    if(InstrX.maxDysBk < arg_dys + InstrX.maxDysBk) 
-       InstrX.maxDysBk = arg_dys + InstrX.maxDysBk;	
-
-    double mu_i;
-	//double fdZband_i=0.0;
-	double fdStd_i;
-	double fdZscore_i;
-	for (int i=InstrX.maxDysBk; i<InstrX.prc.length; i++) {			
-	  /* var = E[(X-mu)^2]  	  
-	   * var_s = 1/(N-1)*Sum(x_i - mu)^2
-	   *       = ( N*Sum(x^2) - (Sum_x)^2 ) / N(N-1)
-	   */       
-	  mu_i=0.0;
-	  fdStd_i=0.0;
-	  for(int k=0; k<arg_dys; k++)
-		mu_i += calcdExprArg[i-k];
-	  mu_i /= arg_dys;
-	  for(int k=0; k<arg_dys; k++)
-	    fdStd_i += Math.pow(calcdExprArg[i-k] - mu_i, 2);
-	  fdStd_i /= (arg_dys-1);  //* unbiased
-	  fdStd_i = Math.sqrt(fdStd_i);
-	      
-	  //fdZband_i = cmdZscore*fdStd_i + mu;
-	  fdZscore_i = (calcdExprArg[i] - mu_i)/fdStd_i;   
-	  calcdExprFn[i] = fdZscore_i;
-      //D System.out.println(i + "  " + calcdExpr[i] + "  " + calcdExprFn[i]);   
-	}  //* i loop
+    setDysBk(argDysBk + arg_dys);
+    zscore(calcdExprArg, arg_dys, begIndex(), InstrX.prc.length, calcdExprFn);
 	  
   }  //* calc method
   
+  //* fn[i] for i in [beg, end) - also the kernel of compiled zscore() nodes, see Strat_ExprFn
+  static void zscore(final double[] arg, int arg_dys, int beg, int end, double[] fn) {
+	/* var = E[(X-mu)^2]  	  
+	 * var_s = 1/(N-1)*Sum(x_i - mu)^2   - sliding Welford, see Strat_Rolling
+	 */       
+	//fdZband_i = cmdZscore*fdStd_i + mu;
+	Strat_Rolling.zscore(arg, arg_dys, beg, end, fn);
+  }
+  
   /*
   @Override	
   public void calc_intrady(int iDy) throws Exception{
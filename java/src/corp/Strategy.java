@@ -152,7 +152,7 @@ public class Strategy {
 		    Gui.jtextArea.append(String.format("%4s",str));
 	
 		    //* Show PLAST entry prc, then price changes from PLAST thruout day
-		    prcRefSignal = InstrDep.prc[iTrdEntryDyIndex][timeRefCol];    //* "PLAST" - the reference price
+		    prcRefSignal = InstrDep.prc.get(iTrdEntryDyIndex, timeRefCol);    //* "PLAST" - the reference price
 		    prec = "%" + (InstrDep.precPrcShow + 1) + "f";
 		    Gui.jtextArea.append(String.format(prec,prcRefSignal)); 
 		    prec = "%" + InstrDep.precPrcShow + "f";
@@ -161,7 +161,7 @@ public class Strategy {
     	      dyFwd_f = chgTimeDayCol[f][0];
     	      timeFwdCol_f = chgTimeDayCol[f][1];
               if ((iTrdEntryDyIndex+dyFwd_f) < InstrDep.prc.length) {  //* in case last signal is last data row
-		          Gui.jtextArea.append(String.format(prec,InstrDep.prc[iTrdEntryDyIndex+dyFwd_f][timeFwdCol_f]-prcRefSignal));
+		          Gui.jtextArea.append(String.format(prec,InstrDep.prc.get(iTrdEntryDyIndex+dyFwd_f, timeFwdCol_f)-prcRefSignal));
 		          //Gui.jtextArea.append(String.format(prec,InstrDep.getPrice("day","time","c") - prcRefSignal));
               }
             }
@@ -253,8 +253,8 @@ public class Strategy {
 	    if(prcSuccess[i]==1) { 
 	      //continue;
 	    
-		prcRefSignal = InstrDep.prc[i][timeRefCol];        //* PLAST 
-		diffPrc_f[cntN] = InstrDep.prc[i+dyFwd_f][timeFwdCol_f] - prcRefSignal;
+		prcRefSignal = InstrDep.prc.get(i, timeRefCol);        //* PLAST 
+		diffPrc_f[cntN] = InstrDep.prc.get(i+dyFwd_f, timeFwdCol_f) - prcRefSignal;
 		statsMu_f += diffPrc_f[cntN];
 		statsMedLst_f.add(diffPrc_f[cntN]);
 		    
@@ -319,7 +319,7 @@ public class Strategy {
 	  //* Stats for population
 	  cntN=0;
 	  for (int i=begTstDateIndex+maxDysBk; i<=endTstDateIndex-dyFwd_f; i++) {  // mean of changes to +1 930, etc for EVERY day, not just signal				
-		statsDrift_f += InstrDep.prc[i+dyFwd_f][timeFwdCol_f]-InstrDep.prc[i][timeRefCol];
+		statsDrift_f += InstrDep.prc.get(i+dyFwd_f, timeFwdCol_f)-InstrDep.prc.get(i, timeRefCol);
 		cntN++; 	
 	  }
 	  statsDrift_f = statsDrift_f/cntN;     //* mean of pop
@@ -20,6 +20,7 @@ class Strategy_Abstract {
   protected String cmdEql;
 		
   protected double[][] calcdExprFn;	  
+  protected int dysBk;   //* max look-back of the sides, prcSucc valid from InstrX.maxDysBk+dysBk on
   
   protected Instr InstrX;
   protected String cmdStatement;
@@ -115,14 +116,19 @@ class Strategy_Abstract {
 
 	if (!blOr) {  
 		
+		int outerDysBk = session.warmUp.beginScope();
 	    calcExpressionFnSides();  //* this often gets overriden!
+	    dysBk = session.warmUp.endScope(outerDysBk);
+	    session.warmUp.report(dysBk);
         evaluateEqn();
         
 	} else {
 		//if (nested == 0) {
 		    for (int x=0; x<strategy.length; x++) {		
 	          strategy[x].calc();		      
-	          for(int i=InstrX.maxDysBk; i<InstrX.prc.length; i++)  
+	          if(strategy[x].dysBk > dysBk) 
+	        	dysBk = strategy[x].dysBk;
+	          for(int i=InstrX.maxDysBk+strategy[x].dysBk; i<InstrX.prc.length; i++)  
 	    	    if(strategy[x].prcSucc[i]==1)
 		  	      prcSucc[i] = 1;
 		    }
@@ -160,7 +166,7 @@ class Strategy_Abstract {
 	
 	for (int s=0; s<2; s++) {
 	  Strat_Abstract stratExpr = new Strat_Expression(InstrX, strCmdSides[s], session);
-      stratExpr.parseAndCalc();
+      session.warmUp.report(session.warmUp.parseAndCalc(stratExpr));
       calcdExprFn[s] = stratExpr.calcdExprFn;  
 	}
 	  
@@ -170,33 +176,9 @@ class Strategy_Abstract {
     
 	//if(nested==1)  
 	//  prcSucc = new int[InstrDep.prc.length];  
-    double[] lrValue;
-    boolean blSignal; 
-	for (int i=InstrX.maxDysBk; i<InstrX.prc.length; i++) {    
-      //System.out.println(calcdExprFn[0][i] + " "+ i + " " +  calcdExprFn[1][i]);
-	  lrValue = new double[2];
-	  for(int s=0; s<2; s++)
-	    lrValue[s] = calcdExprFn[s][i];
-
-	  blSignal = false;
-	  if (cmdEql.equals(">")) {  
-		  if ( lrValue[0]  > lrValue[1] ) blSignal = true;  
-	  } else if (cmdEql.equals(">=")) {
-		  if ( lrValue[0] >= lrValue[1] ) blSignal = true;  
-	  } else if (cmdEql.equals("<")) {
-		  if ( lrValue[0]  < lrValue[1] ) blSignal = true;  	
-	  } else if (cmdEql.equals("<=")) {		
-		  if ( lrValue[0] <= lrValue[1] ) blSignal = true;  
-	  } else if (cmdEql.equals("=")) {
-		  if ( lrValue[0] == lrValue[1] ) blSignal = true;  
-	  }   		  	  	  
-
-	  if(blSignal)
-	    prcSucc[i] = 1;
-	  else
-		prcSucc[i] = 0;							
-			  
-	}  //* i loop
+	//* cmdEql resolved once, then one primitive loop over both sides - see Strat_ExprCond.compare
+	Strat_ExprCond.compare(Strat_ExprCond.eqlOf(cmdEql), calcdExprFn[0], calcdExprFn[1],
+			InstrX.maxDysBk+dysBk, InstrX.prc.length, prcSucc);
 
   }  //* method evaluate
   
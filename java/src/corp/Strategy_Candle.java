@@ -99,22 +99,22 @@ public class Strategy_Candle extends Strategy_Abstract{
 	for (int i=Strategy.begTstDateIndex+cmdDaysBk; i<=Strategy.endTstDateIndex; i++) {
 	
 	  blSignal = false;
-      range = cmdInstr.prc[i-cmdDaysBk][hiDyCol] - cmdInstr.prc[i-cmdDaysBk][loDyCol];
+      range = cmdInstr.prc.get(i-cmdDaysBk, hiDyCol) - cmdInstr.prc.get(i-cmdDaysBk, loDyCol);
 	  
-	  if (cmdInstr.prc[i-cmdDaysBk][opnDyCol] >= cmdInstr.prc[i-cmdDaysBk][loDyCol] + ((cmdOpn_Bot/100.0)*range) &&
-	      cmdInstr.prc[i-cmdDaysBk][opnDyCol] <= cmdInstr.prc[i-cmdDaysBk][loDyCol] + ((cmdOpn_Top/100.0)*range) &&	  
-	      cmdInstr.prc[i-cmdDaysBk][clsDyCol] >= cmdInstr.prc[i-cmdDaysBk][loDyCol] + ((cmdCls_Bot/100.0)*range) &&
-	      cmdInstr.prc[i-cmdDaysBk][clsDyCol] <= cmdInstr.prc[i-cmdDaysBk][loDyCol] + ((cmdCls_Top/100.0)*range)) {
+	  if (cmdInstr.prc.get(i-cmdDaysBk, opnDyCol) >= cmdInstr.prc.get(i-cmdDaysBk, loDyCol) + ((cmdOpn_Bot/100.0)*range) &&
+	      cmdInstr.prc.get(i-cmdDaysBk, opnDyCol) <= cmdInstr.prc.get(i-cmdDaysBk, loDyCol) + ((cmdOpn_Top/100.0)*range) &&	  
+	      cmdInstr.prc.get(i-cmdDaysBk, clsDyCol) >= cmdInstr.prc.get(i-cmdDaysBk, loDyCol) + ((cmdCls_Bot/100.0)*range) &&
+	      cmdInstr.prc.get(i-cmdDaysBk, clsDyCol) <= cmdInstr.prc.get(i-cmdDaysBk, loDyCol) + ((cmdCls_Top/100.0)*range)) {
 		  blSignal = true;
 	  } 
 	  
-	  System.out.println(cmdInstr.prc[i-cmdDaysBk][0] + " " +
-			  cmdInstr.prc[i-cmdDaysBk][1] + " " +
-			  cmdInstr.prc[i-cmdDaysBk][2] + " " +
-			  cmdInstr.prc[i-cmdDaysBk][opnDyCol] + " " + 
-			  cmdInstr.prc[i-cmdDaysBk][hiDyCol] + " " +  
-			  cmdInstr.prc[i-cmdDaysBk][loDyCol] + " " + 
-			  cmdInstr.prc[i-cmdDaysBk][clsDyCol]);
+	  System.out.println(cmdInstr.prc.get(i-cmdDaysBk, 0) + " " +
+			  cmdInstr.prc.get(i-cmdDaysBk, 1) + " " +
+			  cmdInstr.prc.get(i-cmdDaysBk, 2) + " " +
+			  cmdInstr.prc.get(i-cmdDaysBk, opnDyCol) + " " + 
+			  cmdInstr.prc.get(i-cmdDaysBk, hiDyCol) + " " +  
+			  cmdInstr.prc.get(i-cmdDaysBk, loDyCol) + " " + 
+			  cmdInstr.prc.get(i-cmdDaysBk, clsDyCol));
 			  
 	  
       if (nested == 0) {
@@ -30,27 +30,30 @@ public class Strategy_Date extends Strategy_Abstract{
   public void calc() throws Exception{
 
     boolean signal=false;		      
+	int[] args = new int[params.size()];
+	for (int p=0; p<params.size(); p++)
+	  args[p] = Integer.parseInt(params.get(p));
 	for(int i=InstrX.maxDysBk; i<InstrX.prc.length; i++) {	
   
       switch (cmd_type) {   
 		case 0:
 		  signal=false;
 		  if (session.USERTYPE == 4) {
-			 for (int p=0; p<params.size(); p++) { 
-			    if (InstrX.getWeekday(i) == Integer.parseInt(params.get(p))) {
+			 for (int p=0; p<args.length; p++) { 
+			    if (InstrX.weekday[i] == args[p]) {
 			        signal = true;  		  
 		            break;
 			    }    
 			 }     
 		  } else {
-			  if(InstrX.getWeekday(i) == Integer.parseInt(params.get(0)))
+			  if(InstrX.weekday[i] == args[0])
 			    signal = true;						  
 		  }
 		  break;
 		case 1:  
 		  signal=false;			  
-		  for (int p=0; p<params.size(); p++) { 
-		    if (Integer.parseInt(InstrX.getMonth(i)) == Integer.parseInt(params.get(p))) {
+		  for (int p=0; p<args.length; p++) { 
+		    if (InstrX.month[i] == args[p]) {
 			    signal = true;  		 
 	            break;
 		    }
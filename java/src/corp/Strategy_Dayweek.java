@@ -43,7 +43,7 @@ public class Strategy_Dayweek  extends Strategy_Abstract{
 	for (int i=InstrX.maxDysBk; i<InstrX.prc.length; i++) {		
   
 	  signal = false;
-  	  if(InstrX.getWeekday(i) == arg_dow)
+  	  if(InstrX.weekday[i] == arg_dow)
 		signal = true;  
       
       if(signal)
@@ -85,7 +85,7 @@ public class Strategy_Econ extends Strategy_Abstract{
 	
     } else {  //* HOL: not hol(0), us.hol(1) , hol(-2) , hol(-3,-1)
     	
-        Instr InstrCmd = Instr.getInstance(cmdInstrNum);  //* could simply be default dep instr
+        Instr InstrCmd = session.getInstr(cmdInstrNum);  //* could simply be default dep instr
         String cmdEconNameKey = cmdEconFnName + cmdInstrSuffix;   //* convert: us.hol(1) => holus
         Econ EconX = Econ.getInstance(cmdEconNameKey);  
 	  		
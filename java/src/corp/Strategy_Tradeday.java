@@ -36,11 +36,11 @@ public class Strategy_Tradeday  extends Strategy_Abstract{
 	int mth, mth0;
 	if (_begLast == 0) {  //* tradeday(1), tradeday(2)
 		int tradeDay = 0;
-	    mth0 = Integer.parseInt(InstrX.getYear(InstrX.maxDysBk));
+	    mth0 = InstrX.year[InstrX.maxDysBk];
 	    boolean signal = false;		      		
 	    for (int i=InstrX.maxDysBk; i<InstrX.prc.length; i++) {	    	
 	      
-	      mth = Integer.parseInt(InstrX.getMonth(i));
+	      mth = InstrX.month[i];
 	      
 	      if(mth == mth0)
 		    tradeDay++;
@@ -62,10 +62,10 @@ public class Strategy_Tradeday  extends Strategy_Abstract{
 	} else {  //* tradeday(-1), tradeday(-2)
 		
 		int tradeDay = 0;
-		mth0 = Integer.parseInt(InstrX.getYear(InstrX.prc.length-1));
+		mth0 = InstrX.year[InstrX.prc.length-1];
 	    boolean signal = false;		      	
 		for (int i=InstrX.prc.length-1; i>=InstrX.maxDysBk; i--) {		
-			mth = Integer.parseInt(InstrX.getMonth(i));
+			mth = InstrX.month[i];
 		  
 		    if(mth == mth0)
 			  tradeDay++;
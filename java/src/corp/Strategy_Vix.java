@@ -149,11 +149,27 @@ class Strategy_Vix extends Strategy_Abstract{
       } 
     }
     
-    if(InstrDep.maxDysBk < cmd_MinMaxDays) 
-       InstrDep.maxDysBk = cmd_MinMaxDays;
+    //* cmd_MinMaxDays is a first day, not a look-back - report what it adds onto maxDysBk 
+    dysBk = Math.max(0, cmd_MinMaxDays - InstrDep.maxDysBk);
+    session.warmUp.report(dysBk);
+    
+    //* min/max(vix(c1),20) of every vix day at once, monotonic deque - see Strat_Extremum
+    double[][] vixMinMax = new double[2][];
+    for (int lr=0; lr<2; lr++) {
+      if (cmdType[lr].equals("min") || cmdType[lr].equals("max")) {
+        double[] fdVix = new double[vix.data.length];
+        for (int k=0; k<vix.data.length; k++)
+          fdVix[k] = vix.data[k][COL_VIX];
+        vixMinMax[lr] = new double[vix.data.length];
+        if (cmdType[lr].equals("min"))
+          Strat_Extremum.min(fdVix, cmdMinMaxDays[lr]+1, cmdMinMaxDays[lr], vix.data.length, Double.MAX_VALUE, vixMinMax[lr]);
+        else
+          Strat_Extremum.max(fdVix, cmdMinMaxDays[lr]+1, cmdMinMaxDays[lr], vix.data.length, Double.MIN_VALUE, vixMinMax[lr]);
+      }
+    }
     
     double[] lrValue = new double[2];
-    for (int i=InstrDep.maxDysBk; i<InstrX.prc.length; i++) {	  
+    for (int i=InstrDep.maxDysBk+dysBk; i<InstrX.prc.length; i++) {	  
       boolean blVixDateMatch=false;
       for (int lr=0; lr<2; lr++) {	
 	    //* First get matching or closest matching date of vix to dep instr for each side!
@@ -183,6 +199,12 @@ class Strategy_Vix extends Strategy_Abstract{
 		} else if (cmdType[lr].equals("v")) {  
 			lrValue[lr] = cmdVol[lr];
 			
+		} else if (cmdType[lr].equals("min") && k >= cmdMinMaxDays[lr]) {
+			lrValue[lr] = vixMinMax[lr][k];
+			
+		} else if (cmdType[lr].equals("max") && k >= cmdMinMaxDays[lr]) {
+			lrValue[lr] = vixMinMax[lr][k];
+			
 		} else if (cmdType[lr].equals("min")) { 	
 			//* vix(C1) >= "max(vix(c1),20))"
             double fdMin = Double.MAX_VALUE;
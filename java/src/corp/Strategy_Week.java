@@ -1,8 +1,6 @@
 package program;
 
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.GregorianCalendar;
 
 public class Strategy_Week extends Strategy_Abstract{
 
@@ -20,11 +18,14 @@ public class Strategy_Week extends Strategy_Abstract{
   public void calc() throws Exception{
 
     boolean signal=false;		      
+	int[] args = new int[params.size()];
+	for (int p=0; p<params.size(); p++)
+	  args[p] = Integer.parseInt(params.get(p));
 	for (int i=Strategy.begTstDateIndex; i<=Strategy.endTstDateIndex; i++) {		
   
       signal=false;
-	  for (int p=0; p<params.size(); p++) { 
-	    if (InstrDep.getWeek(i) == Integer.parseInt(params.get(p))) {
+	  for (int p=0; p<args.length; p++) { 
+	    if (InstrDep.weekOfMonth[i] == args[p]) {
 	        signal = true;  		  
 		    break;
 		}    			      
@@ -1,12 +1,13 @@
 package program;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 
 class Trades {
 
   Instr InstrX;
   
-  int[] conditionDy;
+  BitSet conditionDy;   //* day i passed all dy conditions - AND/OR/NOT a word at a time, see Process_Dy
   int[] intradyMinSucc;
   
   ArrayList<Integer> evtSrchBegDyIdx = new ArrayList<Integer>();
@@ -37,10 +38,10 @@ class Trades {
   /* 
    * These trades are used for everything: daily, intrady, entry, and exit 
    */
-  Trades(int key){
-	InstrX = Instr.getInstance(key);  
+  Trades(Instr InstrX){
+	this.InstrX = InstrX;  
 	
-	conditionDy = new int[InstrX.prc.length];	
+	conditionDy = new BitSet(InstrX.prc.length);	
   }
     
 }
@@ -0,0 +1,110 @@
+package program;
+
+import java.util.BitSet;
+
+
+public class UnitTest_exprparser {
+
+  /* Strat_ExprParser against the string path (Strategy_Compare, Strategy_Sum ..): signals of each line, compiled and
+   * not, on the days both have - "diff" is the number of days they disagree on, "string path" means the line is
+   * left to Strategy_Compare on purpose (grouping parentheses, another instr's window fns)
+   * es is the dep instr, us another one with days es has not - toks of us are read on the us row on or before each day,
+   * days before the warm up of us are not compared (the string path reads rows of us it has not calculated there)
+   */
+  static final String[] LINES = {
+	"c > c1", "c - c1 >= 0.5", "c - c1 * 2 > c1 - c", "-c + c1 * 2 > c", "c / c1 - 1 > 0", "-2 * c < -c1",
+	"(c - c1) * 2 > 1", "mvg(c,5) - 1 > mvg(c,20)", "mvg(c - c1,14) > 0", "or(c>c1;mvg(c,5)>mvg(c,20))",
+	"p@1100 > o", "p1@1100 < p@0900", "r > r1", "s < 0", "max(c,10) = c", "min(l,5) = l", "abs(c - c1) > 1",
+	"median(c,10) < c", "percentile(c - c1,20,90) < c - c1", "c > percentile(c1,60,75)",
+	"h(p1@0800,p@1000) < p@1100", "l(p1@0800,p@1000) > p@1100",
+	"us.c1 < us.c", "us.p@1100 > us.o", "c / 10 - us.c1 > 0", "mvg(us.c,5) > us.c", "us.mvg(c,5) > us.c",
+	"us.h(p1@0800,p@1000) < us.p@1100", "us.l(p1@0800,p@1000) > us.p@1100", "us.c2 - us.c1 * 2 > 0",
+	"sum(c - c1,6) > 1", "count(c>c1,6) >= 4", "rank(c - c1,6) = 1", "stdev(c - c1,10) > 2", "pivot(c,2.5,p) >= 1"
+  };
+
+  public static void main (String[] args) {
+	try {
+	  InstrSpecs.initialize();
+	  new ImportDataConvert().go(keyOf("es"));
+	  new ImportDataConvert().go(keyOf("us"));
+	} catch (Exception e) {
+	  System.out.println("?: " + e.getMessage());
+	  return;
+	}
+
+	int tot = 0, bad = 0;
+	for (String strUser : new String[]{"", "admin"}) {   //* USERTYPE 0 takes sum/count/rank/stdev/pivot lines
+	  try {
+		StringBuilder sbCmd = new StringBuilder("ENTRY:\n");
+		for (String line : LINES)
+		  sbCmd.append(line).append("\n");
+		sbCmd.append("EXIT:\nexit(0, 1600)\n");
+		Session session = new Session("es", "", "", "0", "150", "0930", sbCmd.toString(), "", strUser);
+		Strat_ExprWindow window = session.getExprWindow();
+		int len = session.InstrDep.prc.length;
+		int base = session.InstrDep.maxDysBk;
+		session.exprMemo = new Strat_ExprMemo(base, len);
+		int[] rowsUs = session.getRowsOnDep(keyOf("us"));
+		int begUs = session.getInstr(keyOf("us")).maxDysBk;
+		System.out.println("USERTYPE " + session.USERTYPE);
+
+		for (int k=0; k<LINES.length; k++) {
+		  Strat_ExprCond cond = window.entryDy.get(k);
+		  int[] prcSucc;
+		  int dysBk;
+		  session.warmUp = new WarmUp();
+		  try {
+			Strategy_Abstract strategy = stringPath(session, LINES[k]);
+			strategy.parseAndSetConditions();
+			strategy.calc();
+			prcSucc = strategy.prcSucc;
+			dysBk = strategy.dysBk;
+		  } catch (Exception e) {
+			System.out.printf("  %-36s string path: %s%s%n", LINES[k], e.getMessage(), (cond == null) ? "" : " - COMPILED");
+			if (cond != null)
+			  bad++;
+			continue;
+		  }
+		  if (cond == null) {
+			System.out.printf("  %-36s string path%n", LINES[k]);
+			continue;
+		  }
+		  BitSet signals = cond.signals(session, base, len);
+		  int diff = 0;
+		  for (int i=base+Math.max(cond.dysBk, dysBk); i<len; i++)
+			if (signals.get(i) != (prcSucc[i] == 1) && (LINES[k].indexOf("us.") < 0 || rowsUs[i] >= begUs + dysBk))
+			  diff++;
+		  tot++;
+		  if (diff > 0)
+			bad++;
+		  System.out.printf("  %-36s %-40s diff %d%n", LINES[k], cond.text, diff);
+		}
+	  } catch (Exception e) {
+		System.out.println("?: " + e.getMessage());
+	  }
+	}
+	System.out.println(tot + " compiled lines, " + bad + " differ from the string path");
+  }
+
+  static Strategy_Abstract stringPath(Session session, String line) throws Exception {
+	if (session.USERTYPE == 0 && line.startsWith("sum("))
+	  return new Strategy_Sum(session.InstrDep, line, session);
+	if (session.USERTYPE == 0 && line.startsWith("count("))
+	  return new Strategy_Count(session.InstrDep, line, session);
+	if (session.USERTYPE == 0 && line.startsWith("rank("))
+	  return new Strategy_Rank(session.InstrDep, line, session);
+	if (session.USERTYPE == 0 && line.startsWith("stdev("))
+	  return new Strategy_Stdev(session.InstrDep, line, session);
+	if (session.USERTYPE == 0 && line.startsWith("pivot("))
+	  return new Strategy_Pivot(session.InstrDep, line, session);
+	return new Strategy_Compare(session.InstrDep, line, session);
+  }
+
+  static int keyOf(String strInstr) {
+	for (int k=0; k<InstrSpecs.idNames.length; k++)
+	  if (InstrSpecs.idNames[k].equalsIgnoreCase(strInstr))
+		return k;
+	return -1;
+  }
+
+}
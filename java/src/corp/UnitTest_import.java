@@ -0,0 +1,158 @@
+package program;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+public class UnitTest_import {
+
+  /* ImportDataConvert.goAppend against a full import of the same es min file: the file is cut, imported with go(),
+   * then the rest of the file is put back and goAppend() reads it from the tail - prc, prcDate, prcTime and the
+   * 1, 5, 10 min csv have to be the same as go() on the whole file
+   * two cuts: in the middle of a day (the last day imported while trading, redone by the append) and at a day start
+   * the test works on unittest_ copies of the min file, store and csv, the real ones are not touched
+   */
+  static final double[] CUTS = {0.67, 0.9};
+
+  public static void main (String[] args) {
+	int key = -1;
+	Instr InstrX = null;
+	String[] names = null;
+	List<String> lines = null;
+	try {
+	  InstrSpecs.initialize();
+	  key = keyOf("es");
+	  InstrX = Instr.getInstance(key);
+	  names = new String[] {InstrX.fileMinName, InstrX.fileOut1MinName, InstrX.fileOut5MinName, InstrX.fileOut10MinName};
+	  lines = readLines(new File(AGlobal.DATA_IN_DIR + InstrX.fileMinName));
+	  InstrX.fileMinName = "unittest_" + names[0];
+	  InstrX.fileOut1MinName = "unittest_" + names[1];
+	  InstrX.fileOut5MinName = "unittest_" + names[2];
+	  InstrX.fileOut10MinName = "unittest_" + names[3];
+	} catch (Exception e) {
+	  System.out.println("?: " + e.getMessage());
+	  return;
+	}
+
+	try {
+	  //* full import
+	  writeLines(new File(AGlobal.DATA_IN_DIR + InstrX.fileMinName), lines, lines.size());
+	  new File(InstrStore.getStorePath(InstrX)).delete();
+	  long t0 = System.nanoTime();
+	  new ImportDataConvert().go(key);
+	  long t1 = System.nanoTime();
+	  Instr full = Instr.getInstance(key);
+	  String[] csvFull = readCsv(full);
+	  System.out.println("full import: " + full.prc.length + " dys, " + (t1-t0)/1000000 + " ms");
+
+	  int startRow = InstrX.fileMinStartRow;
+	  for (double cut : CUTS) {
+		//* cut in the middle of a day, and at the start of the next day
+		int nMid = startRow + (int)((lines.size() - startRow) * cut);
+		int nDy = nMid;
+		while (nDy < lines.size() && dateOf(lines.get(nDy), InstrX).equals(dateOf(lines.get(nMid-1), InstrX)))
+		  nDy++;
+
+		for (int n : new int[] {nMid, nDy}) {
+		  writeLines(new File(AGlobal.DATA_IN_DIR + InstrX.fileMinName), lines, n);
+		  new File(InstrStore.getStorePath(InstrX)).delete();
+		  new ImportDataConvert().go(key);
+		  int dysPart = Instr.getInstance(key).prc.length;
+
+		  writeLines(new File(AGlobal.DATA_IN_DIR + InstrX.fileMinName), lines, lines.size());
+		  t0 = System.nanoTime();
+		  new ImportDataConvert().goAppend(key);
+		  t1 = System.nanoTime();
+		  Instr app = Instr.getInstance(key);
+		  String[] csvApp = readCsv(app);
+
+		  System.out.println("cut " + (n == nMid ? "mid day " : "day start ") + dateOf(lines.get(n-1), InstrX) + ": " + dysPart
+				  + " dys + append " + (app.prc.length - dysPart) + " dys, " + (t1-t0)/1000000 + " ms");
+		  compare(full, app, csvFull, csvApp);
+		}
+	  }
+	} catch (Exception e) {
+	  System.out.println("?: " + e.getMessage());
+	} finally {
+	  new File(AGlobal.DATA_IN_DIR + InstrX.fileMinName).delete();
+	  new File(InstrStore.getStorePath(InstrX)).delete();
+	  new File(AGlobal.DATA_OUT_DIR + InstrX.fileOut1MinName).delete();
+	  new File(AGlobal.DATA_OUT_DIR + InstrX.fileOut5MinName).delete();
+	  new File(AGlobal.DATA_OUT_DIR + InstrX.fileOut10MinName).delete();
+	  InstrX = Instr.getInstance(key);
+	  InstrX.fileMinName = names[0];
+	  InstrX.fileOut1MinName = names[1];
+	  InstrX.fileOut5MinName = names[2];
+	  InstrX.fileOut10MinName = names[3];
+	}
+  }
+
+  static void compare(Instr full, Instr app, String[] csvFull, String[] csvApp) {
+	String strLine = "  dys " + (full.prc.length == app.prc.length ? "same" : full.prc.length + " vs " + app.prc.length);
+
+	int n = Math.min(full.prc.length, app.prc.length);
+	int diffPrc = 0, diffDate = 0;
+	if (full.prc.cols != app.prc.cols)
+	  strLine += ", cols " + full.prc.cols + " vs " + app.prc.cols;
+	else
+	  for (int i=0; i<n; i++)
+		for (int j=0; j<full.prc.cols; j++)
+		  if (Double.compare(full.prc.get(i, j), app.prc.get(i, j)) != 0)
+			diffPrc++;
+	for (int i=0; i<n; i++)
+	  if (!full.prcDate[i].equals(app.prcDate[i]))
+		diffDate++;
+	strLine += ", prc diff " + diffPrc + ", prcDate diff " + diffDate;
+	strLine += ", prcTime " + (Arrays.equals(full.prcTime, app.prcTime) ? "same" : "diff");
+
+	for (int k=0; k<csvFull.length; k++)
+	  strLine += ", " + new int[] {1, 5, 10}[k] + " min csv " + (csvFull[k].equals(csvApp[k]) ? "same" : "diff");
+	System.out.println(strLine);
+  }
+
+  static String dateOf(String strLine, Instr InstrX) {
+	return strLine.split(",")[InstrX.fileMinDateCol];
+  }
+
+  static String[] readCsv(Instr InstrX) throws Exception {
+	String[] files = {InstrX.fileOut1MinName, InstrX.fileOut5MinName, InstrX.fileOut10MinName};
+	String[] csv = new String[files.length];
+	for (int k=0; k<files.length; k++)
+	  csv[k] = new String(Files.readAllBytes(new File(AGlobal.DATA_OUT_DIR + files[k]).toPath()), "ISO-8859-1");
+	return csv;
+  }
+
+  static List<String> readLines(File file) throws Exception {
+	List<String> lines = new ArrayList<String>();
+	BufferedReader in = new BufferedReader(new FileReader(file));
+	String strLine;
+	while ((strLine = in.readLine()) != null)
+	  lines.add(strLine);
+	in.close();
+	return lines;
+  }
+
+  static void writeLines(File file, List<String> lines, int n) throws Exception {
+	BufferedWriter out = new BufferedWriter(new FileWriter(file));
+	for (int k=0; k<n; k++) {
+	  out.write(lines.get(k));
+	  out.write("\n");
+	}
+	out.close();
+  }
+
+  static int keyOf(String strInstr) {
+	for (int k=0; k<InstrSpecs.idNames.length; k++)
+	  if (InstrSpecs.idNames[k].equalsIgnoreCase(strInstr))
+		return k;
+	return -1;
+  }
+
+}
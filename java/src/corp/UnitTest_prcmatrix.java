@@ -0,0 +1,152 @@
+package program;
+
+import java.util.Random;
+
+
+public class UnitTest_prcmatrix {
+
+  /* double[][] Instr.prc against the flat PrcMatrix: time per pass over 20 years of 1 min rows (1440 time cols + hi, lo, mod)
+   * for the access patterns the strategies and the importer have
+   *     col     one col of every day                    - prc[i][clsDyCol] in the daily strategies
+   *     col/arr the same stepping by cols on array()
+   *     row     every time col of every day             - scrub, exits searched minute by minute
+   *     rand    random (day, col)                       - exits of the trades, intraday references
+   *     write   every cell, row by row                  - import
+   * Both layouts hold the same prices, the sums have to be the same.
+   */
+  static final int N_DYS = 20*252;
+  static final int COLS = 1440+3;
+  static final int CLS_COL = 976-1;
+  static final int ROUNDS = 20;
+
+  public static void main (String[] args) {
+	double[][] prcOld = new double[N_DYS][COLS];
+	PrcMatrix prcNew = new PrcMatrix(N_DYS, COLS);
+	Random rnd = new Random(42);
+	for (int i=0; i<N_DYS; i++)
+	  for (int j=0; j<COLS; j++) {
+		double prc = 1000 + rnd.nextGaussian();
+		prcOld[i][j] = prc;
+		prcNew.set(i, j, prc);
+	  }
+	int[] randDy = new int[1 << 20];
+	int[] randCol = new int[randDy.length];
+	for (int k=0; k<randDy.length; k++) {
+	  randDy[k] = rnd.nextInt(N_DYS);
+	  randCol[k] = rnd.nextInt(COLS);
+	}
+
+	for (int pass=0; pass<2; pass++) {   //* first pass warms up the JIT, not printed
+	  double sumOld = 0, sumNew = 0;
+	  long t0 = System.nanoTime();
+	  for (int r=0; r<ROUNDS*100; r++) sumOld += colOld(prcOld, CLS_COL);
+	  long t1 = System.nanoTime();
+	  for (int r=0; r<ROUNDS*100; r++) sumNew += colNew(prcNew, CLS_COL);
+	  long t2 = System.nanoTime();
+	  print(pass, "col", sumOld, sumNew, t1-t0, t2-t1, ROUNDS*100);
+
+	  long nsColOld = t1-t0;
+	  sumNew = 0;
+	  t1 = System.nanoTime();
+	  for (int r=0; r<ROUNDS*100; r++) sumNew += colArray(prcNew, CLS_COL);
+	  t2 = System.nanoTime();
+	  print(pass, "col/arr", sumOld, sumNew, nsColOld, t2-t1, ROUNDS*100);
+
+	  sumOld = sumNew = 0;
+	  t0 = System.nanoTime();
+	  for (int r=0; r<ROUNDS; r++) sumOld += rowOld(prcOld);
+	  t1 = System.nanoTime();
+	  for (int r=0; r<ROUNDS; r++) sumNew += rowNew(prcNew);
+	  t2 = System.nanoTime();
+	  print(pass, "row", sumOld, sumNew, t1-t0, t2-t1, ROUNDS);
+
+	  sumOld = sumNew = 0;
+	  t0 = System.nanoTime();
+	  for (int r=0; r<ROUNDS; r++) sumOld += randOld(prcOld, randDy, randCol);
+	  t1 = System.nanoTime();
+	  for (int r=0; r<ROUNDS; r++) sumNew += randNew(prcNew, randDy, randCol);
+	  t2 = System.nanoTime();
+	  print(pass, "rand", sumOld, sumNew, t1-t0, t2-t1, ROUNDS);
+
+	  t0 = System.nanoTime();
+	  for (int r=0; r<ROUNDS; r++) writeOld(prcOld, r);
+	  t1 = System.nanoTime();
+	  for (int r=0; r<ROUNDS; r++) writeNew(prcNew, r);
+	  t2 = System.nanoTime();
+	  print(pass, "write", rowOld(prcOld), rowNew(prcNew), t1-t0, t2-t1, ROUNDS);
+	}
+  }
+
+  static void print(int pass, String pattern, double sumOld, double sumNew, long nsOld, long nsNew, int rounds) {
+	if (pass == 0)
+	  return;
+	System.out.printf("%-8s old %8.3f ms  new %8.3f ms  x%-6.2f %s%n", pattern,
+		nsOld/1e6/rounds, nsNew/1e6/rounds, (double)nsOld/nsNew, (sumOld == sumNew) ? "same" : "DIFF " + (sumNew-sumOld));
+  }
+
+
+  static double colOld(double[][] prc, int j) {
+	double sum = 0;
+	for (int i=0; i<prc.length; i++)
+	  sum += prc[i][j];
+	return sum;
+  }
+
+  static double colNew(PrcMatrix prc, int j) {
+	double sum = 0;
+	for (int i=0; i<prc.length; i++)
+	  sum += prc.get(i, j);
+	return sum;
+  }
+
+  static double colArray(PrcMatrix prc, int j) {
+	double[] data = prc.array();
+	double sum = 0;
+	for (int k=prc.offset(0)+j; k<prc.length*prc.cols; k+=prc.cols)
+	  sum += data[k];
+	return sum;
+  }
+
+  static double rowOld(double[][] prc) {
+	double sum = 0;
+	for (int i=0; i<prc.length; i++)
+	  for (int j=0; j<1440; j++)
+		sum += prc[i][j];
+	return sum;
+  }
+
+  static double rowNew(PrcMatrix prc) {
+	double sum = 0;
+	for (int i=0; i<prc.length; i++)
+	  for (int j=0; j<1440; j++)
+		sum += prc.get(i, j);
+	return sum;
+  }
+
+  static double randOld(double[][] prc, int[] dy, int[] col) {
+	double sum = 0;
+	for (int k=0; k<dy.length; k++)
+	  sum += prc[dy[k]][col[k]];
+	return sum;
+  }
+
+  static double randNew(PrcMatrix prc, int[] dy, int[] col) {
+	double sum = 0;
+	for (int k=0; k<dy.length; k++)
+	  sum += prc.get(dy[k], col[k]);
+	return sum;
+  }
+
+  static void writeOld(double[][] prc, int r) {
+	for (int i=0; i<prc.length; i++)
+	  for (int j=0; j<COLS; j++)
+		prc[i][j] = 1000 + ((i+j+r) & 7);
+  }
+
+  static void writeNew(PrcMatrix prc, int r) {
+	for (int i=0; i<prc.length; i++)
+	  for (int j=0; j<COLS; j++)
+		prc.set(i, j, 1000 + ((i+j+r) & 7));
+  }
+
+}
@@ -0,0 +1,220 @@
+package program;
+
+import java.util.Arrays;
+import java.util.Random;
+
+
+public class UnitTest_rolling {
+
+  /* Strat_Rolling, Strat_RankWindow and Strat_Extremum against the old per day loops: max relative diff and time per series
+   * on 20 years of synthetic closes, windows 10 .. 200 (median and 90th percentile against a sort per day)
+   * then sum, stdev and zscore of closes with flat stretches (halted, c-c1 = 0): the days the old loops had
+   * exactly 0 / NaN on have to be the same, "flat miss" counts the ones that are not
+   */
+  static final int N_DYS = 20*252;
+  static final int ROUNDS = 20;
+
+  public static void main (String[] args) {
+	double[] cls = new double[N_DYS];
+	Random rnd = new Random(42);
+	cls[0] = 1000;
+	for (int i=1; i<N_DYS; i++)
+	  cls[i] = cls[i-1] * Math.exp(0.012*rnd.nextGaussian());
+
+	for (int pass=0; pass<2; pass++)   //* first pass warms up the JIT, not printed
+	for (int w : new int[]{10, 50, 200}) {
+	  int beg = w+1;
+	  double[] fnOld = new double[N_DYS];
+	  double[] fnNew = new double[N_DYS];
+
+	  long t0 = System.nanoTime();
+	  for (int r=0; r<ROUNDS; r++) mvgOld(cls, w, beg, N_DYS, fnOld);
+	  long t1 = System.nanoTime();
+	  for (int r=0; r<ROUNDS; r++) Strat_Rolling.mean(cls, w, beg, N_DYS, fnNew);
+	  long t2 = System.nanoTime();
+	  print(pass, "mvg", w, fnOld, fnNew, beg, t1-t0, t2-t1);
+
+	  t0 = System.nanoTime();
+	  for (int r=0; r<ROUNDS; r++) stdevOld(cls, w, beg, N_DYS, fnOld);
+	  t1 = System.nanoTime();
+	  for (int r=0; r<ROUNDS; r++) Strat_Rolling.std(cls, w, beg, N_DYS, fnNew);
+	  t2 = System.nanoTime();
+	  print(pass, "stdev", w, fnOld, fnNew, beg, t1-t0, t2-t1);
+
+	  t0 = System.nanoTime();
+	  for (int r=0; r<ROUNDS; r++) volhistOld(cls, w, beg, N_DYS, fnOld);
+	  t1 = System.nanoTime();
+	  for (int r=0; r<ROUNDS; r++) Strat_Rolling.volhist(cls, w, beg, N_DYS, fnNew);
+	  t2 = System.nanoTime();
+	  print(pass, "volhist", w, fnOld, fnNew, beg, t1-t0, t2-t1);
+
+	  t0 = System.nanoTime();
+	  for (int r=0; r<ROUNDS; r++) rankOld(cls, w, beg, N_DYS, fnOld);
+	  t1 = System.nanoTime();
+	  for (int r=0; r<ROUNDS; r++) Strat_RankWindow.rank(cls, w, beg, N_DYS, fnNew);
+	  t2 = System.nanoTime();
+	  print(pass, "rank", w, fnOld, fnNew, beg, t1-t0, t2-t1);
+
+	  t0 = System.nanoTime();
+	  for (int r=0; r<ROUNDS; r++) maxOld(cls, w, beg, N_DYS, fnOld);
+	  t1 = System.nanoTime();
+	  for (int r=0; r<ROUNDS; r++) Strat_Extremum.max(cls, w, beg, N_DYS, -Double.MAX_VALUE, fnNew);
+	  t2 = System.nanoTime();
+	  print(pass, "max", w, fnOld, fnNew, beg, t1-t0, t2-t1);
+
+	  for (double p : new double[]{0.5, 0.9}) {
+		t0 = System.nanoTime();
+		for (int r=0; r<ROUNDS; r++) percentileOld(cls, w, p, beg, N_DYS, fnOld);
+		t1 = System.nanoTime();
+		for (int r=0; r<ROUNDS; r++) Strat_Median.percentile(cls, w, p*100, beg, N_DYS, fnNew);
+		t2 = System.nanoTime();
+		print(pass, (p == 0.5) ? "median" : "pct90", w, fnOld, fnNew, beg, t1-t0, t2-t1);
+	  }
+	}
+
+	double[] clsFlat = cls.clone();
+	for (int i=1000; i+300<N_DYS; i+=1000)
+	  for (int n=i; n<i+300; n++)   //* 300 days halted, longer than every window
+		clsFlat[n] = clsFlat[i-1];
+	double[] chgFlat = new double[N_DYS];
+	for (int i=1; i<N_DYS; i++)
+	  chgFlat[i] = clsFlat[i] - clsFlat[i-1];
+	for (int w : new int[]{10, 50, 200}) {
+	  int beg = w+1;
+	  double[] fnOld = new double[N_DYS];
+	  double[] fnNew = new double[N_DYS];
+	  sumOld(chgFlat, w, beg, N_DYS, fnOld);
+	  Strat_Rolling.sum(chgFlat, w, beg, N_DYS, fnNew);
+	  printFlat("sum", w, fnOld, fnNew, beg);
+	  stdevOld(clsFlat, w, beg, N_DYS, fnOld);
+	  Strat_Rolling.std(clsFlat, w, beg, N_DYS, fnNew);
+	  printFlat("stdev", w, fnOld, fnNew, beg);
+	  zscoreOld(chgFlat, w, beg, N_DYS, fnOld);
+	  Strat_Rolling.zscore(chgFlat, w, beg, N_DYS, fnNew);
+	  printFlat("zscore", w, fnOld, fnNew, beg);
+	}
+  }
+
+  static void print(int pass, String fn, int w, double[] fnOld, double[] fnNew, int beg, long nsOld, long nsNew) {
+	if (pass == 0)
+	  return;
+	double maxRel = 0;
+	for (int i=beg; i<fnOld.length; i++)
+	  maxRel = Math.max(maxRel, Math.abs(fnNew[i]-fnOld[i]) / Math.max(1e-12, Math.abs(fnOld[i])));
+	System.out.printf("%-8s w=%-4d old %8.2f ms  new %8.2f ms  x%-6.1f max rel diff %.2e%n", fn, w,
+		nsOld/1e6/ROUNDS, nsNew/1e6/ROUNDS, (double)nsOld/nsNew, maxRel);
+  }
+
+
+  static void printFlat(String fn, int w, double[] fnOld, double[] fnNew, int beg) {
+	double maxRel = 0;
+	int flat = 0;
+	int miss = 0;
+	for (int i=beg; i<fnOld.length; i++) {
+	  if (fnOld[i] == 0 || Double.isNaN(fnOld[i])) {
+		flat++;
+		if (Double.compare(fnOld[i], fnNew[i]) != 0 && !(fnOld[i] == 0 && fnNew[i] == 0))
+		  miss++;
+	  } else {
+		maxRel = Math.max(maxRel, Math.abs(fnNew[i]-fnOld[i]) / Math.abs(fnOld[i]));
+	  }
+	}
+	System.out.printf("%-8s w=%-4d flat days %5d  flat miss %d  max rel diff %.2e%n", fn, w, flat, miss, maxRel);
+  }
+
+
+  //* the loops Strat_Mvg, Strat_Sum, Strat_Stdev, Strat_Zscore, Strat_VolHist, Strat_Rank, Strat_MaxMin ran before
+  static void mvgOld(double[] arg, int w, int beg, int end, double[] fn) {
+	for (int i=beg; i<end; i++) {
+	  double fdMvg_i=0;
+	  for (int n=0; n<w; n++)
+		fdMvg_i += arg[i-n];
+	  fn[i] = fdMvg_i / w;
+	}
+  }
+
+  static void stdevOld(double[] arg, int w, int beg, int end, double[] fn) {
+	for (int i=beg; i<end; i++) {
+	  double mu_i=0.0;
+	  double fdStd_i=0.0;
+	  for (int k=0; k<w; k++)
+		mu_i += arg[i-k];
+	  mu_i /= w;
+	  for (int k=0; k<w; k++)
+		fdStd_i += Math.pow(arg[i-k] - mu_i, 2);
+	  fn[i] = Math.sqrt(fdStd_i / (w-1));
+	}
+  }
+
+  static void sumOld(double[] arg, int w, int beg, int end, double[] fn) {
+	for (int i=beg; i<end; i++) {
+	  double fdSum_i=0;
+	  for (int n=0; n<w; n++)
+		fdSum_i += arg[i-n];
+	  fn[i] = fdSum_i;
+	}
+  }
+
+  static void zscoreOld(double[] arg, int w, int beg, int end, double[] fn) {
+	for (int i=beg; i<end; i++) {
+	  double mu_i=0.0;
+	  double fdStd_i=0.0;
+	  for (int k=0; k<w; k++)
+		mu_i += arg[i-k];
+	  mu_i /= w;
+	  for (int k=0; k<w; k++)
+		fdStd_i += Math.pow(arg[i-k] - mu_i, 2);
+	  fdStd_i = Math.sqrt(fdStd_i / (w-1));
+	  fn[i] = (arg[i] - mu_i) / fdStd_i;
+	}
+  }
+
+  static void volhistOld(double[] arg, int w, int beg, int end, double[] fn) {
+	for (int i=beg; i<end; i++) {
+	  double mu_i=0;
+	  for (int n=0; n<w; n++)
+		mu_i += Math.log(arg[i-n]/arg[i-n-1]);
+	  mu_i /= w;
+	  double fdVar_i=0;
+	  for (int n=0; n<w; n++)
+		fdVar_i += Math.pow(Math.log(arg[i-n]/arg[i-n-1])-mu_i, 2);
+	  fn[i] = Math.sqrt((1.0/((double)w-1.0))*fdVar_i) * Math.sqrt(252)*100.0;
+	}
+  }
+
+  static void rankOld(double[] arg, int w, int beg, int end, double[] fn) {
+	for (int i=beg; i<end; i++) {
+	  double[] fdCalcdExpr_n = new double[w];
+	  for (int n=0; n<w; n++)
+		fdCalcdExpr_n[n] = arg[i-n];
+	  double fdCalcdExpr_0 = fdCalcdExpr_n[0];
+	  Arrays.sort(fdCalcdExpr_n);
+	  int iRank = 0;
+	  for (int r=0; r<w && iRank==0; r++)
+		if (fdCalcdExpr_0 == fdCalcdExpr_n[r])
+		  iRank = r+1;
+	  fn[i] = iRank;
+	}
+  }
+
+  //* sort per day, linear between closest ranks - what Strat_RankWindow.percentile() has to give
+  static void percentileOld(double[] arg, int w, double p, int beg, int end, double[] fn) {
+	for (int i=beg; i<end; i++) {
+	  double[] fdWin = Arrays.copyOfRange(arg, i-w+1, i+1);
+	  Arrays.sort(fdWin);
+	  double h = p * (w-1);
+	  int lo = (int)Math.floor(h);
+	  fn[i] = (lo+1 < w) ? fdWin[lo] + (h-lo) * (fdWin[lo+1] - fdWin[lo]) : fdWin[lo];
+	}
+  }
+
+  static void maxOld(double[] arg, int w, int beg, int end, double[] fn) {
+	for (int i=beg; i<end; i++) {
+	  double fdMax = -Double.MAX_VALUE;
+	  for (int m=0; m<w; m++)
+		if (arg[i-m] > fdMax) fdMax = arg[i-m];
+	  fn[i] = fdMax;
+	}
+  }
+
+}
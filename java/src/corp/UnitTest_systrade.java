@@ -0,0 +1,112 @@
+package program;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+
+public class UnitTest_systrade {
+
+  /* Mod_SysTrade.calc_trades_exit with Strat_EventIndex on and off and parallelism 1 and 8: plTrades and the trade
+   * lists have to be the same as the minute loop run sequentially (index off, parallelism 1) - "diff" is the number
+   * of trades that differ in any field, long and short, p and z stops/targets, one and several open contracts
+   * entries are calculated once per case, every run is a copyCmds() of it on the same trds_entry
+   */
+  static final String[][] CASES = {   //* stop, target, max open contracts
+	{"5", "10", "1"}, {"3", "6", "4"}, {"1.5z", "2.0z", "1"}, {"1.0z", "1.5z", "4"}, {"4", "1.5z", "2"}
+  };
+  static final boolean[] INDEX = {false, true};
+  static final int[] PARALLELISM = {1, 8};
+
+  public static void main (String[] args) {
+	Session session;
+	try {
+	  InstrSpecs.initialize();
+	  new ImportDataConvert().go(keyOf("es"));
+	  int len = Instr.getInstance(keyOf("es")).prc.length;
+	  session = new Session("es", "", "", "0", String.valueOf(len-1), "0930", "ENTRY:\nc > c1\nEXIT:\nexit(0, 1600)\n", "", "admin");
+	} catch (Exception e) {
+	  System.out.println("?: " + e.getMessage());
+	  return;
+	}
+
+	int tot = 0, bad = 0;
+	for (String[] cmd : CASES)
+	for (boolean blBuy : new boolean[]{true, false}) {
+	  try {
+		Mod_SysTrade base = newSysTrade(session, cmd, blBuy);
+		base.trades = new ArrayList<Double[]>();
+		base.calc_trades_entry_exit();
+
+		Mod_SysTrade ref = null;
+		for (boolean blIndex : INDEX)
+		for (int par : PARALLELISM) {
+		  Mod_SysTrade run = base.copyCmds();
+		  run.blEventIndex = blIndex;
+		  run.parallelism = par;
+		  long t0 = System.nanoTime();
+		  run.calc_trades_exit();
+		  long t1 = System.nanoTime();
+		  run.calcStats();
+		  if (ref == null)
+			ref = run;
+
+		  int diff = Math.abs(run.trades.size() - ref.trades.size());
+		  for (int t=0; t<Math.min(run.trades.size(), ref.trades.size()); t++)
+			if (!Arrays.equals(run.trades.get(t), ref.trades.get(t)) || Double.compare(run.plTrades[t], ref.plTrades[t]) != 0)
+			  diff++;
+		  tot++;
+		  if (diff > 0)
+			bad++;
+		  System.out.printf("  stop %-5s target %-5s open %s %-5s index %-5s parallelism %d: %5d trades, pl %10.2f, %6d ms, diff %d%n",
+				  cmd[0], cmd[1], cmd[2], blBuy ? "long" : "short", blIndex ? "on" : "off", par,
+				  run.trades.size(), sum(run.plTrades), (t1-t0)/1000000, diff);
+		}
+	  } catch (Exception e) {
+		System.out.println("?: " + e.getMessage());
+	  }
+	}
+	System.out.println(tot + " runs, " + bad + " differ from index off / parallelism 1");
+  }
+
+  static Mod_SysTrade newSysTrade(Session session, String[] cmd, boolean blBuy) throws Exception {
+	Mod_SysTrade sysTrade = new Mod_SysTrade(session);
+	sysTrade.init();
+	sysTrade.setBuy(blBuy);
+	sysTrade.cmd_maxopencontract = Integer.parseInt(cmd[2]);
+	if (cmd[0].endsWith("z")) {
+	  sysTrade.cmd_bl_exit_stoploss_z = true;
+	  sysTrade.cmd_fd_exit_stoploss_z = Double.parseDouble(cmd[0].substring(0, cmd[0].length()-1));
+	} else {
+	  sysTrade.cmd_bl_exit_stoploss_p = true;
+	  sysTrade.cmd_fd_exit_stoploss_p = Double.parseDouble(cmd[0]);
+	}
+	if (cmd[1].endsWith("z")) {
+	  sysTrade.cmd_bl_exit_profittarget_z = true;
+	  sysTrade.cmd_fd_exit_profittarget_z = Double.parseDouble(cmd[1].substring(0, cmd[1].length()-1));
+	} else {
+	  sysTrade.cmd_bl_exit_profittarget_p = true;
+	  sysTrade.cmd_fd_exit_profittarget_p = Double.parseDouble(cmd[1]);
+	}
+	//* and out 2 days later at the close if neither is hit
+	sysTrade.cmd_bl_exit_timetarget_rel = true;
+	sysTrade.cmd_exit_timetarget_dyfwd = 2;
+	sysTrade.cmd_exit_timetarget_timecol = session.InstrDep.clsDyCol;
+	sysTrade.cmd_str_exit_timetarget = session.InstrDep.prcTime[session.InstrDep.clsDyCol];
+	return sysTrade;
+  }
+
+  static double sum(double[] fn) {
+	double tot = 0;
+	for (double x : fn)
+	  tot += x;
+	return tot;
+  }
+
+  static int keyOf(String strInstr) {
+	for (int k=0; k<InstrSpecs.idNames.length; k++)
+	  if (InstrSpecs.idNames[k].equalsIgnoreCase(strInstr))
+		return k;
+	return -1;
+  }
+
+}
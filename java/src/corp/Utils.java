@@ -28,6 +28,31 @@ public class Utils {
 	}
   }
   
+  /* Days since 1970/01/01 of y/m/d (m 1..12) and back - proleptic Gregorian, no Calendar
+   * after H. Hinnant, "chrono-Compatible Low-Level Date Algorithms"
+   */
+  public static int epochDy(int y, int m, int d) {
+	y -= (m <= 2) ? 1 : 0;
+	int era = (y >= 0 ? y : y-399) / 400;
+	int yoe = y - era*400;
+	int doy = (153*(m + (m > 2 ? -3 : 9)) + 2)/5 + d-1;
+	int doe = yoe*365 + yoe/4 - yoe/100 + doy;
+	return era*146097 + doe - 719468;
+  }
+
+  //* {y, m, d} of epochDy
+  public static int[] civilOfEpochDy(int epochDy) {
+	int z = epochDy + 719468;
+	int era = (z >= 0 ? z : z-146096) / 146097;
+	int doe = z - era*146097;
+	int yoe = (doe - doe/1460 + doe/36524 - doe/146096) / 365;
+	int doy = doe - (365*yoe + yoe/4 - yoe/100);
+	int mp = (5*doy + 2)/153;
+	int d = doy - (153*mp + 2)/5 + 1;
+	int m = mp + (mp < 10 ? 3 : -9);
+	return new int[]{yoe + era*400 + (m <= 2 ? 1 : 0), m, d};
+  }
+  
   public static int strTimeToCol(String strTime, Instr InstrX) {  
 	int timeCol;    
 	
@@ -56,6 +81,11 @@ public class Utils {
   
   
   public boolean checkIfAllImported(String cmdStr) {
+	return checkIfAllImported(cmdStr, null);
+  }
+  
+  //* instrs: a session's snapshots, null for the current versions
+  public boolean checkIfAllImported(String cmdStr, Instr[] instrs) {
     //* Go thru every command line and see if instr is imported 
     //* BUT always import every instr if checked Always Import	    
     //for (int k=0; k<cmdStr.length; k++) {
@@ -64,7 +94,7 @@ public class Utils {
     	  String strInstr = InstrSpecs.idNames[r] + ".";	
   		  strInstr = strInstr.toLowerCase();
   		  if (cmdStr.indexOf(strInstr) >= 0) {
-  		      Instr InstrX = Instr.getInstance(r);	
+  		      Instr InstrX = (instrs == null) ? Instr.getInstance(r) : instrs[r];	
   		      if (!InstrX.blImported) {
   		          return false;	
   		      }
@@ -13,6 +13,8 @@ public class View {
   protected String obs_csv="";
   protected String msg="";
   
+  static final String[] WEEKDAY = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+  
   protected Session session;
   protected Instr InstrDep;
 
@@ -45,6 +47,8 @@ public class View {
 	 } else {
 	     strView_statistics += getStatsReport(stats);
 	 }    
+	 if (stats.bootResamples > 0)
+	     strView_statistics += getBootstrapReport(stats);
 	 return strView_statistics;
   }
   
@@ -60,16 +64,17 @@ public class View {
 	String prec = "%" + (InstrDep.precPrcLblShow + 1) + "s";
 	strb.append(String.format(prec, "PLAST"));  
 	
-	obs_csv += "BEGINOBS-HEADER:\n";
-	obs_csv += "Y,M,D,W,PLAST";
+	StringBuilder csv = new StringBuilder(obs_csv);
+	csv.append("BEGINOBS-HEADER:\n");
+	csv.append("Y,M,D,W,PLAST");
 	
 	//* header - times
 	prec = "%" + InstrDep.precPrcLblShow + "s";    
 	for (int g=5; g<stats.obs_Hdr.length; g++) {  
 	  strb.append(String.format(prec, stats.obs_Hdr[g]));
-	  obs_csv += "," + stats.obs_Hdr[g];
+	  csv.append(",").append(stats.obs_Hdr[g]);
 	}  
-	obs_csv += "\n";
+	csv.append("\n");
 	
 	//* "--- ... divider"
 	String div = "\n";
@@ -78,44 +83,45 @@ public class View {
 	strb.append(div + "\n");
 	
 	//* Now the obs
-	int begObsView = stats.obsDelta.length - session.viewNumObs;  // 85 - 10 = 75
+	int begObsView = stats.nObs - session.viewNumObs;  // 85 - 10 = 75
 	if(session.viewNumObs == 0 || begObsView <= 0)
 	  begObsView = 0;	
-    for (int t=begObsView; t<stats.obsDelta.length; t++) {
+	String precPlast = "%" + (InstrDep.precPrcShow + 1) + "f";
+	String precDelta = "%" + InstrDep.precPrcShow + "f";
+    for (int t=begObsView; t<stats.nObs; t++) {
 
       //* Y M D W  
-      strb.append(String.format("%4s",stats.obsDt[t][0]));
-      strb.append(String.format("%3s",stats.obsDt[t][1]));
-      strb.append(String.format("%3s",stats.obsDt[t][2]));
-      strb.append(String.format("%4s",stats.obsDt[t][3]));
+      int[] ymd = Utils.civilOfEpochDy(stats.obsEpochDy[t]);
+      strb.append(String.format("%4d %02d %02d%4s", ymd[0], ymd[1], ymd[2], WEEKDAY[stats.obsWeekday[t]]));
 	  
 	  //* Show PLAST entry prc, then price changes from PLAST thruout day(s)
-	  prec = "%" + (InstrDep.precPrcShow + 1) + "f";
-	  strb.append(String.format(prec,stats.obsDelta[t][0])); 	  
+	  strb.append(String.format(precPlast,stats.obsPrcEntry[t])); 	  
 
 	  //* Now the deltas from PLAST
-	  prec = "%" + InstrDep.precPrcShow + "f";
-	  for(int j=1; j<stats.obsDelta[t].length; j++)
-	    strb.append(String.format(prec,stats.obsDelta[t][j]));
+	  for(int f=0; f<stats.nFwd; f++)
+	    strb.append(String.format(precDelta,stats.obsDelta[t*stats.nFwd+f]));
 	  strb.append("\n");	  
     }   // * for loop
     strb.append("\n\n"); 
     
     //* Text file
     //if (session.USERTYPE == 0) {
-      for (int t=0; t<stats.obsDelta.length; t++) {
+      for (int t=0; t<stats.nObs; t++) {
         //* Y M D W	
-        obs_csv += stats.obsDt[t][0] + "," + stats.obsDt[t][1] + "," + stats.obsDt[t][2] + "," + stats.obsDt[t][3];
+        int[] ymd = Utils.civilOfEpochDy(stats.obsEpochDy[t]);
+        csv.append(ymd[0]).append(ymd[1] < 10 ? ",0" : ",").append(ymd[1]).append(ymd[2] < 10 ? ",0" : ",").append(ymd[2]);
+        csv.append(",").append(WEEKDAY[stats.obsWeekday[t]]);
       
   	    //* PLAST: entry prc
-        obs_csv += "," + stats.obsDelta[t][0]; 	  
+        csv.append(",").append(stats.obsPrcEntry[t]); 	  
 
   	    //* Now the deltas from PLAST
-  	    for(int j=1; j<stats.obsDelta[t].length; j++)
-  		  obs_csv += "," + stats.obsDelta[t][j];
-  	    obs_csv += "\n";	  
+  	    for(int f=0; f<stats.nFwd; f++)
+  		  csv.append(",").append(stats.obsDelta[t*stats.nFwd+f]);
+  	    csv.append("\n");	  
       }   // * for loop
     
+      obs_csv = csv.toString();
       Utils_IO.outputData(session, obs_csv);
     //}
     
@@ -186,6 +192,59 @@ public class View {
   }        
   
   
+  /* Block bootstrap, see Statistics_Bootstrap
+   * D   HOUR     N      MU   LO 95   HI 95       P    PDRF
+   * 1  09:30  1819   -0.19   -0.61    0.22    0.38    0.41
+   */
+  private String getBootstrapReport(Statistics_Data stats) {
+	StringBuilder strb = new StringBuilder();
+	
+	strb.append("Block bootstrap - " + stats.bootResamples + " resamples of " + stats.bootDys
+	    + " entry days in blocks of " + stats.bootBlockDys + "\n");
+	String prec = "%" + InstrDep.precStatsLblShow + "s";
+	strb.append(String.format("%3s", "D"));
+	strb.append(String.format("%7s", "HOUR"));
+	strb.append(String.format("%6s", "N"));
+	strb.append(String.format(prec, "MU"));
+	strb.append(String.format(prec, "LO 95"));
+	strb.append(String.format(prec, "HI 95"));
+	strb.append(String.format(prec, "P"));
+	strb.append(String.format(prec, "PDRF"));
+	
+	String div = "\n";
+	for(int z=0; z<(5*InstrDep.precStatsLblShow)+3+7+6; z++) 
+	  div += "-";	
+	strb.append(div + "\n");
+	
+	for (int f=0; f<session.fwdDyTimeCol.length; f++) {
+	  int fwdDy = session.fwdDyTimeCol[f][0];  	
+	  int fwdTimeCol = session.fwdDyTimeCol[f][1];
+	  
+	  if (fwdTimeCol < session.viewHideBegTimeCol &&
+		  fwdTimeCol > session.viewHideEndTimeCol) {  
+		  prec = "%" + InstrDep.precStatsShow + "f";
+		  strb.append(String.format("%3d",fwdDy));
+		  strb.append(String.format("%7s",InstrDep.prcTime[fwdTimeCol]));
+		  strb.append(String.format("%6d",stats.bootN[f]));
+		  strb.append(String.format(prec,stats.statsMu[f]));
+		  strb.append(String.format(prec,stats.bootLo[f]));
+		  strb.append(String.format(prec,stats.bootHi[f]));
+		  prec = "%" + InstrDep.precStatsLblShow + ".3f";
+		  strb.append(String.format(prec,stats.bootP[f]));
+		  strb.append(String.format(prec,stats.bootPdrf[f]));
+		  if (f+1<session.fwdDyTimeCol.length && session.fwdDyTimeCol[f][0] != session.fwdDyTimeCol[f+1][0]) { 
+		      strb.append(div+"\n");
+		  } else {  
+			  strb.append("\n");
+		  }      
+	  }
+	}
+	
+	strb.append("\n\n");
+	return strb.toString();
+  }
+  
+  
   private String getStatsReport_admin(Statistics_Data stats) {
 	StringBuilder strb = new StringBuilder();
 	
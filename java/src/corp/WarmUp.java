@@ -0,0 +1,62 @@
+package program;
+
+
+class WarmUp {
+
+  /* Look-back ("warm up") of one evaluation, e.g. all the dy feature lines of a Process_Dy run
+   *
+   * Each Strat_ node works out its own dysBk once per calc() - its nested arg's dysBk + its own
+   * window - and reports it here, instead of adding onto InstrX.maxDysBk. calcdExprFn is then valid
+   * from InstrX.maxDysBk + dysBk on. Nothing on the instr is touched while calculating, so lines
+   * no longer pile their windows onto each other.
+   *
+   *   mvg(sum(c-c1, 5), 10)  =>  sum: 0 + 5, mvg: 5 + 10  => 15
+   *
+   * beginScope() / endScope() wrap the calc of a nested arg, endScope() returns the max dysBk
+   * reported inside it, i.e. the arg's look-back. getMaxDysBk() is the max over the whole session -
+   * the entry and exit windows and Mod_SysTrade's z stats - Session.getBegDyIdx() adds it to the base.
+   */
+  private int scopeDysBk;
+  private int maxDysBk;
+
+
+  void report(int dysBk) {
+	if (dysBk > scopeDysBk)
+	  scopeDysBk = dysBk;
+	if (dysBk > maxDysBk)
+	  maxDysBk = dysBk;
+  }
+
+  int beginScope() {
+	int outerDysBk = scopeDysBk;
+	scopeDysBk = 0;
+	return outerDysBk;
+  }
+
+  int endScope(int outerDysBk) {
+	int innerDysBk = scopeDysBk;
+	scopeDysBk = outerDysBk;
+	return innerDysBk;
+  }
+
+  /* Strat_Expression (tokens like c5, p1@1100) still reports through InstrX.maxDysBk - take
+   * whatever it added as its dysBk and put InstrX.maxDysBk back. Returns the expression's dysBk.
+   */
+  int parseAndCalc(Strat_Abstract stratExpr) throws Exception {
+	Instr InstrX = stratExpr.InstrX;
+	int outerDysBk = beginScope();
+	int begIndex = InstrX.maxDysBk;
+	try {
+	  stratExpr.parseAndCalc();
+	  report(InstrX.maxDysBk - begIndex);
+	} finally {
+	  InstrX.maxDysBk = begIndex;
+	}
+	return endScope(outerDysBk);
+  }
+
+  int getMaxDysBk() {
+	return maxDysBk;
+  }
+
+}
@@ -50,8 +50,13 @@ public class PsRandom{
                                  // = 2 Method -    Park and Miller random number generator with Bays-Durham shuffle
                                  //                 after 	ran1 	(Numerical Recipes in C - W.H. Press et al. (Cambridge)
     		                     //                 2nd edition 1992 p280.
+                                 // = 3 Method -    SplitMix64 (Steele, Lea & Flood, OOPSLA 2014), splittable
+                                 //                 rr is then a SplitMix and every Knuth (rr) path draws from it
+                                 //                 substream(i) jumps ahead in O(1), split() seeds a new stream,
+                                 //                 so threads each get their own stream from one seed
+                                 //                 See splittable(seed)
 
-    private Random rr = null;    // instance of java.util.Random if Knuth method (default method) used
+    private Random rr = null;    // instance of java.util.Random if Knuth method (default method) used, SplitMix if method 3
 
     private int methodOptionBinary = 1;     // Method for calculating pseudorandom binary numbers
                                 // = 1 Method -     Primitive polynomials modulo 2 method - version 1
@@ -103,12 +108,21 @@ public class PsRandom{
         this.rr = new Random(this.seed);
     }
 
+    // Splittable stream (method 3) seeded by the user
+    // An instance is not for concurrent use - hand each thread its own substream(i) or split()
+    public static PsRandom splittable(long seed){
+        PsRandom ran = new PsRandom(seed);
+        ran.setMethodDecimal(3);
+        return ran;
+    }
+
     // METHODS
 
     // Resets the value of the seed
     public void setSeed(long seed){
         this.seed = seed;
         if(this.methodOptionDecimal==1)rr = new Random(this.seed);
+        if(this.methodOptionDecimal==3)rr = new SplitMix(this.seed);
     }
 
     // Returns the initial value of the seed
@@ -122,12 +136,35 @@ public class PsRandom{
     }
 
     // Resets the method of calculation of a pseudorandom decimal number
-    // argument = 1 -> Knuth; argument = 2 -> Parker-Miller
+    // argument = 1 -> Knuth; argument = 2 -> Parker-Miller; argument = 3 -> SplitMix64
     // Default option = 1
     public void setMethodDecimal(int methodOpt){
-        if(methodOpt<1 || methodOpt>2)throw new IllegalArgumentException("Argument to PsRandom.setMethodDecimal must 1 or 2\nValue transferred was"+methodOpt);
+        if(methodOpt<1 || methodOpt>3)throw new IllegalArgumentException("Argument to PsRandom.setMethodDecimal must 1, 2 or 3\nValue transferred was"+methodOpt);
         this.methodOptionDecimal = methodOpt;
         if(methodOpt==1)rr = new Random(this.seed);
+        if(methodOpt==3)rr = new SplitMix(this.seed);
+    }
+
+    // Returns substream index of this splittable stream (method 3), counted from where this stream is now
+    // Substreams are consecutive runs of SplitMix.STREAM_LENGTH draws of one sequence, disjoint for index < 2^24,
+    // and the same for the same index whichever thread asks and in which order - this stream is not advanced
+    public PsRandom substream(long index){
+        if(this.methodOptionDecimal!=3)throw new IllegalArgumentException("PsRandom.substream needs method 3 (splittable)\nMethod is "+this.methodOptionDecimal);
+        if(index<0L)throw new IllegalArgumentException("Argument to PsRandom.substream must not be negative\nValue transferred was"+index);
+        return this.newStream(((SplitMix)this.rr).state + index*SplitMix.STREAM_LENGTH*SplitMix.GOLDEN_GAMMA);
+    }
+
+    // Returns a new splittable stream seeded from the next draw of this one (method 3)
+    public synchronized PsRandom split(){
+        if(this.methodOptionDecimal!=3)throw new IllegalArgumentException("PsRandom.split needs method 3 (splittable)\nMethod is "+this.methodOptionDecimal);
+        return this.newStream(this.rr.nextLong());
+    }
+
+    private PsRandom newStream(long state){
+        PsRandom ran = new PsRandom(state);
+        ran.methodOptionDecimal = 3;
+        ran.rr = new SplitMix(state);
+        return ran;
     }
 
     // Return the binary pseudorandom number method option; 1 = Method 1, 2= Method 2
@@ -141,7 +178,7 @@ public class PsRandom{
     public void setMethodBinary(int methodOpt){
         if(methodOpt<1 || methodOpt>2)throw new IllegalArgumentException("Argument to PsRandom.setMethodBinary must 1 or 2\nValue transferred was"+methodOpt);
         this.methodOptionBinary = methodOpt;
-        if(methodOpt==1)rr = new Random(this.seed);
+        if(methodOpt==1 && this.methodOptionDecimal!=3)rr = new Random(this.seed);
     }
 
     // Return the binary pseudorandom number method option; 1 = Method 1, 2= Method 2
@@ -151,7 +188,7 @@ public class PsRandom{
 
     // Returns a pseudorandom double between 0.0 and 1.0
     public double nextDouble(){
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             return this.rr.nextDouble();
         }
         else{
@@ -162,7 +199,7 @@ public class PsRandom{
     // Returns an array, of length arrayLength, of pseudorandom doubles between 0.0 and 1.0
     public double[] doubleArray(int arrayLength){
         double[] array = new double[arrayLength];
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             for(int i=0; i<arrayLength; i++){
                 array[i] = this.rr.nextDouble();
             }
@@ -175,6 +212,63 @@ public class PsRandom{
         return array;
     }
 
+    // Fills arr with pseudorandom doubles between 0.0 and 1.0
+    // The fills draw straight into arr - no array allocated and, for method 3, no dispatch per number
+    public void fill(double[] arr){
+        if(this.methodOptionDecimal==3){
+            SplitMix sm = (SplitMix)this.rr;
+            for(int i=0; i<arr.length; i++){
+                arr[i] = sm.nextDouble();
+            }
+        }
+        else{
+            for(int i=0; i<arr.length; i++){
+                arr[i] = this.nextDouble();
+            }
+        }
+    }
+
+    // Fills arr with Gaussian (normal) random deviates
+    // mean  =  the mean, sd = standard deviation
+    // Method 3 - Marsaglia polar method, both deviates of a pair used
+    public void fillGaussian(double[] arr, double mean, double sd){
+        if(this.methodOptionDecimal==3){
+            SplitMix sm = (SplitMix)this.rr;
+            double fac = 0.0D, rsq = 0.0D, v1 = 0.0D, v2 = 0.0D;
+            for(int i=0; i<arr.length; i+=2){
+                do {
+                    v1=2.0D*sm.nextDouble()-1.0D;
+                    v2=2.0D*sm.nextDouble()-1.0D;
+                    rsq=v1*v1+v2*v2;
+                }while (rsq >= 1.0D || rsq == 0.0D);
+                fac=Math.sqrt(-2.0D*Math.log(rsq)/rsq);
+                arr[i] = v1*fac*sd+mean;
+                if(i+1<arr.length)arr[i+1] = v2*fac*sd+mean;
+            }
+        }
+        else{
+            for(int i=0; i<arr.length; i++){
+                arr[i] = this.nextGaussian(mean, sd);
+            }
+        }
+    }
+
+    // Fills arr with Student's t random deviates
+    // nu  =  the degrees of freedom
+    // Bailey's polar method (Math. Comp. 62, 1994) - exact for any nu, without the root search per deviate of nextStudentT
+    public void fillStudentT(double[] arr, int nu){
+        if(nu<1)throw new IllegalArgumentException("The degrees of freedom, " + nu + ", must be greater than 0");
+        double u = 0.0D, v = 0.0D, w = 0.0D;
+        for(int i=0; i<arr.length; i++){
+            do {
+                u=2.0D*this.nextDouble()-1.0D;
+                v=2.0D*this.nextDouble()-1.0D;
+                w=u*u+v*v;
+            }while (w >= 1.0D || w == 0.0D);
+            arr[i] = u*Math.sqrt(nu*(Math.pow(w, -2.0D/nu)-1.0D)/w);
+        }
+    }
+
     //  Park and Miller random number generator with Bays-Durham shuffle
     //  after 	ran1 	Numerical Recipes in C - W.H. Press et al. (Cambridge)
     //		            2nd edition 1992 p280.
@@ -265,7 +359,7 @@ public class PsRandom{
     // mean  =  the mean, sd = standard deviation
     public double nextGaussian(double mean, double sd){
         double ran = 0.0D;
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             ran=this.rr.nextGaussian();
         }
         else{
@@ -280,7 +374,7 @@ public class PsRandom{
     // mean  =  the mean, sd = standard deviation, n = length of array
     public double[] gaussianArray(double mean, double sd, int n){
         double[] ran = new double[n];
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             for(int i=0; i<n; i++){
                 ran[i]=this.rr.nextGaussian();
                 ran[i] = ran[i]*sd+mean;
@@ -303,7 +397,7 @@ public class PsRandom{
         double[][] ran = new double[2][n];
         double ranh = 0.0D;
         double rhot = Math.sqrt(1.0D - rho*rho);
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             for(int i=0; i<n; i++){
                 ranh = this.rr.nextGaussian();
                 ran[0][i] = ranh*sd1 + mean1;
@@ -643,7 +737,7 @@ public class PsRandom{
     // mu  =  the mean, gamma = half-height width, n = length of array
     public double[] lorentzianArray (double mu, double gamma, int n){
         double[] ran = new double[n];
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             for(int i=0; i<n; i++){
                 ran[i]=Math.tan((this.rr.nextDouble()-0.5)*Math.PI);
                 ran[i] = ran[i]*gamma/2.0D+mu;
@@ -917,7 +1011,7 @@ public class PsRandom{
     // Returns a Pareto pseudorandom deviate
     public double nextPareto(double alpha, double beta){
         double ran = 0.0D;
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             ran = Math.pow(1.0D-this.rr.nextDouble(), -1.0D/alpha)*beta;
         }
         else{
@@ -929,7 +1023,7 @@ public class PsRandom{
     // Returns an array, of Pareto pseudorandom deviates, of length n
     public double[] paretoArray (double alpha, double beta, int n){
         double[] ran = new double[n];
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             for(int i=0; i<n; i++){
                 ran[i] = Math.pow(1.0D-this.rr.nextDouble(), -1.0D/alpha)*beta;
             }
@@ -945,7 +1039,7 @@ public class PsRandom{
     // Returns an exponential pseudorandom deviate
     public double nextExponential(double mu, double sigma){
         double ran = 0.0D;
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             ran = mu - Math.log(1.0D-this.rr.nextDouble())*sigma;
         }
         else{
@@ -957,7 +1051,7 @@ public class PsRandom{
     // Returns an array, of exponential pseudorandom deviates, of length n
     public double[] exponentialArray (double mu, double sigma, int n){
         double[] ran = new double[n];
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             for(int i=0; i<n; i++){
                 ran[i] = mu - Math.log(1.0D-this.rr.nextDouble())*sigma;
             }
@@ -973,7 +1067,7 @@ public class PsRandom{
    // Returns a Rayleigh pseudorandom deviate
    public double nextRayleigh(double sigma){
         double ran = 0.0D;
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             ran = Math.sqrt(-2.0D*Math.log(1.0D-this.rr.nextDouble()))*sigma;
         }
         else{
@@ -985,7 +1079,7 @@ public class PsRandom{
    // Returns an array, of Rayleigh pseudorandom deviates, of length n
    public double[] rayleighArray (double sigma, int n){
         double[] ran = new double[n];
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             for(int i=0; i<n; i++){
                 ran[i] = Math.sqrt(-2.0D*Math.log(1.0D-this.rr.nextDouble()))*sigma;
             }
@@ -1002,7 +1096,7 @@ public class PsRandom{
     // mu  =  location parameter, sigma = scale parameter
     public double nextMinimalGumbel(double mu, double sigma){
         double ran = 0.0D;
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             ran = Math.log(Math.log(1.0D/(1.0D-this.rr.nextDouble())))*sigma+mu;
         }
         else{
@@ -1015,7 +1109,7 @@ public class PsRandom{
     // mu  =  location parameter, sigma = scale parameter, n = length of array
     public double[] minimalGumbelArray(double mu, double sigma,  int n){
         double[] ran = new double[n];
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             for(int i=0; i<n; i++){
                 ran[i] = Math.log(Math.log(1.0D/(1.0D-this.rr.nextDouble())))*sigma+mu;
             }
@@ -1032,7 +1126,7 @@ public class PsRandom{
     // mu  =  location parameter, sigma = scale parameter
     public double nextMaximalGumbel(double mu, double sigma){
         double ran = 0.0D;
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             ran = mu-Math.log(Math.log(1.0D/(1.0D-this.rr.nextDouble())))*sigma;
         }
         else{
@@ -1045,7 +1139,7 @@ public class PsRandom{
     // mu  =  location parameter, sigma = scale parameter, n = length of array
     public double[] maximalGumbelArray(double mu, double sigma,  int n){
         double[] ran = new double[n];
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             for(int i=0; i<n; i++){
                 ran[i] = mu-Math.log(Math.log(1.0D/(1.0D-this.rr.nextDouble())))*sigma;
             }
@@ -1062,7 +1156,7 @@ public class PsRandom{
     // mu  =  location parameter, sigma = scale parameter, gamma = shape parameter
     public double nextFrechet(double mu, double sigma, double gamma){
         double ran = 0.0D;
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             ran = Math.pow((1.0D/(Math.log(1.0D/this.rr.nextDouble()))),1.0D/gamma)*sigma + mu;
         }
         else{
@@ -1075,7 +1169,7 @@ public class PsRandom{
     // mu  =  location parameter, sigma = scale parameter, gamma = shape parameter, n = length of array
     public double[] frechetArray(double mu, double sigma,  double gamma, int n){
         double[] ran = new double[n];
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             for(int i=0; i<n; i++){
                 ran[i] = Math.pow((1.0D/(Math.log(1.0D/this.rr.nextDouble()))),1.0D/gamma)*sigma + mu;
             }
@@ -1092,7 +1186,7 @@ public class PsRandom{
     // mu  =  location parameter, sigma = scale parameter, gamma = shape parameter
     public double nextWeibull(double mu, double sigma, double gamma){
         double ran = 0.0D;
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             ran = Math.pow(-Math.log(1.0D-this.rr.nextDouble()),1.0D/gamma)*sigma + mu;
         }
         else{
@@ -1105,7 +1199,7 @@ public class PsRandom{
     // mu  =  location parameter, sigma = scale parameter, gamma = shape parameter, n = length of array
     public double[] weibullArray(double mu, double sigma,  double gamma, int n){
         double[] ran = new double[n];
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             for(int i=0; i<n; i++){
                 ran[i] = Math.pow(-Math.log(1.0D-this.rr.nextDouble()),1.0D/gamma)*sigma + mu;
             }
@@ -1123,7 +1217,7 @@ public class PsRandom{
     public double nextLogistic(double mu, double scale){
 
         double ran = 0.0;
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             ran = 2.0D*scale*MathFns.atanh(2.0D*this.rr.nextDouble() - 1.0D) + mu;
         }
         else{
@@ -1137,7 +1231,7 @@ public class PsRandom{
     public double[] logisticArray(double mu, double scale, int n){
         double[] ran = new double[n];
 
-        if(this.methodOptionDecimal==1){
+        if(this.methodOptionDecimal!=2){
             for(int i=0; i<n; i++) ran[i] = 2.0D*scale*MathFns.atanh(2.0D*this.rr.nextDouble() - 1.0D) + mu;
         }
         else{
@@ -1881,6 +1975,49 @@ public class PsRandom{
 }
 
 
+// SplitMix64 behind java.util.Random - method 3 of PsRandom
+// The state moves GOLDEN_GAMMA per draw, so n draws ahead is state + n*GOLDEN_GAMMA;
+// a draw is the state through the Stafford variant 13 finalizer
+class SplitMix extends Random{
+
+    private static final long serialVersionUID = 1L;
+    static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    static final long STREAM_LENGTH = 1L << 40;     // draws per PsRandom.substream
+    private static final double DOUBLE_UNIT = 1.0D/(1L << 53);
+
+    long state;
+
+    SplitMix(long seed){
+        super(seed);
+        this.state = seed;
+    }
+
+    public synchronized void setSeed(long seed){
+        super.setSeed(seed);
+        this.state = seed;
+    }
+
+    private long nextMix(){
+        long z = (this.state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30))*0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27))*0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    protected int next(int bits){
+        return (int)(nextMix() >>> (64 - bits));
+    }
+
+    public long nextLong(){
+        return nextMix();
+    }
+
+    public double nextDouble(){
+        return (nextMix() >>> 11)*DOUBLE_UNIT;
+    }
+}
+
+
 // Class to evaluate the Student's t-function
 /*
 class StudentTfunct implements RealRootFunction{